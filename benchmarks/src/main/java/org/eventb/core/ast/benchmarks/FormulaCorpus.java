@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast.benchmarks;
+
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.GivenType;
+import org.eventb.core.ast.IParseResult;
+import org.eventb.core.ast.ITypeCheckResult;
+import org.eventb.core.ast.ITypeEnvironmentBuilder;
+import org.eventb.core.ast.Predicate;
+import org.eventb.core.ast.datatype.IConstructorBuilder;
+import org.eventb.core.ast.datatype.IDatatype;
+import org.eventb.core.ast.datatype.IDatatypeBuilder;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Generated formulas shared by all benchmarks.
+ * <p>
+ * Every corpus is a single predicate over a carrier set <code>S</code>, an
+ * element <code>x ∈ S</code>, a partial function <code>f ∈ S ⇸ S</code> and
+ * an integer <code>n</code>. The shape parameter selects how the predicate
+ * grows with the size parameter:
+ * <ul>
+ * <li><code>DEEP</code>: nested function applications and arithmetic,</li>
+ * <li><code>WIDE</code>: a flat conjunction of independent conjuncts,</li>
+ * <li><code>QUANTIFIED</code>: nested quantifiers and set comprehensions,</li>
+ * <li><code>DATATYPE</code>: conjuncts using an inductive list datatype.</li>
+ * </ul>
+ * </p>
+ *
+ * @author HHU
+ */
+@State(Scope.Benchmark)
+public class FormulaCorpus {
+
+	public enum Shape {
+		DEEP, WIDE, QUANTIFIED, DATATYPE
+	}
+
+	@Param({ "DEEP", "WIDE", "QUANTIFIED", "DATATYPE" })
+	public Shape shape;
+
+	@Param({ "50" })
+	public int size;
+
+	/** Factory supporting the list datatype. */
+	public FormulaFactory factory;
+
+	/** Type environment of the predicate, including inferred identifiers. */
+	public ITypeEnvironmentBuilder typenv;
+
+	/** String image of the predicate. */
+	public String predicateImage;
+
+	/** String image of an expression wrapping the predicate. */
+	public String expressionImage;
+
+	/** Parsed, but not type-checked, predicate. */
+	public Predicate parsedPredicate;
+
+	/** Type-checked predicate. */
+	public Predicate typedPredicate;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		factory = makeListFactory();
+		predicateImage = generate(shape, size);
+		expressionImage = "bool(" + predicateImage + ")";
+		typenv = makeBaseEnvironment(factory);
+		parsedPredicate = parse(factory, predicateImage);
+		typedPredicate = parse(factory, predicateImage);
+		final ITypeCheckResult tcResult = typedPredicate.typeCheck(typenv);
+		if (!tcResult.isSuccess()) {
+			throw new IllegalStateException("Corpus does not type-check: "
+					+ tcResult.getProblems());
+		}
+		typenv.addAll(tcResult.getInferredEnvironment());
+	}
+
+	/**
+	 * Returns a factory supporting the datatype
+	 * <code>List(T) ::= nil | cons(head: T, tail: List(T))</code>.
+	 */
+	public static FormulaFactory makeListFactory() {
+		final FormulaFactory ff = FormulaFactory.getDefault();
+		final GivenType tyT = ff.makeGivenType("T");
+		final IDatatypeBuilder builder = ff.makeDatatypeBuilder("List", tyT);
+		builder.addConstructor("nil");
+		final IConstructorBuilder cons = builder.addConstructor("cons");
+		cons.addArgument("head", tyT);
+		cons.addArgument("tail", builder.parseType("List(T)").getParsedType());
+		final IDatatype datatype = builder.finalizeDatatype();
+		return datatype.getFactory();
+	}
+
+	public static ITypeEnvironmentBuilder makeBaseEnvironment(
+			FormulaFactory ff) {
+		final ITypeEnvironmentBuilder result = ff.makeTypeEnvironment();
+		final GivenType tyS = ff.makeGivenType("S");
+		result.addGivenSet("S");
+		result.addName("x", tyS);
+		result.addName("f", ff.makeRelationalType(tyS, tyS));
+		result.addName("n", ff.makeIntegerType());
+		return result;
+	}
+
+	public static Predicate parse(FormulaFactory ff, String image) {
+		final IParseResult result = ff.parsePredicate(image, null);
+		if (result.hasProblem()) {
+			throw new IllegalStateException("Corpus does not parse: "
+					+ result.getProblems());
+		}
+		return result.getParsedPredicate();
+	}
+
+	public static String generate(Shape shape, int size) {
+		switch (shape) {
+		case DEEP:
+			return deep(size);
+		case WIDE:
+			return wide(size);
+		case QUANTIFIED:
+			return quantified(size);
+		case DATATYPE:
+			return datatype(size);
+		default:
+			throw new AssertionError("Unknown shape " + shape);
+		}
+	}
+
+	// f(f(...f(x)...)) ∈ dom(f) ∧ (...((n + 1) ∗ 2 + 2) ∗ 3...) ÷ n > 0
+	private static String deep(int size) {
+		final StringBuilder app = new StringBuilder("x");
+		final StringBuilder arith = new StringBuilder("n");
+		for (int i = 1; i <= size; i++) {
+			app.insert(0, "f(").append(")");
+			arith.insert(0, "(").append(i % 2 == 0 ? " ∗ " : " + ").append(i)
+					.append(")");
+		}
+		return app + " ∈ dom(f) ∧ " + arith + " ÷ n > 0";
+	}
+
+	// f(x0) ∈ S ∧ n ÷ (n + 0) ≥ 0 ∧ f(x1) ∈ S ∧ n ÷ (n + 1) ≥ 1 ∧ ...
+	private static String wide(int size) {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			if (i != 0) {
+				sb.append(" ∧ ");
+			}
+			sb.append("f(x").append(i).append(") ∈ S ∧ n ÷ (n + ").append(i)
+					.append(") ≥ ").append(i);
+		}
+		return sb.toString();
+	}
+
+	// ∀y0·y0 ∈ dom(f) ⇒ f(y0) ∈ {z·z ∈ S ∧ z ≠ x ∣ z} ∧ (∃y1·... ∧ ⊤)
+	private static String quantified(int size) {
+		final StringBuilder sb = new StringBuilder();
+		String previous = "x";
+		for (int i = 0; i < size; i++) {
+			final String y = "y" + i;
+			sb.append(i % 2 == 0 ? "(∀" : "(∃").append(y).append("·");
+			sb.append(y).append(" ∈ dom(f)");
+			sb.append(i % 2 == 0 ? " ⇒ " : " ∧ ");
+			sb.append("f(").append(y).append(") ∈ {z·z ∈ S ∧ z ≠ ")
+					.append(previous).append(" ∣ z} ∧ ");
+			previous = y;
+		}
+		sb.append(previous).append(" = x");
+		for (int i = 0; i < size; i++) {
+			sb.append(")");
+		}
+		return sb.toString();
+	}
+
+	// l0 ∈ List(S) ∧ (l0 = nil ∨ head(l0) = f(x)) ∧ cons(x, l0) ≠ nil ∧ ...
+	private static String datatype(int size) {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			final String l = "l" + i;
+			if (i != 0) {
+				sb.append(" ∧ ");
+			}
+			sb.append(l).append(" ∈ List(S) ∧ (").append(l)
+					.append(" = nil ∨ head(").append(l)
+					.append(") = f(x)) ∧ tail(cons(x, ").append(l)
+					.append(")) ≠ nil");
+		}
+		return sb.toString();
+	}
+
+}
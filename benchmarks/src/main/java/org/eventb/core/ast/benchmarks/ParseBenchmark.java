@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.IFormulaParser;
+import org.eventb.core.ast.IParseResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the parser entry points of the formula factory.
+ *
+ * @author HHU
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+	/**
+	 * Many small predicates, as found in a model, with a parser per thread.
+	 */
+	@State(Scope.Thread)
+	public static class Batch {
+
+		@Param({ "1000" })
+		public int count;
+
+		public FormulaFactory factory;
+		public IFormulaParser parser;
+		public List<String> images;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			factory = FormulaCorpus.makeListFactory();
+			parser = factory.makeFormulaParser();
+			images = new ArrayList<String>(count);
+			for (int i = 0; i < count; i++) {
+				images.add("f(x" + i + ") ∈ S ∧ n ÷ (n + " + i + ") ≥ " + i);
+			}
+		}
+	}
+
+	/**
+	 * Nested braces, where each opening brace may start a set extension or a
+	 * set comprehension. Every alternative which fails parses again the
+	 * braces it contains.
+	 */
+	@State(Scope.Benchmark)
+	public static class Nested {
+
+		@Param({ "8", "16", "24" })
+		public int depth;
+
+		public FormulaFactory factory;
+		public String image;
+
+		// {{...{x}...}} = ∅
+		@Setup(Level.Trial)
+		public void setUp() {
+			factory = FormulaFactory.getDefault();
+			final StringBuilder sb = new StringBuilder("x");
+			for (int i = 0; i < depth; i++) {
+				sb.insert(0, "{").append("}");
+			}
+			image = sb.append(" = ∅").toString();
+		}
+	}
+
+	@Benchmark
+	public IParseResult parsePredicate(FormulaCorpus corpus) {
+		return corpus.factory.parsePredicate(corpus.predicateImage, null);
+	}
+
+	@Benchmark
+	public IParseResult parseExpression(FormulaCorpus corpus) {
+		return corpus.factory.parseExpression(corpus.expressionImage, null);
+	}
+
+	@Benchmark
+	public IParseResult parseNestedBraces(Nested nested) {
+		return nested.factory.parsePredicate(nested.image, null);
+	}
+
+	@Benchmark
+	public List<IParseResult> parseBatchWithFactory(Batch batch) {
+		final List<IParseResult> results = new ArrayList<IParseResult>(
+				batch.count);
+		for (String image : batch.images) {
+			results.add(batch.factory.parsePredicate(image, null));
+		}
+		return results;
+	}
+
+	@Benchmark
+	public List<IParseResult> parseBatchWithParser(Batch batch) {
+		return batch.parser.parsePredicates(batch.images, null);
+	}
+
+}
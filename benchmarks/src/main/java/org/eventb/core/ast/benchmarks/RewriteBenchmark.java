@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.GivenType;
+import org.eventb.core.ast.IDatatypeTranslation;
+import org.eventb.core.ast.IExtensionTranslation;
+import org.eventb.core.ast.ISpecialization;
+import org.eventb.core.ast.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the rewriting operations on type-checked formulas:
+ * specialization, datatype translation and extension translation.
+ * <p>
+ * A fresh specialization or translation is built at each invocation, as it
+ * is done by clients which instantiate a theory or translate a proof
+ * obligation.
+ * </p>
+ *
+ * @author HHU
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RewriteBenchmark {
+
+	@Benchmark
+	public Predicate specialize(FormulaCorpus corpus) {
+		final FormulaFactory ff = corpus.factory;
+		final ISpecialization spec = ff.makeSpecialization();
+		final GivenType tyS = ff.makeGivenType("S");
+		spec.put(tyS, ff.makePowerSetType(ff.makeIntegerType()));
+		return corpus.typedPredicate.specialize(spec);
+	}
+
+	@Benchmark
+	public Predicate translateDatatype(FormulaCorpus corpus) {
+		final IDatatypeTranslation translation = corpus.typenv
+				.makeDatatypeTranslation();
+		return corpus.typedPredicate.translateDatatype(translation);
+	}
+
+	@Benchmark
+	public Predicate translateExtensions(FormulaCorpus corpus) {
+		final IExtensionTranslation translation = corpus.typenv
+				.makeExtensionTranslation();
+		return corpus.typedPredicate.translateExtensions(translation);
+	}
+
+}
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eventb.core.ast.ITypeCheckResult;
+import org.eventb.core.ast.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the operations that ProB applies to every formula once parsed:
+ * type-checking, well-definedness, printing and flattening.
+ * <p>
+ * Type-checking is run against the base type environment only, so that the
+ * types of all other identifiers have to be inferred at each invocation.
+ * </p>
+ * <p>
+ * As the formula factory caches the WD predicates of the formulas in use,
+ * <code>wdPredicate</code> measures a cache lookup, whereas
+ * <code>wdPredicateUncached</code> measures the computation of the WD
+ * predicate of a fresh copy of the corpus predicate.
+ * </p>
+ *
+ * @author HHU
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypedFormulaBenchmark {
+
+	/**
+	 * Fresh copy of the type-checked predicate of the corpus, made before each
+	 * invocation, so that its WD predicate is not cached yet.
+	 */
+	@State(Scope.Thread)
+	public static class Fresh {
+
+		public Predicate predicate;
+
+		@Setup(Level.Invocation)
+		public void setUp(FormulaCorpus corpus) {
+			predicate = FormulaCorpus.parse(corpus.factory,
+					corpus.predicateImage);
+			predicate.typeCheck(corpus.typenv);
+		}
+	}
+
+	@Benchmark
+	public ITypeCheckResult typeCheck(FormulaCorpus corpus) {
+		return corpus.parsedPredicate.typeCheck(FormulaCorpus
+				.makeBaseEnvironment(corpus.factory));
+	}
+
+	@Benchmark
+	public Predicate wdPredicate(FormulaCorpus corpus) {
+		return corpus.typedPredicate.getWDPredicate();
+	}
+
+	@Benchmark
+	public Predicate wdPredicateUncached(Fresh fresh) {
+		return fresh.predicate.getWDPredicate();
+	}
+
+	@Benchmark
+	public String toStringPlain(FormulaCorpus corpus) {
+		return corpus.typedPredicate.toString();
+	}
+
+	@Benchmark
+	public String toStringWithTypes(FormulaCorpus corpus) {
+		return corpus.typedPredicate.toStringWithTypes();
+	}
+
+	@Benchmark
+	public String toStringFullyParenthesized(FormulaCorpus corpus) {
+		return corpus.typedPredicate.toStringFullyParenthesized();
+	}
+
+	@Benchmark
+	public Predicate flatten(FormulaCorpus corpus) {
+		return corpus.typedPredicate.flatten();
+	}
+
+}
@@ -15,6 +15,8 @@
  *     Systerel - externalized wd lemmas generation
  *     Systerel - added child indexes
  *     Systerel - store factory used to build a formula
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -469,6 +471,13 @@ public class AssociativeExpression extends Expression {
 
 	@Override
 	protected Expression rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Expression memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final boolean flatten = rewriter.autoFlatteningMode();
 		final ArrayList<Expression> newChildren = new ArrayList<Expression>(
 				children.length + 11);
@@ -491,7 +500,7 @@ public class AssociativeExpression extends Expression {
 			before = rewriter.getFactory().makeAssociativeExpression(getTag(),
 					newChildren, getSourceLocation());
 		}
-		return rewriter.rewrite(this, before);
+		return rewriter.memoize(this, rewriter.rewrite(this, before));
 	}
 
 	@Override
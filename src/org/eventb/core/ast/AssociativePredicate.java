@@ -13,6 +13,8 @@
  *     Systerel - externalized wd lemmas generation
  *     Systerel - added child indexes
  *     Systerel - store factory used to build a formula
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -290,6 +292,13 @@ public class AssociativePredicate extends Predicate {
 
 	@Override
 	protected Predicate rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Predicate memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final boolean flatten = rewriter.autoFlatteningMode();
 		final ArrayList<Predicate> newChildren = new ArrayList<Predicate>(
 				children.length + 11);
@@ -312,7 +321,7 @@ public class AssociativePredicate extends Predicate {
 			before = rewriter.getFactory().makeAssociativePredicate(getTag(),
 					newChildren, getSourceLocation());
 		}
-		return rewriter.rewrite(this, before);
+		return rewriter.memoize(this, rewriter.rewrite(this, before));
 	}
 
 	@Override
@@ -14,6 +14,8 @@
  *     Systerel - externalized wd lemmas generation
  *     Systerel - added child indexes
  *     Systerel - store factory used to build a formula
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -772,6 +774,13 @@ public class BinaryExpression extends Expression {
 
 	@Override
 	protected Expression rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Expression memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final Expression newLeft = left.rewrite(rewriter);
 		final Expression newRight = right.rewrite(rewriter);
 		final BinaryExpression before;
@@ -781,7 +790,7 @@ public class BinaryExpression extends Expression {
 			before = rewriter.getFactory().makeBinaryExpression(getTag(),
 					newLeft, newRight, getSourceLocation());
 		}
-		return rewriter.rewrite(this, before);
+		return rewriter.memoize(this, rewriter.rewrite(this, before));
 	}
 
 	@Override
@@ -13,6 +13,8 @@
  *     Systerel - externalized wd lemmas generation
  *     Systerel - added child indexes
  *     Systerel - store factory used to build a formula
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -281,6 +283,13 @@ public class BinaryPredicate extends Predicate {
 
 	@Override
 	protected Predicate rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Predicate memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final Predicate newLeft = left.rewrite(rewriter);
 		final Predicate newRight = right.rewrite(rewriter);
 		final BinaryPredicate before;
@@ -290,7 +299,7 @@ public class BinaryPredicate extends Predicate {
 			before = rewriter.getFactory().makeBinaryPredicate(getTag(),
 					newLeft, newRight, getSourceLocation());
 		}
-		return rewriter.rewrite(this, before);
+		return rewriter.memoize(this, rewriter.rewrite(this, before));
 	}
 
 	@Override
@@ -13,6 +13,8 @@
  *     Systerel - externalized wd lemmas generation
  *     Systerel - added child indexes
  *     Systerel - store factory used to build a formula
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -231,6 +233,13 @@ public class BoolExpression extends Expression {
 
 	@Override
 	protected Expression rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Expression memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final Predicate newChild = child.rewrite(rewriter);
 		final BoolExpression before;
 		if (newChild == child) {
@@ -239,7 +248,7 @@ public class BoolExpression extends Expression {
 			before = rewriter.getFactory().makeBoolExpression(newChild,
 					getSourceLocation());
 		}
-		return rewriter.rewrite(this, before);
+		return rewriter.memoize(this, rewriter.rewrite(this, before));
 	}
 
 	@Override
@@ -14,12 +14,14 @@
  *     Systerel - added child indexes
  *     Systerel - add given sets to free identifier cache
  *     Systerel - store factory used to build a formula
+ *     HHU - added interning factories
  *******************************************************************************/
 package org.eventb.core.ast;
 
 import static org.eventb.core.ast.QuantifiedHelper.sameType;
 import static org.eventb.internal.core.ast.FormulaChecks.ensureValidIdentifierName;
 import static org.eventb.internal.core.ast.GivenTypeHelper.getGivenTypeIdentifiers;
+import static org.eventb.internal.core.parser.BMathV1.B_MATH_V1;
 import static org.eventb.internal.core.parser.SubParsers.BOUND_IDENT_DECL_SUBPARSER;
 
 import java.util.LinkedHashSet;
@@ -86,7 +88,7 @@ public class BoundIdentDecl extends Formula<BoundIdentDecl> {
 	// Also take care about V1 language.
 	private static void ensureValidName(String name, FormulaFactory ff) {
 		final FormulaFactory checkFactory;
-		if (ff == FormulaFactory.getV1Default()) {
+		if (ff.getGrammar() == B_MATH_V1) {
 			checkFactory = ff;
 		} else {
 			checkFactory = FormulaFactory.getDefault();
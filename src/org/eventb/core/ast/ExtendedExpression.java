@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -390,6 +392,13 @@ public class ExtendedExpression extends Expression implements IExtendedFormula {
 	
 	@Override
 	protected Expression rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Expression memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final boolean flatten = rewriter.autoFlatteningMode()
 				&& extension.getKind().getProperties().isAssociative();
 		final ArrayList<Expression> newChildExpressions = new ArrayList<Expression>(
@@ -424,7 +433,8 @@ public class ExtendedExpression extends Expression implements IExtendedFormula {
 			newChildPreds = newChildPredicates
 					.toArray(new Predicate[newChildPredicates.size()]);
 		}
-		return rewriter.rewrite(this, changed, newChildExprs, newChildPreds);
+		return rewriter.memoize(this,
+				rewriter.rewrite(this, changed, newChildExprs, newChildPreds));
 	}
 
 	@Override
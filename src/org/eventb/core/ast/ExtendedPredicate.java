@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -325,6 +327,13 @@ public class ExtendedPredicate extends Predicate implements IExtendedFormula {
 
 	@Override
 	protected Predicate rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Predicate memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final boolean flatten = rewriter.autoFlatteningMode()
 				&& extension.getKind().getProperties().isAssociative();
 		final ArrayList<Expression> newChildExpressions = new ArrayList<Expression>(
@@ -359,7 +368,8 @@ public class ExtendedPredicate extends Predicate implements IExtendedFormula {
 			newChildPreds = newChildPredicates
 					.toArray(new Predicate[newChildPredicates.size()]);
 		}
-		return rewriter.rewrite(this, changed, newChildExprs, newChildPreds);
+		return rewriter.memoize(this,
+				rewriter.rewrite(this, changed, newChildExprs, newChildPreds));
 	}
 
 	@Override
@@ -18,10 +18,19 @@
  *     Systerel - add given sets to free identifier cache
  *     Systerel - store factory used to build a formula
  *     Systerel - added support for factory translation
+ *     HHU - added streaming print
+ *     HHU - added summary of tags for pruning traversals
+ *     HHU - cached WD predicates
+ *     HHU - added parallel computation of WD predicates
+ *     HHU - cached given sets occurring as identifiers
+ *     HHU - reuse the rewriting of shared sub-formulas
+ *     HHU - translate type-checked formulas to their shared instances
  *******************************************************************************/
 package org.eventb.core.ast;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -29,10 +38,15 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
+import org.eventb.core.ast.ToStringMediator.ChunkedOutput;
+import org.eventb.core.ast.ToStringMediator.OutputException;
 import org.eventb.internal.core.ast.AbstractTranslation;
 import org.eventb.internal.core.ast.BindingSubstitution;
 import org.eventb.internal.core.ast.BoundIdentifierShifter;
+import org.eventb.internal.core.ast.DefaultTypeCheckingRewriter;
 import org.eventb.internal.core.ast.FilteringInspector;
 import org.eventb.internal.core.ast.FindingAccumulator;
 import org.eventb.internal.core.ast.FormulaTranslatabilityChecker;
@@ -43,11 +57,15 @@ import org.eventb.internal.core.ast.IntStack;
 import org.eventb.internal.core.ast.LegibilityResult;
 import org.eventb.internal.core.ast.Position;
 import org.eventb.internal.core.ast.SameTypeRewriter;
+import org.eventb.internal.core.ast.SharingTranslator;
 import org.eventb.internal.core.ast.SimpleSubstitution;
 import org.eventb.internal.core.ast.Specialization;
 import org.eventb.internal.core.ast.Substitution;
+import org.eventb.internal.core.ast.TagSummary;
 import org.eventb.internal.core.ast.extension.IToStringMediator;
 import org.eventb.internal.core.ast.extension.KindMediator;
+import org.eventb.internal.core.ast.wd.FormulaBuilder;
+import org.eventb.internal.core.ast.wd.WDCache;
 import org.eventb.internal.core.ast.wd.WDComputer;
 import org.eventb.internal.core.ast.wd.WDImprover;
 import org.eventb.internal.core.typecheck.TypeCheckResult;
@@ -90,6 +108,24 @@ public abstract class Formula<T extends Formula<T>> {
 	// not necessarily the Formula constructor).
 	private PredicateVariable[] predVars;
 
+	// Summary of the tags occurring in this formula (see TagSummary).
+	// This is a quasi-final field, it is set together with the cache of
+	// predicate variables.
+	private long tagSummary;
+
+	// Whether this formula has some children. This is a quasi-final field, it
+	// is set together with the cache of predicate variables.
+	private boolean interior;
+
+	// Whether this formula has been given as child to some formula. Racy
+	// updates are harmless, as this is only a hint for rewriting.
+	private boolean adopted;
+
+	// Whether some interior node occurs at several places in this formula, or
+	// in this formula and another formula. This is a quasi-final field, it is
+	// set together with the cache of predicate variables.
+	private boolean sharing;
+
 	// Sorted array of free identifiers occurring in this formula.
 	// This is a quasi-final field, it must only be set in a constructor (but
 	// not necessarily the Formula constructor).
@@ -100,6 +136,10 @@ public abstract class Formula<T extends Formula<T>> {
 	// not necessarily the Formula constructor).
 	protected BoundIdentifier[] boundIdents;
 	
+	// Sorted names of the given sets occurring as identifiers in this formula,
+	// computed on demand and kept once this formula is type-checked.
+	private volatile String[] givenSetOccurrences;
+
 	// True iff this formula has been type-checked. When true, any type
 	// information associated to this formula is frozen. When false, type
 	// information is either inexistant (pure syntactical formula) or transitory
@@ -890,6 +930,23 @@ public abstract class Formula<T extends Formula<T>> {
 	 */
 	public static final int FIRST_EXTENSION_TAG = 1000;
 
+	/**
+	 * Printing option telling to add as many parentheses as possible.
+	 * 
+	 * @see #print(Appendable, int)
+	 * @since 3.7
+	 */
+	public static final int PRINT_FULLY_PARENTHESIZED = 0x1;
+
+	/**
+	 * Printing option telling to add type information to generic atomic
+	 * expressions.
+	 * 
+	 * @see #print(Appendable, int)
+	 * @since 3.7
+	 */
+	public static final int PRINT_WITH_TYPES = 0x2;
+
 	protected final static BoundIdentDecl[] NO_BOUND_IDENT_DECL =
 		new BoundIdentDecl[0];
 	
@@ -1060,6 +1117,8 @@ public abstract class Formula<T extends Formula<T>> {
 	 * @since 1.2
 	 */
 	protected void setPredicateVariableCache(Formula<?>... children) {
+		setTagSummary(children);
+		setSharing(children);
 		if (children.length == 0) {
 			predVars = NO_PRED_VAR;
 			return;
@@ -1086,6 +1145,45 @@ public abstract class Formula<T extends Formula<T>> {
 		predVars = result.toArray(new PredicateVariable[result.size()]);
 	}
 
+	// Merges the tag summaries of the children with the tag of this formula.
+	// Quantified formulas do not pass their bound identifier declarations.
+	private void setTagSummary(Formula<?>[] children) {
+		if (this instanceof Assignment) {
+			// Assignments are never pruned
+			tagSummary = TagSummary.ALL;
+			return;
+		}
+		long summary = TagSummary.bitOf(tag);
+		if (this instanceof QuantifiedExpression
+				|| this instanceof QuantifiedPredicate) {
+			summary |= TagSummary.bitOf(BOUND_IDENT_DECL);
+		}
+		for (final Formula<?> child : children) {
+			summary |= child.tagSummary;
+		}
+		tagSummary = summary;
+	}
+
+	// Adopts the children and records whether some of them, or some of their
+	// sub-formulas, were already adopted by another formula.
+	private void setSharing(Formula<?>[] children) {
+		boolean result = false;
+		for (final Formula<?> child : children) {
+			if (child == this) {
+				// Predicate variables pass themselves
+				continue;
+			}
+			result |= child.sharing;
+			if (!child.adopted) {
+				child.adopted = true;
+			} else if (child.interior) {
+				result = true;
+			}
+			interior = true;
+		}
+		sharing = result;
+	}
+
 	/**
 	 * Ensures that the formula factory of the given type is the same as the
 	 * formula factory of this formula. Throws an
@@ -1191,6 +1289,113 @@ public abstract class Formula<T extends Formula<T>> {
 		return tag;
 	}
 
+	/**
+	 * Returns the summary of the tags occurring in this formula.
+	 * <p>
+	 * This method is not part of the published API of the AST library and
+	 * shall not be called by clients.
+	 * </p>
+	 * 
+	 * @return the summary of the tags of this formula and its sub-formulas
+	 * @since 3.7
+	 */
+	public final long getTagSummary() {
+		return tagSummary;
+	}
+
+	/*
+	 * Returns the sorted names of the given sets that occur as identifiers in
+	 * this formula, unlike those that only occur in its types. The cache of
+	 * free identifiers does not make the difference. The result is computed
+	 * from the results of the children, and kept once this formula is
+	 * type-checked, so that each node is considered only once.
+	 */
+	final String[] getGivenSetOccurrences() {
+		String[] result = givenSetOccurrences;
+		if (result == null) {
+			result = computeGivenSetOccurrences();
+			if (typeChecked) {
+				givenSetOccurrences = result;
+			}
+		}
+		return result;
+	}
+
+	private String[] computeGivenSetOccurrences() {
+		if (this instanceof FreeIdentifier) {
+			final FreeIdentifier ident = (FreeIdentifier) this;
+			if (ident.isATypeExpression()) {
+				return new String[] { ident.getName() };
+			}
+			return NO_STRING;
+		}
+		if (!hasGivenSetIdentifier()) {
+			return NO_STRING;
+		}
+		if (this instanceof Assignment) {
+			// Assignments do not give access to their children
+			final LinkedHashSet<FreeIdentifier> idents = new LinkedHashSet<FreeIdentifier>();
+			collectFreeIdentifiers(idents);
+			String[] result = NO_STRING;
+			for (FreeIdentifier ident : idents) {
+				result = mergeNames(result, ident.getGivenSetOccurrences());
+			}
+			return result;
+		}
+		String[] result = NO_STRING;
+		final int count = getChildCount();
+		for (int i = 0; i < count; i++) {
+			result = mergeNames(result, getChild(i).getGivenSetOccurrences());
+		}
+		return result;
+	}
+
+	// Tells whether the cache of free identifiers contains a given set
+	private boolean hasGivenSetIdentifier() {
+		for (FreeIdentifier ident : freeIdents) {
+			if (ident.isATypeExpression()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Merges two sorted arrays of names, sharing them when possible
+	private static String[] mergeNames(String[] left, String[] right) {
+		if (right.length == 0 || left == right) {
+			return left;
+		}
+		if (left.length == 0) {
+			return right;
+		}
+		final String[] result = new String[left.length + right.length];
+		int i = 0, j = 0, k = 0;
+		while (i < left.length && j < right.length) {
+			final int cmp = left[i].compareTo(right[j]);
+			if (cmp < 0) {
+				result[k++] = left[i++];
+			} else if (cmp > 0) {
+				result[k++] = right[j++];
+			} else {
+				result[k++] = left[i++];
+				j++;
+			}
+		}
+		while (i < left.length) {
+			result[k++] = left[i++];
+		}
+		while (j < right.length) {
+			result[k++] = right[j++];
+		}
+		if (k == left.length) {
+			return left;
+		}
+		if (k == right.length) {
+			return right;
+		}
+		return Arrays.copyOf(result, k);
+	}
+
 	/**
 	 * Returns the source location of this AST node.
 	 * <p>
@@ -1219,9 +1424,7 @@ public abstract class Formula<T extends Formula<T>> {
 	 */
 	public final String toStringFullyParenthesized() {
 		final StringBuilder builder = new StringBuilder();
-		final ToStringFullParenMediator strMed = new ToStringFullParenMediator(
-				this, builder, NO_STRING, false);
-		strMed.forward(this);
+		makeToStringMediator(builder, PRINT_FULLY_PARENTHESIZED).forward(this);
 		return builder.toString();
 	}
 
@@ -1241,9 +1444,7 @@ public abstract class Formula<T extends Formula<T>> {
 	@Override
 	public final String toString() {
 		final StringBuilder builder = new StringBuilder();
-		final ToStringMediator strMed = new ToStringMediator(this, builder,
-				NO_STRING, false, false);
-		strMed.forward(this);
+		makeToStringMediator(builder, 0).forward(this);
 		return builder.toString();
 	}
 
@@ -1261,11 +1462,54 @@ public abstract class Formula<T extends Formula<T>> {
 	 */
 	public final String toStringWithTypes() {
 		final StringBuilder builder = new StringBuilder();
-		final ToStringMediator strMed = new ToStringMediator(this, builder,
-				NO_STRING, true, false);
-		strMed.forward(this);
+		makeToStringMediator(builder, PRINT_WITH_TYPES).forward(this);
 		return builder.toString();
 	}
+
+	/**
+	 * Prints this formula to the given output. The output receives the
+	 * formula piecewise, as it is printed, without building its string
+	 * representation in memory. Clients printing to a stream should thus
+	 * provide a buffered one.
+	 * <p>
+	 * The printing options are a combination of
+	 * {@link #PRINT_FULLY_PARENTHESIZED} and {@link #PRINT_WITH_TYPES}. Without
+	 * any option, the printed text is that returned by {@link #toString()}.
+	 * </p>
+	 * 
+	 * @param out
+	 *            the output to print to
+	 * @param options
+	 *            a combination of printing options, or <code>0</code>
+	 * @throws IOException
+	 *             if the output throws it
+	 * @see #toString()
+	 * @see #toStringWithTypes()
+	 * @see #toStringFullyParenthesized()
+	 * @since 3.7
+	 */
+	public final void print(Appendable out, int options) throws IOException {
+		if (out instanceof StringBuilder) {
+			makeToStringMediator(out, options).forward(this);
+			return;
+		}
+		final ChunkedOutput chunked = new ChunkedOutput(out);
+		try {
+			makeToStringMediator(chunked, options).forward(this);
+		} catch (OutputException e) {
+			throw e.getCause();
+		}
+		chunked.flush();
+	}
+
+	private ToStringMediator makeToStringMediator(Appendable out, int options) {
+		final boolean withTypes = (options & PRINT_WITH_TYPES) != 0;
+		if ((options & PRINT_FULLY_PARENTHESIZED) != 0) {
+			return new ToStringFullParenMediator(this, out, NO_STRING,
+					withTypes, false);
+		}
+		return new ToStringMediator(this, out, NO_STRING, withTypes, false);
+	}
 	
 	/**
 	 * @since 2.0
@@ -1762,7 +2006,7 @@ public abstract class Formula<T extends Formula<T>> {
 		}
 		
 		Substitution subst = new BindingSubstitution(identsToBind, fac);
-		return rewrite(subst);
+		return rewriteShared(subst);
 	}
 
 	// Needed by the restricted genericity of Java 5
@@ -1862,6 +2106,11 @@ public abstract class Formula<T extends Formula<T>> {
 	 * allows to test efficiently (using <code>==</code>) whether rewriting
 	 * made any change.
 	 * </p>
+	 * <p>
+	 * If the rewriter also implements {@link ITagSelective}, the sub-formulas
+	 * which do not contain any of its tags of interest are left unchanged
+	 * without being traversed.
+	 * </p>
 	 * </p>
 	 * This operation is not supported for assignments and bound identifier
 	 * declarations. The returned formula is type-checked if this formula is
@@ -1899,6 +2148,23 @@ public abstract class Formula<T extends Formula<T>> {
 	 * @return the rewritten formula
 	 */
 	protected abstract T rewrite(ITypeCheckingRewriter rewriter);
+
+	/*
+	 * Rewrites this formula with a rewriter whose rewriting of a node only
+	 * depends on that node and on the binding depth. If this formula shares
+	 * sub-formulas, they are rewritten only once.
+	 */
+	private T rewriteShared(DefaultTypeCheckingRewriter rewriter) {
+		if (!sharing) {
+			return rewrite(rewriter);
+		}
+		rewriter.startMemo();
+		try {
+			return rewrite(rewriter);
+		} finally {
+			rewriter.stopMemo();
+		}
+	}
 	
 	/**
 	 * Substitutes all occurrences of some free identifiers by their
@@ -1923,7 +2189,7 @@ public abstract class Formula<T extends Formula<T>> {
 	 */
 	public T substituteFreeIdents(Map<FreeIdentifier, Expression> map) {
 		SimpleSubstitution subst = new SimpleSubstitution(map, fac);
-		return rewrite(subst);
+		return rewriteShared(subst);
 	}
 	
 	/**
@@ -1997,7 +2263,8 @@ public abstract class Formula<T extends Formula<T>> {
 	 * </p>
 	 * <p>
 	 * This formula must be type-checked before <code>getWDPredicate()</code>
-	 * can be invoked.
+	 * can be invoked. The result is cached by the formula factory, as long as
+	 * this formula is in use.
 	 * </p>
 	 * 
 	 * @return the well-definedness predicate for this formula.
@@ -2005,9 +2272,59 @@ public abstract class Formula<T extends Formula<T>> {
 	 */
 	public final Predicate getWDPredicate() {
 		ensureTypeChecked();
-		final WDComputer wdComputer = new WDComputer(fac);
+		final WDCache cache = fac.getWDCache();
+		Predicate result = cache.get(this);
+		if (result == null) {
+			result = computeWDPredicate(false);
+			cache.put(this, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the well-definedness predicate of this formula, computed in
+	 * parallel by the given pool.
+	 * <p>
+	 * This method returns the same predicate as {@link #getWDPredicate()}, but
+	 * the children of wide formulas, such as large conjunctions, are processed
+	 * concurrently by the threads of the given pool. The resulting predicate
+	 * does not depend on the scheduling of these threads. This is only worth
+	 * it for very large formulas, the cost of splitting the computation
+	 * exceeding its benefits for usual ones.
+	 * </p>
+	 * <p>
+	 * This formula must be type-checked before this method can be invoked.
+	 * </p>
+	 * 
+	 * @param pool
+	 *            the fork/join pool to run the computation
+	 * @return the well-definedness predicate for this formula
+	 * @see #getWDPredicate()
+	 * @since 3.7
+	 */
+	public final Predicate getWDPredicate(ForkJoinPool pool) {
+		ensureTypeChecked();
+		final WDCache cache = fac.getWDCache();
+		Predicate result = cache.get(this);
+		if (result == null) {
+			result = pool.invoke(new RecursiveTask<Predicate>() {
+				private static final long serialVersionUID = 4611925302640164532L;
+
+				@Override
+				protected Predicate compute() {
+					return computeWDPredicate(true);
+				}
+			});
+			cache.put(this, result);
+		}
+		return result;
+	}
+
+	private Predicate computeWDPredicate(boolean parallel) {
+		final FormulaBuilder fb = new FormulaBuilder(fac);
+		final WDComputer wdComputer = new WDComputer(fb, parallel);
 		final Predicate wdLemma = wdComputer.getWDLemma(this);
-		final WDImprover wdImprover = new WDImprover(fac);
+		final WDImprover wdImprover = new WDImprover(fb, parallel);
 		return wdImprover.improve(wdLemma);
 	}
 
@@ -2096,7 +2413,7 @@ public abstract class Formula<T extends Formula<T>> {
 			return getTypedThis();
 		}
 		final Substitution subst = new BoundIdentifierShifter(offset, fac);
-		return rewrite(subst);
+		return rewriteShared(subst);
 	}
 	
 	/**
@@ -2217,7 +2534,9 @@ public abstract class Formula<T extends Formula<T>> {
 	 * <p>
 	 * The positions are computed by calling the filter on each node of the
 	 * formula tree, traversed in pre-order. Consequently, the returned list is
-	 * always sorted lexicographically.
+	 * always sorted lexicographically. If the filter also implements
+	 * {@link ITagSelective}, it is not called on the sub-formulas which do not
+	 * contain any of its tags of interest.
 	 * </p>
 	 * <p>
 	 * This method is not applicable to assignments.
@@ -2242,6 +2561,10 @@ public abstract class Formula<T extends Formula<T>> {
 	 * sub-formulas.
 	 * </p>
 	 * <p>
+	 * If the inspector also implements {@link ITagSelective}, the sub-formulas
+	 * which do not contain any of its tags of interest are skipped as well.
+	 * </p>
+	 * <p>
 	 * This method is not applicable to assignments.
 	 * </p>
 	 * 
@@ -2407,7 +2730,7 @@ public abstract class Formula<T extends Formula<T>> {
 		ensureTypeChecked();
 		final Specialization spec = (Specialization) specialization;
 		spec.prepare(this);
-		return rewrite(spec.getFormulaRewriter());
+		return rewriteShared(spec.getFormulaRewriter());
 	}
 
 	/**
@@ -2498,6 +2821,13 @@ public abstract class Formula<T extends Formula<T>> {
 	 * this formula is returned, rather than a copy of it.
 	 * </p>
 	 * <p>
+	 * If the given factory shares formulas and this formula is type-checked,
+	 * the unique instance of this formula in the given factory is returned. Its
+	 * nodes carry no source location. This holds even if this formula was
+	 * built by the given factory, e.g., when it has been parsed and then
+	 * type-checked.
+	 * </p>
+	 * <p>
 	 * The translation of this formula will fail if the preconditions tested by
 	 * {@link #isTranslatable(FormulaFactory)} are not fulfilled.
 	 * </p>
@@ -2516,7 +2846,10 @@ public abstract class Formula<T extends Formula<T>> {
 	 * @since 3.0
 	 */
 	public T translate(FormulaFactory factory) {
-		return rewrite(new FormulaTranslator(factory));
+		if (factory.isInterning() && isTypeChecked()) {
+			return rewriteShared(new SharingTranslator(factory));
+		}
+		return rewriteShared(new FormulaTranslator(factory));
 	}
 
 }
@@ -13,6 +13,13 @@
  *     Systerel - added support for mathematical extensions
  *     Systerel - added support for specialization
  *     Systerel - store factory used to build a formula or type
+ *     HHU - added formula parsers for parsing many formulas
+ *     HHU - unique instances of solved types
+ *     HHU - added interning factories
+ *     HHU - lock-free weak cache of instances
+ *     HHU - added binary encoding of formulas
+ *     HHU - added archives of formulas
+ *     HHU - added cache and batch computation of WD predicates
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -28,17 +35,21 @@ import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.PRED_
 import static org.eventb.internal.core.parser.BMathV1.B_MATH_V1;
 import static org.eventb.internal.core.parser.BMathV2.B_MATH_V2;
 
+import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.eventb.core.ast.QuantifiedExpression.Form;
 import org.eventb.core.ast.datatype.IDatatype;
@@ -51,16 +62,28 @@ import org.eventb.core.ast.extension.IOperatorGroup;
 import org.eventb.core.ast.extension.IOperatorProperties;
 import org.eventb.core.ast.extension.IPredicateExtension;
 import org.eventb.core.ast.extension.IPredicateExtension2;
+import org.eventb.internal.core.ast.FormulaArchiveReader;
+import org.eventb.internal.core.ast.FormulaArchiveWriter;
+import org.eventb.internal.core.ast.FormulaDecoder;
+import org.eventb.internal.core.ast.FormulaEncoder;
+import org.eventb.internal.core.ast.FormulaInterner;
 import org.eventb.internal.core.ast.Position;
 import org.eventb.internal.core.ast.Specialization;
+import org.eventb.internal.core.ast.WeakInterner;
 import org.eventb.internal.core.ast.datatype.DatatypeBuilder;
 import org.eventb.internal.core.ast.extension.Cond;
+import org.eventb.internal.core.ast.extension.FactoryCache;
 import org.eventb.internal.core.ast.extension.ExtnUnicityChecker;
+import org.eventb.internal.core.ast.wd.FormulaBuilder;
+import org.eventb.internal.core.ast.wd.WDCache;
+import org.eventb.internal.core.ast.wd.WDComputer;
+import org.eventb.internal.core.ast.wd.WDImprover;
 import org.eventb.internal.core.lexer.GenLexer;
 import org.eventb.internal.core.lexer.Scanner;
 import org.eventb.internal.core.parser.AbstractGrammar;
 import org.eventb.internal.core.parser.BMath;
 import org.eventb.internal.core.parser.ExtendedGrammar;
+import org.eventb.internal.core.parser.FormulaParser;
 import org.eventb.internal.core.parser.GenParser;
 import org.eventb.internal.core.parser.ParseResult;
 import org.eventb.internal.core.typecheck.TypeEnvironmentBuilder;
@@ -91,10 +114,13 @@ public class FormulaFactory {
 
 	private static final Expression[] NO_EXPRESSIONS = new Expression[0];
 
+	// Tags of extensions, weakly referenced. Tags are never reused, even after
+	// the extension has been garbage collected.
 	private static final Map<IFormulaExtension, Integer> ALL_EXTENSIONS = Collections
-			.synchronizedMap(new HashMap<IFormulaExtension, Integer>());
+			.synchronizedMap(new WeakHashMap<IFormulaExtension, Integer>());
 
-	private static final Map<Set<IFormulaExtension>, FormulaFactory> INSTANCE_CACHE = new HashMap<Set<IFormulaExtension>, FormulaFactory>();
+	// Instances are created while holding the lock on ALL_EXTENSIONS
+	private static final FactoryCache INSTANCE_CACHE = new FactoryCache();
 	
 	private static final ExtnUnicityChecker EXTN_UNICITY_CHECKER = new ExtnUnicityChecker(B_MATH_V2);
 
@@ -110,6 +136,22 @@ public class FormulaFactory {
 	private final Map<Integer, IFormulaExtension> extensions;
 	
 	private final BMath grammar;
+
+	// Unique instances of solved types built by this factory
+	private final WeakInterner<Type> types = new WeakInterner<Type>();
+
+	private final BooleanType booleanType = new BooleanType(this);
+
+	private final IntegerType integerType = new IntegerType(this);
+
+	// Unique instances of formulas, only for interning factories
+	private final FormulaInterner formulas;
+
+	// Interning factory with the same extensions, lazily created
+	private FormulaFactory interningFactory;
+
+	// WD predicates of the formulas built by this factory
+	private final WDCache wdCache = new WDCache();
 	
 	/**
 	 * Returns the default instance of the formula factory which corresponds to
@@ -152,6 +194,10 @@ public class FormulaFactory {
 	 * @see IExpressionExtension#isATypeConstructor()
 	 */
 	public static FormulaFactory getInstance(Set<IFormulaExtension> extensions) {
+		final FormulaFactory found = INSTANCE_CACHE.get(extensions);
+		if (found != null) {
+			return found;
+		}
 		final Set<IFormulaExtension> actualExtns;
 		actualExtns = new LinkedHashSet<IFormulaExtension>(extensions);
 
@@ -301,7 +347,59 @@ public class FormulaFactory {
 		final Set<IFormulaExtension> newExtns = new LinkedHashSet<IFormulaExtension>(
 				extensions.values());
 		newExtns.addAll(addedExtns);
-		return getInstance(newExtns);
+		final FormulaFactory result = getInstance(newExtns);
+		if (isInterning()) {
+			return result.withInterning();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a formula factory supporting the same language as this factory,
+	 * and which shares the formulas it builds.
+	 * <p>
+	 * The formulas built by the returned factory which are type-checked at
+	 * construction and do not carry a source location are unique: two such
+	 * formulas are the same object if and only if they are equal, declare the
+	 * same bound identifier names and use the same forms of quantified
+	 * expressions. The latter two conditions matter because equality of
+	 * formulas ignores them; they ensure that shared formulas are printed as
+	 * they were built. Each unique instance is kept as long as it is
+	 * referenced. Other formulas, such as formulas built without types or
+	 * parsed from a string, are built as usual. Once type-checked, they can be
+	 * replaced by their unique instances, without source locations, with
+	 * {@link Formula#translate(FormulaFactory)}.
+	 * </p>
+	 * <p>
+	 * The returned factory is distinct from this factory (unless this factory
+	 * already shares formulas), hence formulas and types built with one of
+	 * them cannot be combined with those built with the other. Formulas can be
+	 * moved from one factory to the other with
+	 * {@link Formula#translate(FormulaFactory)}.
+	 * </p>
+	 * 
+	 * @return a factory sharing formulas, with the same extensions as this
+	 *         factory
+	 * @see #isInterning()
+	 * @since 3.7
+	 */
+	public synchronized FormulaFactory withInterning() {
+		if (interningFactory == null) {
+			interningFactory = new FormulaFactory(this);
+		}
+		return interningFactory;
+	}
+
+	/**
+	 * Tells whether this factory shares the formulas it builds.
+	 * 
+	 * @return <code>true</code> iff this factory returns unique instances of
+	 *         type-checked formulas
+	 * @see #withInterning()
+	 * @since 3.7
+	 */
+	public boolean isInterning() {
+		return formulas != null;
 	}
 
 	/**
@@ -398,6 +496,7 @@ public class FormulaFactory {
 	private FormulaFactory(BMath grammar) {
 		this.extensions = emptyMap();
 		this.grammar = grammar;
+		this.formulas = null;
 	}
 	
 	// for all V2 instances
@@ -406,6 +505,34 @@ public class FormulaFactory {
 		this.grammar = new ExtendedGrammar(
 				new LinkedHashSet<IFormulaExtension>(extMap.values()));
 		this.grammar.init();
+		this.formulas = null;
+	}
+
+	// for interning instances, sharing the language of the given factory
+	private FormulaFactory(FormulaFactory base) {
+		this.extensions = base.extensions;
+		this.grammar = base.grammar;
+		this.formulas = new FormulaInterner();
+		this.interningFactory = this;
+	}
+
+	private boolean isV1() {
+		return grammar == B_MATH_V1;
+	}
+
+	/*
+	 * Returns the unique instance of the given formula, if this factory shares
+	 * formulas. Only type-checked formulas without source location are shared,
+	 * because type-check and locations are stored in the formula nodes. Other
+	 * formulas are shared once translated by a SharingTranslator.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends Formula<?>> T intern(T formula) {
+		if (formulas == null || !formula.isTypeChecked()
+				|| formula.getSourceLocation() != null) {
+			return formula;
+		}
+		return (T) formulas.intern(formula);
 	}
 
 	/**
@@ -477,8 +604,8 @@ public class FormulaFactory {
 			IExpressionExtension extension, Expression[] expressions,
 			Predicate[] predicates, SourceLocation location, Type type) {
 		final int tag = getCheckedExtensionTag(extension);
-		return new ExtendedExpression(tag, expressions.clone(),
-				predicates.clone(), location, this, extension, type);
+		return intern(new ExtendedExpression(tag, expressions.clone(),
+				predicates.clone(), location, this, extension, type));
 	}
 
 	/**
@@ -541,8 +668,8 @@ public class FormulaFactory {
 			IExpressionExtension extension, Collection<Expression> expressions,
 			Collection<Predicate> predicates, SourceLocation location, Type type) {
 		final int tag = getCheckedExtensionTag(extension);
-		return new ExtendedExpression(tag, toExprArray(expressions),
-				toPredArray(predicates), location, this, extension, type);
+		return intern(new ExtendedExpression(tag, toExprArray(expressions),
+				toPredArray(predicates), location, this, extension, type));
 	}
 
 	/**
@@ -600,8 +727,8 @@ public class FormulaFactory {
 			IPredicateExtension extension, Expression[] expressions,
 			Predicate[] predicates, SourceLocation location) {
 		final int tag = getCheckedExtensionTag(extension);
-		return new ExtendedPredicate(tag, expressions.clone(),
-				predicates.clone(), location, this, extension);
+		return intern(new ExtendedPredicate(tag, expressions.clone(),
+				predicates.clone(), location, this, extension));
 	}
 
 	/**
@@ -630,8 +757,8 @@ public class FormulaFactory {
 			IPredicateExtension2 extension, Expression[] expressions,
 			Predicate[] predicates, SourceLocation location) {
 		final int tag = getCheckedExtensionTag(extension);
-		return new ExtendedPredicate(tag, expressions.clone(),
-				predicates.clone(), location, this, extension);
+		return intern(new ExtendedPredicate(tag, expressions.clone(),
+				predicates.clone(), location, this, extension));
 	}
 
 	/**
@@ -660,8 +787,8 @@ public class FormulaFactory {
 			IPredicateExtension extension, Collection<Expression> expressions,
 			Collection<Predicate> predicates, SourceLocation location) {
 		final int tag = getCheckedExtensionTag(extension);
-		return new ExtendedPredicate(tag, toExprArray(expressions),
-				toPredArray(predicates), location, this, extension);
+		return intern(new ExtendedPredicate(tag, toExprArray(expressions),
+				toPredArray(predicates), location, this, extension));
 	}
 
 	/**
@@ -690,8 +817,8 @@ public class FormulaFactory {
 			IPredicateExtension2 extension, Collection<Expression> expressions,
 			Collection<Predicate> predicates, SourceLocation location) {
 		final int tag = getCheckedExtensionTag(extension);
-		return new ExtendedPredicate(tag, toExprArray(expressions),
-				toPredArray(predicates), location, this, extension);
+		return intern(new ExtendedPredicate(tag, toExprArray(expressions),
+				toPredArray(predicates), location, this, extension));
 	}
 
 	/**
@@ -804,7 +931,7 @@ public class FormulaFactory {
 	 */
 	public AssociativeExpression makeAssociativeExpression(
 			int tag, Expression[] children, SourceLocation location) {
-		return new AssociativeExpression(children.clone(), tag, location, this);
+		return intern(new AssociativeExpression(children.clone(), tag, location, this));
 	}
 
 	/**
@@ -835,7 +962,7 @@ public class FormulaFactory {
 	 */
 	public AssociativeExpression makeAssociativeExpression(
 			int tag, Collection<Expression> children, SourceLocation location) {
-		return new AssociativeExpression(toExprArray(children), tag, location, this);
+		return intern(new AssociativeExpression(toExprArray(children), tag, location, this));
 	}
 	
 	/**
@@ -861,8 +988,8 @@ public class FormulaFactory {
 	 */
 	public AssociativePredicate makeAssociativePredicate(
 			int tag, Collection<Predicate> predicates, SourceLocation location) {
-		return new AssociativePredicate(toPredArray(predicates), tag, location,
-				this);
+		return intern(new AssociativePredicate(toPredArray(predicates), tag, location,
+				this));
 	}
 
 	/**
@@ -888,7 +1015,7 @@ public class FormulaFactory {
 	 */
 	public AssociativePredicate makeAssociativePredicate(
 			int tag, Predicate[] predicates, SourceLocation location) {
-		return new AssociativePredicate(predicates.clone(), tag, location, this);
+		return intern(new AssociativePredicate(predicates.clone(), tag, location, this));
 	}
 
 	/**
@@ -921,10 +1048,10 @@ public class FormulaFactory {
 	 */
 	public AtomicExpression makeAtomicExpression(int tag,
 			SourceLocation location) {
-		if (this == V1_INSTANCE && isV2Specific(tag)) {
+		if (isV1() && isV2Specific(tag)) {
 			throw new IllegalArgumentException("Unsupported tag in V1: " + tag);
 		}
-		return new AtomicExpression(tag, location, null, this);
+		return intern(new AtomicExpression(tag, location, null, this));
 	}
 
 	/**
@@ -976,10 +1103,10 @@ public class FormulaFactory {
 	 */
 	public AtomicExpression makeAtomicExpression(int tag,
 			SourceLocation location, Type type) {
-		if (this == V1_INSTANCE && isV2Specific(tag)) {
+		if (isV1() && isV2Specific(tag)) {
 			throw new IllegalArgumentException("Unsupported tag in V1: " + tag);
 		}
-		return new AtomicExpression(tag, location, type, this);
+		return intern(new AtomicExpression(tag, location, type, this));
 	}
 
 	/**
@@ -998,7 +1125,7 @@ public class FormulaFactory {
 	 *             if the given type has been built with a different factory
 	 */
 	public AtomicExpression makeEmptySet(Type type, SourceLocation location) {
-		return new AtomicExpression(Formula.EMPTYSET, location, type, this);
+		return intern(new AtomicExpression(Formula.EMPTYSET, location, type, this));
 	}
 
 	/**
@@ -1017,8 +1144,8 @@ public class FormulaFactory {
 	 */
 	public BecomesEqualTo makeBecomesEqualTo(FreeIdentifier ident,
 			Expression value, SourceLocation location) {
-		return new BecomesEqualTo(new FreeIdentifier[] { ident },
-				new Expression[] { value }, location, this);
+		return intern(new BecomesEqualTo(new FreeIdentifier[] { ident },
+				new Expression[] { value }, location, this));
 	}
 
 	/**
@@ -1040,8 +1167,8 @@ public class FormulaFactory {
 	 */
 	public BecomesEqualTo makeBecomesEqualTo(FreeIdentifier[] idents,
 			Expression[] values, SourceLocation location) {
-		return new BecomesEqualTo(idents.clone(), values.clone(), location,
-				this);
+		return intern(new BecomesEqualTo(idents.clone(), values.clone(), location,
+				this));
 	}
 
 	/**
@@ -1063,8 +1190,8 @@ public class FormulaFactory {
 	 */
 	public BecomesEqualTo makeBecomesEqualTo(Collection<FreeIdentifier> idents,
 			Collection<Expression> values, SourceLocation location) {
-		return new BecomesEqualTo(toIdentArray(idents), toExprArray(values),
-				location, this);
+		return intern(new BecomesEqualTo(toIdentArray(idents), toExprArray(values),
+				location, this));
 	}
 
 	/**
@@ -1082,7 +1209,7 @@ public class FormulaFactory {
 	 */
 	public BecomesMemberOf makeBecomesMemberOf(FreeIdentifier ident,
 			Expression setExpr, SourceLocation location) {
-		return new BecomesMemberOf(ident, setExpr, location, this);
+		return intern(new BecomesMemberOf(ident, setExpr, location, this));
 	}
 
 	/**
@@ -1105,8 +1232,8 @@ public class FormulaFactory {
 	public BecomesSuchThat makeBecomesSuchThat(FreeIdentifier ident,
 			BoundIdentDecl primedIdent, Predicate condition,
 			SourceLocation location) {
-		return new BecomesSuchThat(new FreeIdentifier[] { ident },
-				new BoundIdentDecl[] { primedIdent }, condition, location, this);
+		return intern(new BecomesSuchThat(new FreeIdentifier[] { ident },
+				new BoundIdentDecl[] { primedIdent }, condition, location, this));
 	}
 
 	/**
@@ -1134,8 +1261,8 @@ public class FormulaFactory {
 	public BecomesSuchThat makeBecomesSuchThat(FreeIdentifier[] idents,
 			BoundIdentDecl[] primedIdents, Predicate condition,
 			SourceLocation location) {
-		return new BecomesSuchThat(idents.clone(), primedIdents.clone(),
-				condition, location, this);
+		return intern(new BecomesSuchThat(idents.clone(), primedIdents.clone(),
+				condition, location, this));
 	}
 
 	/**
@@ -1163,8 +1290,8 @@ public class FormulaFactory {
 	public BecomesSuchThat makeBecomesSuchThat(Collection<FreeIdentifier> idents,
 			Collection<BoundIdentDecl> primedIdents, Predicate condition,
 			SourceLocation location) {
-		return new BecomesSuchThat(toIdentArray(idents),
-				toBIDArray(primedIdents), condition, location, this);
+		return intern(new BecomesSuchThat(toIdentArray(idents),
+				toBIDArray(primedIdents), condition, location, this));
 	}
 
 	/**
@@ -1215,7 +1342,7 @@ public class FormulaFactory {
 	 */
 	public BinaryExpression makeBinaryExpression(int tag,
 			Expression left, Expression right, SourceLocation location) {
-		return new BinaryExpression(left, right, tag, location, this);
+		return intern(new BinaryExpression(left, right, tag, location, this));
 	}
 
 	/**
@@ -1241,7 +1368,7 @@ public class FormulaFactory {
 	 */
 	public BinaryPredicate makeBinaryPredicate(int tag,
 			Predicate left, Predicate right, SourceLocation location) {
-		return new BinaryPredicate(left, right, tag, location, this);
+		return intern(new BinaryPredicate(left, right, tag, location, this));
 	}
 
 	/**
@@ -1256,7 +1383,7 @@ public class FormulaFactory {
 	 *             if the given child has been built with a different factory
 	 */
 	public BoolExpression makeBoolExpression(Predicate child, SourceLocation location) {
-		return new BoolExpression(child, location, this);
+		return intern(new BoolExpression(child, location, this));
 	}
 
 	/**
@@ -1284,7 +1411,7 @@ public class FormulaFactory {
 	 */
 	public BoundIdentDecl makeBoundIdentDecl(String name,
 			SourceLocation location) {
-		return new BoundIdentDecl(name, location, null, this);
+		return intern(new BoundIdentDecl(name, location, null, this));
 	}
 
 	/**
@@ -1316,7 +1443,7 @@ public class FormulaFactory {
 	 */
 	public BoundIdentDecl makeBoundIdentDecl(String name,
 			SourceLocation location, Type type) {
-		return new BoundIdentDecl(name, location, type, this);
+		return intern(new BoundIdentDecl(name, location, type, this));
 	}
 
 	/**
@@ -1335,7 +1462,7 @@ public class FormulaFactory {
 	 */
 	public BoundIdentifier makeBoundIdentifier(int index,
 			SourceLocation location) {
-		return new BoundIdentifier(index, location, null, this);
+		return intern(new BoundIdentifier(index, location, null, this));
 	}
 
 	/**
@@ -1358,7 +1485,7 @@ public class FormulaFactory {
 	 */
 	public BoundIdentifier makeBoundIdentifier(int index,
 			SourceLocation location, Type type) {
-		return new BoundIdentifier(index, location, type, this);
+		return intern(new BoundIdentifier(index, location, type, this));
 	}
 
 	/**
@@ -1378,7 +1505,7 @@ public class FormulaFactory {
 	 */
 	public FreeIdentifier makeFreeIdentifier(String name,
 			SourceLocation location) {
-		return new FreeIdentifier(name, location, null, this);
+		return intern(new FreeIdentifier(name, location, null, this));
 	}
 	
 	/**
@@ -1410,7 +1537,7 @@ public class FormulaFactory {
 	 */
 	public FreeIdentifier makeFreeIdentifier(String name,
 			SourceLocation location, Type type) {
-		return new FreeIdentifier(name, location, type, this);
+		return intern(new FreeIdentifier(name, location, type, this));
 	}
 
 	/**
@@ -1424,7 +1551,7 @@ public class FormulaFactory {
 	 */
 	public IntegerLiteral makeIntegerLiteral(BigInteger literal,
 			SourceLocation location) {
-		return new IntegerLiteral(literal, location, this);
+		return intern(new IntegerLiteral(literal, location, this));
 	}
 
 	/**
@@ -1444,7 +1571,7 @@ public class FormulaFactory {
 	 */
 	public LiteralPredicate makeLiteralPredicate(int tag,
 			SourceLocation location) {
-		return new LiteralPredicate(tag, location, this);
+		return intern(new LiteralPredicate(tag, location, this));
 	}
 
 	/**
@@ -1475,7 +1602,7 @@ public class FormulaFactory {
 	 */
 	public PredicateVariable makePredicateVariable(String name,
 			SourceLocation location) {
-		return new PredicateVariable(name, location, this);
+		return intern(new PredicateVariable(name, location, this));
 	}
 	
 	/**
@@ -1522,8 +1649,8 @@ public class FormulaFactory {
 	public QuantifiedExpression makeQuantifiedExpression(int tag,
 			BoundIdentDecl[] boundIdentifiers, Predicate pred, Expression expr,
 			SourceLocation location, Form form) {
-		return new QuantifiedExpression(expr, pred, boundIdentifiers.clone(),
-				tag, location, form, this);
+		return intern(new QuantifiedExpression(expr, pred,
+				boundIdentifiers.clone(), tag, location, form, this));
 	}
 
 	/**
@@ -1569,8 +1696,8 @@ public class FormulaFactory {
 	public QuantifiedExpression makeQuantifiedExpression(int tag,
 			Collection<BoundIdentDecl> boundIdentifiers, Predicate pred, Expression expr,
 			SourceLocation location, Form form) {
-		return new QuantifiedExpression(expr, pred,
-				toBIDArray(boundIdentifiers), tag, location, form, this);
+		return intern(new QuantifiedExpression(expr, pred,
+				toBIDArray(boundIdentifiers), tag, location, form, this));
 	}
 
 	/**
@@ -1599,8 +1726,8 @@ public class FormulaFactory {
 	public QuantifiedPredicate makeQuantifiedPredicate(int tag,
 			BoundIdentDecl[] boundIdentifiers, Predicate pred,
 			SourceLocation location) {
-		return new QuantifiedPredicate(pred, boundIdentifiers.clone(), tag,
-				location, this);
+		return intern(new QuantifiedPredicate(pred, boundIdentifiers.clone(),
+				tag, location, this));
 	}
 
 	/**
@@ -1629,8 +1756,8 @@ public class FormulaFactory {
 	public QuantifiedPredicate makeQuantifiedPredicate(int tag,
 			Collection<BoundIdentDecl> boundIdentifiers, Predicate pred,
 			SourceLocation location) {
-		return new QuantifiedPredicate(pred, toBIDArray(boundIdentifiers), tag,
-				location, this);
+		return intern(new QuantifiedPredicate(pred,
+				toBIDArray(boundIdentifiers), tag, location, this));
 	}
 	
 	/**
@@ -1666,7 +1793,7 @@ public class FormulaFactory {
 	 */
 	public RelationalPredicate makeRelationalPredicate(int tag,
 			Expression left, Expression right, SourceLocation location) {
-		return new RelationalPredicate(left, right, tag, location, this);
+		return intern(new RelationalPredicate(left, right, tag, location, this));
 	}
 
 	/**
@@ -1682,8 +1809,8 @@ public class FormulaFactory {
 	 */
 	public SetExtension makeSetExtension(Expression expression,
 			SourceLocation location) {
-		return new SetExtension(new Expression[] { expression }, location,
-				this, null);
+		return intern(new SetExtension(new Expression[] { expression }, location,
+				this, null));
 	}
 
 	/**
@@ -1699,7 +1826,7 @@ public class FormulaFactory {
 	 */
 	public SetExtension makeSetExtension(Expression[] members,
 			SourceLocation location) {
-		return new SetExtension(members.clone(), location, this, null);
+		return intern(new SetExtension(members.clone(), location, this, null));
 	}
 
 	/**
@@ -1722,7 +1849,7 @@ public class FormulaFactory {
 	 * @since 2.6
 	 */
 	public SetExtension makeEmptySetExtension(Type type, SourceLocation location) {
-		return new SetExtension(NO_EXPRESSIONS, location, this, type);
+		return intern(new SetExtension(NO_EXPRESSIONS, location, this, type));
 	}
 
 	/**
@@ -1738,7 +1865,7 @@ public class FormulaFactory {
 	 */
 	public SetExtension makeSetExtension(Collection<Expression> members,
 			SourceLocation location) {
-		return new SetExtension(toExprArray(members), location, this, null);
+		return intern(new SetExtension(toExprArray(members), location, this, null));
 	}
 
 	/**
@@ -1761,7 +1888,7 @@ public class FormulaFactory {
 	 */
 	public SimplePredicate makeSimplePredicate(int tag, Expression child,
 			SourceLocation location) {
-		return new SimplePredicate(child, tag, location, this);
+		return intern(new SimplePredicate(child, tag, location, this));
 	}
 
 	/**
@@ -1813,10 +1940,10 @@ public class FormulaFactory {
 	@SuppressWarnings("javadoc")
 	public UnaryExpression makeUnaryExpression(int tag, Expression child,
 			SourceLocation location) {
-		if (this != V1_INSTANCE && isV1Specific(tag)) {
+		if (!isV1() && isV1Specific(tag)) {
 			throw new IllegalArgumentException("Unsupported V1 tag: " + tag);
 		}
-		return new UnaryExpression(child, tag, location, this);
+		return intern(new UnaryExpression(child, tag, location, this));
 	}
 
 	/**
@@ -1839,7 +1966,7 @@ public class FormulaFactory {
 	 */
 	public UnaryPredicate makeUnaryPredicate(int tag, Predicate child,
 			SourceLocation location) {
-		return new UnaryPredicate(child, tag, location, this);
+		return intern(new UnaryPredicate(child, tag, location, this));
 	}
 	
 	/**
@@ -1868,10 +1995,10 @@ public class FormulaFactory {
 	 */
 	public MultiplePredicate makeMultiplePredicate(int tag,
 			Expression[] children, SourceLocation location) {
-		if (this == V1_INSTANCE) {
+		if (isV1()) {
 			throw new IllegalArgumentException("Unsupported in V1");
 		}
-		return new MultiplePredicate(children.clone(), tag, location, this);
+		return intern(new MultiplePredicate(children.clone(), tag, location, this));
 	}
 
 	/**
@@ -1900,10 +2027,10 @@ public class FormulaFactory {
 	 */
 	public MultiplePredicate makeMultiplePredicate(int tag,
 			Collection<Expression> children, SourceLocation location) {
-		if (this == V1_INSTANCE) {
+		if (isV1()) {
 			throw new IllegalArgumentException("Unsupported in V1");
 		}
-		return new MultiplePredicate(toExprArray(children), tag, location, this);
+		return intern(new MultiplePredicate(toExprArray(children), tag, location, this));
 	}
 
 	/**
@@ -1994,6 +2121,162 @@ public class FormulaFactory {
 		return parseGeneric(formula, null, Type.class, false);
 	}
 
+	/**
+	 * Returns a new parser for parsing many formulas in a row with this
+	 * factory. The returned parser is not thread-safe.
+	 * 
+	 * @return a fresh formula parser
+	 * @see IFormulaParser
+	 * @since 3.7
+	 */
+	public IFormulaParser makeFormulaParser() {
+		return new FormulaParser(this);
+	}
+
+	/**
+	 * Returns a compact binary encoding of the given formula. The encoding
+	 * contains the types of the formula, if any, so that it can be decoded
+	 * without parsing nor type-checking. Mathematical extensions are
+	 * designated by their id.
+	 *
+	 * @param formula
+	 *            the formula to encode
+	 * @param withLocations
+	 *            whether the source locations of the formula shall be encoded
+	 * @return the encoding of the formula
+	 * @see #decodeFormula(byte[])
+	 * @since 3.7
+	 */
+	public byte[] encodeFormula(Formula<?> formula, boolean withLocations) {
+		return new FormulaEncoder(withLocations).encode(formula);
+	}
+
+	/**
+	 * Returns the formula encoded in the given bytes, built with this factory.
+	 * The decoded formula is equal to the encoded one, and is type-checked iff
+	 * the encoded one was.
+	 *
+	 * @param bytes
+	 *            an encoding returned by
+	 *            {@link #encodeFormula(Formula, boolean)}
+	 * @return the decoded formula
+	 * @throws IllegalArgumentException
+	 *             if the given bytes are not a valid encoding, or use an
+	 *             extension which is not supported by this factory
+	 * @since 3.7
+	 */
+	public Formula<?> decodeFormula(byte[] bytes) {
+		return new FormulaDecoder(this).decode(ByteBuffer.wrap(bytes));
+	}
+
+	/**
+	 * Returns a new writer of an archive of predicates type-checked in the
+	 * given type environment. The archive file is created, or truncated if it
+	 * already exists.
+	 *
+	 * @param path
+	 *            the path of the archive file
+	 * @param typenv
+	 *            the type environment of the predicates of the archive
+	 * @return a writer of the archive
+	 * @throws IllegalArgumentException
+	 *             if the type environment was built with a different factory
+	 * @throws IOException
+	 *             if the archive file could not be created
+	 * @see IFormulaArchiveWriter
+	 * @since 3.7
+	 */
+	public IFormulaArchiveWriter makeFormulaArchiveWriter(Path path,
+			ISealedTypeEnvironment typenv) throws IOException {
+		ensureSameFactory(typenv);
+		return new FormulaArchiveWriter(path, typenv);
+	}
+
+	/**
+	 * Opens an archive of predicates, which will be decoded with this factory.
+	 * The type environment of the archive must be included in the given type
+	 * environment.
+	 *
+	 * @param path
+	 *            the path of an archive file
+	 * @param typenv
+	 *            the type environment of the predicates of the archive
+	 * @return a reader of the archive
+	 * @throws IllegalArgumentException
+	 *             if the type environment was built with a different factory,
+	 *             or does not include the type environment of the archive
+	 * @throws IOException
+	 *             if the file could not be mapped or is not a valid archive
+	 * @see IFormulaArchiveReader
+	 * @since 3.7
+	 */
+	public IFormulaArchiveReader openFormulaArchive(Path path,
+			ISealedTypeEnvironment typenv) throws IOException {
+		ensureSameFactory(typenv);
+		return new FormulaArchiveReader(path, typenv);
+	}
+
+	/**
+	 * Returns the well-definedness predicates of the given predicates, taken as
+	 * a sequence of hypotheses or goals.
+	 * <p>
+	 * The WD predicates are computed as by {@link Formula#getWDPredicate()},
+	 * except that each of them is simplified assuming that the WD predicates
+	 * of the predicates before it in the list hold. Hence, the result is sound
+	 * only if the returned predicates are discharged in order, as is the case
+	 * for the hypotheses of a sequent. The common WD conditions of several
+	 * predicates are thus produced only once.
+	 * </p>
+	 * <p>
+	 * The given predicates must be type-checked and built by this factory.
+	 * </p>
+	 * 
+	 * @param predicates
+	 *            a list of type-checked predicates built by this factory
+	 * @return the list of the WD predicates of the given predicates, in the
+	 *         same order
+	 * @throws IllegalArgumentException
+	 *             if some predicate is not type-checked, or has been built
+	 *             with a different factory
+	 * @see Formula#getWDPredicate()
+	 * @since 3.7
+	 */
+	public List<Predicate> getWDPredicates(List<? extends Predicate> predicates) {
+		for (final Predicate predicate : predicates) {
+			if (predicate.getFactory() != this) {
+				throw new IllegalArgumentException("The predicate " + predicate
+						+ " has been built with a different factory");
+			}
+			if (!predicate.isTypeChecked()) {
+				throw new IllegalArgumentException("The predicate " + predicate
+						+ " is not type-checked");
+			}
+		}
+		final FormulaBuilder fb = new FormulaBuilder(this);
+		final List<Predicate> wdLemmas = new ArrayList<Predicate>(
+				predicates.size());
+		for (final Predicate predicate : predicates) {
+			final WDComputer wdComputer = new WDComputer(fb);
+			wdLemmas.add(wdComputer.getWDLemma(predicate));
+		}
+		return new WDImprover(fb).improve(wdLemmas);
+	}
+
+	/*
+	 * Returns the cache of the WD predicates of the formulas built by this
+	 * factory.
+	 */
+	WDCache getWDCache() {
+		return wdCache;
+	}
+
+	private void ensureSameFactory(ITypeEnvironment typenv) {
+		if (typenv.getFormulaFactory() != this) {
+			throw new IllegalArgumentException("The type environment "
+					+ typenv + " has been built with a different factory");
+		}
+	}
+
 	private final <T> IParseResult parseGeneric(String formula, Object origin, Class<T> clazz,
 			boolean withPredVars) {
 		final ParseResult result = new ParseResult(this, origin);
@@ -2009,7 +2292,20 @@ public class FormulaFactory {
 	 * @return the predefined boolean type
 	 */
 	public BooleanType makeBooleanType() {
-		return new BooleanType(this);
+		return booleanType;
+	}
+
+	/*
+	 * Returns the unique instance of the given type, if it does not contain any
+	 * type variable. Type variables are local to a type-check, hence types
+	 * that contain them are not shared.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T extends Type> T intern(T type) {
+		if (!type.isSolved()) {
+			return type;
+		}
+		return (T) types.intern(type);
 	}
 
 	/**
@@ -2020,7 +2316,7 @@ public class FormulaFactory {
 	 * @param typePrms
 	 *            the parameters of the parametric type
 	 * 
-	 * @return a new parametric type
+	 * @return the parametric type
 	 * @throws IllegalArgumentException
 	 *             if the given extension is not supported by this factory or is
 	 *             not a type constructor
@@ -2037,7 +2333,8 @@ public class FormulaFactory {
 	public ParametricType makeParametricType(
 			IExpressionExtension typeConstructor, List<Type> typePrms) {
 		getCheckedExtensionTag(typeConstructor);
-		return new ParametricType(this, typeConstructor, toTypeArray(typePrms));
+		return intern(new ParametricType(this, typeConstructor,
+				toTypeArray(typePrms)));
 	}
 
 	/**
@@ -2048,7 +2345,7 @@ public class FormulaFactory {
 	 * @param typePrms
 	 *            the parameters of the parametric type
 	 * 
-	 * @return a new parametric type
+	 * @return the parametric type
 	 * @throws IllegalArgumentException
 	 *             if the given extension is not supported by this factory or is
 	 *             not a type constructor
@@ -2065,7 +2362,8 @@ public class FormulaFactory {
 	public ParametricType makeParametricType(
 			IExpressionExtension typeConstructor, Type... typePrms) {
 		getCheckedExtensionTag(typeConstructor);
-		return new ParametricType(this, typeConstructor, typePrms.clone());
+		return intern(new ParametricType(this, typeConstructor,
+				typePrms.clone()));
 	}
 
 	/**
@@ -2080,7 +2378,7 @@ public class FormulaFactory {
 	 * @see #isValidIdentifierName(String)
 	 */
 	public GivenType makeGivenType(String name) {
-		return new GivenType(this, name);
+		return intern(new GivenType(this, name));
 	}
 
 	/**
@@ -2114,7 +2412,7 @@ public class FormulaFactory {
 	 * @return the predefined integer type
 	 */
 	public IntegerType makeIntegerType() {
-		return new IntegerType(this);
+		return integerType;
 	}
 
 	/**
@@ -2145,7 +2443,7 @@ public class FormulaFactory {
 	 *             factory
 	 */
 	public PowerSetType makePowerSetType(Type base) {
-		return new PowerSetType(this, base);
+		return intern(new PowerSetType(this, base));
 	}
 
 	/**
@@ -2162,7 +2460,7 @@ public class FormulaFactory {
 	 *             formula factory
 	 */
 	public ProductType makeProductType(Type left, Type right) {
-		return new ProductType(this, left, right);
+		return intern(new ProductType(this, left, right));
 	}
 
 	/**
@@ -2256,7 +2554,7 @@ public class FormulaFactory {
 	}
 
 	private void ensuresFactoryV2() {
-		if (this == V1_INSTANCE) {
+		if (isV1()) {
 			throw new IllegalArgumentException(
 					"The current factory with version V1 cannot be used to upgrade assignment from V1 to V2");
 		}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast;
+
+import java.io.Closeable;
+
+/**
+ * Common protocol for reading an archive of predicates written by an
+ * {@link IFormulaArchiveWriter}.
+ * <p>
+ * The archive file is mapped into memory rather than read, and predicates are
+ * decoded one at a time, when they are asked for. Hence, opening an archive
+ * costs the same whatever its size, and only the predicates actually used
+ * occupy the heap. The most recently decoded predicates are cached.
+ * </p>
+ * <p>
+ * All the predicates of an archive are type-checked, and their free
+ * identifiers belong to the type environment of the reader.
+ * </p>
+ * <p>
+ * Instances of this interface are obtained from a formula factory and are
+ * thread-safe.
+ * </p>
+ *
+ * @author HHU
+ * @see FormulaFactory#openFormulaArchive(java.nio.file.Path,
+ *      ISealedTypeEnvironment)
+ *
+ * @noextend This interface is not intended to be extended by clients.
+ * @noimplement This interface is not intended to be implemented by clients.
+ * @since 3.7
+ */
+public interface IFormulaArchiveReader extends Closeable {
+
+	/**
+	 * Returns the formula factory with which predicates are decoded.
+	 *
+	 * @return the formula factory of this reader
+	 */
+	FormulaFactory getFactory();
+
+	/**
+	 * Returns the type environment of the predicates of this archive.
+	 *
+	 * @return the type environment of this reader
+	 */
+	ISealedTypeEnvironment getTypeEnvironment();
+
+	/**
+	 * Returns the number of predicates in this archive.
+	 *
+	 * @return the number of predicates
+	 */
+	int size();
+
+	/**
+	 * Returns the predicate with the given index, decoding it if it is not
+	 * cached.
+	 *
+	 * @param index
+	 *            the index of a predicate, between 0 and {@link #size()}
+	 *            excluded
+	 * @return the type-checked predicate with the given index
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is out of range
+	 * @throws IllegalArgumentException
+	 *             if the predicate is not correctly encoded in the archive
+	 * @throws IllegalStateException
+	 *             if this reader has been closed
+	 */
+	Predicate getPredicate(int index);
+
+	/**
+	 * Closes this reader. The memory mapping of the archive file is released
+	 * as soon as it is garbage collected.
+	 */
+	@Override
+	void close();
+
+}
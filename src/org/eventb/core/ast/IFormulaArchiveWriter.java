@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Common protocol for writing an archive of predicates, to be read by an
+ * {@link IFormulaArchiveReader}.
+ * <p>
+ * Predicates are encoded and written to the archive file as they are
+ * appended, so that only their positions in the file are kept in memory. The
+ * archive is complete once the writer has been closed.
+ * </p>
+ * <p>
+ * All appended predicates must be type-checked, and their free identifiers
+ * must belong to the type environment of the writer.
+ * </p>
+ * <p>
+ * Instances of this interface are obtained from a formula factory and are
+ * <b>not</b> thread-safe.
+ * </p>
+ *
+ * @author HHU
+ * @see FormulaFactory#makeFormulaArchiveWriter(java.nio.file.Path,
+ *      ISealedTypeEnvironment)
+ *
+ * @noextend This interface is not intended to be extended by clients.
+ * @noimplement This interface is not intended to be implemented by clients.
+ * @since 3.7
+ */
+public interface IFormulaArchiveWriter extends Closeable {
+
+	/**
+	 * Appends the given predicate to the archive.
+	 *
+	 * @param predicate
+	 *            a type-checked predicate
+	 * @return the index of the predicate in the archive
+	 * @throws IllegalArgumentException
+	 *             if the predicate is not type-checked, or has a free
+	 *             identifier which is not in the type environment of this
+	 *             writer
+	 * @throws IllegalStateException
+	 *             if this writer has been closed
+	 * @throws IOException
+	 *             if the predicate could not be written
+	 */
+	int append(Predicate predicate) throws IOException;
+
+	/**
+	 * Completes the archive and closes its file. Closing a closed writer has
+	 * no effect.
+	 *
+	 * @throws IOException
+	 *             if the archive could not be completed
+	 */
+	@Override
+	void close() throws IOException;
+
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast;
+
+import java.util.List;
+
+/**
+ * Common protocol for parsers that parse many formulas in a row.
+ * <p>
+ * A formula parser offers the same parsing methods as a formula factory, but
+ * reuses its internal state (lexer, token buffer and parser context) from one
+ * formula to the next. It is thus well suited for parsing a large number of
+ * small formulas, such as all the predicates of a model. Every parse produces
+ * a new and independent parse result.
+ * </p>
+ * <p>
+ * Instances of this interface are obtained from a formula factory and are
+ * <b>not</b> thread-safe: they must be used by one thread at a time. Clients
+ * parsing in several threads should create one parser per thread.
+ * </p>
+ * 
+ * @author HHU
+ * @see FormulaFactory#makeFormulaParser()
+ * 
+ * @noextend This interface is not intended to be extended by clients.
+ * @noimplement This interface is not intended to be implemented by clients.
+ * @since 3.7
+ */
+public interface IFormulaParser {
+
+	/**
+	 * Returns the formula factory with which this parser was created.
+	 * 
+	 * @return the formula factory of this parser
+	 */
+	FormulaFactory getFactory();
+
+	/**
+	 * Parses the specified assignment and returns the corresponding result.
+	 * 
+	 * @param formula
+	 *            the formula to be parsed
+	 * @param origin
+	 *            the origin to be traced to the built AST
+	 * @return the result of the parse
+	 * @see FormulaFactory#parseAssignment(String, Object)
+	 */
+	IParseResult parseAssignment(String formula, Object origin);
+
+	/**
+	 * Parses the specified expression and returns the corresponding result.
+	 * This method does not allow predicate variables.
+	 * 
+	 * @param formula
+	 *            the formula to be parsed
+	 * @param origin
+	 *            the origin to be traced to the built AST
+	 * @return the result of the parse
+	 * @see FormulaFactory#parseExpression(String, Object)
+	 */
+	IParseResult parseExpression(String formula, Object origin);
+
+	/**
+	 * Parses the specified expression and returns the corresponding result.
+	 * This method allows predicate variables.
+	 * 
+	 * @param formula
+	 *            the formula to be parsed
+	 * @param origin
+	 *            the origin to be traced to the built AST
+	 * @return the result of the parse
+	 * @see FormulaFactory#parseExpressionPattern(String, Object)
+	 */
+	IParseResult parseExpressionPattern(String formula, Object origin);
+
+	/**
+	 * Parses the specified predicate and returns the corresponding result.
+	 * This method does not allow predicate variables.
+	 * 
+	 * @param formula
+	 *            the formula to be parsed
+	 * @param origin
+	 *            the origin to be traced to the built AST
+	 * @return the result of the parse
+	 * @see FormulaFactory#parsePredicate(String, Object)
+	 */
+	IParseResult parsePredicate(String formula, Object origin);
+
+	/**
+	 * Parses the specified predicate and returns the corresponding result.
+	 * This method allows predicate variables.
+	 * 
+	 * @param formula
+	 *            the formula to be parsed
+	 * @param origin
+	 *            the origin to be traced to the built AST
+	 * @return the result of the parse
+	 * @see FormulaFactory#parsePredicatePattern(String, Object)
+	 */
+	IParseResult parsePredicatePattern(String formula, Object origin);
+
+	/**
+	 * Parses the specified type and returns the corresponding result. This
+	 * method does not allow predicate variables.
+	 * 
+	 * @param formula
+	 *            the formula to be parsed
+	 * @return the result of the parse
+	 * @see FormulaFactory#parseType(String)
+	 */
+	IParseResult parseType(String formula);
+
+	/**
+	 * Parses all the specified assignments, in order, with the same origin.
+	 * 
+	 * @param formulas
+	 *            the formulas to be parsed
+	 * @param origin
+	 *            the origin to be traced to all built ASTs
+	 * @return the results of the parses, in the same order as the formulas
+	 */
+	List<IParseResult> parseAssignments(List<String> formulas, Object origin);
+
+	/**
+	 * Parses all the specified expressions, in order, with the same origin.
+	 * This method does not allow predicate variables.
+	 * 
+	 * @param formulas
+	 *            the formulas to be parsed
+	 * @param origin
+	 *            the origin to be traced to all built ASTs
+	 * @return the results of the parses, in the same order as the formulas
+	 */
+	List<IParseResult> parseExpressions(List<String> formulas, Object origin);
+
+	/**
+	 * Parses all the specified predicates, in order, with the same origin.
+	 * This method does not allow predicate variables.
+	 * 
+	 * @param formulas
+	 *            the formulas to be parsed
+	 * @param origin
+	 *            the origin to be traced to all built ASTs
+	 * @return the results of the parses, in the same order as the formulas
+	 */
+	List<IParseResult> parsePredicates(List<String> formulas, Object origin);
+
+}
@@ -9,9 +9,12 @@
  *     Systerel - initial API and implementation
  *     University of Southampton - added support for predicate variables
  *     CentraleSupélec - substitution of type with expression
+ *     HHU - added specialization of several formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
+import java.util.List;
+
 /**
  * Common protocol for describing a specialization, which groups together type
  * substitutions, free-identifier substitutions, and predicate-variable
@@ -363,4 +366,38 @@ public interface ISpecialization extends Cloneable {
 	 */
 	PredicateVariable[] getPredicateVariables();
 
+	/**
+	 * Returns the type-checked formulas obtained by applying this
+	 * specialization to the given formulas. This is equivalent to calling
+	 * {@link Formula#specialize(ISpecialization)} on each formula in turn, but
+	 * is meant for specializing many formulas with the same substitutions, as
+	 * the work done on the types they share is then done only once.
+	 * <p>
+	 * This method can have side-effects, as described in
+	 * {@link ISpecialization}. If some formula cannot be specialized, the
+	 * side-effects of specializing the formulas before it are not undone.
+	 * </p>
+	 * <p>
+	 * To this end, this specialization remembers every type that it has
+	 * specialized, together with its result, until a substitution that changes
+	 * the result of some type is added. These types are strongly referenced
+	 * for as long as this specialization is, so a specialization should not be
+	 * kept once the formulas have been specialized. In contrast, specialized
+	 * sub-formulas are remembered only while specializing each formula.
+	 * </p>
+	 * 
+	 * @param formulas
+	 *            the formulas to specialize
+	 * @return the list of the specialized formulas, in the same order
+	 * @throws UnsupportedOperationException
+	 *             if some formula is an assignment
+	 * @throws IllegalStateException
+	 *             if some formula is not type-checked
+	 * @throws IllegalArgumentException
+	 *             if this specialization is not compatible with some formula
+	 * @see Formula#specialize(ISpecialization)
+	 * @since 3.7
+	 */
+	<T extends Formula<T>> List<T> specialize(List<T> formulas);
+
 }
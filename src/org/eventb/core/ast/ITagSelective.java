@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast;
+
+/**
+ * Common protocol for formula inspectors, filters and rewriters which are only
+ * interested in the sub-formulas bearing some given tags.
+ * <p>
+ * When an {@link IFormulaInspector}, an {@link IFormulaFilter} or an
+ * {@link IFormulaRewriter} also implements this interface, the traversal of a
+ * formula skips every sub-formula which cannot contain any formula bearing a
+ * tag of interest. Such a sub-formula is then neither inspected, nor selected,
+ * nor rewritten. In particular, methods
+ * {@link IFormulaRewriter#enteringQuantifier(int)} and
+ * {@link IFormulaRewriter#leavingQuantifier(int)} are not called for the
+ * quantified formulas it contains.
+ * </p>
+ * <p>
+ * Skipping is conservative: the other methods of the client may still be
+ * called on formulas which do not bear a tag of interest. Rewriters working in
+ * auto-flattening mode are never pruned, as flattening applies to every
+ * sub-formula.
+ * </p>
+ *
+ * @see Formula#inspect(IFormulaInspector)
+ * @see Formula#getPositions(IFormulaFilter)
+ * @see Formula#rewrite(IFormulaRewriter)
+ *
+ * @author HHU
+ * @since 3.7
+ */
+public interface ITagSelective {
+
+	/**
+	 * Returns the tags of the formulas this client is interested in. Tags of
+	 * extended formulas are obtained with
+	 * {@link FormulaFactory#getTag(org.eventb.core.ast.extension.IFormulaExtension)}
+	 * .
+	 * <p>
+	 * This method is called once at the beginning of each traversal.
+	 * </p>
+	 *
+	 * @return the tags of interest
+	 */
+	int[] getTagsOfInterest();
+
+}
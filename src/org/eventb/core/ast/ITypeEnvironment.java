@@ -11,6 +11,7 @@
  *     Systerel - added support for specialization
  *     Systerel - immutable type environments
  *     Systerel - added support for factory translation
+ *     HHU - documented the enumeration order
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -229,14 +230,18 @@ public interface ITypeEnvironment {
 	IExtensionTranslation makeExtensionTranslation(FormulaFactory targetFactory);
 
 	/**
-	 * Returns an iterator for traversing this type environment.
+	 * Returns an iterator for traversing this type environment. The order in
+	 * which names are enumerated is unspecified and may change between
+	 * releases.
 	 * 
 	 * @return an iterator on this type environment.
 	 */
 	IIterator getIterator();
 
 	/**
-	 * Returns the set of all names mapped in this type environment.
+	 * Returns the set of all names mapped in this type environment. The
+	 * iteration order of the returned set is unspecified and may change
+	 * between releases.
 	 * 
 	 * @return the set of all mapped names
 	 */
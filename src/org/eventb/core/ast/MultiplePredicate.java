@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -266,6 +268,13 @@ public class MultiplePredicate extends Predicate {
 	
 	@Override
 	protected Predicate rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Predicate memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final int length = children.length;
 		final FormulaFactory ff = rewriter.getFactory();
 		final SourceLocation sloc = getSourceLocation();
@@ -284,7 +293,7 @@ public class MultiplePredicate extends Predicate {
 		} else {
 			before = ff.makeMultiplePredicate(getTag(), newChildren, sloc);
 		}
-		return rewriter.rewrite(this, before);
+		return rewriter.memoize(this, rewriter.rewrite(this, before));
 	}
 
 	@Override
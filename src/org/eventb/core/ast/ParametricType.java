@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - cached hash code
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -54,6 +55,9 @@ public class ParametricType extends Type {
 	private final IExpressionExtension typeConstructor;
 	private final Type[] typeParameters;
 
+	// Cached hash code, types being hashed when made unique
+	private final int hashCode;
+
 	/**
 	 * Must never be called directly: use the factory method instead.
 	 * 
@@ -74,6 +78,8 @@ public class ParametricType extends Type {
 		this.typeParameters = typeParameters;
 		ensureSameFactory(typeParameters);
 		checkNumberOfParameters();
+		this.hashCode = combineHashCodes(typeConstructor.hashCode(),
+				combineHashCodes(typeParameters));
 	}
 
 	private void checkNumberOfParameters() {
@@ -137,8 +143,7 @@ public class ParametricType extends Type {
 
 	@Override
 	public int hashCode() {
-		return combineHashCodes(typeConstructor.hashCode(),
-				combineHashCodes(typeParameters));
+		return hashCode;
 	}
 
 	@Override
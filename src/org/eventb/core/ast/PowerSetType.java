@@ -9,6 +9,7 @@
  *     ETH Zurich - initial API and implementation
  *     Systerel - add type visitor
  *     Systerel - store factory used to build a type
+ *     HHU - cached hash code
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -26,6 +27,9 @@ public class PowerSetType extends Type {
 	// Name of the carrier-set corresponding to this type.
 	private final Type base;
 
+	// Cached hash code, types being hashed when made unique
+	private final int hashCode;
+
 	/**
 	 * Must never be called directly: use the factory method instead.
 	 * 
@@ -37,6 +41,7 @@ public class PowerSetType extends Type {
 		super(ff, base.isSolved());
 		this.base = base;
 		ensureSameFactory(this.base);
+		this.hashCode = base.hashCode() << 1;
 	}
 
 	@Override
@@ -77,7 +82,7 @@ public class PowerSetType extends Type {
 
 	@Override
 	public int hashCode() {
-		return base.hashCode() << 1;
+		return hashCode;
 	}
 
 	@Override
@@ -9,6 +9,7 @@
  *     ETH Zurich - initial API and implementation
  *     Systerel - add type visitor
  *     Systerel - store factory used to build a type
+ *     HHU - cached hash code
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -29,6 +30,9 @@ public class ProductType extends Type {
 	// Second component of this type
 	private final Type right;
 
+	// Cached hash code, types being hashed when made unique
+	private final int hashCode;
+
 	/**
 	 * Must never be called directly: use the factory method instead.
 	 * 
@@ -40,6 +44,7 @@ public class ProductType extends Type {
 		this.left = left;
 		this.right = right;
 		ensureSameFactory(this.left, this.right);
+		this.hashCode = left.hashCode() * 17 + right.hashCode();
 	}
 
 	@Override
@@ -95,7 +100,7 @@ public class ProductType extends Type {
 
 	@Override
 	public int hashCode() {
-		return left.hashCode() * 17 + right.hashCode();
+		return hashCode;
 	}
 
 	@Override
@@ -16,6 +16,9 @@
  *     Systerel - added child indexes
  *     Systerel - add given sets to free identifier cache
  *     Systerel - store factory used to build a formula
+ *     HHU - print without collecting names above
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -299,14 +302,12 @@ public class QuantifiedExpression extends Expression {
 
 	@Override
 	protected void toString(IToStringMediator mediator) {
-		// Collect names used in subformulas and not locally bound
-		final Set<String> usedNames = new HashSet<String>();
-		final String[] boundNames = mediator.getBoundNames();
-		expr.collectNamesAbove(usedNames, boundNames ,
-				quantifiedIdentifiers.length);
-		final boolean exprIsClosed = usedNames.size() == 0;
-		pred.collectNamesAbove(usedNames, boundNames,
-				quantifiedIdentifiers.length);
+		// Names used in subformulas and not locally bound
+		final int nbBound = quantifiedIdentifiers.length;
+		final boolean exprIsClosed = mediator.getNamesAbove(nbBound, expr)
+				.isEmpty();
+		final Set<String> usedNames = mediator.getNamesAbove(nbBound, expr,
+				pred);
 		final String[] localNames = QuantifiedUtil.resolveIdents(
 				quantifiedIdentifiers, usedNames, getFactory());
 
@@ -681,6 +682,13 @@ public class QuantifiedExpression extends Expression {
 
 	@Override
 	protected Expression rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Expression memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		BoundIdentDecl[] newDecls = rewriteDecls(quantifiedIdentifiers, rewriter);
 		final int nbOfBoundIdentDecls = quantifiedIdentifiers.length;
 		rewriter.enteringQuantifier(nbOfBoundIdentDecls);
@@ -698,7 +706,7 @@ public class QuantifiedExpression extends Expression {
 			before = rewriter.getFactory().makeQuantifiedExpression(getTag(),
 					newDecls, newPred, newExpr, getSourceLocation(), form);
 		}
-		return rewriter.rewrite(this, before);
+		return rewriter.memoize(this, rewriter.rewrite(this, before));
 	}
 
 	// TODO add instantiation of condition
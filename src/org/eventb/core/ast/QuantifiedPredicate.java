@@ -14,6 +14,9 @@
  *     Systerel - added child indexes
  *     Systerel - add given sets to free identifier cache
  *     Systerel - store factory used to build a formula
+ *     HHU - print without collecting names above
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -232,12 +235,9 @@ public class QuantifiedPredicate extends Predicate {
 
 	@Override
 	protected void toString(IToStringMediator mediator) {
-		// Collect names used in subformulas and not locally bound
-		final Set<String> usedNames = new HashSet<String>();
-		final String[] boundNames = mediator.getBoundNames();
-		pred.collectNamesAbove(usedNames, boundNames ,
-				quantifiedIdentifiers.length);
-
+		// Names used in subformulas and not locally bound
+		final Set<String> usedNames = mediator.getNamesAbove(
+				quantifiedIdentifiers.length, pred);
 		final String[] localNames = QuantifiedUtil.resolveIdents(
 				quantifiedIdentifiers, usedNames, getFactory());
 
@@ -418,6 +418,13 @@ public class QuantifiedPredicate extends Predicate {
 
 	@Override
 	protected Predicate rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Predicate memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		BoundIdentDecl[] newDecls = rewriteDecls(quantifiedIdentifiers,
 				rewriter);
 		final int nbOfBoundIdentDecls = quantifiedIdentifiers.length;
@@ -438,7 +445,7 @@ public class QuantifiedPredicate extends Predicate {
 				final int size = newDeclL.size();
 				if (size == 0) {
 					// Child predicate has already been rewritten
-					return newPred;
+					return rewriter.memoize(this, newPred);
 				} else {
 					newDecls = newDeclL.toArray(new BoundIdentDecl[size]);
 				}
@@ -460,7 +467,7 @@ public class QuantifiedPredicate extends Predicate {
 			before = ff.makeQuantifiedPredicate(getTag(), newDecls, newPred,
 					sloc);
 		}
-		return rewriter.rewrite(this, before);
+		return rewriter.memoize(this, rewriter.rewrite(this, before));
 	}
 
 	@Override
@@ -13,6 +13,8 @@
  *     Systerel - externalized wd lemmas generation
  *     Systerel - added child indexes
  *     Systerel - store factory used to build a formula
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -404,6 +406,13 @@ public class RelationalPredicate extends Predicate {
 
 	@Override
 	protected Predicate rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Predicate memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final Expression newLeft = left.rewrite(rewriter);
 		final Expression newRight = right.rewrite(rewriter);
 		final RelationalPredicate before;
@@ -413,7 +422,7 @@ public class RelationalPredicate extends Predicate {
 			before = rewriter.getFactory().makeRelationalPredicate(getTag(),
 					newLeft, newRight, getSourceLocation());
 		}
-		return rewriter.rewrite(this, before);
+		return rewriter.memoize(this, rewriter.rewrite(this, before));
 	}
 
 	@Override
@@ -14,6 +14,8 @@
  *     Systerel - added child indexes
  *     Systerel - add given sets to free identifier cache
  *     Systerel - store factory used to build a formula
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -292,12 +294,19 @@ public class SetExtension extends Expression {
 
 	@Override
 	protected Expression rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Expression memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final int length = members.length;
 		final FormulaFactory ff = rewriter.getFactory();
 		final SourceLocation sloc = getSourceLocation();
 
 		if (length == 0 && rewriter.autoFlatteningMode()) {
-			return rewriter.rewriteToEmptySet(this);
+			return rewriter.memoize(this, rewriter.rewriteToEmptySet(this));
 		}
 		boolean changed = false;
 		final Expression[] newMembers = new Expression[length];
@@ -313,7 +322,7 @@ public class SetExtension extends Expression {
 		} else {
 			before = ff.makeSetExtension(newMembers, sloc);
 		}
-		return rewriter.rewrite(this, before);
+		return rewriter.memoize(this, rewriter.rewrite(this, before));
 	}
 
 	@Override
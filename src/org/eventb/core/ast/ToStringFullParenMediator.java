@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - print to any appendable, with types
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -20,23 +21,24 @@ import org.eventb.internal.core.parser.AbstractGrammar;
 /* package */class ToStringFullParenMediator extends ToStringMediator  {
 
 
-	public ToStringFullParenMediator(Formula<?> formula, StringBuilder builder,
-			String[] boundNames, boolean isRight) {
-		super(formula, builder, boundNames, isRight, false);
+	public ToStringFullParenMediator(Formula<?> formula, Appendable out,
+			String[] boundNames, boolean withTypes, boolean isRight) {
+		super(formula, out, boundNames, withTypes, isRight);
 	}
 
 	protected ToStringFullParenMediator(int formulaKind,
-			AbstractGrammar grammar, StringBuilder builder,
-			String[] boundNames, boolean isRight, KindMediator kindMed) {
-		super(formulaKind, grammar, builder, boundNames, isRight, false,
+			AbstractGrammar grammar, Appendable out,
+			BoundNames boundNames, boolean isRight, boolean withTypes,
+			KindMediator kindMed) {
+		super(formulaKind, grammar, out, boundNames, isRight, withTypes,
 				kindMed);
 	}
 
 	@Override
 	protected IToStringMediator makeInstance(int formulaKind,
-			boolean isRightOvr, boolean withTypes, String[] newBoundNames) {
-		return new ToStringFullParenMediator(formulaKind, grammar, builder,
-				newBoundNames, isRightOvr, kindMed);
+			boolean isRightOvr, boolean withTypes, BoundNames newBoundNames) {
+		return new ToStringFullParenMediator(formulaKind, grammar, out,
+				newBoundNames, isRightOvr, withTypes, kindMed);
 	}
 
 	@Override
@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - shared stack of bound names
+ *     HHU - print to any appendable
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -14,12 +16,21 @@ import static org.eventb.core.ast.Formula.EMPTYSET;
 import static org.eventb.core.ast.Formula.KID_GEN;
 import static org.eventb.core.ast.Formula.KPRJ1_GEN;
 import static org.eventb.core.ast.Formula.KPRJ2_GEN;
-import static org.eventb.core.ast.QuantifiedUtil.catenateBoundIdentLists;
 import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.MAPS_TO;
 import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.MID;
 import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.OFTYPE;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 
 import org.eventb.internal.core.ast.extension.IToStringMediator;
 import org.eventb.internal.core.ast.extension.KindMediator;
@@ -40,31 +51,283 @@ import org.eventb.internal.core.parser.SubParsers;
 
 	private static final String[] NO_NAME = new String[0];
 
+	/**
+	 * Unchecked wrapper of an exception thrown by the output of a print, to be
+	 * unwrapped by the client that started the print.
+	 */
+	static final class OutputException extends RuntimeException {
+
+		private static final long serialVersionUID = -2785040523547236375L;
+
+		OutputException(IOException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized IOException getCause() {
+			return (IOException) super.getCause();
+		}
+
+	}
+
+	/**
+	 * Stack of the names of the identifiers bound above the formula being
+	 * printed, shared by all the mediators of a print. The names declared by
+	 * a formula are pushed before printing it and popped afterwards, so that a
+	 * mediator only reads the positions below its depth, which stay unchanged
+	 * while it is in use. Each position is chained to the previous position
+	 * holding the same name, so that the innermost declaration of a name is
+	 * found in constant time.
+	 */
+	protected static final class BoundNames {
+
+		private String[] names = new String[8];
+		private int[] previous = new int[8];
+		private int size;
+
+		// Innermost position of each name
+		private final Map<String, Integer> last = new HashMap<String, Integer>();
+
+		public BoundNames(String[] initialNames) {
+			push(initialNames);
+		}
+
+		public int size() {
+			return size;
+		}
+
+		public void push(String[] added) {
+			for (String name : added) {
+				if (size == names.length) {
+					names = Arrays.copyOf(names, size * 2);
+					previous = Arrays.copyOf(previous, size * 2);
+				}
+				final Integer prev = last.put(name, size);
+				previous[size] = prev == null ? -1 : prev;
+				names[size] = name;
+				size++;
+			}
+		}
+
+		public void pop(int count) {
+			for (int i = 0; i < count; i++) {
+				size--;
+				final int prev = previous[size];
+				if (prev < 0) {
+					last.remove(names[size]);
+				} else {
+					last.put(names[size], prev);
+				}
+				names[size] = null;
+			}
+		}
+
+		// Returns the name of the given index for a mediator of the given depth
+		public String resolve(int index, int depth) {
+			if (index < depth) {
+				return names[depth - index - 1];
+			}
+			return null;
+		}
+
+		// Returns the innermost position of the given name below the given
+		// depth, or -1
+		public int lastIndexOf(String name, int depth) {
+			final Integer pos = last.get(name);
+			int result = pos == null ? -1 : pos;
+			while (result >= depth) {
+				result = previous[result];
+			}
+			return result;
+		}
+
+		public String[] toArray(int depth) {
+			return Arrays.copyOf(names, depth);
+		}
+
+	}
+
+	/*
+	 * Set of the names that occur in some children of a binder and are not
+	 * bound by it, that is names of free identifiers and names of the
+	 * identifiers bound above the binder, to which names added by the client
+	 * are appended. Membership is decided with the identifier caches of the
+	 * children, without traversing them.
+	 */
+	private class NamesAbove extends AbstractSet<String> {
+
+		private final int offset;
+		private final Formula<?>[] children;
+		private final Set<String> added = new HashSet<String>();
+
+		NamesAbove(int offset, Formula<?>[] children) {
+			this.offset = offset;
+			this.children = children;
+		}
+
+		@Override
+		public boolean contains(Object obj) {
+			if (added.contains(obj)) {
+				return true;
+			}
+			if (!(obj instanceof String)) {
+				return false;
+			}
+			final String name = (String) obj;
+			for (Formula<?> child : children) {
+				if (occursFree(child, name) || occursBoundAbove(child, name)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/*
+		 * The identifier declared above with the given name must be the
+		 * innermost one: an outer declaration with the same name cannot occur
+		 * in the children, as the inner one would have been renamed.
+		 */
+		private boolean occursBoundAbove(Formula<?> child, String name) {
+			final int pos = boundNames.lastIndexOf(name, depth);
+			if (pos < 0) {
+				return false;
+			}
+			return containsIndex(child.boundIdents, depth - pos - 1 + offset);
+		}
+
+		@Override
+		public boolean add(String name) {
+			return !contains(name) && added.add(name);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			if (!added.isEmpty()) {
+				return false;
+			}
+			for (Formula<?> child : children) {
+				final BoundIdentifier[] bound = child.boundIdents;
+				final int length = bound.length;
+				if (length != 0 && bound[length - 1].getBoundIndex() >= offset) {
+					return false;
+				}
+				for (FreeIdentifier ident : child.freeIdents) {
+					if (isFree(child, ident)) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		// Slow path, which traverses the children
+		private Set<String> toSet() {
+			final Set<String> result = new HashSet<String>(added);
+			final String[] names = getBoundNames();
+			for (Formula<?> child : children) {
+				child.collectNamesAbove(result, names, offset);
+			}
+			return result;
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			return toSet().iterator();
+		}
+
+		@Override
+		public int size() {
+			return toSet().size();
+		}
+
+	}
+
+	/**
+	 * Buffer in front of the output of a print, which forwards characters to
+	 * the output by chunks of bounded size. This saves the cost of calling the
+	 * output for every token, which is high for writers.
+	 */
+	static final class ChunkedOutput implements Appendable {
+
+		private static final int CHUNK_SIZE = 8192;
+
+		private final Appendable out;
+		private final char[] chunk = new char[CHUNK_SIZE];
+		private int size;
+
+		ChunkedOutput(Appendable out) {
+			this.out = out;
+		}
+
+		@Override
+		public Appendable append(CharSequence csq) throws IOException {
+			return append(csq, 0, csq.length());
+		}
+
+		@Override
+		public Appendable append(CharSequence csq, int start, int end)
+				throws IOException {
+			for (int i = start; i < end; i++) {
+				append(csq.charAt(i));
+			}
+			return this;
+		}
+
+		@Override
+		public Appendable append(char c) throws IOException {
+			if (size == CHUNK_SIZE) {
+				flush();
+			}
+			chunk[size++] = c;
+			return this;
+		}
+
+		/**
+		 * Forwards the buffered characters to the output.
+		 * 
+		 * @throws IOException
+		 *             if the output throws it
+		 */
+		public void flush() throws IOException {
+			if (out instanceof Writer) {
+				((Writer) out).write(chunk, 0, size);
+			} else {
+				out.append(CharBuffer.wrap(chunk, 0, size));
+			}
+			size = 0;
+		}
+
+	}
+
 	private final int kind;
 	protected final AbstractGrammar grammar;
-	protected final StringBuilder builder;
-	protected final String[] boundNames;
+	protected final Appendable out;
+	protected final BoundNames boundNames;
+	// Number of bound names visible from this mediator
+	protected final int depth;
 	protected final boolean isRight;
 	private final boolean withTypes;
 	protected final KindMediator kindMed;
 
 	protected ToStringMediator(int kind, AbstractGrammar grammar,
-			StringBuilder builder, String[] boundNames, boolean isRight,
+			Appendable out, BoundNames boundNames, boolean isRight,
 			boolean withTypes, KindMediator kindMed) {
 		this.kind = kind;
 		this.grammar = grammar;
-		this.builder = builder;
+		this.out = out;
 		this.boundNames = boundNames;
+		this.depth = boundNames.size();
 		this.isRight = isRight;
 		this.withTypes = withTypes;
 		this.kindMed = kindMed;
 	}
 
-	public ToStringMediator(Formula<?> formula, StringBuilder builder,
+	public ToStringMediator(Formula<?> formula, Appendable out,
 			String[] boundNames, boolean withTypes, boolean isRight) {
 		this.grammar = formula.getFactory().getGrammar();
-		this.builder = builder;
-		this.boundNames = boundNames;
+		this.out = out;
+		this.boundNames = new BoundNames(boundNames);
+		this.depth = boundNames.length;
 		this.isRight = isRight;
 		this.withTypes = withTypes;
 
@@ -72,19 +335,86 @@ import org.eventb.internal.core.parser.SubParsers;
 		this.kind = formula.getKind(kindMed);
 	}
 
+	// Tells whether the given index occurs in the given sorted array
+	static boolean containsIndex(BoundIdentifier[] idents, int index) {
+		int low = 0;
+		int high = idents.length - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int midIndex = idents[mid].getBoundIndex();
+			if (midIndex < index) {
+				low = mid + 1;
+			} else if (midIndex > index) {
+				high = mid - 1;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Tells whether the given name occurs free in the given formula
+	static boolean occursFree(Formula<?> formula, String name) {
+		final FreeIdentifier[] idents = formula.freeIdents;
+		int low = 0;
+		int high = idents.length - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int cmp = idents[mid].getName().compareTo(name);
+			if (cmp < 0) {
+				low = mid + 1;
+			} else if (cmp > 0) {
+				high = mid - 1;
+			} else {
+				return isFree(formula, idents[mid]);
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * Tells whether the given identifier of the free identifier cache of the
+	 * given formula actually occurs in it. The cache also contains the given
+	 * sets of the types of the formula, which are not printed as identifiers:
+	 * in this case, the given sets occurring in the formula are looked up.
+	 */
+	private static boolean isFree(Formula<?> formula, FreeIdentifier ident) {
+		if (!ident.isATypeExpression()) {
+			return true;
+		}
+		return Arrays.binarySearch(formula.getGivenSetOccurrences(),
+				ident.getName()) >= 0;
+	}
+
+	protected final void write(char c) {
+		try {
+			out.append(c);
+		} catch (IOException e) {
+			throw new OutputException(e);
+		}
+	}
+
+	protected final void write(String string) {
+		try {
+			out.append(string);
+		} catch (IOException e) {
+			throw new OutputException(e);
+		}
+	}
+
 	@Override
 	public void append(DefaultToken token) {
 		boolean withSpaces = SPACED.contains(token);
 		if (withSpaces)
-			builder.append(SPACE);
-		builder.append(token.getImage());
+			write(SPACE);
+		write(token.getImage());
 		if (withSpaces)
-			builder.append(SPACE);
+			write(SPACE);
 	}
 
 	@Override
 	public void append(String string) {
-		builder.append(string);
+		write(string);
 	}
 
 	@Override
@@ -140,11 +470,11 @@ import org.eventb.internal.core.parser.SubParsers;
 	private final void printFormula(Formula<?> formula, int formulaKind, boolean isRightOvr,
 			String[] addedBoundNames, boolean withTypesOvr, boolean withParen) {
 		if (withParen) {
-			builder.append('(');
+			write('(');
 		}
 		printFormula(formula, formulaKind, isRightOvr, addedBoundNames, withTypesOvr);
 		if (withParen) {
-			builder.append(')');
+			write(')');
 		}
 	}
 
@@ -154,28 +484,30 @@ import org.eventb.internal.core.parser.SubParsers;
 		printFormula(formula, formulaKind, isRight, NO_NAME, withTypes);
 	}
 
-	private String[] addBound(String[] addedBoundNames) {
-		if (addedBoundNames.length == 0) {
-			return boundNames;
-		}
-		return catenateBoundIdentLists(boundNames, addedBoundNames);
-	}
-	
 	@Override
 	public String[] getBoundNames() {
-		return boundNames.clone();
+		return boundNames.toArray(depth);
+	}
+
+	@Override
+	public Set<String> getNamesAbove(int nbBound, Formula<?>... children) {
+		return new NamesAbove(nbBound, children);
 	}
 
 	private void printFormula(Formula<?> formula, int formulaKind, boolean isRightOvr,
 			String[] addedBoundNames, boolean withTypesOvr) {
-		final String[] newBoundNames = addBound(addedBoundNames);
-		printWithBinding(formula, formulaKind, isRightOvr, withTypesOvr,
-				newBoundNames);
+		boundNames.push(addedBoundNames);
+		try {
+			printWithBinding(formula, formulaKind, isRightOvr, withTypesOvr,
+					boundNames);
+		} finally {
+			boundNames.pop(addedBoundNames.length);
+		}
 	}
 
 	private void printWithBinding(Formula<?> formula, int formulaKind,
 			boolean isRightOvr, boolean withTypesOvr,
-			final String[] newBoundNames) {
+			final BoundNames newBoundNames) {
 		if (withTypesOvr && isTypePrintable(formula)) {
 			final int oftype = grammar.getKind(OFTYPE);
 			final IToStringMediator mediator = makeInstance(oftype, isRightOvr,
@@ -190,8 +522,8 @@ import org.eventb.internal.core.parser.SubParsers;
 
 	protected IToStringMediator makeInstance(int formulaKind,
 			boolean isRightOvr, boolean withTypesOvr,
-			final String[] newBoundNames) {
-		return new ToStringMediator(formulaKind, grammar, builder,
+			final BoundNames newBoundNames) {
+		return new ToStringMediator(formulaKind, grammar, out,
 				newBoundNames, isRightOvr, withTypesOvr, kindMed);
 	}
 
@@ -207,32 +539,25 @@ import org.eventb.internal.core.parser.SubParsers;
 		// TODO make a cache or compute image of this.kind and check if ==
 		final String image = grammar.getImage(lexKind);
 		if (withSpaces) {
-			builder.append(SPACE);
+			write(SPACE);
 		}
-		builder.append(image);
+		write(image);
 		if (withSpaces) {
-			builder.append(SPACE);
+			write(SPACE);
 		}
 	}
 
 	@Override
 	public void appendBoundIdent(int boundIndex) {
-		String image = resolveIndex(boundIndex, boundNames);
+		final String image = boundNames.resolve(boundIndex, depth);
 		if (image == null) {
 			// Fallback default in case this can not be resolved.
-			builder.append("[[");
-			builder.append(boundIndex);
-			builder.append("]]");
+			write("[[");
+			write(Integer.toString(boundIndex));
+			write("]]");
 		} else {
-			builder.append(image);
-		}
-	}
-
-	private static String resolveIndex(int index, String[] boundIdents) {
-		if (index < boundIdents.length) {
-			return boundIdents[boundIdents.length - index - 1];
+			write(image);
 		}
-		return null;
 	}
 
 	@Override
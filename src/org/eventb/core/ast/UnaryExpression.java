@@ -14,6 +14,8 @@
  *     Systerel - externalized wd lemmas generation
  *     Systerel - added child indexes
  *     Systerel - store factory used to build a formula
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -556,6 +558,13 @@ public class UnaryExpression extends Expression {
 
 	@Override
 	protected Expression rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Expression memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final Expression newChild = child.rewrite(rewriter);
 		final FormulaFactory ff = rewriter.getFactory();
 		final SourceLocation sloc = getSourceLocation();
@@ -564,10 +573,11 @@ public class UnaryExpression extends Expression {
 			final BigInteger value = ((IntegerLiteral) newChild).getValue();
 			final IntegerLiteral before = ff.makeIntegerLiteral(value.negate(),
 					sloc);
-			return rewriter.rewrite(this, before);
+			return rewriter.memoize(this, rewriter.rewrite(this, before));
 		}
 		final boolean changed = newChild != child;
-		return rewriter.rewrite(this, changed, newChild);
+		return rewriter.memoize(this,
+				rewriter.rewrite(this, changed, newChild));
 	}
 
 	@Override
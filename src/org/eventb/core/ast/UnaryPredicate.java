@@ -13,6 +13,8 @@
  *     Systerel - externalized wd lemmas generation
  *     Systerel - added child indexes
  *     Systerel - store factory used to build a formula
+ *     HHU - skip sub-formulas of no interest when rewriting
+ *     HHU - reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.core.ast;
 
@@ -237,6 +239,13 @@ public class UnaryPredicate extends Predicate {
 
 	@Override
 	protected Predicate rewrite(ITypeCheckingRewriter rewriter) {
+		if (rewriter.skips(this)) {
+			return this;
+		}
+		final Predicate memo = rewriter.getMemoized(this);
+		if (memo != null) {
+			return memo;
+		}
 		final Predicate newChild = child.rewrite(rewriter);
 		final UnaryPredicate before;
 		if (newChild == child) {
@@ -245,7 +254,7 @@ public class UnaryPredicate extends Predicate {
 			before = rewriter.getFactory().makeUnaryPredicate(getTag(),
 					newChild, getSourceLocation());
 		}
-		return rewriter.rewrite(this, before);
+		return rewriter.memoize(this, rewriter.rewrite(this, before));
 	}
 
 	@Override
@@ -7,9 +7,14 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - added pruning of sub-formulas
+ *     HHU - added opt-in memoization of rewritten sub-formulas
  *******************************************************************************/
 package org.eventb.internal.core.ast;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.eventb.core.ast.AssociativeExpression;
 import org.eventb.core.ast.AssociativePredicate;
 import org.eventb.core.ast.AtomicExpression;
@@ -21,6 +26,7 @@ import org.eventb.core.ast.BoundIdentifier;
 import org.eventb.core.ast.Expression;
 import org.eventb.core.ast.ExtendedExpression;
 import org.eventb.core.ast.ExtendedPredicate;
+import org.eventb.core.ast.Formula;
 import org.eventb.core.ast.FormulaFactory;
 import org.eventb.core.ast.FreeIdentifier;
 import org.eventb.core.ast.IntegerLiteral;
@@ -58,11 +64,46 @@ import org.eventb.core.ast.UnaryPredicate;
  * {@link ITypeCheckingRewriter}. Consequently, when extending this class,
  * always call the super method, rather than returning the formula unchanged.
  * </p>
+ * <p>
+ * Clients that rewrite a formula sharing sub-formulas (e.g., after a
+ * substitution, or when built by an interning factory) with a rewriter whose
+ * rewriting of a node only depends on that node and on the current binding
+ * depth can enable memoization for the duration of the rewrite. Then, every
+ * interior node is rewritten only once per binding depth, however many times
+ * it occurs in the rewritten formula.
+ * </p>
  * 
  * @author Laurent Voisin
  */
 public class DefaultTypeCheckingRewriter implements ITypeCheckingRewriter {
 
+	// Key of the memo, where nodes are compared by identity
+	private static final class MemoKey {
+
+		private final Formula<?> node;
+		private final int bindingDepth;
+
+		public MemoKey(Formula<?> node, int bindingDepth) {
+			this.node = node;
+			this.bindingDepth = bindingDepth;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(node) * 31 + bindingDepth;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof MemoKey)) {
+				return false;
+			}
+			final MemoKey other = (MemoKey) obj;
+			return node == other.node && bindingDepth == other.bindingDepth;
+		}
+
+	}
+
 	public static BoundIdentDecl checkReplacement(BoundIdentDecl src,
 			BoundIdentDecl dst) {
 		if (src != dst) {
@@ -97,6 +138,9 @@ public class DefaultTypeCheckingRewriter implements ITypeCheckingRewriter {
 	protected final TypeRewriter typeRewriter;
 	private int bindingDepth;
 
+	// Rewritten interior nodes, or null if memoization is not enabled
+	private Map<MemoKey, Formula<?>> memo;
+
 	public DefaultTypeCheckingRewriter(FormulaFactory ff) {
 		this.ff = ff;
 		this.typeRewriter = new TypeRewriter(ff);
@@ -119,6 +163,62 @@ public class DefaultTypeCheckingRewriter implements ITypeCheckingRewriter {
 		return ff;
 	}
 
+	@Override
+	public boolean skips(Formula<?> formula) {
+		return false;
+	}
+
+	/**
+	 * Makes this rewriter remember the result of rewriting each interior node
+	 * at each binding depth, until the next call to {@link #stopMemo()}. This
+	 * must be called only if the result of rewriting a node depends on nothing
+	 * else than the node and the binding depth, and pays off only for formulas
+	 * that share sub-formulas.
+	 */
+	public final void startMemo() {
+		memo = new HashMap<MemoKey, Formula<?>>();
+	}
+
+	/**
+	 * Forgets the rewritten nodes remembered since the last call to
+	 * {@link #startMemo()}.
+	 */
+	public final void stopMemo() {
+		memo = null;
+	}
+
+	@Override
+	public final Expression getMemoized(Expression src) {
+		if (memo == null) {
+			return null;
+		}
+		return (Expression) memo.get(new MemoKey(src, bindingDepth));
+	}
+
+	@Override
+	public final Predicate getMemoized(Predicate src) {
+		if (memo == null) {
+			return null;
+		}
+		return (Predicate) memo.get(new MemoKey(src, bindingDepth));
+	}
+
+	@Override
+	public final Expression memoize(Expression src, Expression dst) {
+		if (memo != null) {
+			memo.put(new MemoKey(src, bindingDepth), dst);
+		}
+		return dst;
+	}
+
+	@Override
+	public final Predicate memoize(Predicate src, Predicate dst) {
+		if (memo != null) {
+			memo.put(new MemoKey(src, bindingDepth), dst);
+		}
+		return dst;
+	}
+
 	@Override
 	public final void enteringQuantifier(int nbOfDeclarations) {
 		bindingDepth += nbOfDeclarations;
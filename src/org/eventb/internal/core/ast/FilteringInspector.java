@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - skip sub-formulas of no interest to the filter
  *******************************************************************************/
 package org.eventb.internal.core.ast;
 
@@ -53,6 +54,10 @@ public class FilteringInspector implements IFormulaInspector<IPosition> {
 		this.filter = filter;
 	}
 
+	public IFormulaFilter getFilter() {
+		return filter;
+	}
+
 	private static void addCurrentPosition(IAccumulator<IPosition> acc) {
 		acc.add(acc.getCurrentPosition());
 	}
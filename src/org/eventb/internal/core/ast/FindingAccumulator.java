@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - skip sub-formulas of no interest to the inspector
  *******************************************************************************/
 package org.eventb.internal.core.ast;
 
@@ -59,6 +60,7 @@ import org.eventb.core.ast.UnaryPredicate;
 public class FindingAccumulator<F> implements IAccumulator<F> {
 
 	private final IFormulaInspector<F> inspector;
+	private final long tagsOfInterest;
 	private final IntStack indexes;
 	private final List<F> findings;
 
@@ -69,6 +71,17 @@ public class FindingAccumulator<F> implements IAccumulator<F> {
 		this.indexes = new IntStack();
 		this.findings = new ArrayList<F>();
 		this.inspector = inspector;
+		this.tagsOfInterest = TagSummary.maskOf(inspector);
+	}
+
+	// Tells whether the given formula may contain a tag of interest, otherwise
+	// its children get skipped
+	private boolean isRelevant(Formula<?> formula) {
+		if ((formula.getTagSummary() & tagsOfInterest) != 0) {
+			return true;
+		}
+		skipChildren = true;
+		return false;
 	}
 
 	@Override
@@ -95,91 +108,135 @@ public class FindingAccumulator<F> implements IAccumulator<F> {
 	}
 
 	public void inspect(UnaryPredicate predicate) {
-		inspector.inspect(predicate, this);
+		if (isRelevant(predicate)) {
+			inspector.inspect(predicate, this);
+		}
 	}
 
 	public void inspect(UnaryExpression expression) {
-		inspector.inspect(expression, this);
+		if (isRelevant(expression)) {
+			inspector.inspect(expression, this);
+		}
 	}
 
 	public void inspect(SimplePredicate predicate) {
-		inspector.inspect(predicate, this);
+		if (isRelevant(predicate)) {
+			inspector.inspect(predicate, this);
+		}
 	}
 
 	public void inspect(SetExtension expression) {
-		inspector.inspect(expression, this);
+		if (isRelevant(expression)) {
+			inspector.inspect(expression, this);
+		}
 	}
 
 	public void inspect(RelationalPredicate predicate) {
-		inspector.inspect(predicate, this);
+		if (isRelevant(predicate)) {
+			inspector.inspect(predicate, this);
+		}
 	}
 
 	public void inspect(QuantifiedPredicate predicate) {
-		inspector.inspect(predicate, this);
+		if (isRelevant(predicate)) {
+			inspector.inspect(predicate, this);
+		}
 	}
 
 	public void inspect(QuantifiedExpression expression) {
-		inspector.inspect(expression, this);
+		if (isRelevant(expression)) {
+			inspector.inspect(expression, this);
+		}
 	}
 
 	public void inspect(PredicateVariable predicate) {
-		inspector.inspect(predicate, this);
+		if (isRelevant(predicate)) {
+			inspector.inspect(predicate, this);
+		}
 	}
 
 	public void inspect(MultiplePredicate predicate) {
-		inspector.inspect(predicate, this);
+		if (isRelevant(predicate)) {
+			inspector.inspect(predicate, this);
+		}
 	}
 
 	public void inspect(LiteralPredicate predicate) {
-		inspector.inspect(predicate, this);
+		if (isRelevant(predicate)) {
+			inspector.inspect(predicate, this);
+		}
 	}
 
 	public void inspect(IntegerLiteral literal) {
-		inspector.inspect(literal, this);
+		if (isRelevant(literal)) {
+			inspector.inspect(literal, this);
+		}
 	}
 
 	public void inspect(ExtendedPredicate predicate) {
-		inspector.inspect(predicate, this);
+		if (isRelevant(predicate)) {
+			inspector.inspect(predicate, this);
+		}
 	}
 
 	public void inspect(ExtendedExpression expression) {
-		inspector.inspect(expression, this);
+		if (isRelevant(expression)) {
+			inspector.inspect(expression, this);
+		}
 	}
 
 	public void inspect(FreeIdentifier identifier) {
-		inspector.inspect(identifier, this);
+		if (isRelevant(identifier)) {
+			inspector.inspect(identifier, this);
+		}
 	}
 
 	public void inspect(BoundIdentifier identifier) {
-		inspector.inspect(identifier, this);
+		if (isRelevant(identifier)) {
+			inspector.inspect(identifier, this);
+		}
 	}
 
 	public void inspect(BoundIdentDecl decl) {
-		inspector.inspect(decl, this);
+		if (isRelevant(decl)) {
+			inspector.inspect(decl, this);
+		}
 	}
 
 	public void inspect(BoolExpression expression) {
-		inspector.inspect(expression, this);
+		if (isRelevant(expression)) {
+			inspector.inspect(expression, this);
+		}
 	}
 
 	public void inspect(BinaryPredicate predicate) {
-		inspector.inspect(predicate, this);
+		if (isRelevant(predicate)) {
+			inspector.inspect(predicate, this);
+		}
 	}
 
 	public void inspect(BinaryExpression expression) {
-		inspector.inspect(expression, this);
+		if (isRelevant(expression)) {
+			inspector.inspect(expression, this);
+		}
 	}
 
 	public void inspect(AtomicExpression expression) {
-		inspector.inspect(expression, this);
+		if (isRelevant(expression)) {
+			inspector.inspect(expression, this);
+		}
 	}
 
 	public void inspect(AssociativePredicate predicate) {
-		inspector.inspect(predicate, this);
+		if (isRelevant(predicate)) {
+			inspector.inspect(predicate, this);
+		}
 	}
 
 	public void inspect(AssociativeExpression expression) {
-		inspector.inspect(expression, this);
+		if (isRelevant(expression)) {
+			inspector.inspect(expression, this);
+		}
 	}
 
 	public List<F> getFindings() {
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+import static org.eventb.internal.core.ast.FormulaArchiveWriter.HEADER_SIZE;
+import static org.eventb.internal.core.ast.FormulaArchiveWriter.MAGIC;
+import static org.eventb.internal.core.ast.FormulaArchiveWriter.TRAILER_SIZE;
+import static org.eventb.internal.core.ast.FormulaArchiveWriter.VERSION;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eventb.core.ast.Formula;
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.FreeIdentifier;
+import org.eventb.core.ast.IFormulaArchiveReader;
+import org.eventb.core.ast.ISealedTypeEnvironment;
+import org.eventb.core.ast.Predicate;
+
+/**
+ * Reads an archive of predicates written by a {@link FormulaArchiveWriter}.
+ * <p>
+ * The archive file is mapped into memory once and for all. Every decoding
+ * works on its own view of the mapped buffer, so that predicates can be
+ * decoded concurrently. Decoded predicates are cached in a small direct-mapped
+ * cache, where a predicate replaces the one whose index has the same low-order
+ * bits.
+ * </p>
+ *
+ * @author HHU
+ */
+public class FormulaArchiveReader implements IFormulaArchiveReader {
+
+	// Must be a power of two
+	private static final int CACHE_SIZE = 256;
+
+	private static final class CacheEntry {
+
+		final int index;
+		final Predicate predicate;
+
+		CacheEntry(int index, Predicate predicate) {
+			this.index = index;
+			this.predicate = predicate;
+		}
+	}
+
+	private final FormulaFactory ff;
+	private final ISealedTypeEnvironment typenv;
+
+	// null once this reader is closed
+	private volatile ByteBuffer buffer;
+
+	private final int indexOffset;
+	private final int size;
+
+	private final AtomicReferenceArray<CacheEntry> cache = new AtomicReferenceArray<CacheEntry>(
+			CACHE_SIZE);
+
+	public FormulaArchiveReader(Path path, ISealedTypeEnvironment typenv)
+			throws IOException {
+		this.ff = typenv.getFormulaFactory();
+		this.typenv = typenv;
+		final ByteBuffer map;
+		final FileChannel channel = FileChannel.open(path, READ);
+		try {
+			final long length = channel.size();
+			if (length > Integer.MAX_VALUE) {
+				throw new IOException("Formula archive is too large: " + path);
+			}
+			map = channel.map(READ_ONLY, 0, length);
+		} finally {
+			channel.close();
+		}
+		final int length = map.capacity();
+		if (length < HEADER_SIZE + TRAILER_SIZE || map.getInt(0) != MAGIC) {
+			throw new IOException("Not a formula archive: " + path);
+		}
+		if (map.getInt(4) != VERSION) {
+			throw new IOException("Unsupported formula archive version "
+					+ map.getInt(4) + ": " + path);
+		}
+		this.indexOffset = map.getInt(length - TRAILER_SIZE);
+		this.size = map.getInt(length - TRAILER_SIZE + 4);
+		if (indexOffset < HEADER_SIZE || size < 0
+				|| indexOffset + 4L * size + TRAILER_SIZE != length) {
+			throw new IOException("Corrupted formula archive: " + path);
+		}
+		checkTypeEnvironment(map);
+		this.buffer = map;
+	}
+
+	// Checks that the type environment of the archive is included in ours
+	private void checkTypeEnvironment(ByteBuffer map) {
+		final ByteBuffer input = map.duplicate();
+		input.position(HEADER_SIZE);
+		final int count = input.getInt();
+		for (int i = 0; i < count; i++) {
+			final Formula<?> ident = new FormulaDecoder(ff).decode(input);
+			if (!(ident instanceof FreeIdentifier)
+					|| !typenv.contains((FreeIdentifier) ident)) {
+				throw new IllegalArgumentException("Identifier " + ident
+						+ " of the archive is not in the type environment");
+			}
+		}
+	}
+
+	@Override
+	public FormulaFactory getFactory() {
+		return ff;
+	}
+
+	@Override
+	public ISealedTypeEnvironment getTypeEnvironment() {
+		return typenv;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Predicate getPredicate(int index) {
+		final ByteBuffer map = buffer;
+		if (map == null) {
+			throw new IllegalStateException("Archive reader is closed");
+		}
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index
+					+ " out of archive of size " + size);
+		}
+		final int slot = index & (CACHE_SIZE - 1);
+		final CacheEntry entry = cache.get(slot);
+		if (entry != null && entry.index == index) {
+			return entry.predicate;
+		}
+		final int offset = map.getInt(indexOffset + 4 * index);
+		if (offset < HEADER_SIZE || offset >= indexOffset) {
+			throw new IllegalArgumentException("Invalid offset of predicate "
+					+ index);
+		}
+		final ByteBuffer input = map.duplicate();
+		input.position(offset);
+		final Formula<?> formula = new FormulaDecoder(ff).decode(input);
+		if (!(formula instanceof Predicate)) {
+			throw new IllegalArgumentException("Formula " + index
+					+ " is not a predicate");
+		}
+		final Predicate predicate = (Predicate) formula;
+		cache.set(slot, new CacheEntry(index, predicate));
+		return predicate;
+	}
+
+	@Override
+	public void close() {
+		buffer = null;
+		for (int i = 0; i < CACHE_SIZE; i++) {
+			cache.set(i, null);
+		}
+	}
+
+}
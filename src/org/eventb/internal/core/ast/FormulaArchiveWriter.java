@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.eventb.core.ast.FreeIdentifier;
+import org.eventb.core.ast.IFormulaArchiveWriter;
+import org.eventb.core.ast.ISealedTypeEnvironment;
+import org.eventb.core.ast.Predicate;
+
+/**
+ * Writes an archive of predicates.
+ * <p>
+ * An archive file is laid out as follows, where integers are four-byte
+ * big-endian integers and formulas are encoded as described in
+ * {@link FormulaCodec}:
+ *
+ * <pre>
+ * archive ::= MAGIC VERSION typenv predicate* index trailer
+ * typenv  ::= count identifier*
+ * index   ::= offset*
+ * trailer ::= index-offset count
+ * </pre>
+ *
+ * The type environment is stored as a sequence of typed free identifiers. The
+ * index gives the offset of each predicate from the beginning of the file.
+ * Offsets being integers, the size of an archive is limited to 2 GB.
+ * </p>
+ *
+ * @author HHU
+ */
+public class FormulaArchiveWriter implements IFormulaArchiveWriter {
+
+	// "EBFA", for Event-B formula archive
+	static final int MAGIC = 0x45424641;
+
+	static final int VERSION = 1;
+
+	// Size of the magic number and the version
+	static final int HEADER_SIZE = 8;
+
+	// Size of the index offset and the count
+	static final int TRAILER_SIZE = 8;
+
+	private final ISealedTypeEnvironment typenv;
+
+	private DataOutputStream out;
+
+	// Number of bytes written so far
+	private long position;
+
+	private int[] offsets = new int[64];
+	private int size;
+
+	public FormulaArchiveWriter(Path path, ISealedTypeEnvironment typenv)
+			throws IOException {
+		this.typenv = typenv;
+		this.out = new DataOutputStream(new BufferedOutputStream(
+				Files.newOutputStream(path)));
+		boolean success = false;
+		try {
+			writeInt(MAGIC);
+			writeInt(VERSION);
+			final FreeIdentifier[] idents = typenv.getFreeIdentifiers();
+			writeInt(idents.length);
+			for (FreeIdentifier ident : idents) {
+				writeBytes(new FormulaEncoder(false).encode(ident));
+			}
+			success = true;
+		} finally {
+			if (!success) {
+				out.close();
+			}
+		}
+	}
+
+	private void writeInt(int value) throws IOException {
+		out.writeInt(value);
+		position += 4;
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		out.write(bytes);
+		position += bytes.length;
+	}
+
+	@Override
+	public int append(Predicate predicate) throws IOException {
+		if (out == null) {
+			throw new IllegalStateException("Archive writer is closed");
+		}
+		if (!predicate.isTypeChecked()) {
+			throw new IllegalArgumentException("Predicate " + predicate
+					+ " is not type-checked");
+		}
+		for (FreeIdentifier ident : predicate.getFreeIdentifiers()) {
+			if (!typenv.contains(ident)) {
+				throw new IllegalArgumentException("Free identifier " + ident
+						+ " of type " + ident.getType()
+						+ " is not in the type environment");
+			}
+		}
+		final byte[] bytes = new FormulaEncoder(false).encode(predicate);
+		if (position + bytes.length > Integer.MAX_VALUE) {
+			throw new IOException("Formula archive is too large");
+		}
+		if (size == offsets.length) {
+			offsets = Arrays.copyOf(offsets, size * 2);
+		}
+		offsets[size] = (int) position;
+		writeBytes(bytes);
+		return size++;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (out == null) {
+			return;
+		}
+		try {
+			final long indexOffset = position;
+			if (indexOffset + 4L * size + TRAILER_SIZE > Integer.MAX_VALUE) {
+				throw new IOException("Formula archive is too large");
+			}
+			for (int i = 0; i < size; i++) {
+				writeInt(offsets[i]);
+			}
+			writeInt((int) indexOffset);
+			writeInt(size);
+		} finally {
+			out.close();
+			out = null;
+			offsets = null;
+		}
+	}
+
+}
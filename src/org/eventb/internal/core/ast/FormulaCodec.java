@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast;
+
+import static org.eventb.core.ast.Formula.BFALSE;
+import static org.eventb.core.ast.Formula.BTRUE;
+import static org.eventb.core.ast.Formula.BUNION;
+import static org.eventb.core.ast.Formula.CSET;
+import static org.eventb.core.ast.Formula.EQUAL;
+import static org.eventb.core.ast.Formula.EXISTS;
+import static org.eventb.core.ast.Formula.FORALL;
+import static org.eventb.core.ast.Formula.FREE_IDENT;
+import static org.eventb.core.ast.Formula.INTEGER;
+import static org.eventb.core.ast.Formula.KBOOL;
+import static org.eventb.core.ast.Formula.KCARD;
+import static org.eventb.core.ast.Formula.KFINITE;
+import static org.eventb.core.ast.Formula.KID_GEN;
+import static org.eventb.core.ast.Formula.KPARTITION;
+import static org.eventb.core.ast.Formula.LAND;
+import static org.eventb.core.ast.Formula.LEQV;
+import static org.eventb.core.ast.Formula.LIMP;
+import static org.eventb.core.ast.Formula.LOR;
+import static org.eventb.core.ast.Formula.MAPSTO;
+import static org.eventb.core.ast.Formula.MUL;
+import static org.eventb.core.ast.Formula.NOT;
+import static org.eventb.core.ast.Formula.NOTSUBSETEQ;
+import static org.eventb.core.ast.Formula.PREDICATE_VARIABLE;
+import static org.eventb.core.ast.Formula.QUNION;
+import static org.eventb.core.ast.Formula.RELIMAGE;
+import static org.eventb.core.ast.Formula.UNMINUS;
+
+import java.util.Arrays;
+
+/**
+ * Constants of the binary encoding of formulas.
+ * <p>
+ * An encoded formula is laid out as follows, where all integers are unsigned
+ * variable-length integers (seven bits per byte, least significant first),
+ * unless stated otherwise:
+ *
+ * <pre>
+ * formula    ::= VERSION flags names extensions types node
+ * names      ::= count (length utf8-bytes)*
+ * extensions ::= count name*
+ * types      ::= count type*
+ * type       ::= BOOLEAN | INTEGER | GIVEN name | POWER type
+ *              | PRODUCT type type | PARAMETRIC extension count type*
+ * node       ::= code location? payload
+ * </pre>
+ *
+ * Names, extensions and types inside the tables and the nodes are designated
+ * by their index in their table, types only referencing types that come
+ * before them. In nodes, types are designated by their index plus one, zero
+ * standing for the absence of type. Locations are present only when flag
+ * {@link #WITH_LOCATIONS} is set, as the start position plus one (zero
+ * standing for the absence of location) followed by the signed difference
+ * between end and start.
+ * </p>
+ * <p>
+ * The code of a node is the index of its tag among the tags of standard
+ * formulas sorted in ascending order, or the number of standard tags plus the
+ * index of its extension for extended formulas. The payload of a node consists of its
+ * children, preceded by their count when it varies, and of the data of
+ * leaves.
+ * </p>
+ *
+ * @author HHU
+ */
+public final class FormulaCodec {
+
+	/**
+	 * Version of the encoding, to be changed whenever the format changes,
+	 * including when tags are added.
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * Flag telling that nodes carry their source location.
+	 */
+	public static final int WITH_LOCATIONS = 0x01;
+
+	// Type constructors
+	public static final int BOOLEAN_TYPE = 0;
+	public static final int INTEGER_TYPE = 1;
+	public static final int GIVEN_TYPE = 2;
+	public static final int POWER_SET_TYPE = 3;
+	public static final int PRODUCT_TYPE = 4;
+	public static final int PARAMETRIC_TYPE = 5;
+
+	// Contiguous ranges of the tags of standard formulas
+	private static final int[][] TAG_RANGES = {
+			{ FREE_IDENT, PREDICATE_VARIABLE },
+			{ EQUAL, NOTSUBSETEQ },
+			{ MAPSTO, RELIMAGE },
+			{ LIMP, LEQV },
+			{ BUNION, MUL },
+			{ LAND, LOR },
+			{ INTEGER, KID_GEN },
+			{ KBOOL, KBOOL },
+			{ BTRUE, BFALSE },
+			{ KFINITE, KFINITE },
+			{ NOT, NOT },
+			{ KCARD, UNMINUS },
+			{ QUNION, CSET },
+			{ FORALL, EXISTS },
+			{ KPARTITION, KPARTITION },
+	};
+
+	// Tags of all standard formulas, in ascending order
+	private static final int[] STANDARD_TAGS;
+
+	// Code of each standard tag, -1 for other tags
+	private static final int[] CODES;
+
+	static {
+		int count = 0;
+		for (int[] range : TAG_RANGES) {
+			count += range[1] - range[0] + 1;
+		}
+		STANDARD_TAGS = new int[count];
+		int code = 0;
+		for (int[] range : TAG_RANGES) {
+			for (int tag = range[0]; tag <= range[1]; tag++) {
+				STANDARD_TAGS[code++] = tag;
+			}
+		}
+		CODES = new int[STANDARD_TAGS[count - 1] + 1];
+		Arrays.fill(CODES, -1);
+		for (code = 0; code < count; code++) {
+			CODES[STANDARD_TAGS[code]] = code;
+		}
+	}
+
+	private FormulaCodec() {
+		// no instance
+	}
+
+	/**
+	 * Returns the number of tags of standard formulas, which is also the code
+	 * of the first extended formula.
+	 *
+	 * @return the number of standard tags
+	 */
+	public static int getStandardTagCount() {
+		return STANDARD_TAGS.length;
+	}
+
+	/**
+	 * Returns the standard tag of the given code.
+	 *
+	 * @param code
+	 *            a code less than the number of standard tags
+	 * @return the standard tag with the given code
+	 */
+	public static int getTag(int code) {
+		return STANDARD_TAGS[code];
+	}
+
+	/**
+	 * Returns the code of the given standard tag.
+	 *
+	 * @param tag
+	 *            a tag
+	 * @return the code of the tag, or <code>-1</code> if it is not the tag of
+	 *         a standard formula
+	 */
+	public static int getCode(int tag) {
+		if (0 <= tag && tag < CODES.length) {
+			return CODES[tag];
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,407 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast;
+
+import static org.eventb.core.ast.Formula.BECOMES_EQUAL_TO;
+import static org.eventb.core.ast.Formula.BECOMES_MEMBER_OF;
+import static org.eventb.core.ast.Formula.BECOMES_SUCH_THAT;
+import static org.eventb.core.ast.Formula.BOUND_IDENT;
+import static org.eventb.core.ast.Formula.BOUND_IDENT_DECL;
+import static org.eventb.core.ast.Formula.FIRST_ASSOCIATIVE_EXPRESSION;
+import static org.eventb.core.ast.Formula.FIRST_ASSOCIATIVE_PREDICATE;
+import static org.eventb.core.ast.Formula.FIRST_ATOMIC_EXPRESSION;
+import static org.eventb.core.ast.Formula.FIRST_BINARY_EXPRESSION;
+import static org.eventb.core.ast.Formula.FIRST_BINARY_PREDICATE;
+import static org.eventb.core.ast.Formula.FIRST_LITERAL_PREDICATE;
+import static org.eventb.core.ast.Formula.FIRST_MULTIPLE_PREDICATE;
+import static org.eventb.core.ast.Formula.FIRST_QUANTIFIED_EXPRESSION;
+import static org.eventb.core.ast.Formula.FIRST_QUANTIFIED_PREDICATE;
+import static org.eventb.core.ast.Formula.FIRST_RELATIONAL_PREDICATE;
+import static org.eventb.core.ast.Formula.FIRST_SIMPLE_PREDICATE;
+import static org.eventb.core.ast.Formula.FIRST_UNARY_EXPRESSION;
+import static org.eventb.core.ast.Formula.FIRST_UNARY_PREDICATE;
+import static org.eventb.core.ast.Formula.FREE_IDENT;
+import static org.eventb.core.ast.Formula.INTLIT;
+import static org.eventb.core.ast.Formula.KBOOL;
+import static org.eventb.core.ast.Formula.PREDICATE_VARIABLE;
+import static org.eventb.core.ast.Formula.SETEXT;
+import static org.eventb.internal.core.ast.FormulaCodec.BOOLEAN_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.GIVEN_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.INTEGER_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.PARAMETRIC_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.POWER_SET_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.PRODUCT_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.VERSION;
+import static org.eventb.internal.core.ast.FormulaCodec.WITH_LOCATIONS;
+
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eventb.core.ast.BoundIdentDecl;
+import org.eventb.core.ast.Expression;
+import org.eventb.core.ast.Formula;
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.FreeIdentifier;
+import org.eventb.core.ast.Predicate;
+import org.eventb.core.ast.QuantifiedExpression.Form;
+import org.eventb.core.ast.SourceLocation;
+import org.eventb.core.ast.Type;
+import org.eventb.core.ast.extension.IExpressionExtension;
+import org.eventb.core.ast.extension.IFormulaExtension;
+import org.eventb.core.ast.extension.IPredicateExtension;
+
+/**
+ * Decodes a formula from the binary format described in {@link FormulaCodec}.
+ * <p>
+ * Nodes are built bottom-up with the methods of the formula factory, without
+ * calling the parser nor the type-checker: as leaves carry their type, the
+ * decoded formula is type-checked whenever the encoded one was. Clients shall
+ * use this class with <code>new FormulaDecoder(factory).decode(buffer)</code>.
+ * </p>
+ * <p>
+ * Malformed input is reported with an {@link IllegalArgumentException}.
+ * </p>
+ *
+ * @author HHU
+ */
+public class FormulaDecoder {
+
+	private static final Form[] FORMS = Form.values();
+
+	private final FormulaFactory ff;
+
+	private ByteBuffer buffer;
+	private boolean withLocations;
+	private String[] names;
+	private IFormulaExtension[] extensions;
+	private Type[] types;
+
+	/**
+	 * Creates a new decoder building formulas with the given factory.
+	 *
+	 * @param ff
+	 *            the factory to use for building formulas
+	 */
+	public FormulaDecoder(FormulaFactory ff) {
+		this.ff = ff;
+	}
+
+	/**
+	 * Decodes the formula at the current position of the given buffer. Upon
+	 * return, the position of the buffer is just after the encoded formula.
+	 *
+	 * @param input
+	 *            a buffer containing an encoded formula
+	 * @return the decoded formula
+	 * @throws IllegalArgumentException
+	 *             if the buffer does not contain a well-formed encoding of a
+	 *             formula of the factory of this decoder
+	 */
+	public Formula<?> decode(ByteBuffer input) {
+		this.buffer = input;
+		try {
+			readHeader();
+			return readFormula();
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Truncated encoded formula", e);
+		} catch (ClassCastException e) {
+			throw new IllegalArgumentException("Ill-formed encoded formula", e);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Ill-formed encoded formula", e);
+		} finally {
+			this.buffer = null;
+			this.names = null;
+			this.extensions = null;
+			this.types = null;
+		}
+	}
+
+	private void readHeader() {
+		final int version = buffer.get();
+		if (version != VERSION) {
+			throw new IllegalArgumentException(
+					"Unsupported encoding version: " + version);
+		}
+		withLocations = (buffer.get() & WITH_LOCATIONS) != 0;
+		names = new String[readCount()];
+		for (int i = 0; i < names.length; i++) {
+			final byte[] utf8 = new byte[readCount()];
+			buffer.get(utf8);
+			names[i] = new String(utf8, StandardCharsets.UTF_8);
+		}
+		extensions = new IFormulaExtension[readCount()];
+		if (extensions.length != 0) {
+			final Map<String, IFormulaExtension> known = new HashMap<String, IFormulaExtension>();
+			for (IFormulaExtension extension : ff.getExtensions()) {
+				known.put(extension.getId(), extension);
+			}
+			for (int i = 0; i < extensions.length; i++) {
+				final String id = names[readInt()];
+				final IFormulaExtension extension = known.get(id);
+				if (extension == null) {
+					throw new IllegalArgumentException("Unknown extension: "
+							+ id);
+				}
+				extensions[i] = extension;
+			}
+		}
+		types = new Type[readCount()];
+		for (int i = 0; i < types.length; i++) {
+			types[i] = readTypeEntry();
+		}
+	}
+
+	private int readInt() {
+		int result = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			final byte b = buffer.get();
+			result |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("Ill-formed integer");
+	}
+
+	private int readSignedInt() {
+		final int value = readInt();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	// Reads a count, which cannot exceed the number of remaining bytes
+	private int readCount() {
+		final int count = readInt();
+		if (count < 0 || count > buffer.remaining()) {
+			throw new IllegalArgumentException("Ill-formed count: " + count);
+		}
+		return count;
+	}
+
+	private Type readTypeEntry() {
+		final int constructor = readInt();
+		switch (constructor) {
+		case BOOLEAN_TYPE:
+			return ff.makeBooleanType();
+		case INTEGER_TYPE:
+			return ff.makeIntegerType();
+		case GIVEN_TYPE:
+			return ff.makeGivenType(names[readInt()]);
+		case POWER_SET_TYPE:
+			return ff.makePowerSetType(readTypeEntryRef());
+		case PRODUCT_TYPE:
+			final Type left = readTypeEntryRef();
+			final Type right = readTypeEntryRef();
+			return ff.makeProductType(left, right);
+		case PARAMETRIC_TYPE:
+			final IFormulaExtension extension = extensions[readInt()];
+			if (!(extension instanceof IExpressionExtension)) {
+				throw new IllegalArgumentException(
+						"Not a type constructor: " + extension.getId());
+			}
+			final Type[] parameters = new Type[readCount()];
+			for (int i = 0; i < parameters.length; i++) {
+				parameters[i] = readTypeEntryRef();
+			}
+			return ff.makeParametricType((IExpressionExtension) extension,
+					parameters);
+		default:
+			throw new IllegalArgumentException("Unknown type constructor: "
+					+ constructor);
+		}
+	}
+
+	// Reads a reference to a type already decoded
+	private Type readTypeEntryRef() {
+		final Type type = types[readInt()];
+		if (type == null) {
+			throw new IllegalArgumentException("Forward type reference");
+		}
+		return type;
+	}
+
+	// Reads an optional reference to a type from a node
+	private Type readType() {
+		final int ref = readInt();
+		return ref == 0 ? null : types[ref - 1];
+	}
+
+	private SourceLocation readLocation() {
+		if (!withLocations) {
+			return null;
+		}
+		final int start = readInt();
+		if (start == 0) {
+			return null;
+		}
+		return new SourceLocation(start - 1, start - 1 + readSignedInt());
+	}
+
+	private Expression readExpression() {
+		return (Expression) readFormula();
+	}
+
+	private Predicate readPredicate() {
+		return (Predicate) readFormula();
+	}
+
+	private Expression[] readExpressions(int count) {
+		final Expression[] result = new Expression[count];
+		for (int i = 0; i < count; i++) {
+			result[i] = readExpression();
+		}
+		return result;
+	}
+
+	private Predicate[] readPredicates(int count) {
+		final Predicate[] result = new Predicate[count];
+		for (int i = 0; i < count; i++) {
+			result[i] = readPredicate();
+		}
+		return result;
+	}
+
+	private FreeIdentifier[] readIdentifiers(int count) {
+		final FreeIdentifier[] result = new FreeIdentifier[count];
+		for (int i = 0; i < count; i++) {
+			result[i] = (FreeIdentifier) readFormula();
+		}
+		return result;
+	}
+
+	private BoundIdentDecl[] readDecls(int count) {
+		final BoundIdentDecl[] result = new BoundIdentDecl[count];
+		for (int i = 0; i < count; i++) {
+			result[i] = (BoundIdentDecl) readFormula();
+		}
+		return result;
+	}
+
+	private Formula<?> readFormula() {
+		final int code = readInt();
+		final SourceLocation loc = readLocation();
+		final int standardCount = FormulaCodec.getStandardTagCount();
+		if (code >= standardCount) {
+			return readExtendedFormula(extensions[code - standardCount], loc);
+		}
+		final int tag = FormulaCodec.getTag(code);
+		if (tag < FIRST_RELATIONAL_PREDICATE) {
+			return readSpecialFormula(tag, loc);
+		}
+		if (tag < FIRST_BINARY_EXPRESSION) {
+			final Expression left = readExpression();
+			final Expression right = readExpression();
+			return ff.makeRelationalPredicate(tag, left, right, loc);
+		}
+		if (tag < FIRST_BINARY_PREDICATE) {
+			final Expression left = readExpression();
+			final Expression right = readExpression();
+			return ff.makeBinaryExpression(tag, left, right, loc);
+		}
+		if (tag < FIRST_ASSOCIATIVE_EXPRESSION) {
+			final Predicate left = readPredicate();
+			final Predicate right = readPredicate();
+			return ff.makeBinaryPredicate(tag, left, right, loc);
+		}
+		if (tag < FIRST_ASSOCIATIVE_PREDICATE) {
+			return ff.makeAssociativeExpression(tag,
+					readExpressions(readCount()), loc);
+		}
+		if (tag < FIRST_ATOMIC_EXPRESSION) {
+			return ff.makeAssociativePredicate(tag,
+					readPredicates(readCount()), loc);
+		}
+		if (tag < KBOOL) {
+			return ff.makeAtomicExpression(tag, loc, readType());
+		}
+		if (tag < FIRST_LITERAL_PREDICATE) {
+			return ff.makeBoolExpression(readPredicate(), loc);
+		}
+		if (tag < FIRST_SIMPLE_PREDICATE) {
+			return ff.makeLiteralPredicate(tag, loc);
+		}
+		if (tag < FIRST_UNARY_PREDICATE) {
+			return ff.makeSimplePredicate(tag, readExpression(), loc);
+		}
+		if (tag < FIRST_UNARY_EXPRESSION) {
+			return ff.makeUnaryPredicate(tag, readPredicate(), loc);
+		}
+		if (tag < FIRST_QUANTIFIED_EXPRESSION) {
+			return ff.makeUnaryExpression(tag, readExpression(), loc);
+		}
+		if (tag < FIRST_QUANTIFIED_PREDICATE) {
+			final Form form = FORMS[readInt()];
+			final BoundIdentDecl[] decls = readDecls(readCount());
+			final Predicate pred = readPredicate();
+			final Expression expr = readExpression();
+			return ff.makeQuantifiedExpression(tag, decls, pred, expr, loc,
+					form);
+		}
+		if (tag < FIRST_MULTIPLE_PREDICATE) {
+			final BoundIdentDecl[] decls = readDecls(readCount());
+			return ff.makeQuantifiedPredicate(tag, decls, readPredicate(), loc);
+		}
+		return ff.makeMultiplePredicate(tag, readExpressions(readCount()), loc);
+	}
+
+	private Formula<?> readSpecialFormula(int tag, SourceLocation loc) {
+		switch (tag) {
+		case FREE_IDENT:
+			return ff.makeFreeIdentifier(names[readInt()], loc, readType());
+		case BOUND_IDENT_DECL:
+			return ff.makeBoundIdentDecl(names[readInt()], loc, readType());
+		case BOUND_IDENT:
+			return ff.makeBoundIdentifier(readInt(), loc, readType());
+		case INTLIT:
+			final byte[] value = new byte[readCount()];
+			buffer.get(value);
+			return ff.makeIntegerLiteral(new BigInteger(value), loc);
+		case SETEXT:
+			final int count = readCount();
+			if (count == 0) {
+				return ff.makeEmptySetExtension(readType(), loc);
+			}
+			return ff.makeSetExtension(readExpressions(count), loc);
+		case BECOMES_EQUAL_TO:
+			final FreeIdentifier[] idents = readIdentifiers(readCount());
+			final Expression[] values = readExpressions(idents.length);
+			return ff.makeBecomesEqualTo(idents, values, loc);
+		case BECOMES_MEMBER_OF:
+			final FreeIdentifier ident = (FreeIdentifier) readFormula();
+			return ff.makeBecomesMemberOf(ident, readExpression(), loc);
+		case BECOMES_SUCH_THAT:
+			final FreeIdentifier[] assigned = readIdentifiers(readCount());
+			final BoundIdentDecl[] primed = readDecls(assigned.length);
+			return ff.makeBecomesSuchThat(assigned, primed, readPredicate(),
+					loc);
+		case PREDICATE_VARIABLE:
+			return ff.makePredicateVariable(names[readInt()], loc);
+		default:
+			throw new IllegalArgumentException("Unknown tag: " + tag);
+		}
+	}
+
+	private Formula<?> readExtendedFormula(IFormulaExtension extension,
+			SourceLocation loc) {
+		final Expression[] exprs = readExpressions(readCount());
+		final Predicate[] preds = readPredicates(readCount());
+		if (extension instanceof IExpressionExtension) {
+			return ff.makeExtendedExpression((IExpressionExtension) extension,
+					exprs, preds, loc, readType());
+		}
+		return ff.makeExtendedPredicate((IPredicateExtension) extension,
+				exprs, preds, loc);
+	}
+
+}
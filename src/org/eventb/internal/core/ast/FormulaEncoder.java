@@ -0,0 +1,490 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast;
+
+import static org.eventb.internal.core.ast.FormulaCodec.BOOLEAN_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.GIVEN_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.INTEGER_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.PARAMETRIC_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.POWER_SET_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.PRODUCT_TYPE;
+import static org.eventb.internal.core.ast.FormulaCodec.VERSION;
+import static org.eventb.internal.core.ast.FormulaCodec.WITH_LOCATIONS;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eventb.core.ast.AssociativeExpression;
+import org.eventb.core.ast.AssociativePredicate;
+import org.eventb.core.ast.AtomicExpression;
+import org.eventb.core.ast.BecomesEqualTo;
+import org.eventb.core.ast.BecomesMemberOf;
+import org.eventb.core.ast.BecomesSuchThat;
+import org.eventb.core.ast.BinaryExpression;
+import org.eventb.core.ast.BinaryPredicate;
+import org.eventb.core.ast.BoolExpression;
+import org.eventb.core.ast.BooleanType;
+import org.eventb.core.ast.BoundIdentDecl;
+import org.eventb.core.ast.BoundIdentifier;
+import org.eventb.core.ast.ExtendedExpression;
+import org.eventb.core.ast.ExtendedPredicate;
+import org.eventb.core.ast.Formula;
+import org.eventb.core.ast.FreeIdentifier;
+import org.eventb.core.ast.GivenType;
+import org.eventb.core.ast.ISimpleVisitor2;
+import org.eventb.core.ast.ITypeVisitor;
+import org.eventb.core.ast.IntegerLiteral;
+import org.eventb.core.ast.IntegerType;
+import org.eventb.core.ast.LiteralPredicate;
+import org.eventb.core.ast.MultiplePredicate;
+import org.eventb.core.ast.ParametricType;
+import org.eventb.core.ast.PowerSetType;
+import org.eventb.core.ast.PredicateVariable;
+import org.eventb.core.ast.ProductType;
+import org.eventb.core.ast.QuantifiedExpression;
+import org.eventb.core.ast.QuantifiedPredicate;
+import org.eventb.core.ast.RelationalPredicate;
+import org.eventb.core.ast.SetExtension;
+import org.eventb.core.ast.SimplePredicate;
+import org.eventb.core.ast.SourceLocation;
+import org.eventb.core.ast.Type;
+import org.eventb.core.ast.UnaryExpression;
+import org.eventb.core.ast.UnaryPredicate;
+import org.eventb.core.ast.extension.IFormulaExtension;
+
+/**
+ * Encodes a formula into the binary format described in {@link FormulaCodec}.
+ * <p>
+ * The formula tree is written in a single traversal, while collecting the
+ * names, extensions and types that it uses. The tables are then written in
+ * front of the tree. Clients shall use this class with
+ * <code>new FormulaEncoder(withLocations).encode(formula)</code>.
+ * </p>
+ *
+ * @author HHU
+ */
+public class FormulaEncoder implements ISimpleVisitor2, ITypeVisitor {
+
+	// A growable array of bytes
+	private static class Buffer {
+
+		private byte[] bytes = new byte[64];
+		private int size = 0;
+
+		Buffer() {
+			// avoid synthetic accessor emulation
+		}
+
+		private void ensureCapacity(int extra) {
+			if (size + extra > bytes.length) {
+				bytes = Arrays.copyOf(bytes,
+						Math.max(bytes.length * 2, size + extra));
+			}
+		}
+
+		void writeByte(int value) {
+			ensureCapacity(1);
+			bytes[size++] = (byte) value;
+		}
+
+		void writeBytes(byte[] values) {
+			ensureCapacity(values.length);
+			System.arraycopy(values, 0, bytes, size, values.length);
+			size += values.length;
+		}
+
+		void writeInt(int value) {
+			ensureCapacity(5);
+			while ((value & ~0x7F) != 0) {
+				bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[size++] = (byte) value;
+		}
+
+		void writeSignedInt(int value) {
+			writeInt((value << 1) ^ (value >> 31));
+		}
+
+		void writeBuffer(Buffer other) {
+			ensureCapacity(other.size);
+			System.arraycopy(other.bytes, 0, bytes, size, other.size);
+			size += other.size;
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(bytes, size);
+		}
+
+	}
+
+	private final boolean withLocations;
+
+	private final Map<String, Integer> names = new HashMap<String, Integer>();
+	private final List<String> nameList = new ArrayList<String>();
+
+	private final Map<IFormulaExtension, Integer> extensions = new HashMap<IFormulaExtension, Integer>();
+	private final List<IFormulaExtension> extensionList = new ArrayList<IFormulaExtension>();
+
+	private final Map<Type, Integer> types = new HashMap<Type, Integer>();
+	private final Buffer typeTable = new Buffer();
+
+	private final Buffer tree = new Buffer();
+
+	/**
+	 * Creates a new encoder.
+	 *
+	 * @param withLocations
+	 *            whether source locations shall be encoded
+	 */
+	public FormulaEncoder(boolean withLocations) {
+		this.withLocations = withLocations;
+	}
+
+	/**
+	 * Returns the encoding of the given formula. An encoder must be used for
+	 * one formula only.
+	 *
+	 * @param formula
+	 *            the formula to encode
+	 * @return the encoding of the formula
+	 */
+	public byte[] encode(Formula<?> formula) {
+		formula.accept(this);
+		final Buffer result = new Buffer();
+		result.writeByte(VERSION);
+		result.writeByte(withLocations ? WITH_LOCATIONS : 0);
+		result.writeInt(nameList.size());
+		for (String name : nameList) {
+			final byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+			result.writeInt(utf8.length);
+			result.writeBytes(utf8);
+		}
+		result.writeInt(extensionList.size());
+		for (IFormulaExtension extension : extensionList) {
+			result.writeInt(getName(extension.getId()));
+		}
+		result.writeInt(types.size());
+		result.writeBuffer(typeTable);
+		result.writeBuffer(tree);
+		return result.toByteArray();
+	}
+
+	private int getName(String name) {
+		final Integer index = names.get(name);
+		if (index != null) {
+			return index;
+		}
+		final int newIndex = nameList.size();
+		names.put(name, newIndex);
+		nameList.add(name);
+		return newIndex;
+	}
+
+	private int getExtension(IFormulaExtension extension) {
+		final Integer index = extensions.get(extension);
+		if (index != null) {
+			return index;
+		}
+		final int newIndex = extensionList.size();
+		extensions.put(extension, newIndex);
+		extensionList.add(extension);
+		// Ensure the name of the extension is in the name table
+		getName(extension.getId());
+		return newIndex;
+	}
+
+	// Returns the index of the given type, adding it to the table if needed
+	private int getType(Type type) {
+		final Integer index = types.get(type);
+		if (index != null) {
+			return index;
+		}
+		// Children types are added first
+		type.accept(this);
+		final int newIndex = types.size();
+		types.put(type, newIndex);
+		return newIndex;
+	}
+
+	private void writeType(Type type) {
+		tree.writeInt(type == null ? 0 : getType(type) + 1);
+	}
+
+	private void writeHeader(Formula<?> formula, int code) {
+		tree.writeInt(code);
+		if (withLocations) {
+			final SourceLocation location = formula.getSourceLocation();
+			if (location == null) {
+				tree.writeInt(0);
+			} else {
+				tree.writeInt(location.getStart() + 1);
+				tree.writeSignedInt(location.getEnd() - location.getStart());
+			}
+		}
+	}
+
+	private void writeHeader(Formula<?> formula) {
+		writeHeader(formula, FormulaCodec.getCode(formula.getTag()));
+	}
+
+	private void writeChildren(Formula<?>[] children) {
+		tree.writeInt(children.length);
+		for (Formula<?> child : children) {
+			child.accept(this);
+		}
+	}
+
+	private void writeExtended(Formula<?> formula,
+			IFormulaExtension extension, Formula<?>[] childExprs,
+			Formula<?>[] childPreds) {
+		final int code = FormulaCodec.getStandardTagCount()
+				+ getExtension(extension);
+		writeHeader(formula, code);
+		writeChildren(childExprs);
+		writeChildren(childPreds);
+	}
+
+	@Override
+	public void visitBecomesEqualTo(BecomesEqualTo assignment) {
+		writeHeader(assignment);
+		writeChildren(assignment.getAssignedIdentifiers());
+		for (Formula<?> value : assignment.getExpressions()) {
+			value.accept(this);
+		}
+	}
+
+	@Override
+	public void visitBecomesMemberOf(BecomesMemberOf assignment) {
+		writeHeader(assignment);
+		assignment.getAssignedIdentifiers()[0].accept(this);
+		assignment.getSet().accept(this);
+	}
+
+	@Override
+	public void visitBecomesSuchThat(BecomesSuchThat assignment) {
+		writeHeader(assignment);
+		writeChildren(assignment.getAssignedIdentifiers());
+		for (BoundIdentDecl primed : assignment.getPrimedIdents()) {
+			primed.accept(this);
+		}
+		assignment.getCondition().accept(this);
+	}
+
+	@Override
+	public void visitBoundIdentDecl(BoundIdentDecl boundIdentDecl) {
+		writeHeader(boundIdentDecl);
+		tree.writeInt(getName(boundIdentDecl.getName()));
+		writeType(boundIdentDecl.getType());
+	}
+
+	@Override
+	public void visitAssociativeExpression(AssociativeExpression expression) {
+		writeHeader(expression);
+		writeChildren(expression.getChildren());
+	}
+
+	@Override
+	public void visitAtomicExpression(AtomicExpression expression) {
+		writeHeader(expression);
+		writeType(expression.getType());
+	}
+
+	@Override
+	public void visitBinaryExpression(BinaryExpression expression) {
+		writeHeader(expression);
+		expression.getLeft().accept(this);
+		expression.getRight().accept(this);
+	}
+
+	@Override
+	public void visitBoolExpression(BoolExpression expression) {
+		writeHeader(expression);
+		expression.getPredicate().accept(this);
+	}
+
+	@Override
+	public void visitIntegerLiteral(IntegerLiteral expression) {
+		writeHeader(expression);
+		final byte[] value = expression.getValue().toByteArray();
+		tree.writeInt(value.length);
+		tree.writeBytes(value);
+	}
+
+	@Override
+	public void visitQuantifiedExpression(QuantifiedExpression expression) {
+		writeHeader(expression);
+		tree.writeInt(expression.getForm().ordinal());
+		writeChildren(expression.getBoundIdentDecls());
+		expression.getPredicate().accept(this);
+		expression.getExpression().accept(this);
+	}
+
+	@Override
+	public void visitSetExtension(SetExtension expression) {
+		writeHeader(expression);
+		final Formula<?>[] members = expression.getMembers();
+		writeChildren(members);
+		if (members.length == 0) {
+			writeType(expression.getType());
+		}
+	}
+
+	@Override
+	public void visitUnaryExpression(UnaryExpression expression) {
+		writeHeader(expression);
+		expression.getChild().accept(this);
+	}
+
+	@Override
+	public void visitBoundIdentifier(BoundIdentifier identifierExpression) {
+		writeHeader(identifierExpression);
+		tree.writeInt(identifierExpression.getBoundIndex());
+		writeType(identifierExpression.getType());
+	}
+
+	@Override
+	public void visitFreeIdentifier(FreeIdentifier identifierExpression) {
+		writeHeader(identifierExpression);
+		tree.writeInt(getName(identifierExpression.getName()));
+		writeType(identifierExpression.getType());
+	}
+
+	@Override
+	public void visitAssociativePredicate(AssociativePredicate predicate) {
+		writeHeader(predicate);
+		writeChildren(predicate.getChildren());
+	}
+
+	@Override
+	public void visitBinaryPredicate(BinaryPredicate predicate) {
+		writeHeader(predicate);
+		predicate.getLeft().accept(this);
+		predicate.getRight().accept(this);
+	}
+
+	@Override
+	public void visitLiteralPredicate(LiteralPredicate predicate) {
+		writeHeader(predicate);
+	}
+
+	@Override
+	public void visitMultiplePredicate(MultiplePredicate predicate) {
+		writeHeader(predicate);
+		writeChildren(predicate.getChildren());
+	}
+
+	@Override
+	public void visitQuantifiedPredicate(QuantifiedPredicate predicate) {
+		writeHeader(predicate);
+		writeChildren(predicate.getBoundIdentDecls());
+		predicate.getPredicate().accept(this);
+	}
+
+	@Override
+	public void visitRelationalPredicate(RelationalPredicate predicate) {
+		writeHeader(predicate);
+		predicate.getLeft().accept(this);
+		predicate.getRight().accept(this);
+	}
+
+	@Override
+	public void visitSimplePredicate(SimplePredicate predicate) {
+		writeHeader(predicate);
+		predicate.getExpression().accept(this);
+	}
+
+	@Override
+	public void visitUnaryPredicate(UnaryPredicate predicate) {
+		writeHeader(predicate);
+		predicate.getChild().accept(this);
+	}
+
+	@Override
+	public void visitExtendedExpression(ExtendedExpression expression) {
+		writeExtended(expression, expression.getExtension(),
+				expression.getChildExpressions(),
+				expression.getChildPredicates());
+		writeType(expression.getType());
+	}
+
+	@Override
+	public void visitExtendedPredicate(ExtendedPredicate predicate) {
+		writeExtended(predicate, predicate.getExtension(),
+				predicate.getChildExpressions(),
+				predicate.getChildPredicates());
+	}
+
+	@Override
+	public void visitPredicateVariable(PredicateVariable predVar) {
+		writeHeader(predVar);
+		tree.writeInt(getName(predVar.getName()));
+	}
+
+	/*
+	 * Type visitor methods add the children of a type to the table, then write
+	 * the entry of the type itself.
+	 */
+
+	@Override
+	public void visit(BooleanType type) {
+		typeTable.writeInt(BOOLEAN_TYPE);
+	}
+
+	@Override
+	public void visit(GivenType type) {
+		final int name = getName(type.getName());
+		typeTable.writeInt(GIVEN_TYPE);
+		typeTable.writeInt(name);
+	}
+
+	@Override
+	public void visit(IntegerType type) {
+		typeTable.writeInt(INTEGER_TYPE);
+	}
+
+	@Override
+	public void visit(ParametricType type) {
+		final int extension = getExtension(type.getExprExtension());
+		final Type[] parameters = type.getTypeParameters();
+		final int[] indexes = new int[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			indexes[i] = getType(parameters[i]);
+		}
+		typeTable.writeInt(PARAMETRIC_TYPE);
+		typeTable.writeInt(extension);
+		typeTable.writeInt(indexes.length);
+		for (int index : indexes) {
+			typeTable.writeInt(index);
+		}
+	}
+
+	@Override
+	public void visit(PowerSetType type) {
+		final int base = getType(type.getBaseType());
+		typeTable.writeInt(POWER_SET_TYPE);
+		typeTable.writeInt(base);
+	}
+
+	@Override
+	public void visit(ProductType type) {
+		final int left = getType(type.getLeft());
+		final int right = getType(type.getRight());
+		typeTable.writeInt(PRODUCT_TYPE);
+		typeTable.writeInt(left);
+		typeTable.writeInt(right);
+	}
+
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast;
+
+import org.eventb.core.ast.Assignment;
+import org.eventb.core.ast.BecomesEqualTo;
+import org.eventb.core.ast.BecomesMemberOf;
+import org.eventb.core.ast.BecomesSuchThat;
+import org.eventb.core.ast.BoundIdentDecl;
+import org.eventb.core.ast.Expression;
+import org.eventb.core.ast.Formula;
+import org.eventb.core.ast.QuantifiedExpression;
+import org.eventb.core.ast.QuantifiedExpression.Form;
+
+/**
+ * Table of canonical instances of formulas.
+ * <p>
+ * Equality of formulas is modulo alpha-conversion: it ignores the names of
+ * bound identifier declarations and the form of quantified expressions. As
+ * both show when formulas are printed, formulas are represented by the same
+ * canonical instance only if they are equal and, moreover, declare the same
+ * bound identifier names and use the same forms of quantified expressions.
+ * Such a check stops at sub-formulas that are the same object, so that it is
+ * cheap when the sub-formulas themselves are canonical instances.
+ * </p>
+ * 
+ * @author HHU
+ */
+public class FormulaInterner extends WeakInterner<Formula<?>> {
+
+	@Override
+	protected boolean equivalent(Formula<?> left, Formula<?> right) {
+		return left.equals(right) && sameBinders(left, right);
+	}
+
+	// The given formulas must be equal
+	private static boolean sameBinders(Formula<?> left, Formula<?> right) {
+		if (left == right) {
+			return true;
+		}
+		if (left instanceof BoundIdentDecl) {
+			return ((BoundIdentDecl) left).getName().equals(
+					((BoundIdentDecl) right).getName());
+		}
+		if (left instanceof Assignment) {
+			return sameBinders((Assignment) left, (Assignment) right);
+		}
+		if (left instanceof QuantifiedExpression) {
+			final Form leftForm = ((QuantifiedExpression) left).getForm();
+			if (leftForm != ((QuantifiedExpression) right).getForm()) {
+				return false;
+			}
+		}
+		final int count = left.getChildCount();
+		for (int i = 0; i < count; i++) {
+			if (!sameBinders(left.getChild(i), right.getChild(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Assignments do not give access to their children
+	private static boolean sameBinders(Assignment left, Assignment right) {
+		if (left instanceof BecomesEqualTo) {
+			final Expression[] leftExprs = ((BecomesEqualTo) left)
+					.getExpressions();
+			final Expression[] rightExprs = ((BecomesEqualTo) right)
+					.getExpressions();
+			for (int i = 0; i < leftExprs.length; i++) {
+				if (!sameBinders(leftExprs[i], rightExprs[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+		if (left instanceof BecomesMemberOf) {
+			return sameBinders(((BecomesMemberOf) left).getSet(),
+					((BecomesMemberOf) right).getSet());
+		}
+		final BecomesSuchThat leftBst = (BecomesSuchThat) left;
+		final BecomesSuchThat rightBst = (BecomesSuchThat) right;
+		final BoundIdentDecl[] leftDecls = leftBst.getPrimedIdents();
+		final BoundIdentDecl[] rightDecls = rightBst.getPrimedIdents();
+		for (int i = 0; i < leftDecls.length; i++) {
+			if (!sameBinders(leftDecls[i], rightDecls[i])) {
+				return false;
+			}
+		}
+		return sameBinders(leftBst.getCondition(), rightBst.getCondition());
+	}
+
+}
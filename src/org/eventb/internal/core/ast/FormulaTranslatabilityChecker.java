@@ -7,10 +7,20 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - only inspect sub-formulas which may be untranslatable
  *******************************************************************************/
 package org.eventb.internal.core.ast;
 
+import static org.eventb.core.ast.Formula.BOUND_IDENT;
+import static org.eventb.core.ast.Formula.BOUND_IDENT_DECL;
+import static org.eventb.core.ast.Formula.FREE_IDENT;
+import static org.eventb.core.ast.Formula.INTEGER;
+import static org.eventb.core.ast.Formula.KID_GEN;
+import static org.eventb.core.ast.Formula.SETEXT;
+
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import org.eventb.core.ast.AtomicExpression;
 import org.eventb.core.ast.BoundIdentDecl;
@@ -23,6 +33,7 @@ import org.eventb.core.ast.Formula;
 import org.eventb.core.ast.FormulaFactory;
 import org.eventb.core.ast.FreeIdentifier;
 import org.eventb.core.ast.IAccumulator;
+import org.eventb.core.ast.ITagSelective;
 import org.eventb.core.ast.SetExtension;
 import org.eventb.core.ast.Type;
 import org.eventb.core.ast.extension.IExtendedFormula;
@@ -35,10 +46,16 @@ import org.eventb.core.ast.extension.IFormulaExtension;
  * formula. Then, we run an inspector on the formula to check types and
  * extensions. Types need only be verified on leaf nodes that can introduce new
  * types.
+ * <p>
+ * The inspector only visits the sub-formulas which contain an extension unknown
+ * to the target factory or, if the formula is type-checked, a node whose type
+ * needs verification.
+ * </p>
  * 
  * @author Vincent Monfort
  */
-public class FormulaTranslatabilityChecker extends DefaultInspector<String> {
+public class FormulaTranslatabilityChecker extends DefaultInspector<String>
+		implements ITagSelective {
 
 	/**
 	 * Tells whether the given formula can be translated to the given factory.
@@ -63,16 +80,52 @@ public class FormulaTranslatabilityChecker extends DefaultInspector<String> {
 			}
 		}
 		final FormulaTranslatabilityChecker checker;
-		checker = new FormulaTranslatabilityChecker(factory);
+		checker = new FormulaTranslatabilityChecker(formula, factory);
 		final List<String> result = formula.inspect(checker);
 		return result.isEmpty();
 
 	}
 
+	private static final int[] TYPED_LEAF_TAGS = { FREE_IDENT,
+			BOUND_IDENT_DECL, BOUND_IDENT, SETEXT };
+
 	private final FormulaFactory factory;
 
-	private FormulaTranslatabilityChecker(FormulaFactory factory) {
+	private final int[] tagsOfInterest;
+
+	private FormulaTranslatabilityChecker(Formula<?> formula,
+			FormulaFactory factory) {
 		this.factory = factory;
+		this.tagsOfInterest = computeTagsOfInterest(formula);
+	}
+
+	private int[] computeTagsOfInterest(Formula<?> formula) {
+		final Set<IFormulaExtension> extensions = formula.getFactory()
+				.getExtensions();
+		final boolean typed = formula.isTypeChecked();
+		final int[] tags = new int[TYPED_LEAF_TAGS.length + KID_GEN - INTEGER
+				+ 1 + extensions.size()];
+		int length = 0;
+		if (typed) {
+			for (int tag : TYPED_LEAF_TAGS) {
+				tags[length++] = tag;
+			}
+			for (int tag = INTEGER; tag <= KID_GEN; tag++) {
+				tags[length++] = tag;
+			}
+		}
+		for (IFormulaExtension extension : extensions) {
+			// Extended expressions also carry a type to verify
+			if (typed || !factory.hasExtension(extension)) {
+				tags[length++] = FormulaFactory.getTag(extension);
+			}
+		}
+		return Arrays.copyOf(tags, length);
+	}
+
+	@Override
+	public int[] getTagsOfInterest() {
+		return tagsOfInterest;
 	}
 
 	private void checkTypeTranslatable(Expression expr, IAccumulator<String> acc) {
@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - added pruning of sub-formulas
+ *     HHU - added memoization of rewritten sub-formulas
  *******************************************************************************/
 package org.eventb.internal.core.ast;
 
@@ -21,6 +23,7 @@ import org.eventb.core.ast.BoundIdentifier;
 import org.eventb.core.ast.Expression;
 import org.eventb.core.ast.ExtendedExpression;
 import org.eventb.core.ast.ExtendedPredicate;
+import org.eventb.core.ast.Formula;
 import org.eventb.core.ast.FormulaFactory;
 import org.eventb.core.ast.FreeIdentifier;
 import org.eventb.core.ast.IFormulaRewriter;
@@ -83,6 +86,29 @@ public interface ITypeCheckingRewriter {
 
 	void leavingQuantifier(int nbOfBoundIdentDecls);
 
+	/**
+	 * Tells whether the given formula shall be left unchanged without being
+	 * traversed, as it contains nothing that this rewriter would change.
+	 */
+	boolean skips(Formula<?> formula);
+
+	/**
+	 * Returns the result of a previous rewrite of the given node at the
+	 * current binding depth, or <code>null</code> if this rewriter does not
+	 * remember it.
+	 */
+	Expression getMemoized(Expression src);
+
+	Predicate getMemoized(Predicate src);
+
+	/**
+	 * Remembers the result of rewriting the given node at the current binding
+	 * depth, if this rewriter memoizes its results, and returns that result.
+	 */
+	Expression memoize(Expression src, Expression dst);
+
+	Predicate memoize(Predicate src, Predicate dst);
+
 	/**
 	 * The node must be rebuilt with the rewriter factory if the node factory is
 	 * different whether the node content is modified or not.
@@ -0,0 +1,372 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable map implemented as a hash array mapped trie.
+ * <p>
+ * Adding an entry to a map does not modify it, but returns a new map which
+ * shares most of its structure with the original one. Hence, maps can be
+ * copied for free, and deriving a map from another one only costs a number of
+ * node copies which is logarithmic in the size of the map.
+ * </p>
+ * <p>
+ * Each node of the trie consumes five bits of the hash codes of its keys. Keys
+ * whose hash codes are equal are stored in a collision node, which is searched
+ * linearly. Keys and values cannot be <code>null</code>.
+ * </p>
+ *
+ * @author HHU
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+	private static final int BITS = 5;
+	private static final int MASK = (1 << BITS) - 1;
+
+	// seven bitmap levels for 32 bits of hash code, then a collision node
+	private static final int MAX_DEPTH = 8;
+
+	private static final Object NOT_FOUND = new Object();
+
+	private static final BitmapNode EMPTY_NODE = new BitmapNode(0,
+			new Object[0]);
+
+	private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<Object, Object>(
+			EMPTY_NODE, 0);
+
+	/*
+	 * A node stores its children in an array of pairs. The first element of a
+	 * pair is either a key, followed by its value, or null, followed by a
+	 * sub-node.
+	 */
+	private static abstract class Node {
+
+		final Object[] array;
+
+		Node(Object[] array) {
+			this.array = array;
+		}
+
+		// Returns the value of the given key, or NOT_FOUND
+		abstract Object find(int hash, int shift, Object key);
+
+		// Returns a node with the given entry added, or this node if it
+		// already contains the entry
+		abstract Node plus(int hash, int shift, Object key, Object value,
+				boolean[] added);
+
+	}
+
+	private static final class BitmapNode extends Node {
+
+		// bit i is set iff there is a child for hash bits i at this level
+		private final int bitmap;
+
+		BitmapNode(int bitmap, Object[] array) {
+			super(array);
+			this.bitmap = bitmap;
+		}
+
+		@Override
+		Object find(int hash, int shift, Object key) {
+			final int bit = bitpos(hash, shift);
+			if ((bitmap & bit) == 0) {
+				return NOT_FOUND;
+			}
+			final int idx = 2 * index(bit);
+			final Object k = array[idx];
+			final Object v = array[idx + 1];
+			if (k == null) {
+				return ((Node) v).find(hash, shift + BITS, key);
+			}
+			return key.equals(k) ? v : NOT_FOUND;
+		}
+
+		@Override
+		Node plus(int hash, int shift, Object key, Object value,
+				boolean[] added) {
+			final int bit = bitpos(hash, shift);
+			final int idx = 2 * index(bit);
+			if ((bitmap & bit) == 0) {
+				added[0] = true;
+				final Object[] newArray = new Object[array.length + 2];
+				System.arraycopy(array, 0, newArray, 0, idx);
+				newArray[idx] = key;
+				newArray[idx + 1] = value;
+				System.arraycopy(array, idx, newArray, idx + 2, array.length
+						- idx);
+				return new BitmapNode(bitmap | bit, newArray);
+			}
+			final Object k = array[idx];
+			final Object v = array[idx + 1];
+			final Object newChild;
+			if (k == null) {
+				newChild = ((Node) v).plus(hash, shift + BITS, key, value,
+						added);
+			} else if (key.equals(k)) {
+				newChild = value;
+			} else {
+				added[0] = true;
+				newChild = makeNode(shift + BITS, k, v, hash, key, value);
+			}
+			if (newChild == v) {
+				return this;
+			}
+			final Object[] newArray = array.clone();
+			newArray[idx] = newChild instanceof Node ? null : key;
+			newArray[idx + 1] = newChild;
+			return new BitmapNode(bitmap, newArray);
+		}
+
+		private int index(int bit) {
+			return Integer.bitCount(bitmap & (bit - 1));
+		}
+
+		private static int bitpos(int hash, int shift) {
+			return 1 << ((hash >>> shift) & MASK);
+		}
+
+		// Returns a node containing two entries with distinct keys
+		private static Node makeNode(int shift, Object key1, Object value1,
+				int hash2, Object key2, Object value2) {
+			final int hash1 = hash(key1);
+			if (hash1 == hash2) {
+				return new CollisionNode(hash1, new Object[] { key1, value1,
+						key2, value2 });
+			}
+			final boolean[] added = new boolean[1];
+			return EMPTY_NODE.plus(hash1, shift, key1, value1, added).plus(
+					hash2, shift, key2, value2, added);
+		}
+
+	}
+
+	private static final class CollisionNode extends Node {
+
+		// the hash code common to all keys of this node
+		private final int hash;
+
+		CollisionNode(int hash, Object[] array) {
+			super(array);
+			this.hash = hash;
+		}
+
+		@Override
+		Object find(int h, int shift, Object key) {
+			if (h != hash) {
+				return NOT_FOUND;
+			}
+			final int idx = indexOf(key);
+			return idx < 0 ? NOT_FOUND : array[idx + 1];
+		}
+
+		@Override
+		Node plus(int h, int shift, Object key, Object value,
+				boolean[] added) {
+			if (h != hash) {
+				// Nest this node into a bitmap node to discriminate the keys
+				final int bit = BitmapNode.bitpos(hash, shift);
+				return new BitmapNode(bit, new Object[] { null, this }).plus(
+						h, shift, key, value, added);
+			}
+			final int idx = indexOf(key);
+			final Object[] newArray;
+			if (idx < 0) {
+				added[0] = true;
+				final int length = array.length;
+				newArray = new Object[length + 2];
+				System.arraycopy(array, 0, newArray, 0, length);
+				newArray[length] = key;
+				newArray[length + 1] = value;
+			} else if (array[idx + 1] == value) {
+				return this;
+			} else {
+				newArray = array.clone();
+				newArray[idx + 1] = value;
+			}
+			return new CollisionNode(hash, newArray);
+		}
+
+		private int indexOf(Object key) {
+			for (int i = 0; i < array.length; i += 2) {
+				if (key.equals(array[i])) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+	}
+
+	private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+		// arrays of the nodes being traversed, and position in each of them
+		private final Object[][] arrays = new Object[MAX_DEPTH][];
+		private final int[] positions = new int[MAX_DEPTH];
+		private int depth;
+
+		private Entry<K, V> next;
+
+		EntryIterator() {
+			arrays[0] = root.array;
+			advance();
+		}
+
+		@SuppressWarnings("unchecked")
+		private void advance() {
+			while (depth >= 0) {
+				final Object[] array = arrays[depth];
+				final int pos = positions[depth];
+				if (pos == array.length) {
+					depth--;
+					continue;
+				}
+				positions[depth] = pos + 2;
+				final Object k = array[pos];
+				final Object v = array[pos + 1];
+				if (k == null) {
+					depth++;
+					arrays[depth] = ((Node) v).array;
+					positions[depth] = 0;
+				} else {
+					next = new SimpleImmutableEntry<K, V>((K) k, (V) v);
+					return;
+				}
+			}
+			next = null;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			final Entry<K, V> result = next;
+			advance();
+			return result;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+	}
+
+	private final Node root;
+	private final int size;
+
+	private Set<Entry<K, V>> entrySet;
+
+	private PersistentHashMap(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Returns the empty map.
+	 *
+	 * @return a map without any entry
+	 */
+	@SuppressWarnings("unchecked")
+	public static <K, V> PersistentHashMap<K, V> empty() {
+		return (PersistentHashMap<K, V>) EMPTY;
+	}
+
+	static int hash(Object key) {
+		final int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Returns a map with the entries of this map and the given entry. If this
+	 * map already contains the given key, its value is replaced in the
+	 * returned map. This map is left unchanged.
+	 *
+	 * @param key
+	 *            the key of the entry to add
+	 * @param value
+	 *            the value of the entry to add
+	 * @return a map containing the given entry
+	 */
+	public PersistentHashMap<K, V> plus(K key, V value) {
+		if (key == null || value == null) {
+			throw new NullPointerException();
+		}
+		final boolean[] added = new boolean[1];
+		final Node newRoot = root.plus(hash(key), 0, key, value, added);
+		if (newRoot == root) {
+			return this;
+		}
+		return new PersistentHashMap<K, V>(newRoot, added[0] ? size + 1
+				: size);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		if (key == null) {
+			return null;
+		}
+		final Object value = root.find(hash(key), 0, key);
+		return value == NOT_FOUND ? null : (V) value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if (key == null) {
+			return false;
+		}
+		return root.find(hash(key), 0, key) != NOT_FOUND;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new AbstractSet<Entry<K, V>>() {
+
+				@Override
+				public Iterator<Entry<K, V>> iterator() {
+					return new EntryIterator();
+				}
+
+				@Override
+				public int size() {
+					return size;
+				}
+
+			};
+		}
+		return entrySet;
+	}
+
+}
@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - skip sub-formulas of no interest to the rewriter
+ *     HHU - never reuse the rewriting of shared sub-formulas
  *******************************************************************************/
 package org.eventb.internal.core.ast;
 
@@ -23,6 +25,7 @@ import org.eventb.core.ast.BoundIdentifier;
 import org.eventb.core.ast.Expression;
 import org.eventb.core.ast.ExtendedExpression;
 import org.eventb.core.ast.ExtendedPredicate;
+import org.eventb.core.ast.Formula;
 import org.eventb.core.ast.FormulaFactory;
 import org.eventb.core.ast.FreeIdentifier;
 import org.eventb.core.ast.IFormulaRewriter;
@@ -54,9 +57,12 @@ public class SameTypeRewriter implements ITypeCheckingRewriter {
 
 	private final FormulaFactory factory;
 
+	private final long tagsOfInterest;
+
 	public SameTypeRewriter(FormulaFactory ff, IFormulaRewriter rewriter) {
 		this.rewriter = rewriter;
 		this.factory = ff;
+		this.tagsOfInterest = TagSummary.maskOf(rewriter);
 	}
 
 	@Override
@@ -79,6 +85,34 @@ public class SameTypeRewriter implements ITypeCheckingRewriter {
 		rewriter.leavingQuantifier(nbOfDeclarations);
 	}
 
+	@Override
+	public boolean skips(Formula<?> formula) {
+		// Flattening must be applied to all sub-formulas
+		return (formula.getTagSummary() & tagsOfInterest) == 0
+				&& !rewriter.autoFlatteningMode();
+	}
+
+	// Client rewriters may depend on more than the rewritten node
+	@Override
+	public Expression getMemoized(Expression src) {
+		return null;
+	}
+
+	@Override
+	public Predicate getMemoized(Predicate src) {
+		return null;
+	}
+
+	@Override
+	public Expression memoize(Expression src, Expression dst) {
+		return dst;
+	}
+
+	@Override
+	public Predicate memoize(Predicate src, Predicate dst) {
+		return dst;
+	}
+
 	@Override
 	public Expression rewrite(AssociativeExpression src,
 			AssociativeExpression expr) {
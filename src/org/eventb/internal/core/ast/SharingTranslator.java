@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast;
+
+import org.eventb.core.ast.AssociativeExpression;
+import org.eventb.core.ast.AssociativePredicate;
+import org.eventb.core.ast.AtomicExpression;
+import org.eventb.core.ast.BinaryExpression;
+import org.eventb.core.ast.BinaryPredicate;
+import org.eventb.core.ast.BoolExpression;
+import org.eventb.core.ast.BoundIdentDecl;
+import org.eventb.core.ast.BoundIdentifier;
+import org.eventb.core.ast.ExtendedExpression;
+import org.eventb.core.ast.ExtendedPredicate;
+import org.eventb.core.ast.Expression;
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.FreeIdentifier;
+import org.eventb.core.ast.IntegerLiteral;
+import org.eventb.core.ast.LiteralPredicate;
+import org.eventb.core.ast.MultiplePredicate;
+import org.eventb.core.ast.Predicate;
+import org.eventb.core.ast.PredicateVariable;
+import org.eventb.core.ast.QuantifiedExpression;
+import org.eventb.core.ast.QuantifiedPredicate;
+import org.eventb.core.ast.RelationalPredicate;
+import org.eventb.core.ast.SetExtension;
+import org.eventb.core.ast.SimplePredicate;
+import org.eventb.core.ast.UnaryExpression;
+import org.eventb.core.ast.UnaryPredicate;
+
+/**
+ * Translates a type-checked formula to an interning factory, so that the
+ * result is the unique instance of the translated formula.
+ * <p>
+ * Interning factories share only formulas that are type-checked and have no
+ * source location when built. Hence, every node is built again without source
+ * location, so that the factory returns its unique instance. This holds in
+ * particular for the nodes of a formula that was parsed and then type-checked.
+ * </p>
+ *
+ * @author HHU
+ */
+public class SharingTranslator extends FormulaTranslator {
+
+	public SharingTranslator(FormulaFactory target) {
+		super(target);
+		assert target.isInterning();
+	}
+
+	@Override
+	public BoundIdentDecl rewrite(BoundIdentDecl src) {
+		final BoundIdentDecl decl = super.rewrite(src);
+		return ff.makeBoundIdentDecl(decl.getName(), null, decl.getType());
+	}
+
+	@Override
+	public Expression rewrite(AssociativeExpression src,
+			AssociativeExpression expr) {
+		return ff.makeAssociativeExpression(expr.getTag(), expr.getChildren(),
+				null);
+	}
+
+	@Override
+	public Predicate rewrite(AssociativePredicate src,
+			AssociativePredicate pred) {
+		return ff.makeAssociativePredicate(pred.getTag(), pred.getChildren(),
+				null);
+	}
+
+	@Override
+	public Expression rewrite(AtomicExpression src) {
+		return ff.makeAtomicExpression(src.getTag(), null,
+				typeRewriter.rewrite(src.getType()));
+	}
+
+	@Override
+	public Expression rewrite(BinaryExpression src, BinaryExpression expr) {
+		return ff.makeBinaryExpression(expr.getTag(), expr.getLeft(),
+				expr.getRight(), null);
+	}
+
+	@Override
+	public Predicate rewrite(BinaryPredicate src, BinaryPredicate pred) {
+		return ff.makeBinaryPredicate(pred.getTag(), pred.getLeft(),
+				pred.getRight(), null);
+	}
+
+	@Override
+	public Expression rewrite(BoolExpression src, BoolExpression expr) {
+		return ff.makeBoolExpression(expr.getPredicate(), null);
+	}
+
+	@Override
+	public Expression rewrite(BoundIdentifier src) {
+		return ff.makeBoundIdentifier(src.getBoundIndex(), null,
+				typeRewriter.rewrite(src.getType()));
+	}
+
+	@Override
+	public Expression rewrite(ExtendedExpression src, boolean changed,
+			Expression[] newChildExprs, Predicate[] newChildPreds) {
+		return ff.makeExtendedExpression(src.getExtension(), newChildExprs,
+				newChildPreds, null, typeRewriter.rewrite(src.getType()));
+	}
+
+	@Override
+	public Predicate rewrite(ExtendedPredicate src, boolean changed,
+			Expression[] newChildExprs, Predicate[] newChildPreds) {
+		return ff.makeExtendedPredicate(src.getExtension(), newChildExprs,
+				newChildPreds, null);
+	}
+
+	@Override
+	public Expression rewrite(FreeIdentifier src) {
+		return ff.makeFreeIdentifier(src.getName(), null,
+				typeRewriter.rewrite(src.getType()));
+	}
+
+	@Override
+	public Expression rewrite(IntegerLiteral src) {
+		return ff.makeIntegerLiteral(src.getValue(), null);
+	}
+
+	@Override
+	public Predicate rewrite(LiteralPredicate src) {
+		return ff.makeLiteralPredicate(src.getTag(), null);
+	}
+
+	@Override
+	public Predicate rewrite(MultiplePredicate src, MultiplePredicate pred) {
+		return ff.makeMultiplePredicate(pred.getTag(), pred.getChildren(),
+				null);
+	}
+
+	@Override
+	public Predicate rewrite(PredicateVariable src) {
+		return ff.makePredicateVariable(src.getName(), null);
+	}
+
+	@Override
+	public Expression rewrite(QuantifiedExpression src,
+			QuantifiedExpression expr) {
+		return ff.makeQuantifiedExpression(expr.getTag(),
+				expr.getBoundIdentDecls(), expr.getPredicate(),
+				expr.getExpression(), null, expr.getForm());
+	}
+
+	@Override
+	public Predicate rewrite(QuantifiedPredicate src, QuantifiedPredicate pred) {
+		return ff.makeQuantifiedPredicate(pred.getTag(),
+				pred.getBoundIdentDecls(), pred.getPredicate(), null);
+	}
+
+	@Override
+	public Predicate rewrite(RelationalPredicate src, RelationalPredicate pred) {
+		return ff.makeRelationalPredicate(pred.getTag(), pred.getLeft(),
+				pred.getRight(), null);
+	}
+
+	@Override
+	public Expression rewrite(SetExtension src, SetExtension expr) {
+		final Expression[] members = expr.getMembers();
+		if (members.length == 0) {
+			return ff.makeEmptySetExtension(
+					typeRewriter.rewrite(src.getType()), null);
+		}
+		return ff.makeSetExtension(members, null);
+	}
+
+	@Override
+	public Expression rewriteToEmptySet(SetExtension src) {
+		return ff.makeEmptySet(typeRewriter.rewrite(src.getType()), null);
+	}
+
+	@Override
+	public Predicate rewrite(SimplePredicate src, SimplePredicate pred) {
+		return ff.makeSimplePredicate(pred.getTag(), pred.getExpression(),
+				null);
+	}
+
+	@Override
+	public Expression rewrite(UnaryExpression src, boolean changed,
+			Expression newChild) {
+		return ff.makeUnaryExpression(src.getTag(), newChild, null);
+	}
+
+	@Override
+	public Expression rewrite(UnaryExpression src, IntegerLiteral expr) {
+		return ff.makeIntegerLiteral(expr.getValue(), null);
+	}
+
+	@Override
+	public Predicate rewrite(UnaryPredicate src, UnaryPredicate pred) {
+		return ff.makeUnaryPredicate(pred.getTag(), pred.getChild(), null);
+	}
+
+}
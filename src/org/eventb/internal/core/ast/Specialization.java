@@ -9,12 +9,17 @@
  *     Systerel - initial API and implementation
  *     University of Southamtpon - added support for predicate varialbes.
  *     CentraleSupélec - substitution of type with expression
+ *     HHU - memoized rewriting and preparation of types
  *******************************************************************************/
 package org.eventb.internal.core.ast;
 
 import static org.eventb.internal.core.ast.Substitute.makeSubstitute;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -49,15 +54,22 @@ public class Specialization implements ISpecialization {
 
 		// Type substitutions
 		private final Map<GivenType, Type> typeSubst;
+
+		// Memo of rewritten types, valid for the current type substitutions.
+		// Types are compared by identity, as types built by different
+		// factories are equal, but do not get rewritten the same.
+		private final Map<Type, Type> memo;
 		
 		public SpecializationTypeRewriter(FormulaFactory ff) {
 			super(ff);
 			typeSubst = new HashMap<GivenType, Type>();
+			memo = new IdentityHashMap<Type, Type>();
 		}
 
 		public SpecializationTypeRewriter(SpecializationTypeRewriter other) {
 			super(other.ff);
 			typeSubst = new HashMap<GivenType, Type>(other.typeSubst);
+			memo = new IdentityHashMap<Type, Type>(other.memo);
 		}
 
 		public Type get(GivenType key) {
@@ -78,12 +90,29 @@ public class Specialization implements ISpecialization {
 		}
 
 		public void put(GivenType type, Type value) {
+			final boolean changed = !value.equals(getWithDefault(type));
 			final Type oldValue = typeSubst.put(type, value);
 			if (oldValue != null && !oldValue.equals(value)) {
 				typeSubst.put(type, oldValue); // repair
 				throw new IllegalArgumentException("Type substitution for "
 						+ type + " already registered");
 			}
+			if (changed) {
+				memo.clear();
+			}
+		}
+
+		@Override
+		public Type rewrite(Type type) {
+			if (type == null) {
+				return null;
+			}
+			Type newType = memo.get(type);
+			if (newType == null) {
+				newType = super.rewrite(type);
+				memo.put(type, newType);
+			}
+			return newType;
 		}
 
 		@Override
@@ -274,12 +303,17 @@ public class Specialization implements ISpecialization {
 
 	private final SpecializationFormulaRewriter formRewriter;
 
+	// Types already prepared, which need not be prepared anymore, as their
+	// given types are then registered with this specialization
+	private final Set<Type> preparedTypes;
+
 	public Specialization(FormulaFactory ff) {
 		this.srcTypenv = null;
 		this.dstTypenv = ff.makeTypeEnvironment();
 		this.ff = ff;
 		speTypeRewriter = new SpecializationTypeRewriter(ff);
 		formRewriter = new SpecializationFormulaRewriter(speTypeRewriter);
+		preparedTypes = newIdentitySet();
 	}
 
 	public Specialization(Specialization other) {
@@ -290,6 +324,12 @@ public class Specialization implements ISpecialization {
 		speTypeRewriter = new SpecializationTypeRewriter(other.speTypeRewriter);
 		formRewriter = new SpecializationFormulaRewriter(other.formRewriter,
 				speTypeRewriter);
+		preparedTypes = newIdentitySet();
+		preparedTypes.addAll(other.preparedTypes);
+	}
+
+	private static Set<Type> newIdentitySet() {
+		return Collections.newSetFromMap(new IdentityHashMap<Type, Boolean>());
 	}
 
 	@Override
@@ -312,7 +352,7 @@ public class Specialization implements ISpecialization {
 		return dstTypenv;
 	}
 
-	public ITypeCheckingRewriter getFormulaRewriter() {
+	public Substitution getFormulaRewriter() {
 		return formRewriter;
 	}
 
@@ -483,6 +523,9 @@ public class Specialization implements ISpecialization {
 	 * specialization.
 	 */
 	public void prepare(Type type) {
+		if (preparedTypes.contains(type)) {
+			return;
+		}
 		final Set<GivenType> givens = type.getGivenTypes();
 
 		// Ensure that type environments are compatible
@@ -502,6 +545,7 @@ public class Specialization implements ISpecialization {
 		for (final GivenType given : givens) {
 			maybeAddTypeIdentitySubstitution(given);
 		}
+		preparedTypes.add(type);
 	}
 
 	/*
@@ -698,4 +742,13 @@ public class Specialization implements ISpecialization {
 		return formRewriter.getPredicateVariables();
 	}
 
+	@Override
+	public <T extends Formula<T>> List<T> specialize(List<T> formulas) {
+		final List<T> result = new ArrayList<T>(formulas.size());
+		for (final T formula : formulas) {
+			result.add(formula.specialize(this));
+		}
+		return result;
+	}
+
 }
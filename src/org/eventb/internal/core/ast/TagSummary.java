@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast;
+
+import static org.eventb.core.ast.Formula.FIRST_EXTENSION_TAG;
+
+import org.eventb.core.ast.ITagSelective;
+
+/**
+ * Summaries of the tags occurring in a formula.
+ * <p>
+ * A summary is a bit set of 64 bits, where each tag is mapped to one bit. The
+ * low-order bits are shared by the standard tags, taken in the order of their
+ * codes (see {@link FormulaCodec}), while the high-order bits are shared by
+ * extension tags. A summary may thus tell that a tag occurs in a formula
+ * although it does not, but never the converse.
+ * </p>
+ * <p>
+ * The summary of each formula is computed at construction from the ones of its
+ * children, so that traversals can skip sub-formulas where the tags of
+ * interest for their client do not occur.
+ * </p>
+ *
+ * @author HHU
+ */
+public final class TagSummary {
+
+	// Number of bits for standard tags, the remaining being for extensions
+	private static final int STANDARD_BITS = 56;
+
+	/**
+	 * Summary of a formula which may contain any tag.
+	 */
+	public static final long ALL = -1L;
+
+	private TagSummary() {
+		// no instance
+	}
+
+	/**
+	 * Returns the summary of a formula that contains only the given tag.
+	 *
+	 * @param tag
+	 *            a tag
+	 * @return the bit of the given tag
+	 */
+	public static long bitOf(int tag) {
+		if (tag >= FIRST_EXTENSION_TAG) {
+			return 1L << (STANDARD_BITS + tag % (64 - STANDARD_BITS));
+		}
+		final int code = FormulaCodec.getCode(tag);
+		if (code < 0) {
+			return ALL;
+		}
+		return 1L << (code % STANDARD_BITS);
+	}
+
+	/**
+	 * Returns the mask of the given tags.
+	 *
+	 * @param tags
+	 *            some tags
+	 * @return the union of the bits of the given tags
+	 */
+	public static long maskOf(int[] tags) {
+		long mask = 0;
+		for (int tag : tags) {
+			mask |= bitOf(tag);
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the mask of the tags of interest for the given traversal client.
+	 *
+	 * @param client
+	 *            an inspector, a filter or a rewriter
+	 * @return the mask of the tags of interest declared by the client, or
+	 *         {@link #ALL} if it does not declare any
+	 */
+	public static long maskOf(Object client) {
+		if (client instanceof FilteringInspector) {
+			return maskOf(((FilteringInspector) client).getFilter());
+		}
+		if (client instanceof ITagSelective) {
+			return maskOf(((ITagSelective) client).getTagsOfInterest());
+		}
+		return ALL;
+	}
+
+}
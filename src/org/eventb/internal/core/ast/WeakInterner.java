@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table of canonical instances of some class, where equivalent objects are
+ * represented by a single instance.
+ * <p>
+ * Objects are only weakly referenced by the table, so that canonical instances
+ * that are not used anymore can be garbage collected. The table is split into
+ * independently locked stripes, so that it can be used concurrently by several
+ * threads with little contention.
+ * </p>
+ * <p>
+ * Objects are equivalent when they are equal, unless sub-classes override
+ * {@link #equivalent(Object, Object)}. Interned objects must be immutable, at
+ * least with respect to that equivalence and their <code>hashCode()</code>
+ * method.
+ * </p>
+ * 
+ * @author HHU
+ */
+public class WeakInterner<T> {
+
+	// Must be a power of two
+	private static final int NB_STRIPES = 16;
+
+	private final class Entry extends WeakReference<T> {
+
+		private final int hashCode;
+
+		public Entry(T object, int hashCode, ReferenceQueue<T> queue) {
+			super(object, queue);
+			this.hashCode = hashCode;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof WeakInterner<?>.Entry)) {
+				return false;
+			}
+			@SuppressWarnings("unchecked")
+			final T other = ((Entry) obj).get();
+			final T object = get();
+			return object != null && other != null
+					&& equivalent(object, other);
+		}
+
+	}
+
+	private final class Stripe {
+
+		final Map<Entry, Entry> entries = new HashMap<Entry, Entry>();
+
+		final ReferenceQueue<T> queue = new ReferenceQueue<T>();
+
+		void expungeStaleEntries() {
+			Reference<? extends T> ref;
+			while ((ref = queue.poll()) != null) {
+				entries.remove(ref);
+			}
+		}
+
+	}
+
+	private final List<Stripe> stripes;
+
+	public WeakInterner() {
+		stripes = new ArrayList<Stripe>(NB_STRIPES);
+		for (int i = 0; i < NB_STRIPES; i++) {
+			stripes.add(new Stripe());
+		}
+	}
+
+	private Stripe getStripe(int hashCode) {
+		final int index = (hashCode ^ (hashCode >>> 16)) & (NB_STRIPES - 1);
+		return stripes.get(index);
+	}
+
+	/**
+	 * Tells whether the given objects, which have the same hash code, can be
+	 * represented by the same canonical instance. By default, objects are
+	 * equivalent when they are equal.
+	 * 
+	 * @param left
+	 *            some object
+	 * @param right
+	 *            another object
+	 * @return <code>true</code> iff the given objects are equivalent
+	 */
+	protected boolean equivalent(T left, T right) {
+		return left.equals(right);
+	}
+
+	/**
+	 * Returns the canonical instance equivalent to the given object. If there
+	 * is none yet, the given object becomes the canonical instance.
+	 * 
+	 * @param object
+	 *            some object
+	 * @return the canonical instance equivalent to the given object
+	 */
+	public T intern(T object) {
+		final int hashCode = object.hashCode();
+		final Stripe stripe = getStripe(hashCode);
+		synchronized (stripe) {
+			stripe.expungeStaleEntries();
+			final Entry probe = new Entry(object, hashCode, null);
+			final Entry entry = stripe.entries.get(probe);
+			if (entry != null) {
+				final T canonical = entry.get();
+				if (canonical != null) {
+					return canonical;
+				}
+				stripe.entries.remove(entry);
+			}
+			final Entry newEntry = new Entry(object, hashCode, stripe.queue);
+			stripe.entries.put(newEntry, newEntry);
+			return object;
+		}
+	}
+
+	/**
+	 * Returns the number of canonical instances currently in this table. As
+	 * instances may be garbage collected at any time, the result is only an
+	 * estimate.
+	 * 
+	 * @return the number of canonical instances
+	 */
+	public int size() {
+		int result = 0;
+		for (final Stripe stripe : stripes) {
+			synchronized (stripe) {
+				result += stripe.entries.size();
+			}
+		}
+		return result;
+	}
+
+}
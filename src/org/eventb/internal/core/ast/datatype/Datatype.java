@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - thread-safe weak registry of datatypes
  *******************************************************************************/
 package org.eventb.internal.core.ast.datatype;
 
@@ -31,6 +32,7 @@ import org.eventb.core.ast.datatype.IDatatype;
 import org.eventb.core.ast.datatype.IDestructorExtension;
 import org.eventb.core.ast.datatype.ISetInstantiation;
 import org.eventb.core.ast.extension.IFormulaExtension;
+import org.eventb.internal.core.ast.WeakInterner;
 
 /**
  * Implementation of a complete datatype which references all its extensions
@@ -45,8 +47,9 @@ import org.eventb.core.ast.extension.IFormulaExtension;
  */
 public class Datatype implements IDatatype {
 
-	private static final Map<Datatype, Datatype> REGISTRY //
-	= new HashMap<Datatype, Datatype>();
+	// Canonical datatypes, collected when not used anymore
+	private static final WeakInterner<Datatype> REGISTRY //
+	= new WeakInterner<Datatype>();
 
 	// Ensure uniqueness of datatypes
 	public static Datatype makeDatatype(DatatypeBuilder dtBuilder) {
@@ -55,12 +58,7 @@ public class Datatype implements IDatatype {
 	}
 
 	private static Datatype registerDatatype(Datatype candidate) {
-		final Datatype representative = REGISTRY.get(candidate);
-		if (representative != null) {
-			return representative;
-		}
-		REGISTRY.put(candidate, candidate);
-		return candidate;
+		return REGISTRY.intern(candidate);
 	}
 
 	// The minimal factory containing all extensions that are needed to define
@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - tokens stored in a token buffer
  *******************************************************************************/
 package org.eventb.internal.core.ast.datatype;
 
@@ -14,17 +15,13 @@ import static org.eventb.core.ast.ProblemKind.DatatypeParsingError;
 import static org.eventb.core.ast.ProblemSeverities.Error;
 import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.IDENT;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.eventb.core.ast.ASTProblem;
 import org.eventb.core.ast.GivenType;
 import org.eventb.core.ast.SourceLocation;
 import org.eventb.internal.core.lexer.GenLexer;
-import org.eventb.internal.core.lexer.GenLexer.LexState;
 import org.eventb.internal.core.lexer.ILexer;
 import org.eventb.internal.core.lexer.Scanner;
-import org.eventb.internal.core.lexer.Token;
+import org.eventb.internal.core.lexer.TokenBuffer;
 import org.eventb.internal.core.parser.AbstractGrammar;
 import org.eventb.internal.core.parser.ParseResult;
 
@@ -59,14 +56,20 @@ public class DatatypeLexer implements ILexer {
 	// The lexer we're proxying
 	private final GenLexer lexer;
 
+	// The buffer where the proxied lexer stores tokens
+	private final TokenBuffer tokens;
+
 	// The grammar (needed to produce tokens)
 	private final AbstractGrammar grammar;
 
-	// The token for the datatype identifier
-	private final Token datatypeToken;
+	// The name of the datatype identifier
+	private final String datatypeName;
+
+	// The kinds of the stream of tokens to recognize
+	private final int[] expectedKinds;
 
-	// The stream of tokens to recognize
-	private final List<Token> expectedTokens = new ArrayList<Token>();
+	// The images of the stream of tokens to recognize
+	private final String[] expectedImages;
 
 	// The kind of identifiers (local cache)
 	private final int identKind;
@@ -74,37 +77,41 @@ public class DatatypeLexer implements ILexer {
 	private DatatypeLexer(DatatypeBuilder dtBuilder, String toLex,
 			ParseResult result, AbstractGrammar grammar) {
 		this.lexer = new GenLexer(toLex, result, grammar);
+		this.tokens = lexer.getTokens();
 		this.grammar = grammar;
 		this.identKind = grammar.getKind(IDENT);
-		this.datatypeToken = mIdentToken(dtBuilder.getName());
-		makeExpectedTokens(dtBuilder);
-	}
-
-	private void makeExpectedTokens(DatatypeBuilder dtBuilder) {
+		this.datatypeName = dtBuilder.getName();
 		final GivenType[] params = dtBuilder.getTypeParameters();
 		assert params.length != 0;
-		final Token comma = mToken(",");
-		Token sep = mToken("(");
+		this.expectedKinds = new int[2 * params.length + 1];
+		this.expectedImages = new String[2 * params.length + 1];
+		makeExpectedTokens(params);
+	}
+
+	private void makeExpectedTokens(GivenType[] params) {
+		String sep = "(";
+		int index = 0;
 		for (final GivenType param : params) {
-			expectedTokens.add(sep);
-			sep = comma;
-			expectedTokens.add(mIdentToken(param.getName()));
+			setExpectedToken(index++, grammar.getKind(sep), sep);
+			sep = ",";
+			setExpectedToken(index++, identKind, param.getName());
 		}
-		expectedTokens.add(mToken(")"));
+		setExpectedToken(index, grammar.getKind(")"), ")");
 	}
 
-	private Token mToken(String image) {
-		return new Token(grammar.getKind(image), image, -1);
+	private void setExpectedToken(int index, int kind, String image) {
+		expectedKinds[index] = kind;
+		expectedImages[index] = image;
 	}
 
-	private Token mIdentToken(String image) {
-		return new Token(identKind, image, -1);
+	private boolean isToken(int tk, int kind, String image) {
+		return tokens.getKind(tk) == kind && tokens.isLexem(tk, image);
 	}
 
 	@Override
-	public Token nextToken() {
-		final Token tk = lexer.nextToken();
-		if (tk.equals(datatypeToken)) {
+	public int nextToken() {
+		final int tk = lexer.nextToken();
+		if (isToken(tk, identKind, datatypeName)) {
 			if (!skipExpectedTokens()) {
 				// Give up on error
 				return lexer.makeEOF();
@@ -119,32 +126,28 @@ public class DatatypeLexer implements ILexer {
 	 * @return <code>true</code> iff we got all the expected tokens
 	 */
 	private boolean skipExpectedTokens() {
-		for (final Token expTk : this.expectedTokens) {
-			final Token tk = lexer.nextToken();
-			if (!tk.equals(expTk)) {
-				addProblem(tk, expTk);
+		for (int i = 0; i < expectedKinds.length; i++) {
+			final int tk = lexer.nextToken();
+			if (!isToken(tk, expectedKinds[i], expectedImages[i])) {
+				addProblem(tk, expectedImages[i]);
 				return false;
 			}
 		}
 		return true;
 	}
 
-	private void addProblem(Token tk, Token expected) {
-		final int end = tk.pos + tk.val.length();
-		final SourceLocation sloc = new SourceLocation(tk.pos, end);
+	private void addProblem(int tk, String expected) {
+		final int pos = tokens.getPos(tk);
+		final int end = pos + tokens.getLength(tk);
+		final SourceLocation sloc = new SourceLocation(pos, end);
 		final ASTProblem problem = new ASTProblem(sloc, DatatypeParsingError,
-				Error, expected.val);
+				Error, expected);
 		getResult().addProblem(problem);
 	}
 
 	@Override
-	public LexState save() {
-		return lexer.save();
-	}
-
-	@Override
-	public void restore(LexState lexState) {
-		lexer.restore(lexState);
+	public TokenBuffer getTokens() {
+		return tokens;
 	}
 
 	@Override
@@ -158,7 +161,7 @@ public class DatatypeLexer implements ILexer {
 	}
 
 	@Override
-	public Token makeEOF() {
+	public int makeEOF() {
 		return lexer.makeEOF();
 	}
 
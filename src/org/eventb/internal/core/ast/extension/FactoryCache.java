@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast.extension;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.extension.IFormulaExtension;
+
+/**
+ * Cache of formula factories, indexed by their set of extensions.
+ * <p>
+ * Looking up a factory does not take any lock. Both the factories and the
+ * extensions of the cache are weakly referenced, so that a factory that is not
+ * used anymore can be garbage collected, together with its grammar. Entries of
+ * collected factories are removed when a new factory is added.
+ * </p>
+ * <p>
+ * Adding factories must be synchronized by the client.
+ * </p>
+ *
+ * @author HHU
+ */
+public class FactoryCache {
+
+	/*
+	 * A set of extensions. Keys used for looking up the cache hold the set
+	 * given by the client, whereas keys stored in the cache only weakly
+	 * reference the extensions, which may reference their factory.
+	 */
+	private static final class Key {
+
+		private final Set<IFormulaExtension> extensions;
+		private final WeakReference<IFormulaExtension>[] refs;
+		private final int hashCode;
+
+		// Lookup key
+		Key(Set<IFormulaExtension> extensions) {
+			this.extensions = extensions;
+			this.refs = null;
+			this.hashCode = extensions.hashCode();
+		}
+
+		// Stored key
+		Key(Key lookupKey) {
+			this.extensions = null;
+			this.refs = newRefs(lookupKey.extensions.size());
+			int index = 0;
+			for (IFormulaExtension extension : lookupKey.extensions) {
+				refs[index++] = new WeakReference<IFormulaExtension>(extension);
+			}
+			this.hashCode = lookupKey.hashCode;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static WeakReference<IFormulaExtension>[] newRefs(int length) {
+			final WeakReference<?>[] array = new WeakReference<?>[length];
+			return (WeakReference<IFormulaExtension>[]) array;
+		}
+
+		// Tells whether the extensions of this stored key are the given ones
+		boolean hasExtensions(Set<IFormulaExtension> others) {
+			if (refs.length != others.size()) {
+				return false;
+			}
+			for (WeakReference<IFormulaExtension> ref : refs) {
+				final IFormulaExtension extension = ref.get();
+				if (extension == null || !others.contains(extension)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			if (hashCode != other.hashCode) {
+				return false;
+			}
+			if (extensions != null) {
+				if (other.extensions != null) {
+					return extensions.equals(other.extensions);
+				}
+				return other.hasExtensions(extensions);
+			}
+			if (other.extensions != null) {
+				return hasExtensions(other.extensions);
+			}
+			// Distinct stored keys are never equal
+			return false;
+		}
+	}
+
+	private static final class FactoryRef extends WeakReference<FormulaFactory> {
+
+		final Key key;
+
+		FactoryRef(Key key, FormulaFactory factory,
+				ReferenceQueue<FormulaFactory> queue) {
+			super(factory, queue);
+			this.key = key;
+		}
+	}
+
+	private final ConcurrentHashMap<Key, FactoryRef> map = new ConcurrentHashMap<Key, FactoryRef>();
+
+	private final ReferenceQueue<FormulaFactory> queue = new ReferenceQueue<FormulaFactory>();
+
+	/**
+	 * Returns the cached factory with the given extensions, if any.
+	 *
+	 * @param extensions
+	 *            a set of extensions
+	 * @return a factory with exactly the given extensions, or
+	 *         <code>null</code> if none is cached
+	 */
+	public FormulaFactory get(Set<IFormulaExtension> extensions) {
+		final FactoryRef ref = map.get(new Key(extensions));
+		return ref == null ? null : ref.get();
+	}
+
+	/**
+	 * Adds the given factory to this cache, replacing the entry of a collected
+	 * factory with the same extensions.
+	 *
+	 * @param extensions
+	 *            the extensions of the factory
+	 * @param factory
+	 *            the factory to cache
+	 */
+	public void put(Set<IFormulaExtension> extensions, FormulaFactory factory) {
+		expungeStaleEntries();
+		final Key lookupKey = new Key(extensions);
+		// Remove the entry of a collected factory not yet enqueued
+		FactoryRef old;
+		while ((old = map.get(lookupKey)) != null) {
+			map.remove(old.key, old);
+		}
+		final Key key = new Key(lookupKey);
+		map.put(key, new FactoryRef(key, factory, queue));
+	}
+
+	private void expungeStaleEntries() {
+		Reference<? extends FormulaFactory> ref;
+		while ((ref = queue.poll()) != null) {
+			final FactoryRef factoryRef = (FactoryRef) ref;
+			map.remove(factoryRef.key, factoryRef);
+		}
+	}
+
+	/**
+	 * Returns the number of factories in this cache, including collected
+	 * factories whose entries have not been removed yet.
+	 *
+	 * @return the number of entries of this cache
+	 */
+	public int size() {
+		return map.size();
+	}
+
+}
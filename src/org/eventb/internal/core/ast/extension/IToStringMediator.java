@@ -7,9 +7,12 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - names above a binder
  *******************************************************************************/
 package org.eventb.internal.core.ast.extension;
 
+import java.util.Set;
+
 import org.eventb.core.ast.Formula;
 import org.eventb.internal.core.parser.AbstractGrammar;
 import org.eventb.internal.core.parser.AbstractGrammar.DefaultToken;
@@ -67,6 +70,15 @@ public interface IToStringMediator {
 
 	String[] getBoundNames();
 
+	/*
+	 * Returns the names that occur in the given children of a binder declaring
+	 * the given number of identifiers and that are not bound by it, that is the
+	 * names that the identifiers of the binder must not take. The returned set
+	 * is computed without traversing the children, and names can be added to
+	 * it.
+	 */
+	Set<String> getNamesAbove(int nbBound, Formula<?>... children);
+
 	/*
 	 * Returns the grammar associated to this pretty-printer.
 	 */
@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - made lazy caches safe for concurrent use
  *******************************************************************************/
 package org.eventb.internal.core.ast.wd;
 
@@ -52,13 +53,13 @@ public class FormulaBuilder {
 	 * Caches constant zero. Shall always be accessed through method
 	 * <code>zero()</code>.
 	 */
-	private Expression zero_cache;
+	private volatile Expression zero_cache;
 
 	/**
 	 * Caches type INTEGER. Shall always be accessed through method
 	 * <code>Z()</code>.
 	 */
-	private Type Z_cache;
+	private volatile Type Z_cache;
 
 	public FormulaBuilder(FormulaFactory ff) {
 		this.ff = ff;
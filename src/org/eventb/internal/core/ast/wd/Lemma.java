@@ -7,10 +7,10 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - antecedents as bit sets, subsumption moved to LemmaStore
  *******************************************************************************/
 package org.eventb.internal.core.ast.wd;
 
-import java.util.Iterator;
 import java.util.Set;
 
 import org.eventb.core.ast.Predicate;
@@ -26,8 +26,13 @@ public class Lemma {
 	final Predicate consequent;
 	private final Node origin;
 
-	public Lemma(Set<Predicate> antecedents, Predicate consequent, Node origin) {
+	// The antecedents as a bit set of their numbers (see LemmaStore)
+	private final long[] antecedentBits;
+
+	public Lemma(Set<Predicate> antecedents, long[] antecedentBits,
+			Predicate consequent, Node origin) {
 		this.antecedents = antecedents;
+		this.antecedentBits = antecedentBits;
 		this.consequent = consequent;
 		this.origin = origin;
 	}
@@ -81,7 +86,27 @@ public class Lemma {
 	 */
 	public boolean subsumes(Lemma other) {
 		return this.consequent.equals(other.consequent)
-				&& other.antecedents.containsAll(this.antecedents);
+				&& hasAntecedentsIncludedIn(other);
+	}
+
+	/**
+	 * Checks if the antecedents of this lemma are included in the antecedents
+	 * of the given one, disregarding their consequents.
+	 * 
+	 * @param other
+	 *            other lemma whose antecedents to compare with
+	 * @return <code>true</code> iff the antecedents of this lemma are included
+	 *         in the antecedents of the other lemma
+	 */
+	boolean hasAntecedentsIncludedIn(Lemma other) {
+		final long[] otherBits = other.antecedentBits;
+		for (int i = 0; i < antecedentBits.length; i++) {
+			final long bits = i < otherBits.length ? otherBits[i] : 0;
+			if ((antecedentBits[i] & ~bits) != 0) {
+				return false;
+			}
+		}
+		return true;
 	}
 
 	/**
@@ -96,27 +121,4 @@ public class Lemma {
 		return antecedents + " => " + consequent;
 	}
 
-	/**
-	 * Adds this lemma to the given set, checking for subsumption.
-	 * 
-	 * @param set
-	 *            set to which this lemma is added
-	 */
-	public void addToSet(Set<Lemma> set) {
-		final Iterator<Lemma> iter = set.iterator();
-		while (iter.hasNext()) {
-			final Lemma other = iter.next();
-
-			// Must never mark both lemmas as unused
-			if (other.subsumes(this)) {
-				this.setSubsumed();
-				return;
-			} else if (this.subsumes(other)) {
-				iter.remove();
-				other.setSubsumed();
-			}
-		}
-		set.add(this);
-	}
-
 }
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast.wd;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eventb.core.ast.Predicate;
+
+/**
+ * A set of lemmas known to hold, where no lemma subsumes another one.
+ * <p>
+ * As only lemmas with the same consequent can subsume each other, lemmas are
+ * indexed by consequent. Moreover, every antecedent gets a number once and for
+ * all, so that the antecedents of a lemma are represented as a bit set of
+ * numbers, and their inclusion is checked with a few bitwise operations.
+ * </p>
+ * <p>
+ * Copies of a store share their numbering of antecedents, and the lists of
+ * lemmas of each consequent until they get modified.
+ * </p>
+ *
+ * @author HHU
+ */
+public class LemmaStore {
+
+	private static class Numbering {
+
+		private final Map<Predicate, Integer> numbers;
+
+		// Antecedent sets are not modified once they are used for lemmas
+		private final Map<Set<Predicate>, long[]> bitSets;
+
+		public Numbering() {
+			this.numbers = new HashMap<Predicate, Integer>();
+			this.bitSets = new IdentityHashMap<Set<Predicate>, long[]>();
+		}
+
+		private int getNumber(Predicate pred) {
+			final Integer number = numbers.get(pred);
+			if (number != null) {
+				return number;
+			}
+			final int newNumber = numbers.size();
+			numbers.put(pred, newNumber);
+			return newNumber;
+		}
+
+		public long[] getBitSet(Set<Predicate> preds) {
+			long[] result = bitSets.get(preds);
+			if (result != null) {
+				return result;
+			}
+			result = new long[0];
+			for (final Predicate pred : preds) {
+				final int number = getNumber(pred);
+				final int index = number >>> 6;
+				if (index >= result.length) {
+					final long[] newResult = new long[index + 1];
+					System.arraycopy(result, 0, newResult, 0, result.length);
+					result = newResult;
+				}
+				result[index] |= 1L << number;
+			}
+			bitSets.put(preds, result);
+			return result;
+		}
+
+	}
+
+	private final Numbering numbering;
+
+	private final Map<Predicate, List<Lemma>> lemmas;
+
+	// Lists of lemmas which are not shared with another store
+	private final Set<List<Lemma>> owned;
+
+	public LemmaStore() {
+		this.numbering = new Numbering();
+		this.lemmas = new HashMap<Predicate, List<Lemma>>();
+		this.owned = newIdentitySet();
+	}
+
+	/**
+	 * Creates a copy of the given store.
+	 *
+	 * @param other
+	 *            the store to copy
+	 */
+	public LemmaStore(LemmaStore other) {
+		this.numbering = other.numbering;
+		this.lemmas = new HashMap<Predicate, List<Lemma>>(other.lemmas);
+		this.owned = newIdentitySet();
+		other.owned.clear();
+	}
+
+	private static Set<List<Lemma>> newIdentitySet() {
+		return Collections
+				.newSetFromMap(new IdentityHashMap<List<Lemma>, Boolean>());
+	}
+
+	/**
+	 * Adds a new lemma to this store, checking for subsumption. If the new
+	 * lemma is subsumed by a known lemma, it is marked as subsumed. Otherwise,
+	 * the known lemmas that it subsumes are removed from this store and marked
+	 * as subsumed.
+	 *
+	 * @param antecedents
+	 *            antecedents of the new lemma, which must not be modified
+	 *            afterwards
+	 * @param consequent
+	 *            consequent of the new lemma
+	 * @param origin
+	 *            node from which the new lemma originates
+	 */
+	public void add(Set<Predicate> antecedents, Predicate consequent,
+			Node origin) {
+		final Lemma lemma = new Lemma(antecedents,
+				numbering.getBitSet(antecedents), consequent, origin);
+		List<Lemma> list = lemmas.get(consequent);
+		if (list == null) {
+			list = new ArrayList<Lemma>();
+			lemmas.put(consequent, list);
+			owned.add(list);
+		} else if (!owned.contains(list)) {
+			list = new ArrayList<Lemma>(list);
+			lemmas.put(consequent, list);
+			owned.add(list);
+		}
+		final Iterator<Lemma> iter = list.iterator();
+		while (iter.hasNext()) {
+			final Lemma other = iter.next();
+
+			// Must never mark both lemmas as unused
+			if (other.hasAntecedentsIncludedIn(lemma)) {
+				lemma.setSubsumed();
+				return;
+			} else if (lemma.hasAntecedentsIncludedIn(other)) {
+				iter.remove();
+				other.setSubsumed();
+			}
+		}
+		list.add(lemma);
+	}
+
+}
@@ -7,11 +7,11 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - store known lemmas in an indexed LemmaStore
  *******************************************************************************/
 package org.eventb.internal.core.ast.wd;
 
 import java.util.HashSet;
-import java.util.LinkedHashSet;
 import java.util.Set;
 
 import org.eventb.core.ast.Predicate;
@@ -89,13 +89,15 @@ public abstract class Node {
 	 * 
 	 * @param fb
 	 *            formula builder to use
+	 * @param knownLemmas
+	 *            lemmas that are known to hold, completed with the lemmas of
+	 *            this tree
 	 * @return Predicate The simplified AST
 	 */
-	public Predicate simplifyTree(FormulaBuilder fb) {
+	public Predicate simplifyTree(FormulaBuilder fb, LemmaStore knownLemmas) {
 
 		final int depthmax = maxBindingDepth();
 		boundIdentifiersEqualizer(depthmax);
-		Set<Lemma> knownLemmas = new LinkedHashSet<Lemma>();
 		simplify(knownLemmas, new HashSet<Predicate>(), fb);
 		return asPredicate(fb, true).flatten();
 	}
@@ -207,13 +209,13 @@ public abstract class Node {
 	 * @param fb
 	 *            formula builder to use
 	 */
-	protected final void simplify(Set<Lemma> knownLemmas,
+	protected final void simplify(LemmaStore knownLemmas,
 			Set<Predicate> antecedents, FormulaBuilder fb) {
 		if (!subsumed)
 			internalSimplify(knownLemmas, antecedents, fb);
 	}
 
-	protected abstract void internalSimplify(Set<Lemma> knownLemmas,
+	protected abstract void internalSimplify(LemmaStore knownLemmas,
 			Set<Predicate> antecedents, FormulaBuilder fb);
 
 	@Override
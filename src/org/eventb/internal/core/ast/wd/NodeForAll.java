@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - store known lemmas in an indexed LemmaStore
  *******************************************************************************/
 package org.eventb.internal.core.ast.wd;
 
@@ -55,7 +56,7 @@ public class NodeForAll extends Node {
 	}
 
 	@Override
-	protected void internalSimplify(Set<Lemma> knownLemmas,
+	protected void internalSimplify(LemmaStore knownLemmas,
 			Set<Predicate> antecedents, FormulaBuilder fb) {
 		child.simplify(knownLemmas, antecedents, fb);
 	}
@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - store known lemmas in an indexed LemmaStore
+ *     HHU - added parallel normalization of wide conjunctions
  *******************************************************************************/
 package org.eventb.internal.core.ast.wd;
 
@@ -22,8 +24,16 @@ public class NodeLand extends Node {
 
 	private final Node[] children;
 
+	// Whether independent operations on children may run in parallel
+	private final boolean parallel;
+
 	public NodeLand(Node[] children) {
+		this(children, false);
+	}
+
+	public NodeLand(Node[] children, boolean parallel) {
 		this.children = children;
+		this.parallel = parallel;
 	}
 
 	@Override
@@ -36,19 +46,30 @@ public class NodeLand extends Node {
 	}
 
 	@Override
-	protected void boundIdentifiersEqualizer(int offset) {
-		for (Node child : children) {
-			child.boundIdentifiersEqualizer(offset);
-		}
+	protected void boundIdentifiersEqualizer(final int offset) {
+		new ParallelLoop() {
+			@Override
+			protected void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					children[i].boundIdentifiersEqualizer(offset);
+				}
+			}
+		}.run(children.length, parallel);
 	}
 
 	@Override
-	protected Predicate internalAsPredicate(FormulaBuilder fb, boolean original) {
+	protected Predicate internalAsPredicate(final FormulaBuilder fb,
+			final boolean original) {
 		final int length = children.length;
 		final Predicate[] childPreds = new Predicate[length];
-		for (int i = 0; i < length; i++) {
-			childPreds[i] = children[i].asPredicate(fb, original);
-		}
+		new ParallelLoop() {
+			@Override
+			protected void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					childPreds[i] = children[i].asPredicate(fb, original);
+				}
+			}
+		}.run(length, parallel);
 		return fb.land(childPreds);
 	}
 
@@ -61,7 +82,7 @@ public class NodeLand extends Node {
 	}
 
 	@Override
-	protected void internalSimplify(Set<Lemma> knownLemmas,
+	protected void internalSimplify(LemmaStore knownLemmas,
 			Set<Predicate> antecedents, FormulaBuilder fb) {
 		for (Node child : children) {
 			child.simplify(knownLemmas, antecedents, fb);
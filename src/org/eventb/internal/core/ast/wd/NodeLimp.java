@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - store known lemmas in an indexed LemmaStore
  *******************************************************************************/
 package org.eventb.internal.core.ast.wd;
 
@@ -53,10 +54,10 @@ public class NodeLimp extends Node {
 	}
 
 	@Override
-	protected void internalSimplify(Set<Lemma> knownLemmas,
+	protected void internalSimplify(LemmaStore knownLemmas,
 			Set<Predicate> antecedents, FormulaBuilder fb) {
 		final Set<Predicate> leftAntes = new HashSet<Predicate>();
-		final Set<Lemma> leftLemmas = new HashSet<Lemma>(knownLemmas);
+		final LemmaStore leftLemmas = new LemmaStore(knownLemmas);
 		left.simplify(leftLemmas, leftAntes, fb);
 		// Collect the antecedents from the left side of the implication to
 		// simplify the right side
@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - store known lemmas in an indexed LemmaStore
  *******************************************************************************/
 package org.eventb.internal.core.ast.wd;
 
@@ -48,15 +49,14 @@ public class NodePred extends Node {
 	}
 
 	@Override
-	protected void internalSimplify(Set<Lemma> knownLemmas,
+	protected void internalSimplify(LemmaStore knownLemmas,
 			Set<Predicate> antecedents, FormulaBuilder fb) {
 		if (antecedents.contains(normalized)) {
 			setNodeSubsumed();
 			return;
 		}
 
-		final Lemma lemma = new Lemma(antecedents, normalized, this);
-		lemma.addToSet(knownLemmas);
+		knownLemmas.add(antecedents, normalized, this);
 	}
 
 	@Override
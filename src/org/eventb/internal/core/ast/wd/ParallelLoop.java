@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast.wd;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Loop over the children of a node of a WD computation, where the iterations
+ * are independent of each other.
+ * <p>
+ * If the loop is wide enough, its range is recursively split into chunks that
+ * are run in parallel by the fork/join pool of the current thread, or by the
+ * common pool if the current thread does not belong to any. Otherwise, the
+ * loop is run sequentially in the current thread. Every iteration stores its
+ * result at its own index, so that the merged result does not depend on
+ * scheduling.
+ * </p>
+ *
+ * @author HHU
+ */
+abstract class ParallelLoop {
+
+	// Minimal number of iterations for running a loop in parallel
+	private static final int THRESHOLD = 64;
+
+	// Maximal number of iterations run by a single task
+	private static final int GRAIN = 16;
+
+	private class Chunk extends RecursiveAction {
+
+		private static final long serialVersionUID = -2094786126537012815L;
+
+		private final int from;
+		private final int to;
+
+		public Chunk(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= GRAIN) {
+				run(from, to);
+				return;
+			}
+			final int middle = (from + to) >>> 1;
+			invokeAll(new Chunk(from, middle), new Chunk(middle, to));
+		}
+
+	}
+
+	/**
+	 * Runs the iterations of this loop from <code>0</code> (inclusive) to
+	 * <code>length</code> (exclusive), in parallel if enabled and the loop is
+	 * wide enough.
+	 *
+	 * @param length
+	 *            number of iterations
+	 * @param parallel
+	 *            whether parallel execution is enabled
+	 */
+	public final void run(int length, boolean parallel) {
+		if (parallel && length >= THRESHOLD) {
+			new Chunk(0, length).invoke();
+		} else {
+			run(0, length);
+		}
+	}
+
+	/**
+	 * Runs the iterations of this loop in the given range. This method may be
+	 * called concurrently for disjoint ranges.
+	 *
+	 * @param from
+	 *            first iteration (inclusive)
+	 * @param to
+	 *            last iteration (exclusive)
+	 */
+	protected abstract void run(int from, int to);
+
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast.wd;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eventb.core.ast.Formula;
+import org.eventb.core.ast.Predicate;
+
+/**
+ * Cache of the WD predicates of type-checked formulas.
+ * <p>
+ * Formulas are weakly referenced and compared by identity, rather than
+ * equality, as the WD predicate of a formula contains sub-formulas of it with
+ * their source locations. As formulas do not occur in their own WD predicate,
+ * cached formulas can be garbage collected as soon as they are not used
+ * anymore.
+ * </p>
+ * <p>
+ * This class is thread-safe. The cache is split into independently locked
+ * stripes, so that it can be used concurrently by several threads with little
+ * contention.
+ * </p>
+ *
+ * @author HHU
+ */
+public class WDCache {
+
+	// Must be a power of two
+	private static final int NB_STRIPES = 16;
+
+	private static class Key extends WeakReference<Formula<?>> {
+
+		private final int hashCode;
+
+		public Key(Formula<?> formula, ReferenceQueue<Formula<?>> queue) {
+			super(formula, queue);
+			this.hashCode = System.identityHashCode(formula);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Formula<?> formula = get();
+			return formula != null && formula == ((Key) obj).get();
+		}
+
+	}
+
+	// Map of a stripe, which is locked independently of the other ones
+	private static class Stripe {
+
+		final Map<Key, Predicate> predicates = new HashMap<Key, Predicate>();
+
+	}
+
+	private final Stripe[] stripes;
+
+	// Shared by all stripes, as any stripe may have stale entries
+	private final ReferenceQueue<Formula<?>> queue = new ReferenceQueue<Formula<?>>();
+
+	public WDCache() {
+		stripes = new Stripe[NB_STRIPES];
+		for (int i = 0; i < NB_STRIPES; i++) {
+			stripes[i] = new Stripe();
+		}
+	}
+
+	private Stripe getStripe(int hashCode) {
+		final int index = (hashCode ^ (hashCode >>> 16)) & (NB_STRIPES - 1);
+		return stripes[index];
+	}
+
+	/**
+	 * Returns the cached WD predicate of the given formula.
+	 *
+	 * @param formula
+	 *            a type-checked formula
+	 * @return the WD predicate of the given formula, or <code>null</code> if
+	 *         it is not cached
+	 */
+	public Predicate get(Formula<?> formula) {
+		expungeStaleEntries();
+		final Key key = new Key(formula, null);
+		final Stripe stripe = getStripe(key.hashCode());
+		synchronized (stripe) {
+			return stripe.predicates.get(key);
+		}
+	}
+
+	/**
+	 * Caches the WD predicate of the given formula.
+	 *
+	 * @param formula
+	 *            a type-checked formula
+	 * @param wdPredicate
+	 *            the WD predicate of the given formula
+	 */
+	public void put(Formula<?> formula, Predicate wdPredicate) {
+		expungeStaleEntries();
+		final Key key = new Key(formula, queue);
+		final Stripe stripe = getStripe(key.hashCode());
+		synchronized (stripe) {
+			stripe.predicates.put(key, wdPredicate);
+		}
+	}
+
+	// Must be called without holding the lock of any stripe
+	private void expungeStaleEntries() {
+		Reference<? extends Formula<?>> ref;
+		while ((ref = queue.poll()) != null) {
+			final Stripe stripe = getStripe(ref.hashCode());
+			synchronized (stripe) {
+				stripe.predicates.remove(ref);
+			}
+		}
+	}
+
+}
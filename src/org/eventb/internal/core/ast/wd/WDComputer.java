@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - added sharing of formula builder
+ *     HHU - added parallel computation for wide formulas
  *******************************************************************************/
 package org.eventb.internal.core.ast.wd;
 
@@ -69,11 +71,18 @@ import org.eventb.internal.core.ast.extension.WDMediator;
 /**
  * Implementation of the basic computation of WD predicates. Clients shall use
  * this class with <code>new WDComputer(ff).getWDLemma(formula)</code>.
+ * <p>
+ * In parallel mode, the WD predicates of the children of wide formulas are
+ * computed in parallel, each task with its own computer. The result is the
+ * same as in sequential mode.
+ * </p>
  */
 public class WDComputer implements ISimpleVisitor2 {
 
 	private FormulaBuilder fb;
 
+	private final boolean parallel;
+
 	/**
 	 * Result of last visit. This field must be set by each
 	 * <code>visitXXX()</code> method and read only through method
@@ -82,7 +91,16 @@ public class WDComputer implements ISimpleVisitor2 {
 	private Predicate lemma;
 
 	public WDComputer(FormulaFactory formulaFactory) {
-		this.fb = new FormulaBuilder(formulaFactory);
+		this(new FormulaBuilder(formulaFactory));
+	}
+
+	public WDComputer(FormulaBuilder fb) {
+		this(fb, false);
+	}
+
+	public WDComputer(FormulaBuilder fb, boolean parallel) {
+		this.fb = fb;
+		this.parallel = parallel;
 	}
 
 	public Predicate getWDLemma(Formula<?> formula) {
@@ -100,12 +118,27 @@ public class WDComputer implements ISimpleVisitor2 {
 	}
 
 	public Predicate wd(Formula<?>... children) {
-		final int length = children.length;
-		final Predicate[] wds = new Predicate[length];
-		for (int i = 0; i < length; i++) {
-			wds[i] = wd(children[i]);
+		return fb.land(wds(children));
+	}
+
+	private Predicate[] wds(final Formula<?>[] children) {
+		final Predicate[] wds = new Predicate[children.length];
+		if (!parallel) {
+			for (int i = 0; i < children.length; i++) {
+				wds[i] = wd(children[i]);
+			}
+			return wds;
 		}
-		return fb.land(wds);
+		new ParallelLoop() {
+			@Override
+			protected void run(int from, int to) {
+				final WDComputer computer = new WDComputer(fb, true);
+				for (int i = from; i < to; i++) {
+					wds[i] = computer.wd(children[i]);
+				}
+			}
+		}.run(children.length, true);
+		return wds;
 	}
 
 	@Override
@@ -131,19 +164,21 @@ public class WDComputer implements ISimpleVisitor2 {
 	}
 
 	public Predicate lorWD(Predicate[] children) {
+		final Predicate[] wds = wds(children);
 		Predicate result = fb.btrue;
 		for (int i = children.length - 1; i >= 0; i--) {
 			final Predicate child = children[i];
-			result = fb.land(wd(child), fb.lor(child, result));
+			result = fb.land(wds[i], fb.lor(child, result));
 		}
 		return result;
 	}
 
 	public Predicate landWD(Predicate[] children) {
+		final Predicate[] wds = wds(children);
 		Predicate result = fb.btrue;
 		for (int i = children.length - 1; i >= 0; i--) {
 			final Predicate child = children[i];
-			result = fb.land(wd(child), fb.limp(child, result));
+			result = fb.land(wds[i], fb.limp(child, result));
 		}
 		return result;
 	}
@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - added simplification of several formulas in sequence
+ *     HHU - added parallel construction of trees for wide formulas
  *******************************************************************************/
 package org.eventb.internal.core.ast.wd;
 
@@ -14,6 +16,9 @@ import static org.eventb.core.ast.Formula.FORALL;
 import static org.eventb.core.ast.Formula.LAND;
 import static org.eventb.core.ast.Formula.LIMP;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eventb.core.ast.AssociativeExpression;
 import org.eventb.core.ast.AssociativePredicate;
 import org.eventb.core.ast.AtomicExpression;
@@ -48,11 +53,19 @@ import org.eventb.core.ast.UnaryPredicate;
  * conjunctions and universal quantifiers , while traversing the whole AST. This
  * tree will be simplified using a list of redundant predicates and
  * optimizations, and will be used to build a new AST.
+ * <p>
+ * In parallel mode, the trees of the children of wide conjunctions are built
+ * in parallel, and so are the normalization and the final reconstruction of
+ * their predicates. The simplification itself remains sequential, as the
+ * lemmas known for a child depend on its previous siblings.
+ * </p>
  */
 public class WDImprover implements ISimpleVisitor2 {
 
 	private final FormulaBuilder fb;
 
+	private final boolean parallel;
+
 	/**
 	 * Result of last visit. This field must never be read directly, but through
 	 * method <code>nodeFor()</code>. Moreover, every <code>visitXXX()</code>
@@ -61,7 +74,16 @@ public class WDImprover implements ISimpleVisitor2 {
 	private Node node;
 
 	public WDImprover(FormulaFactory formulaFactory) {
-		this.fb = new FormulaBuilder(formulaFactory);
+		this(new FormulaBuilder(formulaFactory));
+	}
+
+	public WDImprover(FormulaBuilder fb) {
+		this(fb, false);
+	}
+
+	public WDImprover(FormulaBuilder fb, boolean parallel) {
+		this.fb = fb;
+		this.parallel = parallel;
 	}
 
 	/**
@@ -77,7 +99,28 @@ public class WDImprover implements ISimpleVisitor2 {
 		// Build a new tree while visiting the AST
 		final Node root = nodeFor(formula);
 		// Simplifies the tree and obtains a new AST
-		return root.simplifyTree(fb);
+		return root.simplifyTree(fb, new LemmaStore());
+	}
+
+	/**
+	 * Simplifies the given formulas in sequence, where each formula is also
+	 * simplified with the lemmas of the formulas before it. This is sound only
+	 * if the simplified formulas are proved in the same sequence, with the
+	 * previous ones as hypotheses.
+	 * 
+	 * @param formulas
+	 *            formulas to simplify
+	 * @return simplified formulas, in the same order
+	 */
+	public List<Predicate> improve(List<Predicate> formulas) {
+		final LemmaStore knownLemmas = new LemmaStore();
+		final List<Predicate> result = new ArrayList<Predicate>(
+				formulas.size());
+		for (final Predicate formula : formulas) {
+			// The tree must be rebuilt before its lemmas get subsumed
+			result.add(nodeFor(formula).simplifyTree(fb, knownLemmas));
+		}
+		return result;
 	}
 
 	private Node nodeFor(Predicate pred) {
@@ -85,12 +128,24 @@ public class WDImprover implements ISimpleVisitor2 {
 		return node;
 	}
 
-	private Node[] nodesFor(Predicate[] preds) {
+	private Node[] nodesFor(final Predicate[] preds) {
 		final int length = preds.length;
 		final Node[] result = new Node[length];
-		for (int i = 0; i < length; i++) {
-			result[i] = nodeFor(preds[i]);
+		if (!parallel) {
+			for (int i = 0; i < length; i++) {
+				result[i] = nodeFor(preds[i]);
+			}
+			return result;
 		}
+		new ParallelLoop() {
+			@Override
+			protected void run(int from, int to) {
+				final WDImprover improver = new WDImprover(fb, true);
+				for (int i = from; i < to; i++) {
+					result[i] = improver.nodeFor(preds[i]);
+				}
+			}
+		}.run(length, true);
 		return result;
 	}
 
@@ -102,7 +157,7 @@ public class WDImprover implements ISimpleVisitor2 {
 	@Override
 	public void visitAssociativePredicate(AssociativePredicate predicate) {
 		if (predicate.getTag() == LAND) {
-			node = new NodeLand(nodesFor(predicate.getChildren()));
+			node = new NodeLand(nodesFor(predicate.getChildren()), parallel);
 		} else {
 			node = new NodePred(predicate);
 		}
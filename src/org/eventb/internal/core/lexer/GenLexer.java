@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - tokens stored in a token buffer
  *******************************************************************************/
 package org.eventb.internal.core.lexer;
 
@@ -47,20 +48,6 @@ public class GenLexer implements ILexer {
 	 */
 	public static final int PRIME = '\'';
 
-	/**
-	 * A restorable snapshot of a lexer state.
-	 */
-	public static class LexState {
-		public final int tokenStart;
-		public final int curPos;
-
-		public LexState(int tokenStart, int curPos) {
-			this.curPos = curPos;
-			this.tokenStart = tokenStart;
-		}
-
-	}
-
 	/**
 	 * Reads a single lexem.
 	 */
@@ -138,37 +125,50 @@ public class GenLexer implements ILexer {
 		return SYMBOL.contains(str);
 	}
 
-	public final ParseResult result;
+	private ParseResult result;
 
 	private final LexStream stream;
+	private final TokenBuffer tokens;
 	private final AbstractGrammar grammar;
 	private final LexemReader reader;
+	private final int identKind;
 
 	public GenLexer(String toLex, ParseResult result, AbstractGrammar grammar) {
 		this.result = result;
 		this.stream = new LexStream(toLex);
+		this.tokens = new TokenBuffer(toLex);
 		this.grammar = grammar;
 		this.reader = new LexemReader(grammar);
+		this.identKind = grammar.getKind(IDENT);
 	}
 
-	@Override
-	public LexState save() {
-		return new LexState(stream.getTokenStart(), stream.getCurPos());
+	/**
+	 * Makes this lexer read a new string, reusing its internal structures.
+	 * Tokens previously read are discarded from the token buffer.
+	 * 
+	 * @param toLex
+	 *            the new string to read
+	 * @param newResult
+	 *            the result where to report problems
+	 */
+	public void reset(String toLex, ParseResult newResult) {
+		this.result = newResult;
+		this.stream.reset(toLex);
+		this.tokens.reset(toLex);
 	}
 
 	@Override
-	public void restore(LexState lexState) {
-		stream.setTokenStart(lexState.tokenStart);
-		stream.setCurPos(lexState.curPos);
+	public TokenBuffer getTokens() {
+		return tokens;
 	}
 
 	/**
-	 * Returns the next token from the stream.
+	 * Reads the next token from the stream and appends it to the token buffer.
 	 * 
-	 * @return a token
+	 * @return the index of the token
 	 */
 	@Override
-	public Token nextToken() {
+	public int nextToken() {
 		if (stream.isEOF()) {
 			return makeEOF();
 		}
@@ -181,22 +181,21 @@ public class GenLexer implements ILexer {
 			return nextToken();
 		}
 
-		String lexem = stream.getLexem();
-		final int kind = lexClass.getKind(lexem, grammar);
+		final int kind = lexClass.getKind(stream, grammar);
 		if (kind == TokenSet.UNKNOWN_KIND) {
-			addProblem(lexem);
+			addProblem(stream.getLexem());
 			return makeEOF();
 		}
-		if (kind == grammar.getKind(IDENT) && isPrime(stream)) {
+		if (kind == identKind && isPrime(stream)) {
 			stream.goForward();
-			lexem = stream.getLexem();
 		}
-		return new Token(kind, lexem, stream.getTokenStart());
+		return tokens.add(kind, stream.getTokenStart(), stream.getCurPos());
 	}
 
 	@Override
-	public Token makeEOF() {
-		return new Token(grammar.getKind(EOF), "", stream.getCurPos());
+	public int makeEOF() {
+		final int pos = stream.getCurPos();
+		return tokens.add(grammar.getKind(EOF), pos, pos);
 	}
 
 	private void addProblem(String tokenImage) {
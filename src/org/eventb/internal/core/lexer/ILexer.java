@@ -7,10 +7,10 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - tokens stored in a token buffer
  *******************************************************************************/
 package org.eventb.internal.core.lexer;
 
-import org.eventb.internal.core.lexer.GenLexer.LexState;
 import org.eventb.internal.core.parser.ParseResult;
 
 public interface ILexer {
@@ -18,24 +18,16 @@ public interface ILexer {
 	/**
 	 * Returns the next token from the stream.
 	 * 
-	 * @return a token
+	 * @return the index of a token in the buffer of this lexer
 	 */
-	Token nextToken();
+	int nextToken();
 
 	/**
-	 * Save the state of this lexer.
+	 * Returns the buffer where this lexer stores the tokens it reads.
 	 * 
-	 * @return the saved state of this lexer
+	 * @return the token buffer of this lexer
 	 */
-	LexState save();
-
-	/**
-	 * Restore from a previously saved state
-	 * 
-	 * @param lexState
-	 *            state to restore from
-	 */
-	void restore(LexState lexState);
+	TokenBuffer getTokens();
 
 	/**
 	 * Returns the kind of end-of-file tokens.
@@ -55,8 +47,8 @@ public interface ILexer {
 	 * Returns an end-of-file token at the current position. Useful when lexing
 	 * is broken and we cannot recover from previous errors.
 	 * 
-	 * @return an end-of-file token
+	 * @return the index of an end-of-file token
 	 */
-	Token makeEOF();
+	int makeEOF();
 
 }
\ No newline at end of file
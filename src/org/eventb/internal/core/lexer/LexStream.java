@@ -7,9 +7,13 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - lexem kind lookup through a trie
+ *     HHU - reusable streams
  *******************************************************************************/
 package org.eventb.internal.core.lexer;
 
+import org.eventb.internal.core.parser.TokenTrie;
+
 /**
  * Stream used by the lexer to read its input.
  * 
@@ -18,8 +22,8 @@ package org.eventb.internal.core.lexer;
  */
 public class LexStream {
 
-	private final String toLex;
-	private final int length;
+	private String toLex;
+	private int length;
 
 	/**
 	 * The current position of the cursor. (i.e. the character in the input
@@ -35,8 +39,18 @@ public class LexStream {
 	private int tokenStart;
 
 	public LexStream(String toLex) {
-		this.toLex = toLex;
-		this.length = toLex.length();
+		reset(toLex);
+	}
+
+	/**
+	 * Makes this stream read the given string from its beginning.
+	 * 
+	 * @param newToLex
+	 *            the new string to read
+	 */
+	public void reset(String newToLex) {
+		this.toLex = newToLex;
+		this.length = newToLex.length();
 		this.tokenStart = -1;
 		this.curPos = 0;
 	}
@@ -82,6 +96,18 @@ public class LexStream {
 		return toLex.substring(tokenStart, curPos);
 	}
 
+	/**
+	 * Returns the kind of the current lexem, as given by the given trie,
+	 * without extracting it from the stream.
+	 * 
+	 * @param trie
+	 *            a trie of lexical images
+	 * @return a token kind, or {@link org.eventb.internal.core.parser.TokenSet#UNKNOWN_KIND}
+	 */
+	public int getLexemKind(TokenTrie trie) {
+		return trie.getKind(toLex, tokenStart, curPos);
+	}
+
 	public void startNext() {
 		tokenStart = curPos;
 		goForward();
@@ -7,6 +7,9 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - longest symbol match through a trie
+ *     HHU - kinds computed without extracting lexems
+ *     HHU - lookup table for frequent code points
  *******************************************************************************/
 package org.eventb.internal.core.lexer;
 
@@ -17,12 +20,16 @@ import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.EOF;
 import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.IDENT;
 import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.INT_LIT;
 import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.PRED_VAR;
+import static org.eventb.internal.core.parser.TokenSet.UNKNOWN_KIND;
+import static org.eventb.internal.core.parser.TokenTrie.NO_NODE;
+import static org.eventb.internal.core.parser.TokenTrie.ROOT;
 
 import org.eventb.core.ast.FormulaFactory;
 import org.eventb.internal.core.lexer.GenLexer.LexemReader;
 import org.eventb.internal.core.parser.AbstractGrammar;
 import org.eventb.internal.core.parser.BMath;
 import org.eventb.internal.core.parser.TokenSet;
+import org.eventb.internal.core.parser.TokenTrie;
 
 /**
  * Lexical classes for any {@link BMath} grammar (potentially extended).
@@ -32,25 +39,19 @@ import org.eventb.internal.core.parser.TokenSet;
  */
 public enum LexicalClass {
 
-	// Note: if any isStart() method is modified, getLexicalClass() has to be
-	// modified accordingly
+	// Note: if any isStart() method is modified, getLexicalClass() and
+	// computeFlags() have to be modified accordingly
 
 	IDENTIFIER {
 
-		private boolean isExcluded(int codePoint) {
-			return codePoint == LAMBDA || codePoint == META;
-		}
-
 		@Override
 		public boolean isStart(int codePoint) {
-			return Character.isJavaIdentifierStart(codePoint)
-					&& !isExcluded(codePoint);
+			return hasFlag(codePoint, IDENT_START);
 		}
 
 		@Override
 		public boolean isPart(int codePoint) {
-			return Character.isJavaIdentifierPart(codePoint)
-					&& !isExcluded(codePoint);
+			return hasFlag(codePoint, IDENT_PART);
 		}
 
 		@Override
@@ -63,20 +64,26 @@ public enum LexicalClass {
 			}
 		}
 
+		@Override
+		public int getKind(LexStream stream, AbstractGrammar grammar) {
+			final int kind = stream.getLexemKind(grammar.getTokens().getTrie());
+			if (kind == TokenSet.UNKNOWN_KIND) {
+				return grammar.getKind(IDENT);
+			} else {
+				return kind;
+			}
+		}
+
 	},
 	SYMBOL {
 		@Override
 		public boolean isStart(int codePoint) {
-			return !IDENTIFIER.isStart(codePoint)
-					&& !WHITESPACE.isStart(codePoint)
-					&& !INTEGER_LITERAL.isStart(codePoint)
-					&& !META_VAR.isStart(codePoint);
+			return getLexicalClass(codePoint) == SYMBOL;
 		}
 
 		@Override
 		public boolean isPart(int codePoint) {
-			return !IDENTIFIER.isPart(codePoint)
-					&& !WHITESPACE.isPart(codePoint);
+			return !hasFlag(codePoint, IDENT_PART | SPACE);
 		}
 
 		@Override
@@ -84,18 +91,28 @@ public enum LexicalClass {
 			return grammar.getTokens().getKind(image);
 		}
 
+		@Override
+		public int getKind(LexStream stream, AbstractGrammar grammar) {
+			return stream.getLexemKind(grammar.getTokens().getTrie());
+		}
+
+		// walks the token trie along the stream, remembering the end of the
+		// longest known symbol
 		@Override
 		public boolean read(LexStream stream, AbstractGrammar grammar) {
+			final TokenTrie trie = grammar.getTokens().getTrie();
+			int node = trie.getChild(ROOT,
+					stream.codePointAt(stream.getTokenStart()));
 			int lastAccepted = -1;
-			if (isKnownSymbol(stream, grammar)) {
-				lastAccepted = stream.getCurPos();
-			}
-
-			while (!stream.isEOF() && isPart(stream.curCodePoint())) {
-				stream.goForward();
-				if (isKnownSymbol(stream, grammar)) {
+			while (node != NO_NODE) {
+				if (trie.getKind(node) != UNKNOWN_KIND) {
 					lastAccepted = stream.getCurPos();
 				}
+				if (stream.isEOF() || !isPart(stream.curCodePoint())) {
+					break;
+				}
+				node = trie.getChild(node, stream.curCodePoint());
+				stream.goForward();
 			}
 			if (lastAccepted == -1) {
 				stream.resetCurPos();
@@ -105,10 +122,6 @@ public enum LexicalClass {
 			return true;
 		}
 
-		private boolean isKnownSymbol(LexStream stream, AbstractGrammar grammar) {
-			return grammar.getTokens().contains(stream.getLexem());
-		}
-
 	},
 	WHITESPACE {
 
@@ -144,6 +157,11 @@ public enum LexicalClass {
 		public int getKind(String image, AbstractGrammar grammar) {
 			return grammar.getKind(INT_LIT);
 		}
+
+		@Override
+		public int getKind(LexStream stream, AbstractGrammar grammar) {
+			return grammar.getKind(INT_LIT);
+		}
 	},
 	META_VAR {
 		@Override
@@ -164,6 +182,11 @@ public enum LexicalClass {
 			return grammar.getKind(PRED_VAR);
 		}
 
+		@Override
+		public int getKind(LexStream stream, AbstractGrammar grammar) {
+			return grammar.getKind(PRED_VAR);
+		}
+
 		@Override
 		public boolean read(LexStream stream, AbstractGrammar grammar) {
 			if (stream.isEOF()) {
@@ -181,12 +204,87 @@ public enum LexicalClass {
 	};
 
 	protected static boolean isWhitespace(int codePoint) {
-		return Character.isWhitespace(codePoint)
-				|| FormulaFactory.isEventBWhiteSpace(codePoint);
+		return hasFlag(codePoint, SPACE);
 	}
 
 	protected static boolean isDigit(int codePoint) {
-		return Character.isDigit(codePoint);
+		return hasFlag(codePoint, DIGIT);
+	}
+
+	/*
+	 * Lexical properties of code points are computed once for all code points
+	 * below TABLE_SIZE, which covers Latin-1, Greek, arrows and mathematical
+	 * operators. The low bits of an entry are the flags below, the high bits
+	 * are the ordinal of the lexical class started by the code point.
+	 */
+	private static final int TABLE_SIZE = 0x2C00;
+
+	private static final int IDENT_START = 0x01;
+	private static final int IDENT_PART = 0x02;
+	private static final int SPACE = 0x04;
+	private static final int DIGIT = 0x08;
+	private static final int FLAGS_MASK = 0x0F;
+	private static final int CLASS_SHIFT = 4;
+
+	private static final LexicalClass[] CLASSES = values();
+
+	private static final byte[] TABLE = makeTable();
+
+	private static byte[] makeTable() {
+		final byte[] table = new byte[TABLE_SIZE];
+		for (int codePoint = 0; codePoint < TABLE_SIZE; codePoint++) {
+			final int flags = computeFlags(codePoint);
+			final int lexClass = computeLexicalClass(codePoint, flags);
+			table[codePoint] = (byte) (flags | lexClass << CLASS_SHIFT);
+		}
+		return table;
+	}
+
+	private static int computeFlags(int codePoint) {
+		int flags = 0;
+		final boolean excluded = codePoint == LAMBDA || codePoint == META;
+		if (Character.isJavaIdentifierStart(codePoint) && !excluded) {
+			flags |= IDENT_START;
+		}
+		if (Character.isJavaIdentifierPart(codePoint) && !excluded) {
+			flags |= IDENT_PART;
+		}
+		if (Character.isWhitespace(codePoint)
+				|| FormulaFactory.isEventBWhiteSpace(codePoint)) {
+			flags |= SPACE;
+		}
+		if (Character.isDigit(codePoint)) {
+			flags |= DIGIT;
+		}
+		return flags;
+	}
+
+	// same order as OPTIMIZED_ORDER
+	private static int computeLexicalClass(int codePoint, int flags) {
+		if ((flags & IDENT_START) != 0) {
+			return IDENTIFIER.ordinal();
+		}
+		if ((flags & SPACE) != 0) {
+			return WHITESPACE.ordinal();
+		}
+		if ((flags & DIGIT) != 0) {
+			return INTEGER_LITERAL.ordinal();
+		}
+		if (codePoint == META) {
+			return META_VAR.ordinal();
+		}
+		return SYMBOL.ordinal();
+	}
+
+	// tells whether the given code point has any of the given flags
+	private static boolean hasFlag(int codePoint, int flag) {
+		final int flags;
+		if (codePoint < TABLE_SIZE) {
+			flags = TABLE[codePoint] & FLAGS_MASK;
+		} else {
+			flags = computeFlags(codePoint);
+		}
+		return (flags & flag) != 0;
 	}
 
 	/**
@@ -222,6 +320,20 @@ public enum LexicalClass {
 	 */
 	public abstract int getKind(String lexem, AbstractGrammar grammar);
 
+	/**
+	 * Returns the grammatical kind of the current lexem of the given stream.
+	 * The current lexem MUST be a valid lexem of this lexical class.
+	 * 
+	 * @param stream
+	 *            a stream positioned at the end of a lexem of this class
+	 * @param grammar
+	 *            a grammar
+	 * @return a grammatical kind
+	 */
+	public int getKind(LexStream stream, AbstractGrammar grammar) {
+		return getKind(stream.getLexem(), grammar);
+	}
+
 	/**
 	 * Reads the stream so as to make the longest lexem of this class. The
 	 * following must hold when calling the method: <li>
@@ -270,7 +382,9 @@ public enum LexicalClass {
 
 	// valid as long as start of SYMBOL is default (all other start checks fail)
 	public static LexicalClass getLexicalClass(int startCodePoint) {
-
+		if (startCodePoint < TABLE_SIZE) {
+			return CLASSES[TABLE[startCodePoint] >> CLASS_SHIFT];
+		}
 		for (LexicalClass lexClass : OPTIMIZED_ORDER) {
 			if (lexClass.isStart(startCodePoint)) {
 				return lexClass;
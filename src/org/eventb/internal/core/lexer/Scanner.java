@@ -7,15 +7,13 @@
  *
  * Contributors:
  *     ETH Zurich - initial API and implementation
+ *     HHU - scanned tokens kept as indexes in a token buffer
  *******************************************************************************/
 package org.eventb.internal.core.lexer;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.ListIterator;
+import java.util.Arrays;
 
 import org.eventb.core.ast.FormulaFactory;
-import org.eventb.internal.core.lexer.GenLexer.LexState;
 import org.eventb.internal.core.parser.AbstractGrammar;
 import org.eventb.internal.core.parser.AbstractGrammar.DefaultToken;
 import org.eventb.internal.core.parser.BMath;
@@ -23,16 +21,26 @@ import org.eventb.internal.core.parser.ParseResult;
 
 /**
  * This class introduces a look-ahead mechanism on top of a regular lexer.
+ * <p>
+ * Tokens are designated by their index in the token buffer of the lexer. All
+ * tokens read from the lexer are kept in sequence, so that the scanner can be
+ * brought back to any previous position without reading the input again.
+ * </p>
  * 
  * @author François Terrier
  */
 public class Scanner {
-	
-	// list of the tokens which were looked-ahead
-	private final List<Token> list = new ArrayList<Token>();
 
-	// iterator on the look-ahead list
-	private ListIterator<Token> iterator = list.listIterator();
+	private static final int INITIAL_CAPACITY = 16;
+
+	// sequence of the tokens read so far from the lexer
+	private int[] scanned = new int[INITIAL_CAPACITY];
+
+	// number of tokens in the scanned sequence
+	private int nbScanned = 0;
+
+	// position in the scanned sequence of the next token to return
+	private int next = 0;
 
 	private final int eofKind;
 
@@ -57,35 +65,39 @@ public class Scanner {
 		this.eofKind = lexer.eofKind();
 	}
 
-	private Token getNextToken() {
-		return lexer.nextToken();
+	/**
+	 * Returns the buffer of the tokens returned by this scanner.
+	 * 
+	 * @return a token buffer
+	 */
+	public TokenBuffer getTokens() {
+		return lexer.getTokens();
 	}
 
-	// Returns the next token.
-	public Token Scan() {
-		ResetPeek();
-		if (iterator.hasNext()) {
-			Token temp = iterator.next();
-			iterator.remove();
-			return temp;
-		} else {
-			return getNextToken();
+	// Returns the token at the given position of the scanned sequence,
+	// reading it from the lexer if needed.
+	private int getScanned(int position) {
+		while (position >= nbScanned) {
+			if (nbScanned == scanned.length) {
+				scanned = Arrays.copyOf(scanned, nbScanned * 2);
+			}
+			scanned[nbScanned++] = lexer.nextToken();
 		}
+		return scanned[position];
 	}
 
-	// Looks ahead the next token.
-	protected Token Peek() {
-		if (iterator.hasNext()) {
-			return iterator.next();
-		} else {
-			Token result = getNextToken();
-			iterator.add(result);
-			return result;
-		}
+	/**
+	 * Forgets all tokens read so far. This must be called whenever the
+	 * underlying lexer has been reset.
+	 */
+	public void reset() {
+		nbScanned = 0;
+		next = 0;
 	}
 
-	protected void ResetPeek() {
-		iterator = list.listIterator(0);
+	// Returns the next token.
+	public int Scan() {
+		return getScanned(next++);
 	}
 
 	// Returns the lexer result.
@@ -101,49 +113,43 @@ public class Scanner {
 		final BMath grammar = (BMath) factory.getGrammar();
 		final ParseResult result = new ParseResult(factory, name);
 		final Scanner scanner = new Scanner(name, result, grammar);
-		final Token token = scanner.Peek();
+		final int token = scanner.getScanned(0);
+		final TokenBuffer tokens = scanner.getTokens();
 		final int kind = grammar.getKind(tokenKind);
-		return (!result.hasProblem() && token != null
-				&& token.kind == kind && token.val.equals(name));
+		return (!result.hasProblem() && tokens.getKind(token) == kind
+				&& tokens.isLexem(token, name));
 	}
 
-	public static class ScannerState {
-
-		final LexState lexState;
-		final List<Token> lookedAhead;
-
-		public ScannerState(LexState lexState, List<Token> lookedAhead) {
-			this.lexState = lexState;
-			this.lookedAhead = new ArrayList<Token>(lookedAhead);
-		}
-		
-	}
-	
-	public ScannerState save() {
-		return new ScannerState(lexer.save(), list);
+	/**
+	 * Returns the current position of this scanner.
+	 * 
+	 * @return the position of the next token to return
+	 */
+	public int save() {
+		return next;
 	}
-	
-	public void restore(ScannerState state) {
-		lexer.restore(state.lexState);
-		list.clear();
-		// FIXME if Peek() has been called after the call to save() that
-		// produced the given ScannerSate.lookedAhead, then peeked tokens will
-		// be forgotten ! Moreover, if they have been peeked and consumed, they
-		// are completely lost, because they are no more in the current list !
-		// => either memorize all peeked tokens without ever erasing them (not
-		// part of the saved/restored data), then save the current index
-		// => or enforce a constraint not to call lookAheadFor more than once
-		list.addAll(new ArrayList<Token>(state.lookedAhead));
+
+	/**
+	 * Brings this scanner back to a previously saved position. Tokens that
+	 * have been read since are not read again from the lexer.
+	 * 
+	 * @param position
+	 *            a position returned by {@link #save()}
+	 */
+	public void restore(int position) {
+		next = position;
 	}
 
 	public boolean lookAheadFor(int searchedKind) {
-		ResetPeek();
-		Token peek = Peek();
-		while (peek.kind != eofKind) {
-			if (peek.kind == searchedKind) {
+		final TokenBuffer tokens = getTokens();
+		int position = next;
+		int kind = tokens.getKind(getScanned(position));
+		while (kind != eofKind) {
+			if (kind == searchedKind) {
 				return true;
 			}
-			peek = Peek();
+			position++;
+			kind = tokens.getKind(getScanned(position));
 		}
 		return false;
 	}
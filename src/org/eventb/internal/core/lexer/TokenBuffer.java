@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.lexer;
+
+import static org.eventb.internal.core.parser.TokenSet.UNKNOWN_KIND;
+
+import java.util.Arrays;
+
+/**
+ * Tokens of Event-B mathematical language read from a given input string.
+ * <p>
+ * Tokens are designated by their index in this buffer, and stored in parallel
+ * arrays of kinds and positions. The lexem of a token is extracted from the
+ * input string only when it is asked for, which happens only for tokens that
+ * carry a name or a value (identifiers, literals) or that are reported in a
+ * problem.
+ * </p>
+ * <p>
+ * Index {@link #INIT_TOKEN} designates a pseudo-token of unknown kind, placed
+ * before the beginning of the input.
+ * </p>
+ *
+ * @author HHU
+ */
+public class TokenBuffer {
+
+	/**
+	 * The pseudo-token located before the first token of the input.
+	 */
+	public static final int INIT_TOKEN = 0;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private String input;
+
+	private int size;
+	private int[] kinds;
+
+	// start (inclusive) and end (exclusive) indexes in the input
+	private int[] starts;
+	private int[] ends;
+
+	// lexems extracted so far, lazily allocated
+	private String[] lexems;
+
+	public TokenBuffer(String input) {
+		this.kinds = new int[INITIAL_CAPACITY];
+		this.starts = new int[INITIAL_CAPACITY];
+		this.ends = new int[INITIAL_CAPACITY];
+		reset(input);
+	}
+
+	/**
+	 * Removes all tokens from this buffer, keeping the allocated arrays, and
+	 * makes it hold tokens of the given input.
+	 *
+	 * @param newInput
+	 *            the new input string
+	 */
+	public void reset(String newInput) {
+		this.input = newInput;
+		if (lexems != null) {
+			Arrays.fill(lexems, 0, size, null);
+		}
+		this.size = 0;
+		add(UNKNOWN_KIND, -1, -1);
+	}
+
+	/**
+	 * Appends a new token to this buffer.
+	 *
+	 * @param kind
+	 *            the kind of the token
+	 * @param start
+	 *            index of the first character of the token in the input
+	 * @param end
+	 *            index following the last character of the token in the input
+	 * @return the index of the new token
+	 */
+	public int add(int kind, int start, int end) {
+		if (size == kinds.length) {
+			final int newCapacity = size * 2;
+			kinds = Arrays.copyOf(kinds, newCapacity);
+			starts = Arrays.copyOf(starts, newCapacity);
+			ends = Arrays.copyOf(ends, newCapacity);
+			if (lexems != null) {
+				lexems = Arrays.copyOf(lexems, newCapacity);
+			}
+		}
+		kinds[size] = kind;
+		starts[size] = start;
+		ends[size] = end;
+		return size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getKind(int token) {
+		return kinds[token];
+	}
+
+	/**
+	 * Returns the position of the first character of the given token.
+	 *
+	 * @param token
+	 *            a token index
+	 * @return a position in the input
+	 */
+	public int getPos(int token) {
+		return starts[token];
+	}
+
+	/**
+	 * Returns the position of the last character of the given token.
+	 *
+	 * @param token
+	 *            a token index
+	 * @return a position in the input
+	 */
+	public int getEnd(int token) {
+		return ends[token] - 1;
+	}
+
+	/**
+	 * Returns the length of the lexem of the given token.
+	 *
+	 * @param token
+	 *            a token index
+	 * @return the number of characters of the token
+	 */
+	public int getLength(int token) {
+		return ends[token] - starts[token];
+	}
+
+	/**
+	 * Returns the lexem of the given token, extracting it from the input if
+	 * needed.
+	 *
+	 * @param token
+	 *            a token index
+	 * @return the lexem of the token
+	 */
+	public String getLexem(int token) {
+		if (lexems == null) {
+			lexems = new String[kinds.length];
+		}
+		String lexem = lexems[token];
+		if (lexem == null) {
+			if (token == INIT_TOKEN) {
+				lexem = "";
+			} else {
+				lexem = input.substring(starts[token], ends[token]);
+			}
+			lexems[token] = lexem;
+		}
+		return lexem;
+	}
+
+	/**
+	 * Tells whether the lexem of the given token is the given string, without
+	 * extracting it from the input.
+	 *
+	 * @param token
+	 *            a token index
+	 * @param str
+	 *            a string
+	 * @return <code>true</code> iff the token lexem is equal to the string
+	 */
+	public boolean isLexem(int token, String str) {
+		if (token == INIT_TOKEN) {
+			return str.isEmpty();
+		}
+		final int length = getLength(token);
+		return length == str.length()
+				&& input.regionMatches(starts[token], str, 0, length);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			sb.append("Kind: ");
+			sb.append(kinds[i]);
+			sb.append(" Pos: ");
+			sb.append(starts[i]);
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+}
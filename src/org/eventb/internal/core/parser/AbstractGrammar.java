@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - dense kind-indexed dispatch tables
+ *     HHU - grammars extending a shared base snapshot
  *******************************************************************************/
 package org.eventb.internal.core.parser;
 
@@ -43,7 +45,6 @@ import org.eventb.core.ast.extension.IGrammar;
 import org.eventb.core.ast.extension.IOperator;
 import org.eventb.core.ast.extension.IOperatorProperties;
 import org.eventb.core.ast.extension.StandardGroup;
-import org.eventb.internal.core.lexer.Token;
 import org.eventb.internal.core.parser.GenParser.OverrideException;
 import org.eventb.internal.core.parser.operators.BracketCompactor;
 import org.eventb.internal.core.parser.operators.Brackets;
@@ -101,24 +102,100 @@ public abstract class AbstractGrammar {
 	
 	private static final String OFTYPE_ID = "Oftype";
 	
-	protected TokenSet tokens = new TokenSet();
+	/*
+	 * State of a grammar once all its operators and relationships have been
+	 * added, but before its kinds are compacted. It is kept by base grammars,
+	 * so that grammars extending them start from a copy of it instead of
+	 * adding all base operators again. Instances are never modified.
+	 */
+	private static class InitialState {
+
+		final TokenSet tokens;
+		final LexKindParserDB subParsers;
+		final OperatorRegistry opRegistry;
+		final Map<Integer, Integer> closeOpenKinds;
+		final List<IOperatorInfo<? extends Formula<?>>> deferredOperators;
+		final int[] defaultTokenKinds;
+
+		InitialState(AbstractGrammar grammar) {
+			this.tokens = new TokenSet(grammar.tokens);
+			this.subParsers = new LexKindParserDB(grammar.subParsers);
+			this.opRegistry = new OperatorRegistry(grammar.initOpRegistry);
+			this.closeOpenKinds = new HashMap<Integer, Integer>(
+					grammar.initCloseOpenKinds);
+			this.deferredOperators = new ArrayList<IOperatorInfo<? extends Formula<?>>>(
+					grammar.deferredOperators);
+			this.defaultTokenKinds = grammar.defaultTokenKinds.clone();
+		}
+
+	}
+
+	protected TokenSet tokens;
 	
-	private final LexKindParserDB subParsers = new LexKindParserDB();
+	private final LexKindParserDB subParsers;
 	
-	private OperatorRegistry initOpRegistry = new OperatorRegistry();
+	private OperatorRegistry initOpRegistry;
 	private OperatorRegistryCompact opRegistry = null;
 	
-	private List<IOperatorInfo<? extends Formula<?>>> deferredOperators = new ArrayList<IOperatorInfo<? extends Formula<?>>>();
+	private List<IOperatorInfo<? extends Formula<?>>> deferredOperators;
+
+	// true iff base operators are inherited from another grammar
+	private final boolean isExtension;
+
+	// initial state kept for extending grammars, null for extensions
+	private InitialState initialState = null;
 	
 	// used by extended grammar to fetch appropriate parser
 	// and by extended formulae to fetch appropriate printers
 	// TODO try to generalise to standard language operators
 	private final PropertyParserDB propParsers = new PropertyParserDB();
 	
-	private Map<Integer, Integer> initCloseOpenKinds = new HashMap<Integer, Integer>();
+	private Map<Integer, Integer> initCloseOpenKinds;
 	private Brackets brackets = null;
 	
-	private final int[] defaultTokenKinds = new int[DefaultToken.values().length];
+	private final int[] defaultTokenKinds;
+
+	// tells for each kind whether it is an operator, computed after compaction
+	private boolean[] operatorKinds = null;
+
+	/**
+	 * Creates a base grammar, which adds all its operators by itself.
+	 */
+	protected AbstractGrammar() {
+		this.tokens = new TokenSet();
+		this.subParsers = new LexKindParserDB();
+		this.initOpRegistry = new OperatorRegistry();
+		this.deferredOperators = new ArrayList<IOperatorInfo<? extends Formula<?>>>();
+		this.initCloseOpenKinds = new HashMap<Integer, Integer>();
+		this.defaultTokenKinds = new int[DefaultToken.values().length];
+		this.isExtension = false;
+	}
+
+	/**
+	 * Creates a grammar extending the given initialised base grammar. The new
+	 * grammar starts with a copy of the operators and relationships of the
+	 * base, so that its {@link #addOperators()} and
+	 * {@link #addOperatorRelationships()} methods only need to add the
+	 * extension ones.
+	 * 
+	 * @param base
+	 *            an initialised base grammar
+	 */
+	protected AbstractGrammar(AbstractGrammar base) {
+		final InitialState state = base.initialState;
+		if (state == null) {
+			throw new IllegalArgumentException("Cannot extend grammar " + base);
+		}
+		this.tokens = new TokenSet(state.tokens);
+		this.subParsers = new LexKindParserDB(state.subParsers);
+		this.initOpRegistry = new OperatorRegistry(state.opRegistry);
+		this.deferredOperators = new ArrayList<IOperatorInfo<? extends Formula<?>>>(
+				state.deferredOperators);
+		this.initCloseOpenKinds = new HashMap<Integer, Integer>(
+				state.closeOpenKinds);
+		this.defaultTokenKinds = state.defaultTokenKinds.clone();
+		this.isExtension = true;
+	}
 	
 	public IGrammar asExternalView() {
 		final Instantiator<Integer, IOperator> instantiator = new Instantiator<Integer, IOperator>();
@@ -134,9 +211,18 @@ public abstract class AbstractGrammar {
 	}
 
 	public boolean isOperator(int kind) {
-		// TODO could be replaced by 'there exists a tag for the given kind'
-		return kind == getKind(NEG_LIT)
-				|| (opRegistry.hasGroup(kind) && (!tokens.isReserved(kind)));
+		return 0 <= kind && kind < operatorKinds.length
+				&& operatorKinds[kind];
+	}
+
+	private void compileOperatorKinds() {
+		final int nbKinds = opRegistry.getOperatorKindCount();
+		operatorKinds = new boolean[nbKinds];
+		for (int kind = 0; kind < nbKinds; kind++) {
+			// TODO could be replaced by 'there exists a tag for the given kind'
+			operatorKinds[kind] = kind == getKind(NEG_LIT)
+					|| (opRegistry.hasGroup(kind) && (!tokens.isReserved(kind)));
+		}
 	}
 	
 	protected boolean isInitOperator(int kind) {
@@ -151,32 +237,20 @@ public abstract class AbstractGrammar {
 	/**
 	 * Initialises tokens, parsers and operator relationships.
 	 * <p>
-	 * Subclasses are expected to override and call this method first.
+	 * Base grammars keep a snapshot of their operators and relationships, for
+	 * use by grammars extending them.
 	 * </p>
 	 */
 	public final void init() {
 		try {
-			initDefaultKinds();
-
-			initOpRegistry.addOperator(getKind(EOF), EOF.getImage(), GROUP_0.getId(), false);
-			initOpRegistry.addOperator(getKind(NOOP), NOOP.getImage(), GROUP_0.getId(), false);
-			initOpRegistry.addOperator(getKind(OPEN), OPEN.getImage(), GROUP_0.getId(), false);
-			initOpRegistry.addOperator(getKind(NEG_LIT), NEG_LIT.getImage(), ARITHMETIC.getId(),
-					false);
-			
-			// TODO move to Expression.init() called from BMath
-			// Undefined Operators
-			addOperator(OFTYPE, OFTYPE_ID, TYPED.getId(), OFTYPE_PARSER, true);
-
-			addOpenClose(LPAR.getImage(), RPAR.getImage());
-			addOpenClose(LBRACE.getImage(), RBRACE.getImage());
-			addOpenClose(LBRACKET.getImage(), RBRACKET.getImage());
-
-			IntegerLiteral.init(this);
-			Identifier.init(this);
-			subParsers.addNud(getKind(LPAR), MainParsers.CLOSED_SUGAR);
+			if (!isExtension) {
+				addDefaultOperators();
+			}
 			addOperators();
 			addOperatorRelationships();
+			if (!isExtension) {
+				initialState = new InitialState(this);
+			}
 
 			// the following redistributes all kinds
 			compact();
@@ -187,12 +261,36 @@ public abstract class AbstractGrammar {
 				populateSubParsers(operInfo);
 			}
 			deferredOperators = null;
+			subParsers.compile();
+			compileOperatorKinds();
 		} catch (OverrideException e) {
 			// TODO Auto-generated catch block
 			e.printStackTrace();
 		}
 	}
 
+	private void addDefaultOperators() throws OverrideException {
+		initDefaultKinds();
+
+		initOpRegistry.addOperator(getKind(EOF), EOF.getImage(), GROUP_0.getId(), false);
+		initOpRegistry.addOperator(getKind(NOOP), NOOP.getImage(), GROUP_0.getId(), false);
+		initOpRegistry.addOperator(getKind(OPEN), OPEN.getImage(), GROUP_0.getId(), false);
+		initOpRegistry.addOperator(getKind(NEG_LIT), NEG_LIT.getImage(), ARITHMETIC.getId(),
+				false);
+		
+		// TODO move to Expression.init() called from BMath
+		// Undefined Operators
+		addOperator(OFTYPE, OFTYPE_ID, TYPED.getId(), OFTYPE_PARSER, true);
+
+		addOpenClose(LPAR.getImage(), RPAR.getImage());
+		addOpenClose(LBRACE.getImage(), RBRACE.getImage());
+		addOpenClose(LBRACKET.getImage(), RBRACKET.getImage());
+
+		IntegerLiteral.init(this);
+		Identifier.init(this);
+		subParsers.addNud(getKind(LPAR), MainParsers.CLOSED_SUGAR);
+	}
+
 	private void initDefaultKinds() {
 		final DefaultToken[] defTokens = DefaultToken.values();
 		for (int i = 0; i < defTokens.length; i++) {
@@ -264,12 +362,12 @@ public abstract class AbstractGrammar {
 		initOpRegistry.addGroupPriority(lowGroupId, highGroupId);
 	}
 
-	public List<INudParser<? extends Formula<?>>> getNudParsers(Token token) {
-		return subParsers.getNudParsers(token);
+	public List<INudParser<? extends Formula<?>>> getNudParsers(int kind) {
+		return subParsers.getNudParsers(kind);
 	}
 	
-	public ILedParser<? extends Formula<?>> getLedParser(Token token) {
-		return subParsers.getLedParser(token);
+	public ILedParser<? extends Formula<?>> getLedParser(int kind) {
+		return subParsers.getLedParser(kind);
 	}
 	
 	// for now, used only for extension parsers
@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - grammars extending a shared base snapshot
  *******************************************************************************/
 package org.eventb.internal.core.parser;
 
@@ -81,6 +82,14 @@ import org.eventb.core.ast.extension.CycleError;
  * @author Nicolas Beauger
  */
 public abstract class BMath extends AbstractGrammar {
+
+	protected BMath() {
+		// base grammar
+	}
+
+	protected BMath(BMath base) {
+		super(base);
+	}
 	
 	@Override
 	protected void addOperators() {
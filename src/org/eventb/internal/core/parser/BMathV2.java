@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - grammars extending a shared base snapshot
  *******************************************************************************/
 package org.eventb.internal.core.parser;
 
@@ -24,6 +25,10 @@ public class BMathV2 extends BMath {
 		// constructor is protected
 	}
 
+	protected BMathV2(BMath base) {
+		super(base);
+	}
+
 	public static final BMath B_MATH_V2 = new BMathV2();
 	static {
 		B_MATH_V2.init();
@@ -7,9 +7,12 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - extension of the shared V2 grammar snapshot
  *******************************************************************************/
 package org.eventb.internal.core.parser;
 
+import static org.eventb.internal.core.parser.BMathV2.B_MATH_V2;
+
 import java.util.Set;
 
 import org.eventb.core.ast.ExtendedExpression;
@@ -23,6 +26,13 @@ import org.eventb.internal.core.ast.extension.PriorityMediator;
 import org.eventb.internal.core.parser.GenParser.OverrideException;
 
 /**
+ * Grammar of the V2 language with extensions.
+ * <p>
+ * The operators and relationships of the V2 language are copied from the
+ * shared {@link BMathV2#B_MATH_V2} grammar, so that only the extension ones are
+ * added when creating an extended grammar.
+ * </p>
+ * 
  * @author Nicolas Beauger
  *
  */
@@ -31,13 +41,13 @@ public class ExtendedGrammar extends BMathV2 {
 	private final Set<IFormulaExtension> extensions;
 
 	public ExtendedGrammar(Set<IFormulaExtension> extensions) {
+		super(B_MATH_V2);
 		this.extensions = extensions;
 	}
 	
 	@Override
 	protected void addOperators() {
-		super.addOperators();
-	
+		// V2 operators are inherited from the base grammar
 		ExtendedExpression.init(this);
 		ExtendedPredicate.init(this);
 		try {
@@ -77,8 +87,7 @@ public class ExtendedGrammar extends BMathV2 {
 
 	@Override
 	protected void addOperatorRelationships() {
-		super.addOperatorRelationships();
-
+		// V2 relationships are inherited from the base grammar
 		for (IFormulaExtension extension : extensions) {
 			extension.addCompatibilities(new CompatibilityMediator(this));
 			extension.addPriorities(new PriorityMediator(this));
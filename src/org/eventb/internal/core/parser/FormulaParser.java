@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eventb.core.ast.Assignment;
+import org.eventb.core.ast.Expression;
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.IFormulaParser;
+import org.eventb.core.ast.IParseResult;
+import org.eventb.core.ast.Predicate;
+import org.eventb.core.ast.Type;
+import org.eventb.internal.core.lexer.GenLexer;
+import org.eventb.internal.core.lexer.Scanner;
+
+/**
+ * Implementation of a formula parser that reuses the same lexer, scanner and
+ * parser context for all the formulas it parses.
+ * 
+ * @author HHU
+ */
+public class FormulaParser implements IFormulaParser {
+
+	private final FormulaFactory factory;
+	private final GenLexer lexer;
+	private final Scanner scanner;
+	private final ParserContext context;
+
+	public FormulaParser(FormulaFactory factory) {
+		this.factory = factory;
+		final ParseResult initResult = new ParseResult(factory, null);
+		final AbstractGrammar grammar = factory.getGrammar();
+		this.lexer = new GenLexer("", initResult, grammar);
+		this.scanner = new Scanner(lexer);
+		this.context = new ParserContext(scanner, factory, initResult, false);
+	}
+
+	@Override
+	public FormulaFactory getFactory() {
+		return factory;
+	}
+
+	private IParseResult parse(String formula, Object origin, Class<?> clazz,
+			boolean withPredVars) {
+		final ParseResult result = new ParseResult(factory, origin);
+		lexer.reset(formula, result);
+		scanner.reset();
+		context.reset(result, withPredVars);
+		GenParser.parse(clazz, context);
+		return result;
+	}
+
+	private List<IParseResult> parseAll(List<String> formulas, Object origin,
+			Class<?> clazz) {
+		final List<IParseResult> results = new ArrayList<IParseResult>(
+				formulas.size());
+		for (String formula : formulas) {
+			results.add(parse(formula, origin, clazz, false));
+		}
+		return results;
+	}
+
+	@Override
+	public IParseResult parseAssignment(String formula, Object origin) {
+		return parse(formula, origin, Assignment.class, false);
+	}
+
+	@Override
+	public IParseResult parseExpression(String formula, Object origin) {
+		return parse(formula, origin, Expression.class, false);
+	}
+
+	@Override
+	public IParseResult parseExpressionPattern(String formula, Object origin) {
+		return parse(formula, origin, Expression.class, true);
+	}
+
+	@Override
+	public IParseResult parsePredicate(String formula, Object origin) {
+		return parse(formula, origin, Predicate.class, false);
+	}
+
+	@Override
+	public IParseResult parsePredicatePattern(String formula, Object origin) {
+		return parse(formula, origin, Predicate.class, true);
+	}
+
+	@Override
+	public IParseResult parseType(String formula) {
+		return parse(formula, null, Type.class, false);
+	}
+
+	@Override
+	public List<IParseResult> parseAssignments(List<String> formulas,
+			Object origin) {
+		return parseAll(formulas, origin, Assignment.class);
+	}
+
+	@Override
+	public List<IParseResult> parseExpressions(List<String> formulas,
+			Object origin) {
+		return parseAll(formulas, origin, Expression.class);
+	}
+
+	@Override
+	public List<IParseResult> parsePredicates(List<String> formulas,
+			Object origin) {
+		return parseAll(formulas, origin, Predicate.class);
+	}
+
+}
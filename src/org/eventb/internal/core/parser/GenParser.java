@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - parsing with a reused parser context
  *******************************************************************************/
 package org.eventb.internal.core.parser;
 
@@ -86,9 +87,23 @@ public class GenParser {
 	 * {@link #getResult() getResult()}.
 	 */
 	public void parse() {
-
 		final ParserContext pc = new ParserContext(scanner, factory,
 				result, withPredVar);
+		parse(clazz, pc);
+	}
+
+	/**
+	 * Parses a formula of the given class with the given parser context. The
+	 * context must have been freshly created or reset, and the result of the
+	 * parse is stored in the result of the context.
+	 * 
+	 * @param clazz
+	 *            the class of the formula to parse
+	 * @param pc
+	 *            the context to parse with
+	 */
+	static void parse(Class<?> clazz, ParserContext pc) {
+		final ParseResult result = pc.result;
 		try {
 			pc.init();
 			// separate parsed type in order to have
@@ -110,29 +125,29 @@ public class GenParser {
 						"Can only parse one of: Predicate, Expression, Assignment or Type.");
 			}
 			final int eof = pc.getGrammar().getKind(EOF);
-			if (pc.t.kind != eof) {
+			if (pc.getTokenKind(pc.t) != eof) {
 				failUnmatchedTokens(pc);
 			}
 			if (DEBUG) {
 				pc.debugEndChecks();
 			}
 		} catch (SyntaxError e) {
-			processFailure(pc.takeProblem());
+			processFailure(pc, pc.takeProblem());
 		}
 
 	}
 
-	private void failUnmatchedTokens(ParserContext pc) {
-		final int startPos = pc.t.pos;
+	private static void failUnmatchedTokens(ParserContext pc) {
+		final int startPos = pc.getTokenPos(pc.t);
 		pc.scanUntilEOF();
-		final int endPos = pc.t.pos - 1;
-		processFailure(new ASTProblem(pc.makeSourceLocation(startPos, endPos),
+		final int endPos = pc.getTokenPos(pc.t) - 1;
+		processFailure(pc, new ASTProblem(pc.makeSourceLocation(startPos, endPos),
 				ProblemKind.UnmatchedTokens, ProblemSeverities.Error));
 	}
 
-	private void processFailure(ASTProblem problem) {
-		result.addProblem(problem);
-		result.resetParsedFormula();
+	private static void processFailure(ParserContext pc, ASTProblem problem) {
+		pc.result.addProblem(problem);
+		pc.result.resetParsedFormula();
 	}
 	
 	/**
@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - memoization of nud parsers while trying alternatives
  *******************************************************************************/
 package org.eventb.internal.core.parser;
 
@@ -57,7 +58,6 @@ import org.eventb.core.ast.ProblemSeverities;
 import org.eventb.core.ast.SourceLocation;
 import org.eventb.core.ast.Type;
 import org.eventb.internal.core.ast.extension.IToStringMediator;
-import org.eventb.internal.core.lexer.Token;
 import org.eventb.internal.core.parser.GenParser.SyntaxError;
 import org.eventb.internal.core.parser.IParserPrinter.SubParseResult;
 import org.eventb.internal.core.parser.ParserContext.SavedContext;
@@ -127,13 +127,13 @@ public class MainParsers {
 		
 		protected static ASTProblem newOperatorError(ParserContext pc,
 				ProblemKind problemKind) throws SyntaxError {
-			final SourceLocation srcLoc = pc.makeSourceLocation(pc.t);
-			if (pc.t.kind == pc.getGrammar().getKind(EOF)) {
+			final SourceLocation srcLoc = pc.makeTokenLocation(pc.t);
+			if (pc.getTokenKind(pc.t) == pc.getGrammar().getKind(EOF)) {
 				return new ASTProblem(srcLoc, PrematureEOF,
 						ProblemSeverities.Error);
 			}
 			return new ASTProblem(srcLoc, problemKind, ProblemSeverities.Error,
-					pc.t.val);
+					pc.getTokenLexem(pc.t));
 		}
 
 		// errors must be non empty 
@@ -171,30 +171,42 @@ public class MainParsers {
 			final Set<ASTProblem> errors = new LinkedHashSet<ASTProblem>();
 			final Iterator<INudParser<? extends Formula<?>>> iter = nudParsers.iterator();
 			final SavedContext savedContext = pc.save();
-			while(iter.hasNext()) {
-				final INudParser<? extends Formula<?>> nudParser = iter.next();
-				try {
-					// FIXME the call to nud may add problems to pc.result
-					// without throwing an exception
-					// => convention: exception + problem if not recoverable
-					//                problem only if recoverable
-					final SubParseResult<? extends Formula<?>> nudResult = nudParser
-							.nud(pc);
-
-					return new SubParseResult<Formula<?>>(
-							nudResult.getParsed(), nudResult.getKind(),
-							nudResult.isClosed());
-					// FIXME check for ambiguities (several succeeding parsers)
-				} catch (SyntaxError e) {
-					errors.add(pc.takeProblem());
-					pc.restore(savedContext);
+			// failing alternatives may cause the same tokens to be parsed
+			// again, which the parser context then avoids
+			final boolean hasAlternatives = nudParsers.size() > 1;
+			if (hasAlternatives) {
+				pc.startAlternatives();
+			}
+			try {
+				while(iter.hasNext()) {
+					final INudParser<? extends Formula<?>> nudParser = iter.next();
+					try {
+						// FIXME the call to nud may add problems to pc.result
+						// without throwing an exception
+						// => convention: exception + problem if not recoverable
+						//                problem only if recoverable
+						final SubParseResult<? extends Formula<?>> nudResult = pc
+								.nud(nudParser);
+
+						return new SubParseResult<Formula<?>>(
+								nudResult.getParsed(), nudResult.getKind(),
+								nudResult.isClosed());
+						// FIXME check for ambiguities (several succeeding parsers)
+					} catch (SyntaxError e) {
+						errors.add(pc.takeProblem());
+						pc.restore(savedContext);
+					}
+				}
+			} finally {
+				if (hasAlternatives) {
+					pc.stopAlternatives();
 				}
 			}
 			if (errors.size() == 1) {
 				throw pc.syntaxError(errors.iterator().next());
 			} else {
 				throw pc.syntaxError(newCompoundError(
-						pc.makeSourceLocation(pc.t), errors));
+						pc.makeTokenLocation(pc.t), errors));
 			}
 		}
 		
@@ -350,7 +362,7 @@ public class MainParsers {
 			final PatternAtomParser atomParser = new PatternAtomParser(pattern, this);
 			pc.subParseNoCheck(atomParser);
 			final int mapsto = pc.getGrammar().getKind(MAPS_TO);
-			while (pc.t.kind == mapsto) {
+			while (pc.getTokenKind(pc.t) == mapsto) {
 				pc.accept(mapsto);
 				pc.subParseNoCheck(atomParser);
 				pattern.mapletParsed(pc.getSourceLocation());
@@ -399,7 +411,7 @@ public class MainParsers {
 
 			@Override
 			public SubParseResult<Object> nud(ParserContext pc) throws SyntaxError {
-				if (pc.t.kind == pc.getGrammar().getKind(LPAR)) {
+				if (pc.getTokenKind(pc.t) == pc.getGrammar().getKind(LPAR)) {
 					pc.acceptOpenParen();
 					pc.subParse(parser, false);
 					pc.acceptCloseParen();
@@ -450,7 +462,7 @@ public class MainParsers {
 			final T first = pc.subParseNoCheck(parser);
 			list.add(first);
 			final int comma = pc.getGrammar().getKind(COMMA);
-			while (pc.t.kind == comma) {
+			while (pc.getTokenKind(pc.t) == comma) {
 				pc.accept(comma);
 				final T next = pc.subParseNoCheck(parser);
 				list.add(next);
@@ -535,8 +547,8 @@ public class MainParsers {
 			// the list is guaranteed to be non empty
 			assert !idents.isEmpty();
 			
-			final Token tokenAfterIdents = pc.t;
-			final int tokenKind = tokenAfterIdents.kind;
+			final int tokenAfterIdents = pc.t;
+			final int tokenKind = pc.getTokenKind(tokenAfterIdents);
 			pc.accept(tokenKind);
 
 			if (tokenKind == pc.getGrammar().getKind(LPAR)) { // FUNIMAGE assignment
@@ -557,7 +569,7 @@ public class MainParsers {
 				final List<Expression> values = pc.subParseNoCheck(EXPR_LIST_PARSER);
 				if (idents.size() != values.size()) {
 					throw pc.syntaxError(new ASTProblem(pc
-							.makeSourceLocation(tokenAfterIdents),
+							.makeTokenLocation(tokenAfterIdents),
 							ProblemKind.IncompatibleIdentExprNumbers,
 							ProblemSeverities.Error, idents.size(), values
 									.size()));
@@ -566,9 +578,10 @@ public class MainParsers {
 				return new SubParseResult<BecomesEqualTo>(bet, kind);
 			} else {
 				throw pc.syntaxError(new ASTProblem(pc
-						.makeSourceLocation(tokenAfterIdents),
+						.makeTokenLocation(tokenAfterIdents),
 						ProblemKind.UnknownOperator, ProblemSeverities.Error,
-						tokenAfterIdents + " (as assignment operator)"));
+						pc.getTokenLexem(tokenAfterIdents)
+								+ " (as assignment operator)"));
 				// FIXME when switching to led parsing, this disappears
 			}
 		}
@@ -593,9 +606,9 @@ public class MainParsers {
 		@Override
 		public SubParseResult<BecomesMemberOf> nud(ParserContext pc) throws SyntaxError {
 			final FreeIdentifier ident = pc.subParse(FREE_IDENT_SUBPARSER, false);
-			if (pc.t.kind == pc.getGrammar().getKind(COMMA)) {
+			if (pc.getTokenKind(pc.t) == pc.getGrammar().getKind(COMMA)) {
 				throw pc.syntaxError(new ASTProblem(pc
-						.makeSourceLocation(pc.t),
+						.makeTokenLocation(pc.t),
 						ProblemKind.BECMOAppliesToOneIdent,
 						ProblemSeverities.Error));
 			}
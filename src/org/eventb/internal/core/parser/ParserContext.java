@@ -7,6 +7,11 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - tokens designated by indexes in a token buffer
+ *     HHU - reusable parser contexts
+ *     HHU - persistent bindings and stacks
+ *     HHU - memoization of nud parsers while trying alternatives
+ *     HHU - bound names looked up in a persistent map
  *******************************************************************************/
 package org.eventb.internal.core.parser;
 
@@ -18,10 +23,12 @@ import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.RPAR;
 import static org.eventb.internal.core.parser.GenParser.ProgressDirection.LEFT;
 import static org.eventb.internal.core.parser.GenParser.ProgressDirection.RIGHT;
 
+import java.util.Arrays;
+import java.util.EmptyStackException;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Stack;
 
 import org.eventb.core.ast.ASTProblem;
 import org.eventb.core.ast.BoundIdentDecl;
@@ -30,9 +37,9 @@ import org.eventb.core.ast.FormulaFactory;
 import org.eventb.core.ast.ProblemKind;
 import org.eventb.core.ast.ProblemSeverities;
 import org.eventb.core.ast.SourceLocation;
+import org.eventb.internal.core.ast.PersistentHashMap;
 import org.eventb.internal.core.lexer.Scanner;
-import org.eventb.internal.core.lexer.Scanner.ScannerState;
-import org.eventb.internal.core.lexer.Token;
+import org.eventb.internal.core.lexer.TokenBuffer;
 import org.eventb.internal.core.parser.GenParser.ProgressDirection;
 import org.eventb.internal.core.parser.GenParser.SyntaxError;
 import org.eventb.internal.core.parser.IParserPrinter.SubParseResult;
@@ -40,41 +47,110 @@ import org.eventb.internal.core.parser.operators.OperatorRelationship;
 
 public class ParserContext {
 
+	/*
+	 * Bound identifiers visible at some point of the parse, as a persistent
+	 * chain of scopes. Each scope only holds the names it declares and shares
+	 * its enclosing scopes, so that entering a binder or saving the context
+	 * does not copy the names already bound. Next to the chain, a persistent
+	 * map gives the innermost declaration of each bound name, so that looking
+	 * up a name does not walk the chain.
+	 */
 	private static class Binding {
-		private Map<String, Integer> binders;
-		private int maxCount = -1;
+
+		private static final String[] NO_NAMES = new String[0];
+
+		// the enclosing scope, or null for the empty binding
+		private final Binding parent;
+
+		// names declared by this scope
+		private final String[] names;
+
+		// index of the last name declared by this scope
+		private final int maxCount;
+
+		// index of the innermost declaration of each bound name
+		private final PersistentHashMap<String, Integer> indexes;
 	
 		// Creates an empty binding.
-	    Binding() {
-	    	binders = new HashMap<String, Integer>();
-	    }
+		Binding() {
+			this.parent = null;
+			this.names = NO_NAMES;
+			this.maxCount = -1;
+			this.indexes = PersistentHashMap.empty();
+		}
 		
-	    // Creates a new binding based on <code>base</code> and extended
-	    // with <code>idents</code>
+		// Creates a new binding based on <code>base</code> and extended
+		// with <code>idents</code>
 		Binding(ParserContext.Binding base, List<BoundIdentDecl> idents) {
-	    	binders = new HashMap<String, Integer>(base.binders);
-			int index = base.maxCount;
+			this.parent = base;
+			this.names = new String[idents.size()];
+			PersistentHashMap<String, Integer> map = base.indexes;
+			int index = 0;
 			for (BoundIdentDecl ident: idents) {
-				binders.put(ident.getName(), ++ index);
+				final String name = ident.getName();
+				names[index++] = name;
+				// Later declarations hide the previous ones
+				map = map.plus(name, base.maxCount + index);
 			}
-			maxCount = index;
+			this.maxCount = base.maxCount + names.length;
+			this.indexes = map;
 		}
 	
 		// Returns the index to use for the identifier <code>name</code>
 		// or -1 if the name is free under this binding.
+		// Inner scopes hide outer ones, and the last declaration of a name
+		// in a scope hides the previous ones.
 		int getBoundIndex(String name) {
-			Integer index = binders.get(name);
+			final Integer index = indexes.get(name);
 			if (index == null) {
 				return -1;
-			} else {
-				return maxCount - index;
 			}
+			return maxCount - index;
+		}
+
+		// Tells whether this binding declares the same names as the given one,
+		// scope by scope.
+		boolean sameNames(Binding other) {
+			Binding left = this;
+			Binding right = other;
+			while (left != right) {
+				if (left == null || right == null
+						|| !Arrays.equals(left.names, right.names)) {
+					return false;
+				}
+				left = left.parent;
+				right = right.parent;
+			}
+			return true;
+		}
+
+		int namesHashCode() {
+			int hash = 0;
+			for (Binding scope = this; scope != null; scope = scope.parent) {
+				hash = 31 * hash + Arrays.hashCode(scope.names);
+			}
+			return hash;
 		}
 	}
 
+	/*
+	 * A current value together with a persistent stack of previous values.
+	 * Copies share the stack, which is never modified in place.
+	 */
 	private static class StackedValue<T> {
+
+		private static class Node<T> {
+			final T val;
+			final Node<T> next;
+
+			Node(T val, Node<T> next) {
+				this.val = val;
+				this.next = next;
+			}
+		}
+
 		T val;
-		private final Stack<T> stack = new Stack<T>();
+		private Node<T> stack = null;
 		
 		public StackedValue(T initVal) {
 			this.val = initVal;
@@ -82,51 +158,93 @@ public class ParserContext {
 		
 		public StackedValue(ParserContext.StackedValue<T> toCopy) {
 			this.val = toCopy.val;
-			this.stack.addAll(toCopy.stack);
+			this.stack = toCopy.stack;
 		}
 		
 		public void push(T newVal) {
-			stack.push(val);
+			stack = new Node<T>(val, stack);
 			val = newVal;
 		}
 	
 		public void pop() {
-			val = stack.pop();
+			if (stack == null) {
+				throw new EmptyStackException();
+			}
+			val = stack.val;
+			stack = stack.next;
+		}
+
+		public void reset(T initVal) {
+			stack = null;
+			val = initVal;
 		}
 	
 		public T peekStack() {
-			return stack.peek();
+			if (stack == null) {
+				throw new EmptyStackException();
+			}
+			return stack.val;
 		}
 		
 		public boolean isStackEmpty() {
-			return stack.isEmpty();
+			return stack == null;
 		}
 		
+		// Tells whether the given stacks contain equal values.
+		static boolean sameValues(Node<?> left, Node<?> right) {
+			while (left != right) {
+				if (left == null || right == null || !left.val.equals(right.val)) {
+					return false;
+				}
+				left = left.next;
+				right = right.next;
+			}
+			return true;
+		}
+
+		static int valuesHashCode(Node<?> node) {
+			int hash = 0;
+			for (; node != null; node = node.next) {
+				hash = 31 * hash + node.val.hashCode();
+			}
+			return hash;
+		}
+
 		@Override
 		public String toString() {
-			return val.toString() + " " + stack.toString();
+			final LinkedList<T> values = new LinkedList<T>();
+			for (Node<T> node = stack; node != null; node = node.next) {
+				values.addFirst(node.val);
+			}
+			return val.toString() + " " + values.toString();
 		}
 	}
 
-	private static final Token INIT_TOKEN = new Token(TokenSet.UNKNOWN_KIND, "", -1);
-
 	private final Scanner scanner;
+	private final TokenBuffer tokens;
 	protected final FormulaFactory factory;
 	private final AbstractGrammar grammar;
-	protected final ParseResult result;
-	protected final boolean withPredVar;
+	protected ParseResult result;
+	protected boolean withPredVar;
 	private ParserContext.StackedValue<ParserContext.Binding> binding = new ParserContext.StackedValue<ParserContext.Binding>(new Binding());
 	private ParserContext.StackedValue<Integer> parentKind; 
 	private ParserContext.StackedValue<Integer> startPos = new ParserContext.StackedValue<Integer>(-1); 
 	private int endPos = -1;
 	private boolean parsingType;
-	protected Token t;    // last recognized token
-	protected Token la;   // lookahead token
+	protected int t;    // last recognized token
+	protected int la;   // lookahead token
 	private ASTProblem curProblem; // problem for currently thrown SyntaxError, or null
 
+	// number of nested applications of alternative nud parsers in progress
+	private int alternativesDepth = 0;
+
+	// outcomes of nud parsers applied while trying alternatives
+	private final Map<NudKey, NudOutcome> nudMemo = new HashMap<NudKey, NudOutcome>();
+
 	
 	protected ParserContext(Scanner scanner, FormulaFactory factory, ParseResult result, boolean withPredVar) {
 		this.scanner = scanner;
+		this.tokens = scanner.getTokens();
 		this.factory = factory;
 		this.grammar = factory.getGrammar();
 		this.result = result;
@@ -134,9 +252,64 @@ public class ParserContext {
 		this.parentKind = new ParserContext.StackedValue<Integer>(grammar.getKind(EOF));
 	}
 
+	/**
+	 * Prepares this context for parsing a new formula. The scanner of this
+	 * context must have been reset beforehand.
+	 * 
+	 * @param newResult
+	 *            the result of the new parse
+	 * @param newWithPredVar
+	 *            whether predicate variables are allowed in the new formula
+	 */
+	void reset(ParseResult newResult, boolean newWithPredVar) {
+		this.result = newResult;
+		this.withPredVar = newWithPredVar;
+		this.binding.reset(new Binding());
+		this.parentKind.reset(grammar.getKind(EOF));
+		this.startPos.reset(-1);
+		this.endPos = -1;
+		this.parsingType = false;
+		this.curProblem = null;
+		this.alternativesDepth = 0;
+		this.nudMemo.clear();
+	}
+
 	public AbstractGrammar getGrammar() {
 		return grammar;
 	}
+
+	/**
+	 * Returns the kind of the given token.
+	 * 
+	 * @param token
+	 *            a token index
+	 * @return a token kind
+	 */
+	public int getTokenKind(int token) {
+		return tokens.getKind(token);
+	}
+
+	/**
+	 * Returns the position of the first character of the given token.
+	 * 
+	 * @param token
+	 *            a token index
+	 * @return a position in the parsed string
+	 */
+	public int getTokenPos(int token) {
+		return tokens.getPos(token);
+	}
+
+	/**
+	 * Returns the lexem of the given token.
+	 * 
+	 * @param token
+	 *            a token index
+	 * @return the image of the token in the parsed string
+	 */
+	public String getTokenLexem(int token) {
+		return tokens.getLexem(token);
+	}
 	
 	/**
 	 * Makes a source location starting from the position where the latest
@@ -156,11 +329,11 @@ public class ParserContext {
 		if (startPos.val < 0) {
 			throw new IllegalStateException("no start position set");
 		}
-		return makeSourceLocation(startPos.peekStack(), t.getEnd());
+		return makeSourceLocation(startPos.peekStack(), tokens.getEnd(t));
 	}
 
-	public SourceLocation makeSourceLocation(Token token) {
-		return makeSourceLocation(token.pos, token.getEnd());
+	public SourceLocation makeTokenLocation(int token) {
+		return makeSourceLocation(tokens.getPos(token), tokens.getEnd(token));
 	}
 
 	public SourceLocation makeSourceLocation(int start, int end) {
@@ -177,19 +350,19 @@ public class ParserContext {
 	}
 
 	public void init() {
-		t = INIT_TOKEN;
+		t = TokenBuffer.INIT_TOKEN;
 		la = scanner.Scan();
 		accept();
 	}
 	
 	private void accept() {
-		if (grammar.isOpen(t.kind)) {
+		if (grammar.isOpen(tokens.getKind(t))) {
 			pushParentKind(grammar.getKind(OPEN));
 		}
-		if (grammar.isClose(la.kind)) {
+		if (grammar.isClose(tokens.getKind(la))) {
 			popParentKind();
 		}
-		endPos = t.getEnd();
+		endPos = tokens.getEnd(t);
 		t = la;
 		la = scanner.Scan();
 	}
@@ -199,14 +372,14 @@ public class ParserContext {
 	}
 	
 	public void pushParentKind() {
-		parentKind.push(t.kind);
+		parentKind.push(tokens.getKind(t));
 	}
 
 	public void popParentKind() {
 		if (parentKind.isStackEmpty()) {
 			// happens at least for ) without (
 			// simple problem, error recovering => continue
-			result.addProblem(new ASTProblem(makeSourceLocation(la),
+			result.addProblem(new ASTProblem(makeTokenLocation(la),
 					ProblemKind.UnmatchedTokens, ProblemSeverities.Error));
 			// skip unmatched token
 			t = la;
@@ -222,7 +395,7 @@ public class ParserContext {
 	}
 	
 	public void restore(ParserContext.SavedContext sc) {
-		scanner.restore(sc.scanState);
+		scanner.restore(sc.scanPos);
 		t = sc.t;
 		la = sc.la;
 		parsingType = sc.parsingType;
@@ -232,19 +405,19 @@ public class ParserContext {
 	}
 	
 	static class SavedContext {
-		final ScannerState scanState;
-		final Token t;
-		final Token la;
+		final int scanPos;
+		final int t;
+		final int la;
 		final boolean parsingType;
 		final ParserContext.StackedValue<Integer> startPos;
 		final ParserContext.StackedValue<ParserContext.Binding> binding;
 		final ParserContext.StackedValue<Integer> parentKind;
 		
-		SavedContext(ScannerState scanState, Token t, Token la,
+		SavedContext(int scanPos, int t, int la,
 				boolean parsingType, ParserContext.StackedValue<Integer> startPos,
 				ParserContext.StackedValue<ParserContext.Binding> binding,
 				ParserContext.StackedValue<Integer> parentKind) {
-			this.scanState = scanState;
+			this.scanPos = scanPos;
 			this.t = t;
 			this.la = la;
 			this.parsingType = parsingType;
@@ -255,6 +428,190 @@ public class ParserContext {
 		
 	}
 	
+	/*
+	 * An application of a nud parser, together with all the parts of the
+	 * context that its outcome depends on. Values of bindings and stacks are
+	 * compared, as equal contexts are rebuilt each time an enclosing
+	 * alternative is tried. Parsers only read the top two start positions,
+	 * whereas closing brackets may pop any parent kind.
+	 */
+	private static class NudKey {
+
+		private final INudParser<?> parser;
+		private final int t;
+		private final int la;
+		private final int endPos;
+		private final boolean parsingType;
+		private final Binding binding;
+		private final int parentKind;
+		private final StackedValue.Node<Integer> parentKindStack;
+		private final int startPos;
+		private final StackedValue.Node<Integer> startPosStack;
+		private final Integer startPosBelow;
+		private final int hashCode;
+
+		NudKey(INudParser<?> parser, ParserContext pc) {
+			this.parser = parser;
+			this.t = pc.t;
+			this.la = pc.la;
+			this.endPos = pc.endPos;
+			this.parsingType = pc.parsingType;
+			this.binding = pc.binding.val;
+			this.parentKind = pc.parentKind.val;
+			this.parentKindStack = pc.parentKind.stack;
+			this.startPos = pc.startPos.val;
+			this.startPosStack = pc.startPos.stack;
+			this.startPosBelow = startPosStack == null ? null
+					: startPosStack.val;
+			int hash = System.identityHashCode(parser);
+			hash = 31 * hash + t;
+			hash = 31 * hash + parentKind;
+			hash = 31 * hash + startPos;
+			hash = 31 * hash + binding.namesHashCode();
+			hash = 31 * hash + StackedValue.valuesHashCode(parentKindStack);
+			this.hashCode = hash;
+		}
+
+		// Tells whether the given context is back to the one of this key,
+		// apart from the position in the token stream
+		boolean isBalanced(ParserContext pc) {
+			return parsingType == pc.parsingType
+					&& binding == pc.binding.val
+					&& parentKind == pc.parentKind.val
+					&& parentKindStack == pc.parentKind.stack
+					&& startPos == pc.startPos.val
+					&& startPosStack == pc.startPos.stack;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof NudKey)) {
+				return false;
+			}
+			final NudKey other = (NudKey) obj;
+			return hashCode == other.hashCode && parser == other.parser
+					&& t == other.t && la == other.la
+					&& endPos == other.endPos
+					&& parsingType == other.parsingType
+					&& parentKind == other.parentKind
+					&& startPos == other.startPos
+					&& binding.sameNames(other.binding)
+					&& StackedValue.sameValues(parentKindStack,
+							other.parentKindStack)
+					&& (startPosBelow == null ? other.startPosBelow == null
+							: startPosBelow.equals(other.startPosBelow));
+		}
+	}
+
+	/*
+	 * The outcome of a nud parser application: either a problem, or a result
+	 * together with the position reached in the token stream.
+	 */
+	private static class NudOutcome {
+
+		private final ASTProblem problem;
+		private final SubParseResult<?> result;
+		private final int scanPos;
+		private final int t;
+		private final int la;
+		private final int endPos;
+
+		NudOutcome(ASTProblem problem) {
+			this.problem = problem;
+			this.result = null;
+			this.scanPos = -1;
+			this.t = -1;
+			this.la = -1;
+			this.endPos = -1;
+		}
+
+		NudOutcome(SubParseResult<?> result, ParserContext pc) {
+			this.problem = null;
+			this.result = result;
+			this.scanPos = pc.scanner.save();
+			this.t = pc.t;
+			this.la = pc.la;
+			this.endPos = pc.endPos;
+		}
+	}
+
+	/**
+	 * Records that alternative nud parsers are being tried, so that parsers
+	 * applied from now on may be applied again to the same tokens.
+	 * 
+	 * @see #stopAlternatives()
+	 * @see #nud(INudParser)
+	 */
+	public void startAlternatives() {
+		alternativesDepth++;
+	}
+
+	/**
+	 * Records that alternative nud parsers are not tried anymore.
+	 * 
+	 * @see #startAlternatives()
+	 */
+	public void stopAlternatives() {
+		alternativesDepth--;
+	}
+
+	/**
+	 * Applies the given nud parser at the current token.
+	 * <p>
+	 * While alternatives are tried, the outcome of the application is
+	 * memoized, so that applying the same parser to the same tokens in the
+	 * same context again does not parse them again. Outcomes of applications
+	 * that add problems to the result without failing are not memoized, as
+	 * the problems would not be added again.
+	 * </p>
+	 * 
+	 * @param parser
+	 *            the parser to apply
+	 * @return the result of the parser
+	 * @throws SyntaxError
+	 *             if the parser fails
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> SubParseResult<T> nud(INudParser<T> parser) throws SyntaxError {
+		if (alternativesDepth == 0) {
+			return parser.nud(this);
+		}
+		final NudKey key = new NudKey(parser, this);
+		final NudOutcome outcome = nudMemo.get(key);
+		if (outcome != null) {
+			if (outcome.problem != null) {
+				throw syntaxError(outcome.problem);
+			}
+			scanner.restore(outcome.scanPos);
+			t = outcome.t;
+			la = outcome.la;
+			endPos = outcome.endPos;
+			return (SubParseResult<T>) outcome.result;
+		}
+		final int nbProblems = result.getProblems().size();
+		final SubParseResult<T> parseResult;
+		try {
+			parseResult = parser.nud(this);
+		} catch (SyntaxError e) {
+			if (result.getProblems().size() == nbProblems) {
+				nudMemo.put(key, new NudOutcome(curProblem));
+			}
+			throw e;
+		}
+		if (result.getProblems().size() == nbProblems && key.isBalanced(this)) {
+			nudMemo.put(key, new NudOutcome(parseResult, this));
+		}
+		return parseResult;
+	}
+
 	public SyntaxError syntaxError(ASTProblem problem) throws SyntaxError {
 		assert curProblem == null;
 		curProblem = problem;
@@ -296,11 +653,12 @@ public class ParserContext {
 	 *             in case an unexpected token is ahead
 	 */
 	public void accept(int expectedKind) throws SyntaxError {
-		if (t.kind != expectedKind) {
+		final int kind = tokens.getKind(t);
+		if (kind != expectedKind) {
 			final String expected = grammar.getImage(expectedKind);
-			throw syntaxError(new ASTProblem(makeSourceLocation(t),
+			throw syntaxError(new ASTProblem(makeTokenLocation(t),
 					ProblemKind.UnexpectedSymbol, ProblemSeverities.Error,
-					expected, grammar.getImage(t.kind)));
+					expected, grammar.getImage(kind)));
 		}
 		accept();
 	}
@@ -315,17 +673,17 @@ public class ParserContext {
 	
 	void scanUntilEOF() {
 		final int eof = grammar.getKind(EOF);
-		while (t.kind != eof) {
+		while (tokens.getKind(t) != eof) {
 			accept();
 		}
 	}
 	
 	public List<INudParser<? extends Formula<?>>> getNudParsers() {
-		return grammar.getNudParsers(t);
+		return grammar.getNudParsers(tokens.getKind(t));
 	}
 	
 	public ILedParser<? extends Formula<?>> getLedParser() {
-		return grammar.getLedParser(t);
+		return grammar.getLedParser(tokens.getKind(t));
 	}
 	
 	public int getBoundIndex(String name) {
@@ -350,7 +708,7 @@ public class ParserContext {
 	 */
 	public ProgressDirection giveProgressDirection() throws SyntaxError {
 		final int leftKind = parentKind.val;
-		final int rightKind = t.kind;
+		final int rightKind = tokens.getKind(t);
 		if (!grammar.isOperator(rightKind)) {
 			return LEFT;
 		}
@@ -358,7 +716,7 @@ public class ParserContext {
 				leftKind, rightKind);
 		switch (opRel) {
 		case INCOMPATIBLE:
-			throw syntaxError(new ASTProblem(makeSourceLocation(t),
+			throw syntaxError(new ASTProblem(makeTokenLocation(t),
 					ProblemKind.IncompatibleOperators, ProblemSeverities.Error,
 					grammar.getImage(leftKind), grammar.getImage(rightKind)));
 		case RIGHT_PRIORITY:
@@ -373,7 +731,7 @@ public class ParserContext {
 	}
 	
 	private void pushPos() {
-		startPos.push(t.pos);
+		startPos.push(tokens.getPos(t));
 	}
 	
 	private void popPos() {
@@ -487,9 +845,9 @@ public class ParserContext {
 	/**
 	 * Looks ahead for the given kind.
 	 * <p>
-	 * FIXME current implementation is not compatible with backtracking.
-	 * MUST NOT be called after a call to {@link ParserContext#save()};
-	 * @see Scanner#restore(ScannerState)
+	 * Tokens read while looking ahead are kept by the scanner, so this method
+	 * can be freely combined with {@link ParserContext#save()} and
+	 * {@link ParserContext#restore(SavedContext)}.
 	 * </p>
 	 * 
 	 * @param searchedKind
@@ -497,7 +855,7 @@ public class ParserContext {
 	 * @return <code>true</code> iff the given kind has been found ahead
 	 */
 	public boolean lookAheadFor(int searchedKind) {
-		if (la.kind == searchedKind) {
+		if (tokens.getKind(la) == searchedKind) {
 			return true;
 		}
 		return scanner.lookAheadFor(searchedKind);
@@ -244,7 +244,7 @@ public class SubParsers {
 
 		@Override
 		public final SubParseResult<R> nud(ParserContext pc) throws SyntaxError {
-			final String tokenVal = pc.t.val;
+			final String tokenVal = pc.getTokenLexem(pc.t);
 			final int kind = getKind(pc.getGrammar());
 			pc.accept(kind);
 			final SourceLocation loc = pc.getSourceLocation();
@@ -397,7 +397,7 @@ public class SubParsers {
 				pc.accept(kind);
 				final C next = pc.subParse(childParser, true);
 				children.add(next);
-			} while (pc.t.kind == kind);
+			} while (pc.getTokenKind(pc.t) == kind);
 			return checkAndMakeResult(pc, children);
 		}
 
@@ -504,7 +504,7 @@ public class SubParsers {
 				SourceLocation loc) throws SyntaxError {
 			Type type = null;
 			final int oftype = pc.getGrammar().getKind(OFTYPE);
-			if (pc.t.kind == oftype) {
+			if (pc.getTokenKind(pc.t) == oftype) {
 				pc.pushParentKind();
 				pc.accept(oftype);
 				try {
@@ -666,7 +666,7 @@ public class SubParsers {
 		}
 
 		private ASTProblem newUnexpectedOftype(ParserContext pc) {
-			return new ASTProblem(pc.makeSourceLocation(pc.t),
+			return new ASTProblem(pc.makeTokenLocation(pc.t),
 					ProblemKind.UnexpectedOftype, ProblemSeverities.Error);
 		}
 		
@@ -1223,7 +1223,7 @@ public class SubParsers {
 		public SetExtension parseRight(ParserContext pc) throws SyntaxError {
 			final List<Expression> exprs;
 			final int rbrace = pc.getGrammar().getKind(RBRACE);
-			if (pc.t.kind == rbrace) { // only place where a list may be empty
+			if (pc.getTokenKind(pc.t) == rbrace) { // only place where a list may be empty
 				exprs = Collections.emptyList();
 			} else {
 				exprs = pc.subParseNoCheck(EXPR_LIST_PARSER);
@@ -1483,7 +1483,7 @@ public class SubParsers {
 
 		@Override
 		public SubParseResult<Expression> nud(ParserContext pc) throws SyntaxError {
-			final int minusPos = pc.t.pos;
+			final int minusPos = pc.getTokenPos(pc.t);
 			pc.accept(kind);
 			final Expression expr = pc.subParse(EXPR_PARSER, true);
 			final SourceLocation loc = pc.getSourceLocation();
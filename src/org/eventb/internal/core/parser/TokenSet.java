@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - compiled trie of lexical images
  *******************************************************************************/
 package org.eventb.internal.core.parser;
 
@@ -34,14 +35,27 @@ public class TokenSet {
 	// reversed access to both maps, indexed on kinds
 	private final String[] images;
 	
+	// trie of lexical images, built lazily while kinds are not stable
+	private TokenTrie trie;
+	
 	private int nextKind = FIRST_KIND;
 
 	public TokenSet() {
 		this.lexTokens = new HashMap<String, Integer>();
 		this.reserved = new HashMap<String, Integer>();
 		this.images = null;
+		this.trie = null;
 	}
 	
+	// copy of a token set, which can be modified independently
+	public TokenSet(TokenSet other) {
+		this.lexTokens = new HashMap<String, Integer>(other.lexTokens);
+		this.reserved = new HashMap<String, Integer>(other.reserved);
+		this.images = null;
+		this.trie = other.trie;
+		this.nextKind = other.nextKind;
+	}
+
 	// given kind maps start from FIRST_KIND
 	// kinds are contiguous and pairwise distinct
 	public TokenSet(Map<String, Integer> lexTokens,
@@ -51,6 +65,7 @@ public class TokenSet {
 		this.images = new String[lexTokens.size() + reserved.size()];
 		initImages(lexTokens);
 		initImages(reserved);
+		this.trie = new TokenTrie(lexTokens);
 	}
 	
 	// called when kinds are stable and contiguous;
@@ -88,6 +103,7 @@ public class TokenSet {
 		final int kind = nextKind;
 		addTo.put(key, kind);
 		nextKind++;
+		trie = null;
 		return kind;
 	}
 	
@@ -122,6 +138,19 @@ public class TokenSet {
 		return getElem(kind, reserved);
 	}
 	
+	/**
+	 * Returns the trie of the lexical images of this token set, which allows
+	 * to look up tokens code point by code point.
+	 * 
+	 * @return the trie of lexical images
+	 */
+	public TokenTrie getTrie() {
+		if (trie == null) {
+			trie = new TokenTrie(lexTokens);
+		}
+		return trie;
+	}
+
 	public boolean contains(String lexImage) {
 		return getKind(lexImage) != UNKNOWN_KIND;
 	}
@@ -138,6 +167,10 @@ public class TokenSet {
 	public Set<Entry<String, Integer>> entrySet() {
 		return Collections.unmodifiableSet(lexTokens.entrySet());
 	}
+
+	public Set<Entry<String, Integer>> reservedEntrySet() {
+		return Collections.unmodifiableSet(reserved.entrySet());
+	}
 	
 	public boolean isReserved(int kind) {
 		 return reserved.containsKey(getImage(kind));
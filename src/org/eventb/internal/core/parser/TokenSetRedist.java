@@ -7,16 +7,16 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - linear redistribution of kinds
  *******************************************************************************/
 package org.eventb.internal.core.parser;
 
 import static org.eventb.internal.core.parser.TokenSet.FIRST_KIND;
 
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 
 import org.eventb.internal.core.parser.operators.ExternalViewUtils.Instantiator;
 
@@ -32,44 +32,46 @@ public class TokenSetRedist {
 			Instantiator<Integer, Integer> opKindInst) {
 		completeInst(tokenSet, opKindInst);
 
-		final Map<String, Integer> newLexTokens = new HashMap<String, Integer>();
-		final Map<String, Integer> newReserved = new HashMap<String, Integer>();
+		final Map<String, Integer> newLexTokens = redistribute(
+				tokenSet.entrySet(), opKindInst);
+		final Map<String, Integer> newReserved = redistribute(
+				tokenSet.reservedEntrySet(), opKindInst);
+		return new TokenSet(newLexTokens, newReserved);
+	}
 
-		for (Integer kind = 0; kind < tokenSet.size(); kind++) {
-			final String image = tokenSet.getImage(kind);
+	private static Map<String, Integer> redistribute(
+			Set<Entry<String, Integer>> tokens,
+			Instantiator<Integer, Integer> opKindInst) {
+		final Map<String, Integer> result = new HashMap<String, Integer>();
+		for (Entry<String, Integer> token : tokens) {
+			final Integer kind = token.getValue();
 			if (!opKindInst.hasInst(kind)) {
 				throw new IllegalStateException(
 						"expected kind instantiation for kind=" + kind
-								+ " image=" + image);
-			}
-			final Integer newKind = opKindInst.instantiate(kind);
-			if (tokenSet.isReserved(kind)) {
-				newReserved.put(image, newKind);
-			} else {
-				newLexTokens.put(image, newKind);
+								+ " image=" + token.getKey());
 			}
+			result.put(token.getKey(), opKindInst.instantiate(kind));
 		}
-
-		return new TokenSet(newLexTokens, newReserved);
+		return result;
 	}
 
+	// pairs uninstantiated kinds with unused new kinds, in ascending order
 	private void completeInst(TokenSet tokenSet, Instantiator<Integer, Integer> opKindInst) {
-		final List<Integer> uninstantiated = new ArrayList<Integer>();
-		final Collection<Integer> newKinds = opKindInst.values();
-		final List<Integer> freeNewKinds = new ArrayList<Integer>();
-		for (Integer kind = FIRST_KIND; kind < FIRST_KIND + tokenSet.size(); kind++) {
+		final int size = tokenSet.size();
+		final boolean[] usedNewKinds = new boolean[size];
+		for (Integer newKind : opKindInst.values()) {
+			usedNewKinds[newKind - FIRST_KIND] = true;
+		}
+		int freeNewKind = FIRST_KIND;
+		for (Integer kind = FIRST_KIND; kind < FIRST_KIND + size; kind++) {
 			if (!opKindInst.hasInst(kind)) {
-				uninstantiated.add(kind);
-			}
-			if (!newKinds.contains(kind)) {
-				freeNewKinds.add(kind);
+				while (usedNewKinds[freeNewKind - FIRST_KIND]) {
+					freeNewKind++;
+				}
+				opKindInst.setInst(kind, freeNewKind);
+				freeNewKind++;
 			}
 		}
-		assert uninstantiated.size() == freeNewKinds.size();
-
-		for (int i = 0; i < uninstantiated.size(); i++) {
-			opKindInst.setInst(uninstantiated.get(i), freeNewKinds.get(i));
-		}
 	}
 
 }
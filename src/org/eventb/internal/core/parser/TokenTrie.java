@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.parser;
+
+import static org.eventb.internal.core.parser.TokenSet.UNKNOWN_KIND;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Compiled trie of the lexical images of a token set, indexed by code points.
+ * <p>
+ * Nodes are designated by integers, {@link #ROOT} being the node of the empty
+ * image. The children of a node are stored contiguously, sorted by code point,
+ * so that walking the trie only involves array accesses. This allows the lexer
+ * to find the longest known token at a given position without building any
+ * intermediate string.
+ * </p>
+ * <p>
+ * Instances are immutable.
+ * </p>
+ *
+ * @author HHU
+ */
+public class TokenTrie {
+
+	public static final int ROOT = 0;
+	public static final int NO_NODE = -1;
+
+	// kind of the image ending at each node, or UNKNOWN_KIND
+	private final int[] kinds;
+
+	// children of node n are edges firstEdges[n] to firstEdges[n + 1] - 1;
+	// nodes are numbered breadth-first, so the target of edge e is node e + 1
+	private final int[] firstEdges;
+
+	// code point labeling each edge, sorted for each node
+	private final int[] edgeCodePoints;
+
+	private static class NodeBuilder {
+		int kind = UNKNOWN_KIND;
+		final TreeMap<Integer, NodeBuilder> children = new TreeMap<Integer, NodeBuilder>();
+
+		NodeBuilder getOrAdd(int codePoint) {
+			NodeBuilder child = children.get(codePoint);
+			if (child == null) {
+				child = new NodeBuilder();
+				children.put(codePoint, child);
+			}
+			return child;
+		}
+	}
+
+	public TokenTrie(Map<String, Integer> lexTokens) {
+		final NodeBuilder root = new NodeBuilder();
+		for (Entry<String, Integer> entry : lexTokens.entrySet()) {
+			final String image = entry.getKey();
+			NodeBuilder node = root;
+			int i = 0;
+			while (i < image.length()) {
+				final int codePoint = image.codePointAt(i);
+				node = node.getOrAdd(codePoint);
+				i += Character.charCount(codePoint);
+			}
+			node.kind = entry.getValue();
+		}
+		final List<NodeBuilder> nodes = new ArrayList<NodeBuilder>();
+		nodes.add(root);
+		for (int i = 0; i < nodes.size(); i++) {
+			nodes.addAll(nodes.get(i).children.values());
+		}
+		final int nbNodes = nodes.size();
+		this.kinds = new int[nbNodes];
+		this.firstEdges = new int[nbNodes + 1];
+		this.edgeCodePoints = new int[nbNodes - 1];
+		int edge = 0;
+		for (int n = 0; n < nbNodes; n++) {
+			final NodeBuilder node = nodes.get(n);
+			kinds[n] = node.kind;
+			firstEdges[n] = edge;
+			for (Integer codePoint : node.children.keySet()) {
+				edgeCodePoints[edge] = codePoint;
+				edge++;
+			}
+		}
+		firstEdges[nbNodes] = edge;
+	}
+
+	/**
+	 * Returns the child of the given node through the given code point.
+	 *
+	 * @param node
+	 *            a node of this trie
+	 * @param codePoint
+	 *            a code point
+	 * @return the child node, or {@link #NO_NODE} if there is none
+	 */
+	public int getChild(int node, int codePoint) {
+		int low = firstEdges[node];
+		int high = firstEdges[node + 1] - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			final int midCodePoint = edgeCodePoints[mid];
+			if (midCodePoint < codePoint) {
+				low = mid + 1;
+			} else if (midCodePoint > codePoint) {
+				high = mid - 1;
+			} else {
+				return mid + 1;
+			}
+		}
+		return NO_NODE;
+	}
+
+	/**
+	 * Returns the kind of the token whose image leads to the given node.
+	 *
+	 * @param node
+	 *            a node of this trie
+	 * @return a token kind, or {@link TokenSet#UNKNOWN_KIND} if the image of
+	 *         the node is not a token
+	 */
+	public int getKind(int node) {
+		return kinds[node];
+	}
+
+	/**
+	 * Returns the kind of the token whose image is the given sub-sequence.
+	 *
+	 * @param seq
+	 *            a sequence of characters
+	 * @param start
+	 *            index of the first character of the image
+	 * @param end
+	 *            index following the last character of the image
+	 * @return a token kind, or {@link TokenSet#UNKNOWN_KIND} if the image is
+	 *         not a token
+	 */
+	public int getKind(CharSequence seq, int start, int end) {
+		int node = ROOT;
+		int i = start;
+		while (i < end) {
+			final int codePoint = Character.codePointAt(seq, i);
+			node = getChild(node, codePoint);
+			if (node == NO_NODE) {
+				return UNKNOWN_KIND;
+			}
+			i += Character.charCount(codePoint);
+		}
+		return kinds[node];
+	}
+
+}
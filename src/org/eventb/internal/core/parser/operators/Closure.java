@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - copy constructor
  *******************************************************************************/
 package org.eventb.internal.core.parser.operators;
 
@@ -14,6 +15,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.eventb.core.ast.extension.CycleError;
@@ -25,6 +27,17 @@ public class Closure<T> {// TODO extends Relation<T> ?
 	public Closure() {
 		// avoid synthetic accessor emulation
 	}
+
+	public Closure(Closure<T> other) {
+		copy(other.reachable, reachable);
+		copy(other.reachableReverse, reachableReverse);
+	}
+
+	private static <T> void copy(Map<T, Set<T>> from, Map<T, Set<T>> to) {
+		for (Entry<T, Set<T>> entry : from.entrySet()) {
+			to.put(entry.getKey(), new HashSet<T>(entry.getValue()));
+		}
+	}
 	
 	public Map<T, Set<T>> getRelationMap() {
 		return Collections.unmodifiableMap(reachable);
@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - dense kind-indexed tables of sub-parsers
+ *     HHU - copy constructor
  *******************************************************************************/
 package org.eventb.internal.core.parser.operators;
 
@@ -18,7 +20,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import org.eventb.core.ast.Formula;
-import org.eventb.internal.core.lexer.Token;
 import org.eventb.internal.core.parser.GenParser.OverrideException;
 import org.eventb.internal.core.parser.operators.ExternalViewUtils.Instantiator;
 import org.eventb.internal.core.parser.ILedParser;
@@ -38,6 +39,11 @@ public class LexKindParserDB {
 			// nothing to do
 		}
 
+		public KindParsers(KindParsers other) {
+			ledParsers.addAll(other.ledParsers);
+			nudParsers.addAll(other.nudParsers);
+		}
+
 		public void addLed(ILedParser<? extends Formula<?>> subParser) throws OverrideException {
 			if (!ledParsers.isEmpty()) {
 				throw new OverrideException(
@@ -62,17 +68,88 @@ public class LexKindParserDB {
 	}
 
 	private final Map<Integer, KindParsers> kindParsers = new HashMap<Integer, KindParsers>();
-	
-	public List<INudParser<? extends Formula<?>>> getNudParsers(Token token) {
-		final KindParsers parsers = kindParsers.get(token.kind);
+
+	// Sub-parsers indexed by kind, computed by compile(), reset by changes
+	private List<INudParser<? extends Formula<?>>>[] nudTable = null;
+	private ILedParser<? extends Formula<?>>[] ledTable = null;
+
+	public LexKindParserDB() {
+		// nothing to do
+	}
+
+	/**
+	 * Returns a copy of the given database, which can be modified
+	 * independently.
+	 * 
+	 * @param other
+	 *            the database to copy
+	 */
+	public LexKindParserDB(LexKindParserDB other) {
+		for (Entry<Integer, KindParsers> entry : other.kindParsers.entrySet()) {
+			kindParsers.put(entry.getKey(), new KindParsers(entry.getValue()));
+		}
+	}
+
+	/**
+	 * Stores the sub-parsers in arrays indexed by kind, so that looking them up
+	 * does not involve hashing. To be called once all sub-parsers have been
+	 * added, with stable kinds.
+	 */
+	public void compile() {
+		int maxKind = -1;
+		for (Integer kind : kindParsers.keySet()) {
+			maxKind = Math.max(maxKind, kind);
+		}
+		nudTable = newNudTable(maxKind + 1);
+		ledTable = newLedTable(maxKind + 1);
+		for (int kind = 0; kind <= maxKind; kind++) {
+			nudTable[kind] = getNudParsersFromMap(kind);
+			ledTable[kind] = getLedParserFromMap(kind);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<INudParser<? extends Formula<?>>>[] newNudTable(
+			int length) {
+		return (List<INudParser<? extends Formula<?>>>[]) new List<?>[length];
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ILedParser<? extends Formula<?>>[] newLedTable(int length) {
+		return (ILedParser<? extends Formula<?>>[]) new ILedParser<?>[length];
+	}
+
+	public List<INudParser<? extends Formula<?>>> getNudParsers(int kind) {
+		if (nudTable != null) {
+			if (0 <= kind && kind < nudTable.length) {
+				return nudTable[kind];
+			}
+			return Collections.emptyList();
+		}
+		return getNudParsersFromMap(kind);
+	}
+
+	private List<INudParser<? extends Formula<?>>> getNudParsersFromMap(
+			int kind) {
+		final KindParsers parsers = kindParsers.get(kind);
 		if (parsers == null) {
 			return Collections.emptyList();
 		}
 		return parsers.getNudParsers(); 
 	}
 	
-	public ILedParser<? extends Formula<?>> getLedParser(Token token) {
-		final KindParsers parsers = kindParsers.get(token.kind);
+	public ILedParser<? extends Formula<?>> getLedParser(int kind) {
+		if (ledTable != null) {
+			if (0 <= kind && kind < ledTable.length) {
+				return ledTable[kind];
+			}
+			return null;
+		}
+		return getLedParserFromMap(kind);
+	}
+
+	private ILedParser<? extends Formula<?>> getLedParserFromMap(int kind) {
+		final KindParsers parsers = kindParsers.get(kind);
 		if (parsers == null) {
 			return null;
 		}
@@ -95,6 +172,8 @@ public class LexKindParserDB {
 	}
 
 	private KindParsers fetchParsers(int kind) {
+		nudTable = null;
+		ledTable = null;
 		KindParsers parsers = kindParsers.get(kind);
 		if (parsers == null) {
 			parsers = new KindParsers();
@@ -111,6 +190,8 @@ public class LexKindParserDB {
 		}
 		kindParsers.clear();
 		kindParsers.putAll(newKindParsers);
+		nudTable = null;
+		ledTable = null;
 	}
 
 }
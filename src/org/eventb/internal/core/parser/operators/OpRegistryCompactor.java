@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - group priorities by id
  *******************************************************************************/
 package org.eventb.internal.core.parser.operators;
 
@@ -46,10 +47,10 @@ public class OpRegistryCompactor {
 			idKind.put(entry.getKey(), newKind);
 		}
 
-		final Map<OperatorGroup, Set<OperatorGroup>> priorityMap = initOpReg
+		final Map<String, Set<String>> priorityMap = initOpReg
 				.getGroupPriority().getRelationMap();
 		final Matrix groupPriority = convert(groups.length, groupInst,
-				priorityMap);
+				initOpReg.getIdOpGroup(), priorityMap);
 
 		return new OperatorRegistryCompact(groups, firstKinds, idKind,
 				groupPriority);
@@ -57,13 +58,15 @@ public class OpRegistryCompactor {
 
 	private static Matrix convert(int groupCount,
 			Instantiator<OperatorGroup, Integer> groupInst,
-			Map<OperatorGroup, Set<OperatorGroup>> priorityMap) {
+			AllInOnceMap<String, OperatorGroup> idOpGroup,
+			Map<String, Set<String>> priorityMap) {
 		final Matrix groupPriority = new Matrix(groupCount);
-		for (Entry<OperatorGroup, Set<OperatorGroup>> rel : priorityMap
-				.entrySet()) {
-			final int left = groupInst.instantiate(rel.getKey());
-			for (OperatorGroup groupRight : rel.getValue()) {
-				final int right = groupInst.instantiate(groupRight);
+		for (Entry<String, Set<String>> rel : priorityMap.entrySet()) {
+			final int left = groupInst.instantiate(idOpGroup.get(rel
+					.getKey()));
+			for (String groupRight : rel.getValue()) {
+				final int right = groupInst.instantiate(idOpGroup
+						.get(groupRight));
 				groupPriority.set(left, right);
 			}
 		}
@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - copy constructor
  *******************************************************************************/
 package org.eventb.internal.core.parser.operators;
 
@@ -26,16 +27,32 @@ public class OperatorGroup {
 	// group arrays use local indexes (starting from 0) 
 	// Relation: int + BitSet (group offset + relation)
 	// the BitSet uses x+size*y
-	private final Set<Integer> allOperators = new HashSet<Integer>();
-	private final Relation<Integer> compatibilityRelation = new Relation<Integer>();
-	private final Closure<Integer> operatorPriority = new Closure<Integer>();
-	private final Set<Integer> associativeOperators = new HashSet<Integer>();
-	private final Set<Integer> spacedOperators = new HashSet<Integer>();
+	private final Set<Integer> allOperators;
+	private final Relation<Integer> compatibilityRelation;
+	private final Closure<Integer> operatorPriority;
+	private final Set<Integer> associativeOperators;
+	private final Set<Integer> spacedOperators;
 
 	private final String id;
 
 	public OperatorGroup(String id) {
 		this.id = id;
+		this.allOperators = new HashSet<Integer>();
+		this.compatibilityRelation = new Relation<Integer>();
+		this.operatorPriority = new Closure<Integer>();
+		this.associativeOperators = new HashSet<Integer>();
+		this.spacedOperators = new HashSet<Integer>();
+	}
+
+	public OperatorGroup(OperatorGroup other) {
+		this.id = other.id;
+		this.allOperators = new HashSet<Integer>(other.allOperators);
+		this.compatibilityRelation = new Relation<Integer>(
+				other.compatibilityRelation);
+		this.operatorPriority = new Closure<Integer>(other.operatorPriority);
+		this.associativeOperators = new HashSet<Integer>(
+				other.associativeOperators);
+		this.spacedOperators = new HashSet<Integer>(other.spacedOperators);
 	}
 
 	public String getId() {
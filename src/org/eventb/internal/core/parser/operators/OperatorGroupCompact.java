@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - allocation-free checks
  *******************************************************************************/
 package org.eventb.internal.core.parser.operators;
 
@@ -62,15 +63,19 @@ public class OperatorGroupCompact {
 		return lastKind;
 	}
 
-	private void checkKnown(int... ops) {
-		for (int op : ops) {
-			if (op < firstKind || op > lastKind) {
-				throw new IllegalArgumentException("unknown operator " + op
-						+ " in group " + id);
-			}
+	private void checkKnown(int op) {
+		if (op < firstKind || op > lastKind) {
+			throw new IllegalArgumentException("unknown operator " + op
+					+ " in group " + id);
 		}
 	}
 
+	// not variadic, to avoid allocating arrays on frequent calls
+	private void checkKnown(int a, int b) {
+		checkKnown(a);
+		checkKnown(b);
+	}
+
 	public boolean hasLessPriority(int a, int b) {
 		checkKnown(a, b);
 		return operatorPriority.get(a, b);
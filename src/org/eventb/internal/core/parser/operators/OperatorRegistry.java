@@ -7,9 +7,12 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - copy constructor, group priorities by id
  *******************************************************************************/
 package org.eventb.internal.core.parser.operators;
 
+import java.util.Map.Entry;
+
 import org.eventb.core.ast.extension.CycleError;
 import org.eventb.core.ast.extension.StandardGroup;
 
@@ -19,18 +22,41 @@ import org.eventb.core.ast.extension.StandardGroup;
  */
 public class OperatorRegistry {
 
-	private final OperatorGroup group0 = new OperatorGroup(
-			StandardGroup.GROUP_0.getId());
+	private final OperatorGroup group0;
 	
 	private final AllInOnceMap<String, OperatorGroup> idOpGroup = new AllInOnceMap<String, OperatorGroup>();
 	private final AllInOnceMap<Integer, OperatorGroup> kindOpGroup = new AllInOnceMap<Integer, OperatorGroup>();
 	private final AllInOnceMap<String, Integer> idKind = new AllInOnceMap<String, Integer>();
 	
-	
-	private final Closure<OperatorGroup> groupPriority = new Closure<OperatorGroup>();
+	// priorities between groups, designated by their ids
+	private final Closure<String> groupPriority;
 	
 	public OperatorRegistry() {
-		idOpGroup.put(StandardGroup.GROUP_0.getId(), group0);
+		group0 = new OperatorGroup(StandardGroup.GROUP_0.getId());
+		idOpGroup.put(group0.getId(), group0);
+		groupPriority = new Closure<String>();
+	}
+
+	/**
+	 * Returns a deep copy of the given registry, which can be modified
+	 * independently.
+	 * 
+	 * @param other
+	 *            the registry to copy
+	 */
+	public OperatorRegistry(OperatorRegistry other) {
+		for (OperatorGroup group : other.idOpGroup.values()) {
+			final OperatorGroup copy = new OperatorGroup(group);
+			idOpGroup.put(copy.getId(), copy);
+			for (Integer kind : copy.getAllOperators()) {
+				kindOpGroup.put(kind, copy);
+			}
+		}
+		group0 = idOpGroup.get(StandardGroup.GROUP_0.getId());
+		for (Entry<String, Integer> entry : other.idKind.entrySet()) {
+			idKind.put(entry.getKey(), entry.getValue());
+		}
+		groupPriority = new Closure<String>(other.groupPriority);
 	}
 	
 	public OperatorGroup getGroup0() {
@@ -49,7 +75,7 @@ public class OperatorRegistry {
 		return idKind;
 	}
 	
-	public Closure<OperatorGroup> getGroupPriority() {
+	public Closure<String> getGroupPriority() {
 		return groupPriority;
 	}
 
@@ -106,9 +132,10 @@ public class OperatorRegistry {
 	// lowGroupId gets a lower priority than highGroupId
 	public void addGroupPriority(String lowGroupId, String highGroupId)
 			throws CycleError {
-		final OperatorGroup lowGroup = idOpGroup.get(lowGroupId);
-		final OperatorGroup highGroup = idOpGroup.get(highGroupId);
-		groupPriority.add(lowGroup, highGroup);
+		// check that both groups are known
+		idOpGroup.get(lowGroupId);
+		idOpGroup.get(highGroupId);
+		groupPriority.add(lowGroupId, highGroupId);
 	}
 
 	public boolean hasGroup(int kind) {
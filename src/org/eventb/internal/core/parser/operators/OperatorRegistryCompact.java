@@ -7,6 +7,8 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - precomputed group indexes and operator relationships
+ *     HHU - lazily computed operator relationships
  *******************************************************************************/
 package org.eventb.internal.core.parser.operators;
 
@@ -39,6 +41,20 @@ public class OperatorRegistryCompact {
 	private final AllInOnceMap<String, Integer> idKind;
 	private final Matrix groupPriority;
 
+	// operator kinds range from 0 to nbOpKinds - 1
+	private final int nbOpKinds;
+
+	// group index of each operator kind
+	private final int[] groupIndexes;
+
+	// one plus the ordinal of the relationship between every two operator
+	// kinds, the relationship of (left, right) being at index
+	// left * nbOpKinds + right; zero when not computed yet
+	private final byte[] relationships;
+
+	private static final OperatorRelationship[] RELATIONSHIPS = OperatorRelationship
+			.values();
+
 	public OperatorRegistryCompact(OperatorGroupCompact[] groups,
 			int[] firstKinds, AllInOnceMap<String, Integer> idKind,
 			Matrix groupPriority) {
@@ -46,9 +62,16 @@ public class OperatorRegistryCompact {
 		this.firstKinds = firstKinds;
 		this.idKind = idKind;
 		this.groupPriority = groupPriority;
+		this.nbOpKinds = firstKinds[firstKinds.length - 1];
+		this.groupIndexes = new int[nbOpKinds];
+		for (int kind = 0; kind < nbOpKinds; kind++) {
+			groupIndexes[kind] = computeGroupIndex(kind);
+		}
+		// filled lazily, so that creating a grammar stays cheap
+		this.relationships = new byte[nbOpKinds * nbOpKinds];
 	}
 
-	private int getGroupIndex(int opKind) {
+	private int computeGroupIndex(int opKind) {
 		for (int index = 0; index < firstKinds.length; index++) {
 			if (opKind < firstKinds[index]) {
 				return index - 1;
@@ -57,6 +80,13 @@ public class OperatorRegistryCompact {
 		return -1;
 	}
 
+	private int getGroupIndex(int opKind) {
+		if (0 <= opKind && opKind < nbOpKinds) {
+			return groupIndexes[opKind];
+		}
+		return -1;
+	}
+
 	private OperatorGroupCompact getGroup(int opKind) {
 		final int groupIndex = getGroupIndex(opKind);
 		if (groupIndex < 0) {
@@ -86,6 +116,24 @@ public class OperatorRegistryCompact {
 	 */
 	public OperatorRelationship getOperatorRelationship(int leftKind,
 			int rightKind) {
+		if (0 <= leftKind && leftKind < nbOpKinds && 0 <= rightKind
+				&& rightKind < nbOpKinds) {
+			final int index = leftKind * nbOpKinds + rightKind;
+			final int cached = relationships[index];
+			if (cached != 0) {
+				return RELATIONSHIPS[cached - 1];
+			}
+			final OperatorRelationship result = computeOperatorRelationship(
+					leftKind, rightKind);
+			// racy but idempotent: concurrent threads store the same value
+			relationships[index] = (byte) (result.ordinal() + 1);
+			return result;
+		}
+		return computeOperatorRelationship(leftKind, rightKind);
+	}
+
+	private OperatorRelationship computeOperatorRelationship(int leftKind,
+			int rightKind) {
 		final int leftGroupIndex = getGroupIndex(leftKind);
 		final int rightGroupIndex = getGroupIndex(rightKind);
 
@@ -118,6 +166,16 @@ public class OperatorRegistryCompact {
 
 	}
 
+	/**
+	 * Returns the number of operator kinds. Operator kinds range from 0 to
+	 * this number excluded.
+	 * 
+	 * @return the number of operator kinds
+	 */
+	public int getOperatorKindCount() {
+		return nbOpKinds;
+	}
+
 	public boolean hasGroup(int kind) {
 		return getGroupIndex(kind) > 0;
 	}
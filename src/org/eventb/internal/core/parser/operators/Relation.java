@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - copy constructor
  *******************************************************************************/
 package org.eventb.internal.core.parser.operators;
 
@@ -14,6 +15,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 public class Relation<T> {
@@ -22,6 +24,12 @@ public class Relation<T> {
 	public Relation() {
 		// avoid synthetic accessor emulation
 	}
+
+	public Relation(Relation<T> other) {
+		for (Entry<T, Set<T>> entry : other.maplets.entrySet()) {
+			maplets.put(entry.getKey(), new HashSet<T>(entry.getValue()));
+		}
+	}
 	
 	public Map<T, Set<T>> getRelationMap() {
 		return Collections.unmodifiableMap(maplets);
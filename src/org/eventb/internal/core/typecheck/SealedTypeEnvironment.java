@@ -7,11 +7,14 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - map held in a final field
  *******************************************************************************/
 package org.eventb.internal.core.typecheck;
 
 import org.eventb.core.ast.FormulaFactory;
 import org.eventb.core.ast.ISealedTypeEnvironment;
+import org.eventb.core.ast.Type;
+import org.eventb.internal.core.ast.PersistentHashMap;
 
 /**
  * Here we reuse the implementation of type environment, only creating a
@@ -22,8 +25,17 @@ import org.eventb.core.ast.ISealedTypeEnvironment;
 public final class SealedTypeEnvironment extends TypeEnvironment implements
 		ISealedTypeEnvironment {
 
+	// final, so that sealed environments are safely published
+	private final PersistentHashMap<String, Type> map;
+
 	protected SealedTypeEnvironment(TypeEnvironment typenv) {
 		super(typenv);
+		this.map = typenv.getMap();
+	}
+
+	@Override
+	protected PersistentHashMap<String, Type> getMap() {
+		return map;
 	}
 
 	@Override
@@ -8,13 +8,13 @@
  * Contributors:
  *     ETH Zurich - initial API and implementation
  *     Systerel - add given sets to free identifier cache
+ *     HHU - linear time detection of unsolved type variables
  *******************************************************************************/
 package org.eventb.internal.core.typecheck;
 
 import static org.eventb.internal.core.ast.GivenTypeHelper.isGivenSet;
 
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.List;
 
 import org.eventb.core.ast.ASTProblem;
@@ -185,32 +185,19 @@ public class TypeCheckResult extends AbstractResult implements ITypeCheckResult
 		if (! isSuccess()) {
 			return;
 		}
-		BitSet errorReported = new BitSet(typeVariables.size());
+		// Report an error on every type variable rooted on a source location
+		// whose type cannot be fully solved. Whether a class of type variables
+		// is solved is computed only once.
+		final byte[] status = new byte[typeVariables.size()];
 		boolean failed = false;
-		for (int i = 0; i < typeVariables.size(); i++) {
-			final TypeVariable tvi = typeVariables.get(i);
-			if (tvi.getValue() == null) {
+		for (final TypeVariable tv : typeVariables) {
+			if (unifier.isUnsolved(tv, status)) {
 				failed = true;
-				if (!errorReported.get(i) && tvi.hasSourceLocation()) {
-					errorReported.set(i);
+				if (tv.hasSourceLocation()) {
 					addProblem(new ASTProblem(
-							tvi.getSourceLocation(), 
+							tv.getSourceLocation(),
 							ProblemKind.TypeUnknown, ProblemSeverities.Error));
 				}
-				// Lookup for places where this type variable is referenced and
-				// add corresponding errors.
-				for (int j = 0; j < typeVariables.size(); j++) {
-					final TypeVariable tvj = typeVariables.get(j);
-					if (!errorReported.get(j) && 
-							tvj.hasSourceLocation() &&
-							unifier.occurs(tvi, tvj.getValue())) {
-						// set true, to remaind us that we have already recorded an error message for this variable
-						errorReported.set(j);
-						addProblem(new ASTProblem(
-								tvj.getSourceLocation(),
-								ProblemKind.TypeUnknown, ProblemSeverities.Error));
-					}
-				}
 			}
 		}
 		if (failed && isSuccess()) {
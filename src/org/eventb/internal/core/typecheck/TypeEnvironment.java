@@ -10,12 +10,12 @@
  *     Systerel - added support for specialization
  *     Systerel - immutable type environments
  *     Systerel - added support for factory translation
+ *     HHU - persistent maps shared between type environments
  *******************************************************************************/
 package org.eventb.internal.core.typecheck;
 
 import static java.util.Collections.unmodifiableSet;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -31,6 +31,7 @@ import org.eventb.core.ast.ITypeEnvironment;
 import org.eventb.core.ast.ITypeEnvironmentBuilder;
 import org.eventb.core.ast.Type;
 import org.eventb.internal.core.ast.GivenTypeHelper;
+import org.eventb.internal.core.ast.PersistentHashMap;
 import org.eventb.internal.core.ast.Specialization;
 import org.eventb.internal.core.ast.TypeRewriter;
 import org.eventb.internal.core.ast.datatype.DatatypeTranslation;
@@ -43,9 +44,14 @@ import org.eventb.internal.core.ast.extension.ExtensionTranslation;
  * A type environment is a map from names to their respective type.
  * </p>
  * <p>
- * The methods of this class <strong>must</strong> never change anything in the
- * map, nor leak the map outside, otherwise sealed implementation might become
- * mutable.
+ * The map is persistent, so that type environments derived from one another
+ * share it rather than copying it. Sealed implementations keep their map in a
+ * final field, so that they can be safely published to other threads.
+ * </p>
+ * <p>
+ * As the map is a hash trie rather than a {@link java.util.HashMap}, names
+ * are not enumerated in the same order as in previous releases. The
+ * enumeration order remains unspecified.
  * </p>
  * 
  * @author François Terrier
@@ -107,31 +113,35 @@ public abstract class TypeEnvironment implements ITypeEnvironment{
 	// the mathematical language we're using
 	protected final FormulaFactory ff;
 
-	// implementation
-	protected final Map<String, Type> map;
-	
 	/**
 	 * Constructs an initially empty type environment.
 	 */
 	protected TypeEnvironment(FormulaFactory ff) {
 		this.ff = ff;
-		this.map = new HashMap<String, Type>();
 	}
 	
 	/**
-	 * Constructs a new type environment with a copy of the map of the given one.
+	 * Constructs a new type environment with the same formula factory as the
+	 * given one. Sub-classes are responsible for sharing its map.
 	 * 
 	 * @param typenv
 	 *            type environment to copy
 	 */
 	protected TypeEnvironment(TypeEnvironment typenv) {
 		this.ff = typenv.ff;
-		this.map = new HashMap<String, Type>(typenv.map);
 	}
 
+	/**
+	 * Returns the current map of this type environment. Sealed environments
+	 * hold it in a final field, while builders replace it on each change.
+	 * 
+	 * @return the map of this type environment
+	 */
+	protected abstract PersistentHashMap<String, Type> getMap();
+
 	@Override
 	public boolean contains(String name) {
-		return map.containsKey(name);
+		return getMap().containsKey(name);
 	}
 
 	@Override
@@ -149,7 +159,7 @@ public abstract class TypeEnvironment implements ITypeEnvironment{
 		if (this == typenv)
 			return true;
 		final TypeEnvironment other = (TypeEnvironment) typenv;
-		for (Entry<String, Type> entry : other.map.entrySet()) {
+		for (Entry<String, Type> entry : other.getMap().entrySet()) {
 			String name = entry.getKey();
 			if (!entry.getValue().equals(this.getType(name)))
 				return false;
@@ -159,7 +169,7 @@ public abstract class TypeEnvironment implements ITypeEnvironment{
 	
 	@Override
 	public int hashCode() {
-		return map.hashCode();
+		return getMap().hashCode();
 	}
 
 	@Override
@@ -171,7 +181,7 @@ public abstract class TypeEnvironment implements ITypeEnvironment{
 			return false;
 		}
 		final TypeEnvironment other = (TypeEnvironment) obj;
-		return map.equals(other.map);
+		return getMap().equals(other.getMap());
 	}
 
 	@Override
@@ -191,33 +201,33 @@ public abstract class TypeEnvironment implements ITypeEnvironment{
 
 	@Override
 	public IIterator getIterator(){
-		return new InternalIterator(map.entrySet().iterator());
+		return new InternalIterator(getMap().entrySet().iterator());
 	}
 
 	@Override
 	public Set<String> getNames() {
-		return unmodifiableSet(map.keySet());
+		return unmodifiableSet(getMap().keySet());
 	}
 
 	@Override
 	public Type getType(String name) {
-		return map.get(name);
+		return getMap().get(name);
 	}
 
 	@Override
 	public FreeIdentifier[] getFreeIdentifiers() {
-		return map.entrySet().stream().map(e -> ff.makeFreeIdentifier(e.getKey(), null, e.getValue()))
+		return getMap().entrySet().stream().map(e -> ff.makeFreeIdentifier(e.getKey(), null, e.getValue()))
 				.toArray(FreeIdentifier[]::new);
 	}
 
 	@Override
 	public boolean isEmpty() {
-		return map.isEmpty();
+		return getMap().isEmpty();
 	}
 
 	@Override
 	public String toString() {
-		return map.toString();
+		return getMap().toString();
 	}
 
 	@Override
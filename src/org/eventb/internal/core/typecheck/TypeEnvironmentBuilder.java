@@ -7,6 +7,7 @@
  *
  * Contributors:
  *     Systerel - initial API and implementation
+ *     HHU - persistent maps shared between type environments
  *******************************************************************************/
 package org.eventb.internal.core.typecheck;
 
@@ -26,10 +27,12 @@ import org.eventb.core.ast.ITypeEnvironmentBuilder;
 import org.eventb.core.ast.SourceLocation;
 import org.eventb.core.ast.Type;
 import org.eventb.internal.core.ast.FreshNameSolver;
+import org.eventb.internal.core.ast.PersistentHashMap;
 
 /**
  * Mutable sub-class of {@link TypeEnvironment} providing methods for changing
- * the underlying map.
+ * the underlying map. As the map is persistent, a change replaces it by an
+ * extended map, leaving unchanged the type environments that share it.
  * 
  * All changes to the underlying map must go through
  * {@link #setName(String, Type)} to ensure consistency.
@@ -38,21 +41,31 @@ import org.eventb.internal.core.ast.FreshNameSolver;
  */
 public class TypeEnvironmentBuilder extends TypeEnvironment implements ITypeEnvironmentBuilder{
 
+	// implementation, replaced on each change
+	private PersistentHashMap<String, Type> map;
+
 	/**
 	 * Constructs an initially empty type environment.
 	 */
 	public TypeEnvironmentBuilder(FormulaFactory ff) {
 		super(ff);
+		this.map = PersistentHashMap.empty();
 	}
 
 	/**
-	 * Constructs a new type environment with a copy of the map of the given one.
+	 * Constructs a new type environment with the same map as the given one.
 	 * 
 	 * @param typenv
 	 *            type environment to copy
 	 */
 	public TypeEnvironmentBuilder(TypeEnvironment typenv) {
 		super(typenv);
+		this.map = typenv.getMap();
+	}
+
+	@Override
+	protected PersistentHashMap<String, Type> getMap() {
+		return map;
 	}
 	
 	@Override
@@ -66,7 +79,7 @@ public class TypeEnvironmentBuilder extends TypeEnvironment implements ITypeEnvi
 			throw new IllegalArgumentException("Incompatible formula factory: "
 					+ other.getFormulaFactory() + ", should be: " + ff);
 		}
-		final Map<String, Type> otherMap = ((TypeEnvironment) other).map;
+		final Map<String, Type> otherMap = ((TypeEnvironment) other).getMap();
 		// Use addName() to check for duplicates.
 		for (final Entry<String, Type> entry : otherMap.entrySet()) {
 			addName(entry.getKey(), entry.getValue());
@@ -114,7 +127,7 @@ public class TypeEnvironmentBuilder extends TypeEnvironment implements ITypeEnvi
 				addGivenSet(givenType);
 			}
 		}
-		map.put(name, type);
+		map = map.plus(name, type);
 	}
 
 	@Override
@@ -0,0 +1,622 @@
+/*******************************************************************************
+* Copyright (c) 2005, 2012 ETH Zurich and others.
+* All rights reserved. This program and the accompanying materials
+* are made available under the terms of the Eclipse Public License v1.0
+* which accompanies this distribution, and is available at
+* http://www.eclipse.org/legal/epl-v10.html
+*
+* Contributors:
+*     ETH Zurich - initial API and implementation
+*     Systerel - migration to tom-2.8
+*     HHU - union-find of type variables
+*     HHU - identity check for unique types
+*******************************************************************************/
+package org.eventb.internal.core.typecheck;
+
+import org.eventb.core.ast.ASTProblem;
+import org.eventb.core.ast.BooleanType;
+import org.eventb.core.ast.Formula;
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.GivenType;
+import org.eventb.core.ast.IntegerType;
+import org.eventb.core.ast.ParametricType;
+import org.eventb.core.ast.PowerSetType;
+import org.eventb.core.ast.ProblemKind;
+import org.eventb.core.ast.ProblemSeverities;
+import org.eventb.core.ast.ProductType;
+import org.eventb.core.ast.Type;
+import org.eventb.core.ast.extension.IExpressionExtension;
+
+/**
+* This class is used to solve unknown variables in formula's type. 
+* <p>
+* Type variables unified together are merged into equivalence classes (see
+* {@link TypeVariable}), so that unifying two variables and finding the value
+* of a variable take quasi-constant time, whatever the number of variables.
+* </p>
+*
+* @author François Terrier
+*
+*/
+@SuppressWarnings("all")		// Hide warnings caused by Tom.
+public class TypeUnifier {
+private FormulaFactory factory;
+private TypeCheckResult result;
+
+public TypeUnifier (TypeCheckResult result) {
+this.factory = result.getFormulaFactory();
+this.result = result;
+}
+
+
+private static boolean tom_equal_term_char(char t1, char t2) {
+return  t1==t2 ;
+}
+private static boolean tom_is_sort_char(char t) {
+return  true ;
+}
+private static boolean tom_equal_term_String(String t1, String t2) {
+return  t1.equals(t2) ;
+}
+private static boolean tom_is_sort_String(String t) {
+return  t instanceof String ;
+}
+private static boolean tom_equal_term_Type(Object t1, Object t2) {
+return  t1.equals(t2) ;
+}
+private static boolean tom_is_sort_Type(Object t) {
+return t instanceof Type ;
+}
+private static boolean tom_equal_term_TypeList(Object t1, Object t2) {
+return 
+		java.util.Arrays.equals((Type[]) t1, (Type[]) t2)
+	;
+}
+private static boolean tom_is_fun_sym_PowSet( Type  t) {
+return  t instanceof PowerSetType ;
+}
+private static  Type  tom_get_slot_PowSet_child( Type  t) {
+return  ((PowerSetType) t).getBaseType() ;
+}
+private static boolean tom_is_fun_sym_CProd( Type  t) {
+return  t instanceof ProductType ;
+}
+private static  Type  tom_get_slot_CProd_left( Type  t) {
+return  ((ProductType) t).getLeft() ;
+}
+private static  Type  tom_get_slot_CProd_right( Type  t) {
+return  ((ProductType) t).getRight() ;
+}
+private static boolean tom_is_fun_sym_ParamType( Type  t) {
+return  t instanceof ParametricType ;
+}
+private static  Type[]  tom_get_slot_ParamType_children( Type  t) {
+return  ((ParametricType) t).getTypeParameters() ;
+}
+private static boolean tom_is_fun_sym_Set( Type  t) {
+return  t instanceof GivenType ;
+}
+private static  String  tom_get_slot_Set_name( Type  t) {
+return  ((GivenType) t).getName() ;
+}
+private static boolean tom_is_fun_sym_Int( Type  t) {
+return  t instanceof IntegerType ;
+}
+private static boolean tom_is_fun_sym_Bool( Type  t) {
+return  t instanceof BooleanType ;
+}
+
+
+// This declaration is made local to this file, as type variables are not
+// exposed to the published API.
+
+private static boolean tom_is_fun_sym_TypeVar( Type  t) {
+return  t instanceof TypeVariable ;
+}
+
+
+protected final <T extends Formula<?>> Type unify(Type left, Type right, T origin) {
+if (left == null || right == null) {
+return null;
+}
+if (left == right) {
+// solved types are unique, so this is the most frequent case
+return left;
+}
+
+{
+{
+if (tom_is_sort_Type(left)) {
+if (tom_is_fun_sym_TypeVar((( Type )left))) {
+if (tom_is_sort_Type(right)) {
+
+return unifyVariable((TypeVariable) 
+(( Type )left), 
+(( Type )right), origin);
+
+
+}
+}
+}
+
+}
+{
+if (tom_is_sort_Type(left)) {
+if (tom_is_sort_Type(right)) {
+if (tom_is_fun_sym_TypeVar((( Type )right))) {
+
+return unifyVariable((TypeVariable) 
+(( Type )right), 
+(( Type )left), origin);
+
+
+}
+}
+}
+
+}
+{
+if (tom_is_sort_Type(left)) {
+if (tom_is_fun_sym_PowSet((( Type )left))) {
+ Type  tom_child1=tom_get_slot_PowSet_child((( Type )left));
+if (tom_is_sort_Type(right)) {
+if (tom_is_fun_sym_PowSet((( Type )right))) {
+ Type  tom_child2=tom_get_slot_PowSet_child((( Type )right));
+
+Type newChild = unify(
+tom_child1, 
+tom_child2, origin);
+if (newChild == null) {
+return null;
+}
+if (newChild == 
+tom_child1) {
+return left;
+}
+if (newChild == 
+tom_child2) {
+return right;
+}
+return result.makePowerSetType(newChild);
+
+
+}
+}
+}
+}
+
+}
+{
+if (tom_is_sort_Type(left)) {
+if (tom_is_fun_sym_CProd((( Type )left))) {
+ Type  tom_left1=tom_get_slot_CProd_left((( Type )left));
+ Type  tom_right1=tom_get_slot_CProd_right((( Type )left));
+if (tom_is_sort_Type(right)) {
+if (tom_is_fun_sym_CProd((( Type )right))) {
+ Type  tom_left2=tom_get_slot_CProd_left((( Type )right));
+ Type  tom_right2=tom_get_slot_CProd_right((( Type )right));
+
+Type newLeft = unify(
+tom_left1, 
+tom_left2, origin);
+Type newRight = unify(
+tom_right1, 
+tom_right2, origin);
+if (newLeft == null || newRight == null) {
+return null;
+}
+if (newLeft == 
+tom_left1&& newRight == 
+tom_right1) {
+return left;
+}
+if (newLeft == 
+tom_left2&& newRight == 
+tom_right2) {
+return right;
+}
+return result.makeProductType(newLeft, newRight);
+
+
+}
+}
+}
+}
+
+}
+{
+if (tom_is_sort_Type(left)) {
+if (tom_is_fun_sym_ParamType((( Type )left))) {
+ Type[]  tom_params1=tom_get_slot_ParamType_children((( Type )left));
+if (tom_is_sort_Type(right)) {
+if (tom_is_fun_sym_ParamType((( Type )right))) {
+ Type[]  tom_params2=tom_get_slot_ParamType_children((( Type )right));
+
+final ParametricType paramType1 = (ParametricType) 
+left;
+final ParametricType paramType2 = (ParametricType) 
+right;
+final IExpressionExtension ext = paramType1.getExprExtension();
+if (ext != paramType2.getExprExtension()) {
+result.addUnificationProblem(left, right, origin);
+return null;
+}
+final int length = 
+tom_params1.length;
+assert length == 
+tom_params2.length;
+final Type[] newParams = new Type[length];
+boolean all1 = true;
+boolean all2 = true;
+for (int i = 0; i < length; i++) {
+final Type param1 = 
+tom_params1[i];
+final Type param2 = 
+tom_params2[i];
+final Type newParam = unify(param1, param2, origin);
+if (newParam == null) {
+return null;
+}
+all1 &= newParam == param1;
+all2 &= newParam == param2;
+newParams[i] = newParam;
+}
+if (all1) {
+return left;
+}
+if (all2) {
+return right;
+}
+return result.makeParametricType(ext, newParams);
+
+
+}
+}
+}
+}
+
+}
+{
+if (tom_is_sort_Type(left)) {
+if (tom_is_fun_sym_Int((( Type )left))) {
+if (tom_is_sort_Type(right)) {
+if (tom_is_fun_sym_Int((( Type )right))) {
+
+return left;
+
+}
+}
+}
+}
+
+}
+{
+if (tom_is_sort_Type(left)) {
+if (tom_is_fun_sym_Bool((( Type )left))) {
+if (tom_is_sort_Type(right)) {
+if (tom_is_fun_sym_Bool((( Type )right))) {
+
+return left;
+
+}
+}
+}
+}
+
+}
+{
+if (tom_is_sort_Type(left)) {
+if (tom_is_fun_sym_Set((( Type )left))) {
+if (tom_is_sort_Type(right)) {
+if (tom_is_fun_sym_Set((( Type )right))) {
+
+if (
+tom_get_slot_Set_name((( Type )left)).equals(
+tom_get_slot_Set_name((( Type )right)))) {
+return left;
+}
+else {
+result.addUnificationProblem(left, right, origin);
+return null;
+}
+
+
+}
+}
+}
+}
+
+}
+
+
+}
+
+result.addUnificationProblem(left, right, origin);
+return null;
+}
+
+private <T extends Formula<?>> Type unifyVariable(TypeVariable variable, Type otherType, T origin) {
+final TypeVariable root = variable.find();
+Type type = root.getValue();
+if (type != null) {
+type = unify(type, otherType, origin);
+if (type != null) {
+root.setValue(type);
+}
+return type;
+} else {
+type = solve(otherType);
+if (type instanceof TypeVariable) {
+// solved types only contain representatives
+return root.union((TypeVariable) type);
+}
+else if (occurs(root, type)) {
+result.addProblem(new ASTProblem(
+origin.getSourceLocation(),
+ProblemKind.Circularity,
+ProblemSeverities.Error));
+return null;		
+}
+root.setValue(type);
+return type;
+}
+}
+
+/**
+* Returns the type variable's corresponding type.  Never returns <code>null</code>.
+*
+* @param intype the type variable to solve
+* @return the solved type
+*/
+public final Type solve(Type intype) {
+assert intype != null;
+
+{
+{
+if (tom_is_sort_Type(intype)) {
+if (tom_is_fun_sym_TypeVar((( Type )intype))) {
+
+final TypeVariable root = ((TypeVariable) intype).find();
+Type type = root.getValue();
+if (type != null) {
+type = solve(type);
+root.setValue(type);
+return type;
+}
+else {
+return root;
+}
+
+}
+}
+
+}
+{
+if (tom_is_sort_Type(intype)) {
+if (tom_is_fun_sym_PowSet((( Type )intype))) {
+ Type  tom_child=tom_get_slot_PowSet_child((( Type )intype));
+
+Type newChild = solve(
+tom_child);
+if (newChild == 
+tom_child) {
+return intype;
+}
+return result.makePowerSetType(newChild);
+
+
+}
+}
+
+}
+{
+if (tom_is_sort_Type(intype)) {
+if (tom_is_fun_sym_CProd((( Type )intype))) {
+ Type  tom_left=tom_get_slot_CProd_left((( Type )intype));
+ Type  tom_right=tom_get_slot_CProd_right((( Type )intype));
+
+Type newLeft = solve(
+tom_left);
+Type newRight = solve(
+tom_right);
+if (newLeft == 
+tom_left&& newRight == 
+tom_right) {
+return intype;
+}
+return result.makeProductType(newLeft, newRight);
+
+
+}
+}
+
+}
+{
+if (tom_is_sort_Type(intype)) {
+if (tom_is_fun_sym_ParamType((( Type )intype))) {
+ Type[]  tom_params=tom_get_slot_ParamType_children((( Type )intype));
+
+final int length = 
+tom_params.length;
+final Type[] newParams = new Type[length];
+boolean same = true;
+for (int i = 0; i < length; i++) {
+final Type param = 
+tom_params[i];
+final Type newParam = solve(param);
+same &= newParam == param;
+newParams[i] = newParam;
+}
+if (same) {
+return intype;
+}
+final IExpressionExtension exprExt = ((ParametricType) intype).getExprExtension();
+return result.makeParametricType(exprExt, newParams);
+
+
+}
+}
+
+}
+
+
+}
+
+return intype;
+}
+
+protected final boolean occurs(TypeVariable typeVar, Type expr) {
+
+{
+{
+if (tom_is_sort_Type(expr)) {
+if (tom_is_fun_sym_TypeVar((( Type )expr))) {
+
+return typeVar.find() == ((TypeVariable) 
+(( Type )expr)).find();
+
+
+}
+}
+
+}
+{
+if (tom_is_sort_Type(expr)) {
+if (tom_is_fun_sym_PowSet((( Type )expr))) {
+
+return occurs(typeVar, 
+tom_get_slot_PowSet_child((( Type )expr)));
+
+
+}
+}
+
+}
+{
+if (tom_is_sort_Type(expr)) {
+if (tom_is_fun_sym_CProd((( Type )expr))) {
+
+return occurs(typeVar, 
+tom_get_slot_CProd_left((( Type )expr))) || occurs(typeVar, 
+tom_get_slot_CProd_right((( Type )expr)));
+
+
+}
+}
+
+}
+{
+if (tom_is_sort_Type(expr)) {
+if (tom_is_fun_sym_ParamType((( Type )expr))) {
+
+for(Type param: 
+tom_get_slot_ParamType_children((( Type )expr))) {
+if (occurs(typeVar, param)) {
+return true;
+}
+}
+return false;
+
+
+}
+}
+
+}
+
+
+}
+
+return false;
+}
+
+/**
+* Tells whether the given type would still contain a type variable once
+* solved, that is whether it depends on a class of type variables without
+* value. The answer for each class is memoized in the given array, indexed
+* by the index of the class representative, so that checking all type
+* variables of a type-check takes linear time.
+* 
+* @param type
+*            the type to check
+* @param status
+*            memo of classes, where <code>0</code> means not computed yet,
+*            <code>1</code> solved and <code>2</code> unsolved
+* @return <code>true</code> iff the type cannot be fully solved
+*/
+protected final boolean isUnsolved(Type type, byte[] status) {
+
+{
+{
+if (tom_is_sort_Type(type)) {
+if (tom_is_fun_sym_TypeVar((( Type )type))) {
+
+final TypeVariable root = ((TypeVariable) 
+(( Type )type)).find();
+final int index = root.getIndex();
+if (status[index] == 0) {
+final Type value = root.getValue();
+final boolean unsolved = value == null
+|| isUnsolved(value, status);
+status[index] = unsolved ? (byte) 2 : (byte) 1;
+}
+return status[index] == 2;
+
+
+}
+}
+
+}
+{
+if (tom_is_sort_Type(type)) {
+if (tom_is_fun_sym_PowSet((( Type )type))) {
+
+return isUnsolved(
+tom_get_slot_PowSet_child((( Type )type)), status);
+
+
+}
+}
+
+}
+{
+if (tom_is_sort_Type(type)) {
+if (tom_is_fun_sym_CProd((( Type )type))) {
+
+return isUnsolved(
+tom_get_slot_CProd_left((( Type )type)), status) || isUnsolved(
+tom_get_slot_CProd_right((( Type )type)), status);
+
+
+}
+}
+
+}
+{
+if (tom_is_sort_Type(type)) {
+if (tom_is_fun_sym_ParamType((( Type )type))) {
+
+for(Type param: 
+tom_get_slot_ParamType_children((( Type )type))) {
+if (isUnsolved(param, status)) {
+return true;
+}
+}
+return false;
+
+
+}
+}
+
+}
+
+
+}
+
+return false;
+}
+
+public final FormulaFactory getFormulaFactory() {
+return factory;
+}
+
+}
@@ -8,6 +8,8 @@
  * Contributors:
  *     ETH Zurich - initial API and implementation
  *     Systerel - migration to tom-2.8
+ *     HHU - union-find of type variables
+ *     HHU - identity check for unique types
  *******************************************************************************/
 package org.eventb.internal.core.typecheck;
 
@@ -27,6 +29,11 @@ import org.eventb.core.ast.extension.IExpressionExtension;
 
 /**
  * This class is used to solve unknown variables in formula's type. 
+ * <p>
+ * Type variables unified together are merged into equivalence classes (see
+ * {@link TypeVariable}), so that unifying two variables and finding the value
+ * of a variable take quasi-constant time, whatever the number of variables.
+ * </p>
  *
  * @author François Terrier
  *
@@ -53,6 +60,10 @@ public class TypeUnifier {
 		if (left == null || right == null) {
 			return null;
 		}
+		if (left == right) {
+			// solved types are unique, so this is the most frequent case
+			return left;
+		}
 		%match (Type left, Type right) {
 			tv@TypeVar(), other -> {
 				return unifyVariable((TypeVariable) `tv, `other, origin);
@@ -140,27 +151,28 @@ public class TypeUnifier {
 	}
 
 	private <T extends Formula<?>> Type unifyVariable(TypeVariable variable, Type otherType, T origin) {
-			
-		Type type = variable.getValue();
+		final TypeVariable root = variable.find();
+		Type type = root.getValue();
 		if (type != null) {
 			type = unify(type, otherType, origin);
 			if (type != null) {
-				variable.setValue(type);
+				root.setValue(type);
 			}
 			return type;
 		} else {
 			type = solve(otherType);
-			if (type == variable) {
-				return variable;
+			if (type instanceof TypeVariable) {
+				// solved types only contain representatives
+				return root.union((TypeVariable) type);
 			}
-			else if (occurs(variable, type)) {
+			else if (occurs(root, type)) {
 				result.addProblem(new ASTProblem(
 						origin.getSourceLocation(),
 						ProblemKind.Circularity,
 						ProblemSeverities.Error));
 				return null;		
 			}
-			variable.setValue(type);
+			root.setValue(type);
 			return type;
 		}
 	}
@@ -175,15 +187,15 @@ public class TypeUnifier {
 		assert intype != null;
 		%match (Type intype) {
 			TypeVar() -> {
-				TypeVariable typeVar = (TypeVariable) intype;
-				Type type = typeVar.getValue();		
+				final TypeVariable root = ((TypeVariable) intype).find();
+				Type type = root.getValue();
 				if (type != null) {
 					type = solve(type);
-					typeVar.setValue(type);
+					root.setValue(type);
 					return type;
 				}
 				else {
-					return intype;
+					return root;
 				}
 			}
 			PowSet(child) -> {
@@ -224,7 +236,7 @@ public class TypeUnifier {
 	protected final boolean occurs(TypeVariable typeVar, Type expr) {
 		%match (Type expr) {
 			tv@TypeVar() -> {
-				return typeVar == `tv;
+				return typeVar.find() == ((TypeVariable) `tv).find();
 			}
 			PowSet(child) -> {
 				return occurs(typeVar, `child);
@@ -244,6 +256,51 @@ public class TypeUnifier {
 		return false;
 	}
 	
+	/**
+	 * Tells whether the given type would still contain a type variable once
+	 * solved, that is whether it depends on a class of type variables without
+	 * value. The answer for each class is memoized in the given array, indexed
+	 * by the index of the class representative, so that checking all type
+	 * variables of a type-check takes linear time.
+	 * 
+	 * @param type
+	 *            the type to check
+	 * @param status
+	 *            memo of classes, where <code>0</code> means not computed yet,
+	 *            <code>1</code> solved and <code>2</code> unsolved
+	 * @return <code>true</code> iff the type cannot be fully solved
+	 */
+	protected final boolean isUnsolved(Type type, byte[] status) {
+		%match (Type type) {
+			tv@TypeVar() -> {
+				final TypeVariable root = ((TypeVariable) `tv).find();
+				final int index = root.getIndex();
+				if (status[index] == 0) {
+					final Type value = root.getValue();
+					final boolean unsolved = value == null
+							|| isUnsolved(value, status);
+					status[index] = unsolved ? (byte) 2 : (byte) 1;
+				}
+				return status[index] == 2;
+			}
+			PowSet(child) -> {
+				return isUnsolved(`child, status);
+			}
+			CProd(left, right) -> {
+				return isUnsolved(`left, status) || isUnsolved(`right, status);
+			}
+			ParamType(params) -> {
+				for(Type param: `params) {
+					if (isUnsolved(param, status)) {
+						return true;
+					}
+				}
+				return false;
+			}
+		}
+		return false;
+	}
+
 	public final FormulaFactory getFormulaFactory() {
 		return factory;
 	}
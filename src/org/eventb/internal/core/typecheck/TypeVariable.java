@@ -9,6 +9,7 @@
  *     ETH Zurich - initial API and implementation
  *     Systerel - add type visitor
  *     Systerel - store factory used to build a type
+ *     HHU - union-find of type variables
  *******************************************************************************/
 package org.eventb.internal.core.typecheck;
 
@@ -23,6 +24,12 @@ import org.eventb.core.ast.Type;
 
 /**
  * Denotes a type variable used internally by the type-checker.
+ * <p>
+ * Type variables that have been unified together form an equivalence class,
+ * implemented as a union-find forest with union by rank and path compression.
+ * The value of a class, if any, is a type that is not a type variable and is
+ * stored only on the representative of the class.
+ * </p>
  * 
  * @author Laurent Voisin
  */
@@ -34,7 +41,13 @@ public class TypeVariable extends Type {
 	// Location for which this type variable was created
 	private final SourceLocation location;
 
-	// Value associated to this type variable
+	// Parent of this type variable in its class, itself for a representative
+	private TypeVariable parent;
+
+	// Upper bound of the height of the tree of a representative
+	private int rank;
+
+	// Value associated to the class of a representative
 	private Type value;
 	
 	/**
@@ -47,6 +60,64 @@ public class TypeVariable extends Type {
 		assert 0 <= index;
 		this.index = index;
 		this.location = location;
+		this.parent = this;
+	}
+
+	/**
+	 * Returns the index of this type variable in the type-check result that
+	 * created it.
+	 * 
+	 * @return the index of this type variable
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Returns the representative of the class of this type variable. Paths
+	 * followed are compressed, so that all type variables met point directly
+	 * to the representative afterwards.
+	 * 
+	 * @return the representative of the class of this type variable
+	 */
+	public TypeVariable find() {
+		TypeVariable root = this;
+		while (root.parent != root) {
+			root = root.parent;
+		}
+		TypeVariable current = this;
+		while (current != root) {
+			final TypeVariable next = current.parent;
+			current.parent = root;
+			current = next;
+		}
+		return root;
+	}
+
+	/**
+	 * Merges the class of the given type variable with the class of this type
+	 * variable. Both type variables must be representatives and their class
+	 * must not have any value.
+	 * 
+	 * @param other
+	 *            the representative of another class
+	 * @return the representative of the merged class
+	 */
+	public TypeVariable union(TypeVariable other) {
+		assert parent == this && other.parent == other;
+		assert value == null && other.value == null;
+		if (this == other) {
+			return this;
+		}
+		if (rank < other.rank) {
+			parent = other;
+			return other;
+		}
+		other.parent = this;
+		if (rank == other.rank) {
+			rank++;
+		}
+		return this;
 	}
 
 	@Override
@@ -78,10 +149,13 @@ public class TypeVariable extends Type {
 	}
 	
 	/**
-	 * @return Returns the value.
+	 * Returns the value of the class of this type variable.
+	 * 
+	 * @return the value of the class, or <code>null</code> if the class has
+	 *         not been unified with any type other than a type variable
 	 */
 	public Type getValue() {
-		return value;
+		return find().value;
 	}
 
 	@Override
@@ -94,9 +168,14 @@ public class TypeVariable extends Type {
 	}
 	
 	/**
-	 * @param value The value to set.
+	 * Sets the value of the class of this type variable, which must be a
+	 * representative.
+	 * 
+	 * @param value
+	 *            the value to set, which must not be a type variable
 	 */
 	public void setValue(Type value) {
+		assert parent == this && !(value instanceof TypeVariable);
 		this.value = value;
 	}
 
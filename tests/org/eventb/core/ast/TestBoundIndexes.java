@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests the indexes given by the parser to bound identifiers, where inner
+ * declarations hide outer ones.
+ *
+ * @author HHU
+ */
+public class TestBoundIndexes {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault();
+
+	// Returns the identifiers of the given predicate, in order, as their bound
+	// index or their name when they are free
+	private static List<String> identifiers(String predImage) {
+		final IParseResult result = ff.parsePredicate(predImage, null);
+		assertFalse(result.toString(), result.hasProblem());
+		return result.getParsedPredicate().inspect(
+				new DefaultInspector<String>() {
+
+					@Override
+					public void inspect(BoundIdentifier identifier,
+							IAccumulator<String> accumulator) {
+						accumulator.add("" + identifier.getBoundIndex());
+					}
+
+					@Override
+					public void inspect(FreeIdentifier identifier,
+							IAccumulator<String> accumulator) {
+						accumulator.add(identifier.getName());
+					}
+
+				});
+	}
+
+	private static void assertIdentifiers(String predImage,
+			String... expected) {
+		final List<String> expectedList = new ArrayList<String>();
+		for (final String identifier : expected) {
+			expectedList.add(identifier);
+		}
+		assertEquals(predImage, expectedList, identifiers(predImage));
+	}
+
+	@Test
+	public void freeNames() {
+		assertIdentifiers("∀x·x = y", "0", "y");
+		assertIdentifiers("x = y ∧ (∀z·z = x)", "x", "y", "0", "x");
+	}
+
+	@Test
+	public void sameScope() {
+		assertIdentifiers("∀x,y·x = y", "1", "0");
+		assertIdentifiers("∀x,y,x·x = y", "0", "1");
+	}
+
+	@Test
+	public void nestedScopes() {
+		assertIdentifiers("∀x·(∀y·x = y) ∧ x = z", "1", "0", "0", "z");
+		assertIdentifiers("∀x,y·(∃y·x = y ∧ (∀x·x = y))", "2", "0", "0",
+				"1");
+		assertIdentifiers("∀x·x ∈ {y·y ∈ ℕ ∣ y + x}", "0", "0", "0", "1");
+	}
+
+	@Test
+	public void deepNesting() {
+		final int depth = 100;
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < depth; i++) {
+			sb.append("∀x" + i + "·");
+		}
+		sb.append("x0 = y");
+		assertIdentifiers(sb.toString(), "" + (depth - 1), "y");
+	}
+
+}
@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the archives of predicates.
+ *
+ * @author HHU
+ */
+public class TestFormulaArchive {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault();
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private ISealedTypeEnvironment typenv;
+
+	private Path path;
+
+	@Before
+	public void setUp() throws IOException {
+		final ITypeEnvironmentBuilder builder = ff.makeTypeEnvironment();
+		builder.addGivenSet("S");
+		builder.addName("x", ff.makeIntegerType());
+		builder.addName("s", ff.makeGivenType("S"));
+		typenv = builder.makeSnapshot();
+		path = folder.newFile("archive").toPath();
+	}
+
+	private Predicate makePredicate(String image) {
+		final IParseResult result = ff.parsePredicate(image, null);
+		assertFalse(result.toString(), result.hasProblem());
+		final Predicate pred = result.getParsedPredicate();
+		final ITypeCheckResult tcResult = pred.typeCheck(typenv);
+		assertFalse(tcResult.toString(), tcResult.hasProblem());
+		return pred;
+	}
+
+	// Pairwise different type-checked predicates
+	private List<Predicate> makePredicates(int count) {
+		final List<Predicate> preds = new ArrayList<Predicate>();
+		for (int i = 0; i < count; i++) {
+			preds.add(makePredicate("x > " + i + " ∧ s ∈ {s} ∪ ∅"));
+		}
+		return preds;
+	}
+
+	private void write(List<Predicate> preds) throws IOException {
+		final IFormulaArchiveWriter writer = ff.makeFormulaArchiveWriter(path,
+				typenv);
+		try {
+			for (int i = 0; i < preds.size(); i++) {
+				assertEquals(i, writer.append(preds.get(i)));
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	private void assertNotAnArchive() {
+		try {
+			ff.openFormulaArchive(path, typenv).close();
+			fail("Opened an invalid archive");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	private void assertOutOfBounds(IFormulaArchiveReader reader, int index) {
+		try {
+			reader.getPredicate(index);
+			fail("Read predicate at index " + index);
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void roundTrip() throws IOException {
+		// More predicates than the reader caches
+		final List<Predicate> preds = makePredicates(600);
+		write(preds);
+		final IFormulaArchiveReader reader = ff.openFormulaArchive(path,
+				typenv);
+		try {
+			assertSame(ff, reader.getFactory());
+			assertSame(typenv, reader.getTypeEnvironment());
+			assertEquals(preds.size(), reader.size());
+			// Twice, to read from the cache and after eviction from it
+			for (int pass = 0; pass < 2; pass++) {
+				for (int i = preds.size() - 1; i >= 0; i--) {
+					final Predicate pred = reader.getPredicate(i);
+					assertEquals(preds.get(i), pred);
+					assertTrue(pred.isTypeChecked());
+				}
+			}
+			assertSame(reader.getPredicate(3), reader.getPredicate(3));
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void emptyArchive() throws IOException {
+		write(new ArrayList<Predicate>());
+		final IFormulaArchiveReader reader = ff.openFormulaArchive(path,
+				typenv);
+		try {
+			assertEquals(0, reader.size());
+			assertOutOfBounds(reader, 0);
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test
+	public void outOfBounds() throws IOException {
+		write(makePredicates(3));
+		final IFormulaArchiveReader reader = ff.openFormulaArchive(path,
+				typenv);
+		try {
+			assertOutOfBounds(reader, -1);
+			assertOutOfBounds(reader, 3);
+			assertOutOfBounds(reader, Integer.MAX_VALUE);
+			assertOutOfBounds(reader, Integer.MIN_VALUE);
+		} finally {
+			reader.close();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void closedReader() throws IOException {
+		write(makePredicates(1));
+		final IFormulaArchiveReader reader = ff.openFormulaArchive(path,
+				typenv);
+		reader.close();
+		reader.getPredicate(0);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void closedWriter() throws IOException {
+		final IFormulaArchiveWriter writer = ff.makeFormulaArchiveWriter(path,
+				typenv);
+		writer.close();
+		writer.close();
+		writer.append(makePredicate("x > 0"));
+	}
+
+	@Test
+	public void untypedPredicate() throws IOException {
+		final IFormulaArchiveWriter writer = ff.makeFormulaArchiveWriter(path,
+				typenv);
+		try {
+			writer.append(ff.parsePredicate("y > 0", null)
+					.getParsedPredicate());
+			fail("Appended an untyped predicate");
+		} catch (IllegalArgumentException e) {
+			// expected
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Test
+	public void unknownIdentifier() throws IOException {
+		final Predicate pred = ff.parsePredicate("y > 0", null)
+				.getParsedPredicate();
+		pred.typeCheck(ff.makeTypeEnvironment());
+		assertTrue(pred.isTypeChecked());
+		final IFormulaArchiveWriter writer = ff.makeFormulaArchiveWriter(path,
+				typenv);
+		try {
+			writer.append(pred);
+			fail("Appended a predicate outside the type environment");
+		} catch (IllegalArgumentException e) {
+			// expected
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void smallerTypeEnvironment() throws IOException {
+		write(makePredicates(1));
+		ff.openFormulaArchive(path, ff.makeTypeEnvironment().makeSnapshot());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void otherFactory() throws IOException {
+		final FormulaFactory other = FormulaFactory.getDefault()
+				.withInterning();
+		ff.makeFormulaArchiveWriter(path, other.makeTypeEnvironment()
+				.makeSnapshot());
+	}
+
+	@Test
+	public void notAnArchive() throws IOException {
+		assertNotAnArchive();
+		Files.write(path, "not an archive of predicates".getBytes("UTF-8"));
+		assertNotAnArchive();
+	}
+
+	@Test
+	public void truncatedArchive() throws IOException {
+		write(makePredicates(5));
+		final byte[] bytes = Files.readAllBytes(path);
+		for (int length = 0; length < bytes.length; length++) {
+			Files.write(path, Arrays.copyOf(bytes, length));
+			assertNotAnArchive();
+		}
+	}
+
+	@Test
+	public void corruptedOffset() throws IOException {
+		write(makePredicates(2));
+		final byte[] bytes = Files.readAllBytes(path);
+		// First entry of the index, just before the trailer
+		final int entry = bytes.length - 8 - 2 * 4;
+		bytes[entry] = (byte) 0x7f;
+		Files.write(path, bytes);
+		final IFormulaArchiveReader reader = ff.openFormulaArchive(path,
+				typenv);
+		try {
+			reader.getPredicate(0);
+			fail("Decoded a predicate at an invalid offset");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			assertEquals(makePredicates(2).get(1), reader.getPredicate(1));
+		} finally {
+			reader.close();
+		}
+	}
+
+}
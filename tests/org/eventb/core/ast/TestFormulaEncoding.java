@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.eventb.core.ast.datatype.IConstructorBuilder;
+import org.eventb.core.ast.datatype.IDatatype;
+import org.eventb.core.ast.datatype.IDatatypeBuilder;
+import org.junit.Test;
+
+/**
+ * Tests for the binary encoding of formulas.
+ *
+ * @author HHU
+ */
+public class TestFormulaEncoding {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault();
+
+	private static final ISealedTypeEnvironment typenv;
+	static {
+		final ITypeEnvironmentBuilder builder = ff.makeTypeEnvironment();
+		builder.addGivenSet("S");
+		builder.addGivenSet("T");
+		typenv = builder.makeSnapshot();
+	}
+
+	private static final String[] PREDICATES = {
+			"⊤",
+			"x ∈ ℕ ∧ y = x + 1",
+			"∀a,b·a ∈ S ∧ b ⊆ S ⇒ a ∈ b ∨ ¬ a ∈ b",
+			"f ∈ S ⇸ ℤ ∧ f(s) = card({s}) ∧ finite(dom(f))",
+			"x = (⋃ z · z ∈ ℕ ∣ {z, z ∗ z})",
+			"r = {m ↦ n ∣ m ∈ ℕ ∧ n = −m} ∧ r[{0}] = {0}",
+			"partition(S, {s}, S ∖ {s})",
+			"b = bool(x > 0) ∧ b = TRUE",
+			"x = 1000000000000000000000 ∧ x ≠ −42",
+			"∃y·y ↦ TRUE ∈ {x} × BOOL ∧ x ∈ S ∧ id ⊆ S × S",
+	};
+
+	private static final String[] EXPRESSIONS = {
+			"{x ∣ x ∈ ℕ}",
+			"λx·x ∈ ℤ ∣ x + 1",
+			"ℙ(S × ℤ)",
+			"pred ; succ",
+	};
+
+	private static final String[] ASSIGNMENTS = {
+			"x ≔ x + 1",
+			"x, y ≔ y, x + 1",
+			"x :∈ ℕ",
+			"x, y :∣ x' = y ∧ y' = x + 1",
+	};
+
+	private static Formula<?> roundTrip(Formula<?> formula,
+			FormulaFactory factory, boolean withLocations) {
+		final byte[] bytes = factory.encodeFormula(formula, withLocations);
+		final Formula<?> decoded = factory.decodeFormula(bytes);
+		assertEquals(formula, decoded);
+		assertEquals(formula.isTypeChecked(), decoded.isTypeChecked());
+		assertEquals(factory, decoded.getFactory());
+		return decoded;
+	}
+
+	private static void assertRoundTrip(Formula<?> formula) {
+		final Formula<?> plain = roundTrip(formula, ff, false);
+		assertNull(plain.getSourceLocation());
+		final Formula<?> located = roundTrip(formula, ff, true);
+		assertLocationsEqual(formula, located);
+	}
+
+	private static void assertLocationsEqual(Formula<?> expected,
+			Formula<?> actual) {
+		assertEquals(expected.getSourceLocation(), actual.getSourceLocation());
+		if (expected instanceof Assignment) {
+			// Assignments do not give access to their children
+			return;
+		}
+		assertEquals(expected.getChildCount(), actual.getChildCount());
+		for (int i = 0; i < expected.getChildCount(); i++) {
+			assertLocationsEqual(expected.getChild(i), actual.getChild(i));
+		}
+	}
+
+	private static Predicate parsePredicate(FormulaFactory factory,
+			String image) {
+		final IParseResult result = factory.parsePredicate(image, null);
+		assertFalse(result.toString(), result.hasProblem());
+		return result.getParsedPredicate();
+	}
+
+	private static void typeCheck(Formula<?> formula) {
+		final ITypeCheckResult result = formula.typeCheck(typenv);
+		assertFalse(result.toString(), result.hasProblem());
+	}
+
+	private static void assertIllFormed(byte[] bytes) {
+		try {
+			ff.decodeFormula(bytes);
+			fail("Decoded an ill-formed encoding: " + Arrays.toString(bytes));
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void predicates() {
+		for (final String image : PREDICATES) {
+			final Predicate pred = parsePredicate(ff, image);
+			assertRoundTrip(pred);
+			typeCheck(pred);
+			assertRoundTrip(pred);
+		}
+	}
+
+	@Test
+	public void expressions() {
+		for (final String image : EXPRESSIONS) {
+			final IParseResult result = ff.parseExpression(image, null);
+			assertFalse(result.toString(), result.hasProblem());
+			final Expression expr = result.getParsedExpression();
+			assertRoundTrip(expr);
+			typeCheck(expr);
+			assertRoundTrip(expr);
+		}
+	}
+
+	@Test
+	public void assignments() {
+		for (final String image : ASSIGNMENTS) {
+			final IParseResult result = ff.parseAssignment(image, null);
+			assertFalse(result.toString(), result.hasProblem());
+			final Assignment assign = result.getParsedAssignment();
+			assertRoundTrip(assign);
+			typeCheck(assign);
+			assertRoundTrip(assign);
+		}
+	}
+
+	@Test
+	public void types() {
+		final Predicate pred = parsePredicate(ff, "f ∈ S → ℙ(T × BOOL)");
+		typeCheck(pred);
+		final Predicate decoded = (Predicate) roundTrip(pred, ff, false);
+		final FreeIdentifier[] expected = pred.getFreeIdentifiers();
+		final FreeIdentifier[] actual = decoded.getFreeIdentifiers();
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i].getType(), actual[i].getType());
+		}
+	}
+
+	@Test
+	public void extensions() {
+		final GivenType tyS = ff.makeGivenType("S");
+		final IDatatypeBuilder builder = ff.makeDatatypeBuilder("List", tyS);
+		builder.addConstructor("nil");
+		final IConstructorBuilder cons = builder.addConstructor("cons");
+		cons.addArgument("head", tyS);
+		cons.addArgument("tail", builder.parseType("List(S)").getParsedType());
+		final IDatatype datatype = builder.finalizeDatatype();
+		final FormulaFactory dtFactory = datatype.getFactory();
+
+		final Predicate pred = parsePredicate(dtFactory,
+				"l = cons(1, nil) ∧ head(l) = 1 ∧ tail(l) ∈ List(ℤ)");
+		final ITypeCheckResult result = pred.typeCheck(dtFactory
+				.makeTypeEnvironment());
+		assertFalse(result.toString(), result.hasProblem());
+		roundTrip(pred, dtFactory, true);
+
+		// The default factory does not support the datatype
+		assertIllFormed(dtFactory.encodeFormula(pred, false));
+	}
+
+	@Test
+	public void emptyInput() {
+		assertIllFormed(new byte[0]);
+	}
+
+	@Test
+	public void unknownVersion() {
+		final byte[] bytes = ff.encodeFormula(parsePredicate(ff, "⊤"), false);
+		bytes[0] = (byte) 0x7f;
+		assertIllFormed(bytes);
+	}
+
+	@Test
+	public void truncatedInput() {
+		final Predicate pred = parsePredicate(ff, PREDICATES[3]);
+		typeCheck(pred);
+		final byte[] bytes = ff.encodeFormula(pred, true);
+		for (int length = 0; length < bytes.length; length++) {
+			assertIllFormed(Arrays.copyOf(bytes, length));
+		}
+	}
+
+	/*
+	 * Corrupting any byte shall either produce some formula, or be reported
+	 * as an ill-formed encoding.
+	 */
+	@Test
+	public void corruptedInput() {
+		final Predicate pred = parsePredicate(ff, PREDICATES[4]);
+		typeCheck(pred);
+		final byte[] bytes = ff.encodeFormula(pred, true);
+		final byte[] values = { 0, 1, 0x3f, 0x7f, (byte) 0x80, (byte) 0xff };
+		for (int i = 0; i < bytes.length; i++) {
+			for (final byte value : values) {
+				final byte[] corrupted = bytes.clone();
+				corrupted[i] = value;
+				try {
+					assertNotNull(ff.decodeFormula(corrupted));
+				} catch (IllegalArgumentException e) {
+					// expected
+				}
+			}
+		}
+	}
+
+	@Test
+	public void sharedEncodings() {
+		final Predicate pred = parsePredicate(ff, "x ∈ ℕ");
+		typeCheck(pred);
+		final byte[] bytes = ff.encodeFormula(pred, false);
+		assertTrue(Arrays.equals(bytes, ff.encodeFormula(pred, false)));
+		assertEquals(ff.decodeFormula(bytes), ff.decodeFormula(bytes));
+	}
+
+}
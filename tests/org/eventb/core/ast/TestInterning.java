@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast;
+
+import static org.eventb.core.ast.Formula.BTRUE;
+import static org.eventb.core.ast.Formula.CSET;
+import static org.eventb.core.ast.Formula.FORALL;
+import static org.eventb.core.ast.Formula.GT;
+import static org.eventb.core.ast.Formula.LAND;
+import static org.eventb.core.ast.QuantifiedExpression.Form.Explicit;
+import static org.eventb.core.ast.QuantifiedExpression.Form.Implicit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigInteger;
+
+import org.eventb.core.ast.QuantifiedExpression.Form;
+import org.junit.Test;
+
+/**
+ * Tests for the formula factories that share the formulas they build.
+ *
+ * @author HHU
+ */
+public class TestInterning {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault()
+			.withInterning();
+
+	private static final IntegerType INT = ff.makeIntegerType();
+
+	private static BoundIdentDecl decl(String name) {
+		return ff.makeBoundIdentDecl(name, null, INT);
+	}
+
+	// ∀name·name>0
+	private static Predicate forall(String name) {
+		final Predicate pred = ff.makeRelationalPredicate(GT,
+				ff.makeBoundIdentifier(0, null, INT),
+				ff.makeIntegerLiteral(BigInteger.ZERO, null), null);
+		return ff.makeQuantifiedPredicate(FORALL,
+				new BoundIdentDecl[] { decl(name) }, pred, null);
+	}
+
+	// ⊤∧(∀name·name>0)
+	private static Predicate conj(String name) {
+		return ff.makeAssociativePredicate(LAND, new Predicate[] {
+				ff.makeLiteralPredicate(BTRUE, null), forall(name) }, null);
+	}
+
+	// {name·name>0∣name} in the given form
+	private static Expression cset(String name, Form form) {
+		final Predicate pred = ff.makeRelationalPredicate(GT,
+				ff.makeBoundIdentifier(0, null, INT),
+				ff.makeIntegerLiteral(BigInteger.ZERO, null), null);
+		return ff.makeQuantifiedExpression(CSET,
+				new BoundIdentDecl[] { decl(name) }, pred,
+				ff.makeBoundIdentifier(0, null, INT), null, form);
+	}
+
+	@Test
+	public void interningFactory() {
+		final FormulaFactory base = FormulaFactory.getDefault();
+		assertFalse(base.isInterning());
+		assertTrue(ff.isInterning());
+		assertNotSame(base, ff);
+		assertSame(ff, base.withInterning());
+		assertSame(ff, ff.withInterning());
+	}
+
+	@Test
+	public void sharedFormulas() {
+		assertSame(conj("x"), conj("x"));
+		assertSame(forall("x"), forall("x"));
+		assertSame(decl("x"), decl("x"));
+		assertSame(cset("x", Explicit), cset("x", Explicit));
+	}
+
+	@Test
+	public void boundIdentDeclNames() {
+		final BoundIdentDecl x = decl("x");
+		final BoundIdentDecl y = decl("y");
+		assertNotSame(x, y);
+		assertEquals("x", x.getName());
+		assertEquals("y", y.getName());
+	}
+
+	@Test
+	public void boundNames() {
+		final Predicate x = conj("x");
+		final Predicate y = conj("y");
+		assertEquals(x, y);
+		assertNotSame(x, y);
+		assertEquals("⊤∧(∀x·x>0)", x.toString());
+		assertEquals("⊤∧(∀y·y>0)", y.toString());
+		assertSame(y, conj("y"));
+		// Sub-formulas without declarations are still shared
+		assertSame(x.getChild(0), y.getChild(0));
+	}
+
+	@Test
+	public void quantifiedExpressionForms() {
+		final Expression explicit = cset("x", Explicit);
+		final Expression implicit = cset("x", Implicit);
+		assertEquals(explicit, implicit);
+		assertNotSame(explicit, implicit);
+		assertEquals("{x·x>0 ∣ x}", explicit.toString());
+		assertEquals("{x ∣ x>0}", implicit.toString());
+	}
+
+	@Test
+	public void notShared() {
+		// Not type-checked at construction
+		final FreeIdentifier untyped = ff.makeFreeIdentifier("a", null);
+		assertNotSame(untyped, ff.makeFreeIdentifier("a", null));
+		// With a source location
+		final SourceLocation loc = new SourceLocation(0, 0);
+		final FreeIdentifier located = ff.makeFreeIdentifier("a", loc, INT);
+		assertNotSame(located, ff.makeFreeIdentifier("a", loc, INT));
+		// Parsed formulas carry source locations
+		final Predicate parsed = ff.parsePredicate("⊤", null)
+				.getParsedPredicate();
+		assertNotSame(parsed, ff.parsePredicate("⊤", null)
+				.getParsedPredicate());
+	}
+
+	// Parses the given predicate with the given factory and type-checks it
+	private static Predicate parse(FormulaFactory fac, String image) {
+		final Predicate pred = fac.parsePredicate(image, null)
+				.getParsedPredicate();
+		final ITypeEnvironmentBuilder typenv = fac.makeTypeEnvironment();
+		typenv.addGivenSet("S");
+		final ITypeCheckResult result = pred.typeCheck(typenv);
+		assertFalse(result.toString(), result.hasProblem());
+		return pred;
+	}
+
+	private static void assertNoLocation(Formula<?> formula) {
+		formula.inspect(new DefaultInspector<Object>() {
+			@Override
+			public void inspect(FreeIdentifier identifier,
+					IAccumulator<Object> accumulator) {
+				assertNull(identifier.getSourceLocation());
+			}
+
+			@Override
+			public void inspect(RelationalPredicate predicate,
+					IAccumulator<Object> accumulator) {
+				assertNull(predicate.getSourceLocation());
+			}
+		});
+		assertNull(formula.getSourceLocation());
+	}
+
+	@Test
+	public void parsedFormulas() {
+		final String image = "x ∈ S ∧ f(x) = x ∧ (∀y⦂ℤ·y > 1 + 2) "
+				+ "∧ {z ∣ z ∈ S} ≠ ∅ ∧ −1 ∈ ℕ";
+		final Predicate first = parse(ff, image);
+		final Predicate second = parse(ff, image);
+		assertNotSame(first, second);
+		assertNotSame(first.getChild(0), second.getChild(0));
+
+		final Predicate shared = first.translate(ff);
+		assertEquals(first, shared);
+		assertEquals(first.toString(), shared.toString());
+		assertTrue(shared.isTypeChecked());
+		assertNoLocation(shared);
+		assertSame(shared, second.translate(ff));
+		assertSame(shared, shared.translate(ff));
+
+		// The nodes of parsed formulas are shared with other formulas
+		final Predicate conjunct = parse(ff, "f(x) = x ∧ x ∈ S").translate(ff);
+		assertSame(shared.getChild(0), conjunct.getChild(1));
+		assertSame(shared.getChild(1), conjunct.getChild(0));
+
+		// Also when parsed with a factory that does not share formulas
+		final FormulaFactory base = FormulaFactory.getDefault();
+		assertSame(shared, parse(base, image).translate(ff));
+	}
+
+	@Test
+	public void typeCheckedAfterConstruction() {
+		final FreeIdentifier untyped = ff.makeFreeIdentifier("a", null);
+		final Predicate pred = ff.makeRelationalPredicate(GT, untyped,
+				ff.makeIntegerLiteral(BigInteger.ZERO, null), null);
+		pred.typeCheck(ff.makeTypeEnvironment());
+		assertTrue(pred.isTypeChecked());
+		final Predicate shared = pred.translate(ff);
+		final Predicate built = ff.makeRelationalPredicate(GT,
+				ff.makeFreeIdentifier("a", null, INT),
+				ff.makeIntegerLiteral(BigInteger.ZERO, null), null);
+		assertSame(built, shared);
+	}
+
+}
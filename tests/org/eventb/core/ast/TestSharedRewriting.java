@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast;
+
+import static org.eventb.core.ast.Formula.FORALL;
+import static org.eventb.core.ast.Formula.IN;
+import static org.eventb.core.ast.Formula.LAND;
+import static org.eventb.core.ast.Formula.MAPSTO;
+import static org.eventb.core.ast.Formula.PLUS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests the rewriting of formulas where the same sub-formula instance occurs
+ * at several places and binding depths. The results must be the same as for
+ * the equal formula without sharing.
+ *
+ * @author HHU
+ */
+public class TestSharedRewriting {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault();
+
+	private static final FormulaFactory iff = ff.withInterning();
+
+	private static final GivenType S = ff.makeGivenType("S");
+	private static final Type INT = ff.makeIntegerType();
+
+	private static final FreeIdentifier r = ff.makeFreeIdentifier("r", null,
+			ff.makeRelationalType(S, INT));
+	private static final FreeIdentifier x = ff.makeFreeIdentifier("x", null,
+			INT);
+	private static final FreeIdentifier y = ff.makeFreeIdentifier("y", null,
+			INT);
+
+	// Shared leaf b0 ↦ x ∈ r, where b0 refers to the nearest binder
+	private static final Predicate P = ff.makeRelationalPredicate(IN,
+			ff.makeBinaryExpression(MAPSTO,
+					ff.makeBoundIdentifier(0, null, S), x, null), r, null);
+
+	/*
+	 * Returns Q(depth), where Q(0) is P and Q(k+1) is ∀v·Q(k) ∧ P ∧ Q(k), with
+	 * the same instances of P and Q(k) occurring several times.
+	 */
+	private static Predicate makeShared(int depth) {
+		Predicate result = P;
+		for (int k = 0; k < depth; k++) {
+			final Predicate body = ff.makeAssociativePredicate(LAND,
+					new Predicate[] { result, P, result }, null);
+			result = ff.makeQuantifiedPredicate(FORALL,
+					new BoundIdentDecl[] { ff.makeBoundIdentDecl("v" + k,
+							null, S) }, body, null);
+		}
+		assertTrue(result.isTypeChecked());
+		return result;
+	}
+
+	// Returns a formula equal to the given one, but without sharing
+	private static Predicate makeUnshared(Predicate pred) {
+		final ITypeEnvironmentBuilder typenv = ff.makeTypeEnvironment();
+		typenv.add(r);
+		typenv.add(x);
+		typenv.add(y);
+		final Predicate result = ff.parsePredicate(pred.toString(), null)
+				.getParsedPredicate();
+		final ITypeCheckResult tcResult = result.typeCheck(typenv);
+		assertFalse(tcResult.toString(), tcResult.hasProblem());
+		assertEquals(pred, result);
+		return result;
+	}
+
+	// Returns the body of the given quantified predicate
+	private static Predicate body(Predicate pred) {
+		return ((QuantifiedPredicate) pred).getPredicate();
+	}
+
+	private static void assertSameResult(Predicate expected, Predicate actual) {
+		assertEquals(expected, actual);
+		assertEquals(expected.toStringWithTypes(), actual.toStringWithTypes());
+		assertTrue(actual.isTypeChecked());
+	}
+
+	// The two occurrences of the quantified child are rewritten once
+	private static void assertShared(Predicate pred) {
+		final Predicate[] children = ((AssociativePredicate) body(pred))
+				.getChildren();
+		assertSame(children[0], children[2]);
+	}
+
+	@Test
+	public void substitution() {
+		final Map<FreeIdentifier, Expression> map;
+		map = new HashMap<FreeIdentifier, Expression>();
+		map.put(x, ff.makeAssociativeExpression(PLUS, new Expression[] { y,
+				ff.makeIntegerLiteral(BigInteger.ONE, null) }, null));
+		for (int depth = 1; depth <= 4; depth++) {
+			final Predicate shared = makeShared(depth);
+			final Predicate actual = shared.substituteFreeIdents(map);
+			assertSameResult(makeUnshared(shared).substituteFreeIdents(map),
+					actual);
+			if (depth > 1) {
+				assertShared(actual);
+			}
+		}
+	}
+
+	/*
+	 * The shared leaf occurs in the body at depth 0, where its bound identifier
+	 * is loose and shifted, and below, where it is not.
+	 */
+	@Test
+	public void shifting() {
+		for (int depth = 1; depth <= 4; depth++) {
+			final Predicate shared = body(makeShared(depth));
+			final Predicate unshared = body(makeUnshared(makeShared(depth)));
+			for (int offset = 0; offset <= 3; offset++) {
+				assertSameResult(unshared.shiftBoundIdentifiers(offset),
+						shared.shiftBoundIdentifiers(offset));
+			}
+		}
+	}
+
+	@Test
+	public void instantiation() {
+		final Expression[] replacements = { ff.makeFreeIdentifier("s", null,
+				S) };
+		for (int depth = 1; depth <= 4; depth++) {
+			final Predicate shared = makeShared(depth);
+			final Predicate unshared = makeUnshared(shared);
+			assertSameResult(((QuantifiedPredicate) unshared).instantiate(
+					replacements, ff), ((QuantifiedPredicate) shared)
+					.instantiate(replacements, ff));
+		}
+	}
+
+	@Test
+	public void binding() {
+		for (int depth = 1; depth <= 4; depth++) {
+			final Predicate shared = makeShared(depth);
+			final Predicate unshared = makeUnshared(shared);
+			assertSameResult(
+					unshared.bindTheseIdents(Collections.singletonList(x)),
+					shared.bindTheseIdents(Collections.singletonList(x)));
+		}
+	}
+
+	@Test
+	public void specialization() {
+		for (int depth = 1; depth <= 4; depth++) {
+			final Predicate shared = makeShared(depth);
+			final Predicate unshared = makeUnshared(shared);
+			final ISpecialization spe = ff.makeSpecialization();
+			spe.put(S, ff.makePowerSetType(INT));
+			spe.put(x, y);
+			final Predicate actual = shared.specialize(spe);
+			assertSameResult(unshared.specialize(spe.clone()), actual);
+			if (depth > 1) {
+				assertShared(actual);
+			}
+		}
+	}
+
+	/*
+	 * Rewritten sub-formulas are remembered only while specializing a formula.
+	 */
+	@Test
+	public void specializationRetention() throws InterruptedException {
+		final ISpecialization spe = ff.makeSpecialization();
+		spe.put(S, INT);
+		final WeakReference<Predicate> ref = new WeakReference<Predicate>(
+				makeShared(3).specialize(spe));
+		for (int i = 0; i < 50 && ref.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(ref.get());
+		assertShared(makeShared(3).specialize(spe));
+	}
+
+	@Test
+	public void translation() {
+		for (int depth = 1; depth <= 4; depth++) {
+			final Predicate shared = makeShared(depth);
+			final Predicate actual = shared.translate(iff);
+			assertSame(iff, actual.getFactory());
+			assertSameResult(makeUnshared(shared).translate(iff), actual);
+		}
+	}
+
+	/*
+	 * Formula Q(60) has more than 2^60 paths to its leaves, so that its
+	 * rewriting terminates only when shared sub-formulas are rewritten once.
+	 */
+	@Test(timeout = 10000)
+	public void deepSharing() {
+		final Predicate shared = makeShared(60);
+		final Map<FreeIdentifier, Expression> map;
+		map = new HashMap<FreeIdentifier, Expression>();
+		map.put(x, y);
+		assertShared(shared.substituteFreeIdents(map));
+		body(shared).shiftBoundIdentifiers(2);
+		final ISpecialization spe = ff.makeSpecialization();
+		spe.put(S, INT);
+		assertShared(shared.specialize(spe));
+		assertShared(shared.translate(iff));
+	}
+
+}
@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eventb.core.ast.datatype.IDatatype;
+import org.eventb.core.ast.datatype.IDatatypeBuilder;
+import org.junit.Test;
+
+/**
+ * Tests that the memo of the types rewritten by a specialization stays
+ * consistent with its substitutions.
+ *
+ * @author HHU
+ */
+public class TestSpecializationMemo {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault();
+
+	private static final GivenType S = ff.makeGivenType("S");
+	private static final GivenType T = ff.makeGivenType("T");
+	private static final GivenType U = ff.makeGivenType("U");
+	private static final Type INT = ff.makeIntegerType();
+	private static final Type BOOL = ff.makeBooleanType();
+
+	private static Type pow(Type type) {
+		return ff.makePowerSetType(type);
+	}
+
+	private static Type prod(Type left, Type right) {
+		return ff.makeProductType(left, right);
+	}
+
+	@Test
+	public void putAfterSpecialization() {
+		final ISpecialization spe = ff.makeSpecialization();
+		spe.put(S, INT);
+		assertEquals(pow(INT), pow(S).specialize(spe));
+		assertEquals(prod(INT, INT), prod(S, S).specialize(spe));
+
+		// Changes the rewriting of U, which is not known yet
+		spe.put(U, BOOL);
+		assertEquals(pow(prod(INT, BOOL)), pow(prod(S, U)).specialize(spe));
+		assertEquals(pow(INT), pow(S).specialize(spe));
+		assertEquals(prod(BOOL, T), prod(U, T).specialize(spe));
+	}
+
+	@Test
+	public void identityPut() {
+		final ISpecialization spe = ff.makeSpecialization();
+		final Type type = pow(prod(S, T));
+		assertSame(type, type.specialize(spe));
+		spe.put(S, S);
+		assertSame(type, type.specialize(spe));
+	}
+
+	@Test
+	public void rejectedPut() {
+		final ISpecialization spe = ff.makeSpecialization();
+		final Type type = pow(T);
+		// Registers T as substituted by itself
+		assertSame(type, type.specialize(spe));
+		try {
+			spe.put(T, INT);
+			fail("Changed the substitution of a registered type");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertSame(type, type.specialize(spe));
+		assertEquals(T, spe.get(T));
+	}
+
+	@Test
+	public void copies() {
+		final ISpecialization spe = ff.makeSpecialization();
+		spe.put(S, INT);
+		assertEquals(pow(INT), pow(S).specialize(spe));
+
+		final ISpecialization copy = spe.clone();
+		copy.put(T, BOOL);
+		assertEquals(prod(INT, BOOL), prod(S, T).specialize(copy));
+		assertEquals(prod(INT, T), prod(S, T).specialize(spe));
+		assertEquals(pow(INT), pow(S).specialize(copy));
+	}
+
+	/*
+	 * Types of different factories are equal, but must be translated to the
+	 * factory of the specialization.
+	 */
+	@Test
+	public void otherFactory() {
+		final IDatatypeBuilder builder = ff.makeDatatypeBuilder("DT");
+		builder.addConstructor("dt");
+		final IDatatype datatype = builder.finalizeDatatype();
+		final FormulaFactory dtFactory = datatype.getFactory();
+		final ISpecialization spe = dtFactory.makeSpecialization();
+
+		final Type type = dtFactory.makePowerSetType(dtFactory
+				.makeGivenType("S"));
+		final Type result = type.specialize(spe);
+		assertSame(dtFactory, result.getFactory());
+
+		final Type other = pow(S);
+		assertEquals(type, other);
+		final Type otherResult = other.specialize(spe);
+		assertEquals(result, otherResult);
+		assertSame(dtFactory, otherResult.getFactory());
+	}
+
+	@Test
+	public void formulas() {
+		final ITypeEnvironmentBuilder typenv = ff.makeTypeEnvironment();
+		typenv.addGivenSet("S");
+		typenv.addGivenSet("T");
+		final List<Predicate> preds = new ArrayList<Predicate>();
+		for (final String image : Arrays.asList("x ∈ S ∧ y ∈ T",
+				"∀z·z ∈ S ⇒ z ↦ y ∈ S × T", "{x} ⊆ S ∧ y ∈ T")) {
+			final Predicate pred = ff.parsePredicate(image, null)
+					.getParsedPredicate();
+			final ITypeCheckResult result = pred.typeCheck(typenv);
+			assertFalse(result.toString(), result.hasProblem());
+			typenv.addAll(result.getInferredEnvironment());
+			preds.add(pred);
+		}
+
+		final ISpecialization spe = ff.makeSpecialization();
+		spe.put(S, INT);
+		spe.put(T, pow(BOOL));
+		final List<Predicate> actual = spe.specialize(preds);
+		assertEquals(preds.size(), actual.size());
+		for (int i = 0; i < preds.size(); i++) {
+			final ISpecialization single = ff.makeSpecialization();
+			single.put(S, INT);
+			single.put(T, pow(BOOL));
+			assertEquals(preds.get(i).specialize(single), actual.get(i));
+		}
+	}
+
+}
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.core.ast;
+
+import static org.eventb.core.ast.Formula.BOUND_IDENT;
+import static org.eventb.core.ast.Formula.BOUND_IDENT_DECL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.eventb.core.ast.datatype.IConstructorExtension;
+import org.eventb.core.ast.datatype.IDatatype;
+import org.eventb.core.ast.datatype.IDatatypeBuilder;
+import org.eventb.internal.core.ast.TagSummary;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests that traversals give the same results whether or not their client
+ * declares its tags of interest with {@link ITagSelective}.
+ *
+ * @author HHU
+ */
+public class TestTagSelective {
+
+	private static final int NB_CONSTRUCTORS = 10;
+
+	private static FormulaFactory ff;
+
+	// Tag of interest, and another extension tag sharing its summary bit
+	private static int tag;
+	private static int sameBitTag;
+
+	private static Predicate pred;
+
+	@BeforeClass
+	public static void makeFormula() {
+		final IDatatypeBuilder builder = FormulaFactory.getDefault()
+				.makeDatatypeBuilder("DT");
+		for (int i = 0; i < NB_CONSTRUCTORS; i++) {
+			builder.addConstructor("c" + i);
+		}
+		final IDatatype datatype = builder.finalizeDatatype();
+		ff = datatype.getFactory();
+
+		// Some constructors share a summary bit, as there are more of them
+		// than bits for extensions
+		String name = null;
+		String sameBitName = null;
+		for (final IConstructorExtension left : datatype.getConstructors()) {
+			for (final IConstructorExtension right : datatype
+					.getConstructors()) {
+				if (left != right && sameBitName == null
+						&& TagSummary.bitOf(FormulaFactory.getTag(left))
+						== TagSummary.bitOf(FormulaFactory.getTag(right))) {
+					name = left.getName();
+					tag = FormulaFactory.getTag(left);
+					sameBitName = right.getName();
+					sameBitTag = FormulaFactory.getTag(right);
+				}
+			}
+		}
+		assertTrue(sameBitName != null);
+
+		pred = ff.parsePredicate("∀a,b·(a = " + name + " ∨ b = "
+				+ sameBitName + ") ∧ (∃d·d = " + sameBitName + " ∧ d = a)"
+				+ " ∧ x = " + sameBitName + " ∧ (∀e,f·e ∈ ℤ ∧ f = b ⇒ e = y)"
+				+ " ∧ (∃g·g = " + name + ")", null).getParsedPredicate();
+		final ITypeCheckResult result = pred.typeCheck(ff
+				.makeTypeEnvironment());
+		assertFalse(result.toString(), result.hasProblem());
+	}
+
+	private static class ExtensionInspector extends
+			DefaultInspector<IPosition> {
+
+		@Override
+		public void inspect(ExtendedExpression expression,
+				IAccumulator<IPosition> accumulator) {
+			if (expression.getTag() == tag) {
+				accumulator.add(accumulator.getCurrentPosition());
+			}
+		}
+
+	}
+
+	private static class SelectiveExtensionInspector extends
+			ExtensionInspector implements ITagSelective {
+
+		@Override
+		public int[] getTagsOfInterest() {
+			return new int[] { tag };
+		}
+
+	}
+
+	private static class DeclInspector extends DefaultInspector<String> {
+
+		@Override
+		public void inspect(BoundIdentDecl decl,
+				IAccumulator<String> accumulator) {
+			accumulator.add(decl.getName() + "@"
+					+ accumulator.getCurrentPosition());
+		}
+
+	}
+
+	private static class SelectiveDeclInspector extends DeclInspector
+			implements ITagSelective {
+
+		@Override
+		public int[] getTagsOfInterest() {
+			return new int[] { BOUND_IDENT_DECL };
+		}
+
+	}
+
+	private static class ExtensionFilter extends DefaultFilter {
+
+		@Override
+		public boolean select(ExtendedExpression expression) {
+			return expression.getTag() == tag;
+		}
+
+	}
+
+	private static class SelectiveExtensionFilter extends ExtensionFilter
+			implements ITagSelective {
+
+		@Override
+		public int[] getTagsOfInterest() {
+			return new int[] { tag };
+		}
+
+	}
+
+	private static class DeclFilter extends DefaultFilter {
+
+		@Override
+		public boolean select(BoundIdentDecl decl) {
+			return true;
+		}
+
+	}
+
+	private static class SelectiveDeclFilter extends DeclFilter implements
+			ITagSelective {
+
+		@Override
+		public int[] getTagsOfInterest() {
+			return new int[] { BOUND_IDENT_DECL };
+		}
+
+	}
+
+	// Replaces the constructor of interest with a free identifier
+	private static class ExtensionRewriter extends DefaultRewriter {
+
+		public ExtensionRewriter() {
+			super(false);
+		}
+
+		@Override
+		public Expression rewrite(ExtendedExpression expression) {
+			if (expression.getTag() == tag) {
+				return ff.makeFreeIdentifier("z", null, expression.getType());
+			}
+			return expression;
+		}
+
+	}
+
+	private static class SelectiveExtensionRewriter extends
+			ExtensionRewriter implements ITagSelective {
+
+		@Override
+		public int[] getTagsOfInterest() {
+			return new int[] { tag };
+		}
+
+	}
+
+	// Replaces the loose bound identifiers, which depends on the binding depth
+	// of each bound identifier
+	private static class BoundRewriter extends DefaultRewriter {
+
+		public BoundRewriter() {
+			super(false);
+		}
+
+		@Override
+		public Expression rewrite(BoundIdentifier identifier) {
+			final int index = identifier.getBoundIndex() - getBindingDepth();
+			if (index >= 0) {
+				return ff.makeFreeIdentifier("z" + index, null,
+						identifier.getType());
+			}
+			return identifier;
+		}
+
+	}
+
+	private static class SelectiveBoundRewriter extends BoundRewriter
+			implements ITagSelective {
+
+		@Override
+		public int[] getTagsOfInterest() {
+			return new int[] { BOUND_IDENT };
+		}
+
+	}
+
+	@Test
+	public void sameSummaryBit() {
+		assertNotEquals(tag, sameBitTag);
+		assertEquals(TagSummary.bitOf(tag), TagSummary.bitOf(sameBitTag));
+	}
+
+	@Test
+	public void inspectExtensions() {
+		final List<IPosition> expected = pred
+				.inspect(new ExtensionInspector());
+		assertEquals(2, expected.size());
+		assertEquals(expected,
+				pred.inspect(new SelectiveExtensionInspector()));
+	}
+
+	@Test
+	public void inspectDeclarations() {
+		final List<String> expected = pred.inspect(new DeclInspector());
+		assertEquals(6, expected.size());
+		assertEquals(expected, pred.inspect(new SelectiveDeclInspector()));
+	}
+
+	@Test
+	public void positionsOfExtensions() {
+		final List<IPosition> expected = pred
+				.getPositions(new ExtensionFilter());
+		assertEquals(2, expected.size());
+		assertEquals(expected, pred
+				.getPositions(new SelectiveExtensionFilter()));
+	}
+
+	@Test
+	public void positionsOfDeclarations() {
+		final List<IPosition> expected = pred.getPositions(new DeclFilter());
+		assertEquals(6, expected.size());
+		assertEquals(expected, pred.getPositions(new SelectiveDeclFilter()));
+	}
+
+	@Test
+	public void rewriteExtensions() {
+		final Predicate expected = pred.rewrite(new ExtensionRewriter());
+		assertNotEquals(pred, expected);
+		assertEquals(expected,
+				pred.rewrite(new SelectiveExtensionRewriter()));
+	}
+
+	@Test
+	public void rewriteBoundIdentifiers() {
+		final Predicate body = ((QuantifiedPredicate) pred).getPredicate();
+		final Predicate expected = body.rewrite(new BoundRewriter());
+		assertNotEquals(body, expected);
+		final Predicate actual = body.rewrite(new SelectiveBoundRewriter());
+		assertEquals(expected, actual);
+		assertEquals(expected.toStringWithTypes(), actual.toStringWithTypes());
+	}
+
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.ISealedTypeEnvironment;
+import org.eventb.core.ast.ITypeEnvironmentBuilder;
+import org.junit.Test;
+
+/**
+ * Unit tests for the persistent hash map shared between type environments.
+ *
+ * @author HHU
+ */
+public class TestPersistentHashMap {
+
+	/**
+	 * Key with a chosen hash code, to force collisions.
+	 */
+	private static final class Key {
+
+		private final String name;
+		private final int hash;
+
+		Key(String name, int hash) {
+			this.name = name;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && name.equals(((Key) obj).name);
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	private static <K, V> void assertSameContents(Map<K, V> expected,
+			PersistentHashMap<K, V> actual) {
+		assertEquals(expected.size(), actual.size());
+		assertEquals(expected.isEmpty(), actual.isEmpty());
+		for (final Entry<K, V> entry : expected.entrySet()) {
+			assertTrue(actual.containsKey(entry.getKey()));
+			assertEquals(entry.getValue(), actual.get(entry.getKey()));
+		}
+		int count = 0;
+		for (final Entry<K, V> entry : actual.entrySet()) {
+			assertEquals(expected.get(entry.getKey()), entry.getValue());
+			count++;
+		}
+		assertEquals(expected.size(), count);
+		assertEquals(expected, actual);
+		assertEquals(expected.hashCode(), actual.hashCode());
+	}
+
+	@Test
+	public void empty() {
+		final PersistentHashMap<String, Integer> map = PersistentHashMap
+				.empty();
+		assertTrue(map.isEmpty());
+		assertEquals(0, map.size());
+		assertNull(map.get("a"));
+		assertNull(map.get(null));
+		assertFalse(map.containsKey("a"));
+		assertFalse(map.entrySet().iterator().hasNext());
+	}
+
+	@Test
+	public void plusAndGet() {
+		final Map<String, Integer> expected = new HashMap<String, Integer>();
+		PersistentHashMap<String, Integer> map = PersistentHashMap.empty();
+		for (int i = 0; i < 2000; i++) {
+			expected.put("k" + i, i);
+			map = map.plus("k" + i, i);
+		}
+		assertSameContents(expected, map);
+		assertNull(map.get("k2000"));
+	}
+
+	@Test
+	public void replaceValue() {
+		final PersistentHashMap<String, Integer> map1 = PersistentHashMap
+				.<String, Integer> empty().plus("a", 1).plus("b", 2);
+		final PersistentHashMap<String, Integer> map2 = map1.plus("a", 3);
+		assertEquals(2, map2.size());
+		assertEquals(Integer.valueOf(3), map2.get("a"));
+		assertEquals(Integer.valueOf(1), map1.get("a"));
+	}
+
+	@Test
+	public void plusSameEntry() {
+		final Integer one = 1;
+		final PersistentHashMap<String, Integer> map = PersistentHashMap
+				.<String, Integer> empty().plus("a", one);
+		assertSame(map, map.plus("a", one));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void nullKey() {
+		PersistentHashMap.<String, Integer> empty().plus(null, 1);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void nullValue() {
+		PersistentHashMap.<String, Integer> empty().plus("a", null);
+	}
+
+	@Test
+	public void fullCollisions() {
+		final Map<Key, Integer> expected = new HashMap<Key, Integer>();
+		PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+		for (int i = 0; i < 50; i++) {
+			final Key key = new Key("k" + i, 42);
+			expected.put(key, i);
+			map = map.plus(key, i);
+		}
+		map = map.plus(new Key("k7", 42), 700);
+		expected.put(new Key("k7", 42), 700);
+		assertSameContents(expected, map);
+		assertNull(map.get(new Key("other", 42)));
+	}
+
+	@Test
+	public void partialCollisions() {
+		// Hashes sharing their low bits, so that they descend together
+		final Map<Key, Integer> expected = new HashMap<Key, Integer>();
+		PersistentHashMap<Key, Integer> map = PersistentHashMap.empty();
+		for (int i = 0; i < 64; i++) {
+			final Key key = new Key("k" + i, (i % 8) << 25 | 3);
+			expected.put(key, i);
+			map = map.plus(key, i);
+		}
+		assertSameContents(expected, map);
+	}
+
+	@Test
+	public void persistence() {
+		PersistentHashMap<String, Integer> map = PersistentHashMap.empty();
+		final PersistentHashMap<String, Integer>[] versions = newArray(100);
+		for (int i = 0; i < 100; i++) {
+			map = map.plus("k" + i, i);
+			versions[i] = map;
+		}
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i + 1, versions[i].size());
+			assertEquals(Integer.valueOf(i), versions[i].get("k" + i));
+			assertNull(versions[i].get("k" + (i + 1)));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static PersistentHashMap<String, Integer>[] newArray(int length) {
+		return new PersistentHashMap[length];
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void iteratorRemove() {
+		final Iterator<Entry<String, Integer>> iter = PersistentHashMap
+				.<String, Integer> empty().plus("a", 1).entrySet().iterator();
+		iter.next();
+		iter.remove();
+	}
+
+	@Test
+	public void sharedByTypeEnvironments() {
+		final FormulaFactory ff = FormulaFactory.getDefault();
+		final ITypeEnvironmentBuilder builder = ff.makeTypeEnvironment();
+		builder.addName("x", ff.makeIntegerType());
+		final ISealedTypeEnvironment snapshot = builder.makeSnapshot();
+		final ITypeEnvironmentBuilder copy = snapshot.makeBuilder();
+		builder.addName("y", ff.makeBooleanType());
+		copy.addName("z", ff.makeBooleanType());
+
+		assertEquals(1, snapshot.getNames().size());
+		assertTrue(snapshot.contains("x"));
+		assertFalse(snapshot.contains("y"));
+		assertFalse(snapshot.contains("z"));
+		assertTrue(builder.contains("y"));
+		assertFalse(builder.contains("z"));
+		assertTrue(copy.contains("z"));
+		assertFalse(copy.contains("y"));
+	}
+
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast.wd;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.Predicate;
+import org.junit.Test;
+
+/**
+ * Unit tests for the subsumption of lemmas in a lemma store.
+ *
+ * @author HHU
+ */
+public class TestLemmaStore {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault();
+
+	private static final FormulaBuilder fb = new FormulaBuilder(ff);
+
+	private static final Predicate C = pred("c");
+	private static final Predicate D = pred("d");
+
+	// Type-checked predicate name = 0
+	private static Predicate pred(String name) {
+		final Predicate result = ff.parsePredicate(name + " = 0", null)
+				.getParsedPredicate();
+		result.typeCheck(ff.makeTypeEnvironment());
+		return result;
+	}
+
+	private static Set<Predicate> set(String... names) {
+		final Set<Predicate> result = new HashSet<Predicate>();
+		for (final String name : names) {
+			result.add(pred(name));
+		}
+		return result;
+	}
+
+	private static Node add(LemmaStore store, Set<Predicate> antecedents,
+			Predicate consequent) {
+		final Node origin = new NodePred(consequent);
+		store.add(antecedents, consequent, origin);
+		return origin;
+	}
+
+	private static boolean isSubsumed(Node node) {
+		return node.asPredicate(fb, true) == fb.btrue;
+	}
+
+	@Test
+	public void newLemmaSubsumed() {
+		final LemmaStore store = new LemmaStore();
+		final Node known = add(store, set("a"), C);
+		final Node added = add(store, set("a", "b"), C);
+		assertFalse(isSubsumed(known));
+		assertTrue(isSubsumed(added));
+	}
+
+	@Test
+	public void knownLemmaSubsumed() {
+		final LemmaStore store = new LemmaStore();
+		final Node known1 = add(store, set("a", "b"), C);
+		final Node known2 = add(store, set("a", "c"), C);
+		final Node added = add(store, set("a"), C);
+		assertTrue(isSubsumed(known1));
+		assertTrue(isSubsumed(known2));
+		assertFalse(isSubsumed(added));
+
+		// The subsumed lemmas are no longer known
+		final Node other = add(store, set("b", "c"), C);
+		assertFalse(isSubsumed(other));
+	}
+
+	@Test
+	public void equalLemmas() {
+		final LemmaStore store = new LemmaStore();
+		final Node first = add(store, set("a"), C);
+		final Node second = add(store, set("a"), C);
+		assertFalse(isSubsumed(first));
+		assertTrue(isSubsumed(second));
+	}
+
+	@Test
+	public void emptyAntecedents() {
+		final LemmaStore store = new LemmaStore();
+		final Node known = add(store, set("a"), C);
+		final Node added = add(store, set(), C);
+		assertTrue(isSubsumed(known));
+		assertFalse(isSubsumed(added));
+	}
+
+	@Test
+	public void otherConsequent() {
+		final LemmaStore store = new LemmaStore();
+		final Node known = add(store, set("a"), C);
+		final Node added = add(store, set("a", "b"), D);
+		assertFalse(isSubsumed(known));
+		assertFalse(isSubsumed(added));
+	}
+
+	@Test
+	public void incomparableAntecedents() {
+		final LemmaStore store = new LemmaStore();
+		final Node known = add(store, set("a", "b"), C);
+		final Node added = add(store, set("b", "c"), C);
+		assertFalse(isSubsumed(known));
+		assertFalse(isSubsumed(added));
+	}
+
+	/*
+	 * Antecedents get numbers above 64, so that their bit sets span several
+	 * words of different lengths.
+	 */
+	@Test
+	public void manyAntecedents() {
+		final LemmaStore store = new LemmaStore();
+		for (int i = 0; i < 100; i++) {
+			add(store, set("p" + i), D);
+		}
+		final Node high = add(store, set("p70", "p90"), C);
+		final Node low = add(store, set("p1"), C);
+		assertFalse(isSubsumed(high));
+		assertFalse(isSubsumed(low));
+
+		final Node highSubsumed = add(store, set("p1", "p70", "p90", "p99"), C);
+		assertTrue(isSubsumed(highSubsumed));
+
+		final Node lowSubsumer = add(store, set("p70"), C);
+		assertTrue(isSubsumed(high));
+		assertFalse(isSubsumed(lowSubsumer));
+		assertFalse(isSubsumed(low));
+	}
+
+	@Test
+	public void copiesAreIndependent() {
+		final LemmaStore store = new LemmaStore();
+		final Node known = add(store, set("a", "b"), C);
+		final LemmaStore copy = new LemmaStore(store);
+
+		// Changes to the copy
+		final Node subsumer = add(copy, set("a"), C);
+		assertTrue(isSubsumed(known));
+		assertFalse(isSubsumed(subsumer));
+		assertTrue(isSubsumed(add(copy, set("a", "e"), C)));
+
+		// do not affect the original store,
+		assertTrue(isSubsumed(add(store, set("a", "b", "d"), C)));
+		assertFalse(isSubsumed(add(store, set("a", "f"), C)));
+
+		// and conversely.
+		assertFalse(isSubsumed(add(copy, set("a", "f", "g"), D)));
+		assertFalse(isSubsumed(add(store, set("g"), D)));
+		assertFalse(isSubsumed(add(copy, set("g", "h"), D)));
+	}
+
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast.wd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.ITypeCheckResult;
+import org.eventb.core.ast.ITypeEnvironmentBuilder;
+import org.eventb.core.ast.Predicate;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests that WD predicates computed in parallel are the same as when computed
+ * sequentially.
+ *
+ * @author HHU
+ */
+public class TestParallelWD {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault();
+
+	private static ForkJoinPool pool;
+
+	@BeforeClass
+	public static void startPool() {
+		pool = new ForkJoinPool(4);
+	}
+
+	@AfterClass
+	public static void stopPool() {
+		pool.shutdown();
+	}
+
+	// Parses and type-checks a fresh predicate, whose WD predicate is not cached
+	private static Predicate makePredicate(String image) {
+		final Predicate pred = ff.parsePredicate(image, null)
+				.getParsedPredicate();
+		final ITypeEnvironmentBuilder typenv = ff.makeTypeEnvironment();
+		typenv.addGivenSet("S");
+		typenv.addName("x", ff.makeGivenType("S"));
+		typenv.addName("f", ff.makeRelationalType(ff.makeGivenType("S"),
+				ff.makeGivenType("S")));
+		typenv.addName("n", ff.makeIntegerType());
+		final ITypeCheckResult result = pred.typeCheck(typenv);
+		assertFalse(result.toString(), result.hasProblem());
+		return pred;
+	}
+
+	private static void assertSameWD(String image) {
+		final Predicate expected = makePredicate(image).getWDPredicate();
+		for (int i = 0; i < 5; i++) {
+			final Predicate actual = makePredicate(image).getWDPredicate(pool);
+			assertEquals(expected, actual);
+			assertEquals(expected.toStringWithTypes(),
+					actual.toStringWithTypes());
+		}
+	}
+
+	private static String conjunction(int size, String pattern) {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			if (i != 0) {
+				sb.append(" ∧ ");
+			}
+			sb.append(pattern.replace("#", Integer.toString(i)));
+		}
+		return sb.toString();
+	}
+
+	@Test
+	public void narrowFormula() {
+		assertSameWD("f(x) ∈ S ∧ n ÷ (n + 1) ≥ 0");
+	}
+
+	@Test
+	public void wideConjunction() {
+		assertSameWD(conjunction(300, "f(x) = x ∧ n ÷ (n + #) ≥ #"));
+	}
+
+	/*
+	 * The same WD conditions occur in many conjuncts, so that most of them
+	 * are subsumed by the first ones.
+	 */
+	@Test
+	public void redundantConditions() {
+		assertSameWD(conjunction(200, "(n > # ⇒ f(x) = x ∧ n ÷ n = #)"));
+	}
+
+	@Test
+	public void wideQuantifiedConjunction() {
+		assertSameWD(conjunction(150,
+				"(∀y·y ∈ dom(f) ⇒ f(y) ∈ S ∧ n ÷ (n + #) ≥ card({y}))"));
+	}
+
+	@Test
+	public void nestedWideConjunctions() {
+		final String inner = conjunction(100, "f(x) = x ∧ n ÷ # ≥ 0");
+		assertSameWD("(∀y·y ∈ dom(f) ⇒ " + inner + ") ∨ ("
+				+ conjunction(100, "n ÷ (# + 1) = 0") + ")");
+	}
+
+	// Runs a loop in the test pool, or in the common pool if inPool is false
+	private static void assertEachIndexOnce(final int length,
+			final boolean parallel, boolean inPool) {
+		final AtomicIntegerArray counts = new AtomicIntegerArray(length);
+		final ParallelLoop loop = new ParallelLoop() {
+			@Override
+			protected void run(int from, int to) {
+				for (int i = from; i < to; i++) {
+					counts.incrementAndGet(i);
+				}
+			}
+		};
+		if (inPool) {
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					loop.run(length, parallel);
+				}
+			});
+		} else {
+			loop.run(length, parallel);
+		}
+		for (int i = 0; i < length; i++) {
+			assertEquals("Iteration " + i, 1, counts.get(i));
+		}
+	}
+
+	@Test
+	public void parallelLoop() {
+		final int[] lengths = { 0, 1, 16, 63, 64, 65, 1000 };
+		for (final int length : lengths) {
+			assertEachIndexOnce(length, false, true);
+			assertEachIndexOnce(length, true, true);
+			assertEachIndexOnce(length, true, false);
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.ast.wd;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.ITypeEnvironmentBuilder;
+import org.eventb.core.ast.Predicate;
+import org.junit.Test;
+
+/**
+ * Unit tests for the cache of WD predicates.
+ *
+ * @author HHU
+ */
+public class TestWDCache {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault();
+
+	private static Predicate makePredicate(String image) {
+		final Predicate pred = ff.parsePredicate(image, null)
+				.getParsedPredicate();
+		final ITypeEnvironmentBuilder typenv = ff.makeTypeEnvironment();
+		typenv.addGivenSet("S");
+		pred.typeCheck(typenv);
+		return pred;
+	}
+
+	private static Predicate makePredicate() {
+		return makePredicate("f ∈ S ⇸ S ∧ f(x) = x ∧ 1 ÷ n = 0");
+	}
+
+	@Test
+	public void getAndPut() {
+		final WDCache cache = new WDCache();
+		final Predicate pred = makePredicate();
+		final Predicate wd = makePredicate("x ∈ dom(f) ∧ n ≠ 0");
+		assertNull(cache.get(pred));
+		cache.put(pred, wd);
+		assertSame(wd, cache.get(pred));
+
+		final Predicate wd2 = makePredicate("n ≠ 0");
+		cache.put(pred, wd2);
+		assertSame(wd2, cache.get(pred));
+	}
+
+	/*
+	 * Equal formulas may differ by their source locations, which occur in their
+	 * WD predicates.
+	 */
+	@Test
+	public void identity() {
+		final WDCache cache = new WDCache();
+		final Predicate pred = makePredicate();
+		final Predicate equal = makePredicate();
+		assertEquals(pred, equal);
+		cache.put(pred, ff.makeLiteralPredicate(Predicate.BTRUE, null));
+		assertNull(cache.get(equal));
+	}
+
+	@Test
+	public void cachedByFactory() {
+		final Predicate pred = makePredicate();
+		final Predicate wd = pred.getWDPredicate();
+		assertSame(wd, pred.getWDPredicate());
+
+		final Predicate equal = makePredicate();
+		final Predicate equalWD = equal.getWDPredicate();
+		assertNotSame(wd, equalWD);
+		assertEquals(wd, equalWD);
+		assertEquals(new WDImprover(ff).improve(new WDComputer(ff)
+				.getWDLemma(pred)), wd);
+	}
+
+	@Test
+	public void collectedEntries() throws InterruptedException {
+		final WDCache cache = new WDCache();
+		Predicate pred = makePredicate();
+		final WeakReference<Predicate> predRef = new WeakReference<Predicate>(
+				pred);
+		Predicate wd = makePredicate("x ∈ dom(f) ∧ n ≠ 0");
+		final WeakReference<Predicate> wdRef = new WeakReference<Predicate>(wd);
+		cache.put(pred, wd);
+		pred = null;
+		wd = null;
+
+		final Predicate other = makePredicate("⊤");
+		for (int i = 0; i < 50 && wdRef.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+			// Expunges the entries of collected formulas
+			cache.get(other);
+		}
+		assertNull(predRef.get());
+		assertNull(wdRef.get());
+	}
+
+	@Test
+	public void concurrentAccesses() throws InterruptedException {
+		final WDCache cache = new WDCache();
+		final List<Predicate> preds = new ArrayList<Predicate>();
+		for (int i = 0; i < 200; i++) {
+			preds.add(makePredicate("x ∈ S ∧ n = " + i));
+		}
+		final Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					for (final Predicate pred : preds) {
+						if (cache.get(pred) == null) {
+							cache.put(pred, pred);
+						}
+					}
+				}
+			};
+			threads[t].start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		for (final Predicate pred : preds) {
+			assertSame(pred, cache.get(pred));
+		}
+	}
+
+}
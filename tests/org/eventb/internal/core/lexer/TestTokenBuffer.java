@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.lexer;
+
+import static org.eventb.internal.core.lexer.TokenBuffer.INIT_TOKEN;
+import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.EOF;
+import static org.eventb.internal.core.parser.AbstractGrammar.DefaultToken.IDENT;
+import static org.eventb.internal.core.parser.TokenSet.UNKNOWN_KIND;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.internal.core.parser.AbstractGrammar;
+import org.eventb.internal.core.parser.ParseResult;
+import org.junit.Test;
+
+/**
+ * Unit tests for the token buffer and the lexer that fills it.
+ *
+ * @author HHU
+ */
+public class TestTokenBuffer {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault();
+
+	@Test
+	public void initToken() {
+		final TokenBuffer buffer = new TokenBuffer("abc");
+		assertEquals(1, buffer.size());
+		assertEquals(UNKNOWN_KIND, buffer.getKind(INIT_TOKEN));
+		assertEquals("", buffer.getLexem(INIT_TOKEN));
+		assertTrue(buffer.isLexem(INIT_TOKEN, ""));
+		assertFalse(buffer.isLexem(INIT_TOKEN, "a"));
+	}
+
+	@Test
+	public void addAndRead() {
+		final TokenBuffer buffer = new TokenBuffer("foo bar");
+		final int foo = buffer.add(3, 0, 3);
+		final int bar = buffer.add(5, 4, 7);
+		assertEquals(1, foo);
+		assertEquals(2, bar);
+		assertEquals(3, buffer.getKind(foo));
+		assertEquals(5, buffer.getKind(bar));
+		assertEquals(4, buffer.getPos(bar));
+		assertEquals(6, buffer.getEnd(bar));
+		assertEquals(3, buffer.getLength(bar));
+		assertEquals("foo", buffer.getLexem(foo));
+		assertEquals("bar", buffer.getLexem(bar));
+		assertTrue(buffer.isLexem(bar, "bar"));
+		assertFalse(buffer.isLexem(bar, "ba"));
+		assertFalse(buffer.isLexem(bar, "foo"));
+	}
+
+	@Test
+	public void grow() {
+		final StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append((char) ('a' + i % 26));
+		}
+		final String input = sb.toString();
+		final TokenBuffer buffer = new TokenBuffer(input);
+		// Extract one lexem early, so that lexems also get copied
+		buffer.getLexem(buffer.add(0, 0, 1));
+		for (int i = 1; i < 100; i++) {
+			assertEquals(i + 1, buffer.add(i, i, i + 1));
+		}
+		assertEquals(101, buffer.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, buffer.getKind(i + 1));
+			assertEquals(input.substring(i, i + 1), buffer.getLexem(i + 1));
+		}
+	}
+
+	@Test
+	public void reset() {
+		final TokenBuffer buffer = new TokenBuffer("foo");
+		final int foo = buffer.add(3, 0, 3);
+		assertEquals("foo", buffer.getLexem(foo));
+		buffer.reset("bar");
+		assertEquals(1, buffer.size());
+		final int bar = buffer.add(3, 0, 3);
+		assertEquals(foo, bar);
+		assertEquals("bar", buffer.getLexem(bar));
+	}
+
+	@Test
+	public void lexer() {
+		final String input = "x' ∈ ℕ ∧ yy=1";
+		final AbstractGrammar grammar = ff.getGrammar();
+		final GenLexer lexer = new GenLexer(input, new ParseResult(ff, null),
+				grammar);
+		final TokenBuffer tokens = lexer.getTokens();
+		final String[] lexems = { "x'", "∈", "ℕ", "∧", "yy", "=", "1" };
+		final int[] positions = { 0, 3, 5, 7, 9, 11, 12 };
+		for (int i = 0; i < lexems.length; i++) {
+			final int token = lexer.nextToken();
+			assertEquals(lexems[i], tokens.getLexem(token));
+			assertEquals(positions[i], tokens.getPos(token));
+		}
+		final int eof = lexer.nextToken();
+		assertEquals(grammar.getKind(EOF), tokens.getKind(eof));
+		assertEquals(input.length(), tokens.getPos(eof));
+		assertEquals(grammar.getKind(IDENT), tokens.getKind(5));
+		assertFalse(lexer.getResult().hasProblem());
+
+		lexer.reset("a", new ParseResult(ff, null));
+		final int a = lexer.nextToken();
+		assertEquals(1, a);
+		assertEquals("a", tokens.getLexem(a));
+	}
+
+}
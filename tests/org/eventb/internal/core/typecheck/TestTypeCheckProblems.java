@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.typecheck;
+
+import static org.eventb.core.ast.ProblemKind.TypeCheckFailure;
+import static org.eventb.core.ast.ProblemKind.TypeUnknown;
+import static org.eventb.core.ast.ProblemKind.TypesDoNotMatch;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eventb.core.ast.ASTProblem;
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.IParseResult;
+import org.eventb.core.ast.ITypeCheckResult;
+import org.eventb.core.ast.ITypeEnvironmentBuilder;
+import org.eventb.core.ast.Predicate;
+import org.eventb.core.ast.ProblemKind;
+import org.junit.Test;
+
+/**
+ * Tests for the problems reported by failed type-checks. An unknown type is
+ * reported on every type variable with a source location whose class of type
+ * variables cannot be fully solved, in the order of creation of the type
+ * variables.
+ *
+ * @author HHU
+ */
+public class TestTypeCheckProblems {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault();
+
+	private static ITypeCheckResult typeCheck(String predImage,
+			ITypeEnvironmentBuilder typenv) {
+		final IParseResult parseResult = ff.parsePredicate(predImage, null);
+		assertFalse(parseResult.hasProblem());
+		final Predicate pred = parseResult.getParsedPredicate();
+		return pred.typeCheck(typenv);
+	}
+
+	// Checks the kinds and source locations of the reported problems
+	private static void assertProblems(String predImage, ProblemKind kind,
+			int... starts) {
+		final ITypeCheckResult result = typeCheck(predImage,
+				ff.makeTypeEnvironment());
+		assertFalse(result.isSuccess());
+		final List<Integer> actual = new ArrayList<Integer>();
+		for (final ASTProblem problem : result.getProblems()) {
+			assertEquals(kind, problem.getMessage());
+			actual.add(problem.getSourceLocation().getStart());
+		}
+		final List<Integer> expected = new ArrayList<Integer>();
+		for (final int start : starts) {
+			expected.add(start);
+		}
+		assertEquals(predImage, expected, actual);
+	}
+
+	@Test
+	public void unknownTypes() {
+		assertProblems("x = y", TypeUnknown, 0, 4);
+		assertProblems("x = y ∧ y = z", TypeUnknown, 0, 4, 12);
+		assertProblems("x = y ∧ y = z ∧ z = w", TypeUnknown, 0, 4, 12, 20);
+		assertProblems("x = y ∧ z = w ∧ y = w", TypeUnknown, 0, 4, 8, 12);
+		assertProblems("{x} = ∅", TypeUnknown, 1, 6);
+		assertProblems("{x,y} = {z,w}", TypeUnknown, 1, 3, 9, 11);
+		assertProblems("a ↦ b = c ↦ d", TypeUnknown, 0, 4, 8, 12);
+		assertProblems("f(x) = y", TypeUnknown, 0, 2, 7);
+		assertProblems("x ∈ S ∧ y = z", TypeUnknown, 0, 4, 8, 12);
+		assertProblems("∅ = ∅", TypeUnknown, 0, 4);
+		assertProblems("∀x·x = y", TypeUnknown, 1, 7);
+		assertProblems("(λx·⊤∣y) = z", TypeUnknown, 2, 6, 11);
+		assertProblems("x = y ∧ y ∈ {z}", TypeUnknown, 0, 4, 13);
+	}
+
+	@Test
+	public void typesDoNotMatch() {
+		final String predImage = "∃x,y·x ↦ y ∈ r ∧ r(x) = y ∧ r = 1";
+		assertProblems(predImage, TypesDoNotMatch, 28);
+		final ITypeCheckResult result = typeCheck(predImage,
+				ff.makeTypeEnvironment());
+		final Object[] args = result.getProblems().get(0).getArgs();
+		assertEquals("ℙ('0×'1)", args[0].toString());
+		assertEquals("ℤ", args[1].toString());
+	}
+
+	@Test
+	public void unlocatedFailure() {
+		final TypeCheckResult result = new TypeCheckResult(ff
+				.makeTypeEnvironment().makeSnapshot());
+		final TypeVariable tv = result.newFreshVariable(null);
+		result.unify(tv, result.newFreshVariable(null), ff.makeEmptySet(
+				null, null));
+		result.solveTypeVariables();
+		assertFalse(result.isSuccess());
+		assertEquals(1, result.getProblems().size());
+		assertEquals(TypeCheckFailure, result.getProblems().get(0)
+				.getMessage());
+	}
+
+	@Test
+	public void success() {
+		final ITypeEnvironmentBuilder typenv = ff.makeTypeEnvironment();
+		final ITypeCheckResult result = typeCheck(
+				"x = y ∧ y = z ∧ z ∈ ℙ(BOOL) ∧ f(x) = 1", typenv);
+		assertTrue(result.isSuccess());
+		assertFalse(result.hasProblem());
+		final ITypeEnvironmentBuilder expected = ff.makeTypeEnvironment();
+		expected.addName("x", ff.makePowerSetType(ff.makeBooleanType()));
+		expected.addName("y", ff.makePowerSetType(ff.makeBooleanType()));
+		expected.addName("z", ff.makePowerSetType(ff.makeBooleanType()));
+		expected.addName("f", ff.makeRelationalType(
+				ff.makePowerSetType(ff.makeBooleanType()),
+				ff.makeIntegerType()));
+		assertEquals(expected.makeSnapshot(), result.getInferredEnvironment()
+				.makeSnapshot());
+	}
+
+	@Test
+	public void manyVariables() {
+		// Chains of thousands of equations are solved in linear time
+		final StringBuilder sb = new StringBuilder("x0 = 1");
+		for (int i = 1; i < 5000; i++) {
+			sb.append(" ∧ x" + i + " = x" + (i - 1));
+		}
+		final ITypeCheckResult result = typeCheck(sb.toString(),
+				ff.makeTypeEnvironment());
+		assertTrue(result.isSuccess());
+		assertEquals(ff.makeIntegerType(), result.getInferredEnvironment()
+				.getType("x4999"));
+	}
+
+	@Test(timeout = 10000)
+	public void manyUnknownTypes() {
+		// Unknown types are reported in linear time
+		final int count = 5000;
+		final StringBuilder sb = new StringBuilder("x0 = x1");
+		for (int i = 2; i < count; i++) {
+			sb.append(" ∧ x" + i + " = x" + (i - 1));
+		}
+		final ITypeCheckResult result = typeCheck(sb.toString(),
+				ff.makeTypeEnvironment());
+		assertFalse(result.isSuccess());
+		assertEquals(count, result.getProblems().size());
+		for (final ASTProblem problem : result.getProblems()) {
+			assertEquals(TypeUnknown, problem.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Heinrich-Heine-Universitaet Duesseldorf and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     HHU - initial API and implementation
+ *******************************************************************************/
+package org.eventb.internal.core.typecheck;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.eventb.core.ast.FormulaFactory;
+import org.eventb.core.ast.Type;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for the union-find structure of type variables.
+ *
+ * @author HHU
+ */
+public class TestTypeVariable {
+
+	private static final FormulaFactory ff = FormulaFactory.getDefault();
+
+	private TypeCheckResult result;
+
+	@Before
+	public void setUp() {
+		result = new TypeCheckResult(ff.makeTypeEnvironment().makeSnapshot());
+	}
+
+	private TypeVariable[] makeVariables(int count) {
+		final TypeVariable[] vars = new TypeVariable[count];
+		for (int i = 0; i < count; i++) {
+			vars[i] = result.newFreshVariable(null);
+			assertEquals(i, vars[i].getIndex());
+		}
+		return vars;
+	}
+
+	@Test
+	public void singleton() {
+		final TypeVariable tv = makeVariables(1)[0];
+		assertSame(tv, tv.find());
+		assertNull(tv.getValue());
+	}
+
+	@Test
+	public void union() {
+		final TypeVariable[] vars = makeVariables(3);
+		final TypeVariable root01 = vars[0].union(vars[1]);
+		assertSame(root01, vars[0].find());
+		assertSame(root01, vars[1].find());
+		assertSame(vars[2], vars[2].find());
+
+		final TypeVariable root = root01.union(vars[2]);
+		// Union by rank keeps the highest tree as root
+		assertSame(root01, root);
+		for (final TypeVariable tv : vars) {
+			assertSame(root, tv.find());
+		}
+		assertSame(root, root.union(root));
+	}
+
+	@Test
+	public void valueOfClass() {
+		final TypeVariable[] vars = makeVariables(2);
+		final TypeVariable root = vars[0].union(vars[1]);
+		final Type value = ff.makePowerSetType(ff.makeIntegerType());
+		root.setValue(value);
+		assertSame(value, vars[0].getValue());
+		assertSame(value, vars[1].getValue());
+	}
+
+	@Test
+	public void longChain() {
+		final int count = 10000;
+		final TypeVariable[] vars = makeVariables(count);
+		TypeVariable root = vars[0];
+		for (int i = 1; i < count; i++) {
+			root = root.union(vars[i]);
+		}
+		for (final TypeVariable tv : vars) {
+			assertSame(root, tv.find());
+		}
+	}
+
+}